@@ -1,5 +1,9 @@
 -- Sample data for Train Station Database
 -- This populates our database with realistic train schedule data
+--
+-- Run it right after schema.sql, before the backend first starts: the backend's
+-- migrations then take schedule ids from their own generator (id_sequences),
+-- and schedules.id no longer has AUTO_INCREMENT for later scripts to use.
 
 USE train_station_db;
 
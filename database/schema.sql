@@ -1,5 +1,9 @@
 -- Train Station Database Schema
 -- This creates the database structure for our train ticker system
+--
+-- These are the baseline tables (version 1). Later changes, such as the
+-- composite indexes, live in train-ticker-backend/src/main/resources/db/migration
+-- and are applied by Flyway when the backend starts.
 
 CREATE DATABASE IF NOT EXISTS train_station_db;
 USE train_station_db;
@@ -1,12 +1,13 @@
 'use client';
 
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 
 /**
  * Interface defining the structure of train schedule data
  * This matches the TrainScheduleDTO from our Java backend
  */
 interface TrainSchedule {
+  id: number;
   trainNumber: string;
   trainName: string;
   destination: string;
@@ -18,6 +19,39 @@ interface TrainSchedule {
   route: string;
 }
 
+/**
+ * Shape of a "changes" event on the live stream
+ * This matches the BoardDeltaDTO from our Java backend
+ */
+interface BoardDelta {
+  fromVersion: number;
+  toVersion: number;
+  updated: TrainSchedule[];
+  removed: number[];
+}
+
+/**
+ * Answer of GET /api/trains/changes?since={revision}
+ * This matches the BoardChangesDTO from our Java backend
+ */
+interface BoardChanges {
+  revision: number;
+  resync: boolean;
+  updated: TrainSchedule[];
+  removed: number[];
+}
+
+/**
+ * Apply a delta to the current board, keeping it sorted by departure time
+ */
+const applyDelta = (current: TrainSchedule[], delta: Pick<BoardDelta, 'updated' | 'removed'>): TrainSchedule[] => {
+  const changedIds = new Set([...delta.removed, ...delta.updated.map((train) => train.id)]);
+  return current
+    .filter((train) => !changedIds.has(train.id))
+    .concat(delta.updated)
+    .sort((a, b) => a.departureTime.localeCompare(b.departureTime));
+};
+
 /**
  * TrainTicker Component
  * 
@@ -26,7 +60,7 @@ interface TrainSchedule {
  * 
  * Features:
  * - Fetches data from Java backend API
- * - Auto-refreshes every 30 seconds
+ * - Receives live updates over Server-Sent Events (falls back to polling for changes)
  * - Smooth scrolling animation
  * - Color-coded status indicators
  * - Error handling and loading states
@@ -37,11 +71,14 @@ export default function TrainTicker() {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [lastUpdated, setLastUpdated] = useState<Date | null>(null);
+  // Change log revision the board is at (polling fallback only)
+  const revision = useRef<number | null>(null);
 
   /**
    * Function to fetch train data from the backend API
+   * Returns true if the board was loaded
    */
-  const fetchTrains = async () => {
+  const fetchTrains = async (): Promise<boolean> => {
     try {
       const apiUrl = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
       const response = await fetch(`${apiUrl}/trains`);
@@ -54,31 +91,99 @@ export default function TrainTicker() {
       setTrains(data);
       setLastUpdated(new Date());
       setError(''); // Clear any previous errors
+      return true;
       
     } catch (err) {
       console.error('Error fetching train data:', err);
       setError(err instanceof Error ? err.message : 'Failed to fetch train data');
+      return false;
     } finally {
       setLoading(false);
     }
   };
 
+  /**
+   * Function to poll for changes since the last revision
+   * Only changed rows are transferred; the full board is fetched when the
+   * backend asks for a resync (first call, or after falling too far behind)
+   */
+  const syncTrains = async () => {
+    try {
+      const apiUrl = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
+      const since = revision.current !== null ? `?since=${revision.current}` : '';
+      const response = await fetch(`${apiUrl}/trains/changes${since}`);
+
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+      }
+
+      const changes: BoardChanges = await response.json();
+      if (changes.resync) {
+        // The revision was taken before the board, so no change can be missed
+        if (await fetchTrains()) {
+          revision.current = changes.revision;
+        }
+        return;
+      }
+      setTrains((current) => applyDelta(current, changes));
+      revision.current = changes.revision;
+      setLastUpdated(new Date());
+      setError('');
+
+    } catch (err) {
+      console.error('Error fetching train changes:', err);
+      setError(err instanceof Error ? err.message : 'Failed to fetch train data');
+      setLoading(false);
+    }
+  };
+
   /**
    * useEffect hook to handle component lifecycle
-   * - Fetches data when component mounts
-   * - Sets up auto-refresh interval
-   * - Cleans up interval when component unmounts
+   * - Opens the live stream when component mounts
+   *   (the server sends the full board first, then only changed rows)
+   * - Falls back to polling for changes if the browser has no EventSource support
+   * - Closes the stream / interval when component unmounts
    */
   useEffect(() => {
-    // Initial data fetch
-    fetchTrains();
-    
-    // Set up auto-refresh every 30 seconds
-    const refreshInterval = parseInt(process.env.NEXT_PUBLIC_REFRESH_INTERVAL || '30000');
-    const interval = setInterval(fetchTrains, refreshInterval);
-    
+    const apiUrl = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api';
+
+    if (typeof EventSource === 'undefined') {
+      // Initial data fetch (the first poll always resyncs)
+      syncTrains();
+
+      // Set up auto-refresh every 30 seconds; each poll only transfers what changed
+      const refreshInterval = parseInt(process.env.NEXT_PUBLIC_REFRESH_INTERVAL || '30000');
+      const interval = setInterval(syncTrains, refreshInterval);
+
+      // Cleanup function - runs when component unmounts
+      return () => clearInterval(interval);
+    }
+
+    const stream = new EventSource(`${apiUrl}/trains/stream`);
+
+    stream.addEventListener('board', (event) => {
+      setTrains(JSON.parse((event as MessageEvent).data));
+      setLastUpdated(new Date());
+      setError('');
+      setLoading(false);
+    });
+
+    stream.addEventListener('changes', (event) => {
+      const delta: BoardDelta = JSON.parse((event as MessageEvent).data);
+      setTrains((current) => applyDelta(current, delta));
+      setLastUpdated(new Date());
+    });
+
+    // EventSource reconnects on its own; just report the problem meanwhile
+    stream.onerror = () => {
+      if (stream.readyState === EventSource.CLOSED) {
+        setError('Live updates disconnected');
+        setLoading(false);
+      }
+    };
+
     // Cleanup function - runs when component unmounts
-    return () => clearInterval(interval);
+    return () => stream.close();
   }, []);
 
   /**
@@ -161,7 +266,7 @@ export default function TrainTicker() {
         <div className="ticker-content animate-scroll whitespace-nowrap flex">
           {/* Duplicate the trains array to create seamless loop */}
           {[...trains, ...trains].map((train, index) => (
-            <div key={`${train.trainNumber}-${index}`} className="inline-flex items-center mr-16 text-lg">
+            <div key={`${train.id}-${index}`} className="inline-flex items-center mr-16 text-lg">
               {/* Train Number */}
               <span className="text-yellow-400 font-bold mr-2">
                 {train.trainNumber}
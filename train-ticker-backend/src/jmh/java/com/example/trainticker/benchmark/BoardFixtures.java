@@ -0,0 +1,80 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Board Fixtures
+ *
+ * Builds in-memory Train and Schedule entities for the benchmarks, so no
+ * database is needed. Data looks like database/sample_data.sql, just more of it.
+ * A fixed random seed keeps every run on exactly the same data.
+ */
+public final class BoardFixtures {
+
+    public static final String[] DESTINATIONS = {
+            "Boston", "Chicago", "Miami", "Denver", "Philadelphia", "Washington DC", "Atlanta",
+            "New Orleans", "Minneapolis", "Tampa", "New York", "Baltimore", "Pittsburgh", "Cleveland",
+            "Detroit", "St. Louis", "Kansas City", "Nashville", "Charlotte", "Richmond"
+    };
+
+    // Every fixture departure belongs to the default station
+    public static final String STATION = "MAIN";
+
+    public static final String[] PLATFORMS = {
+            "A1", "A2", "A3", "A4", "B1", "B2", "B3", "C1", "C2", "C3"
+    };
+
+    private BoardFixtures() {}
+
+    /**
+     * Create one day's worth of schedules, sorted by departure time
+     * like ScheduleRepository.findTodaysScheduleWithTrainInfo returns them
+     */
+    public static List<Schedule> schedules(int size, LocalDate date) {
+        Random random = new Random(42);
+
+        int trainCount = Math.max(10, size / 20);
+        List<Train> trains = new ArrayList<>(trainCount);
+        for (int i = 0; i < trainCount; i++) {
+            String from = DESTINATIONS[random.nextInt(DESTINATIONS.length)];
+            String to = DESTINATIONS[random.nextInt(DESTINATIONS.length)];
+            Train train = new Train("T" + (100 + i), "Express " + to, from + " - " + to);
+            train.setId((long) i + 1);
+            trains.add(train);
+        }
+
+        List<Schedule> schedules = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Train train = trains.get(random.nextInt(trainCount));
+            LocalTime departure = LocalTime.ofSecondOfDay(random.nextInt(24 * 60) * 60L);
+            Schedule schedule = new Schedule(train,
+                    DESTINATIONS[random.nextInt(DESTINATIONS.length)],
+                    departure,
+                    departure.plusMinutes(30 + random.nextInt(480)),
+                    PLATFORMS[random.nextInt(PLATFORMS.length)],
+                    date);
+            schedule.setId((long) i + 1);
+            schedule.setStation(STATION);
+
+            // Roughly 20% delayed and 3% cancelled, like a busy day
+            int roll = random.nextInt(100);
+            if (roll < 20) {
+                schedule.setStatus(Schedule.Status.DELAYED);
+                schedule.setDelayMinutes(5 + random.nextInt(60));
+            } else if (roll < 23) {
+                schedule.setStatus(Schedule.Status.CANCELLED);
+            }
+            schedules.add(schedule);
+        }
+        schedules.sort(Comparator.comparing(Schedule::getDepartureTime));
+        return schedules;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.TrainTickerApplication;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.ScheduleRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Board Load Benchmark
+ *
+ * Compares the two ways of loading a day's board from the database:
+ * - entityQuery:   findTodaysScheduleWithTrainInfo (JOIN FETCH entities) + TrainScheduleDTO(Schedule)
+ * - dtoProjection: findBoardRowsByStationAndDate (JPQL constructor expression straight into DTOs)
+ *
+ * Each invocation runs in its own read-only transaction, like one request did.
+ * It starts the real Spring context on an embedded H2 database (MySQL mode).
+ *
+ * Add the GC profiler to see allocation per request (gc.alloc.rate.norm):
+ *   mvn -P benchmark test-compile exec:exec -Djmh.args="BoardLoadBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardLoadBenchmark {
+
+    @Param({"50", "5000", "50000"})
+    public int boardSize;
+
+    private ConfigurableApplicationContext context;
+    private ScheduleRepository scheduleRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(TrainTickerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(embeddedDatabaseArgs());
+
+        scheduleRepository = context.getBean(ScheduleRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        date = LocalDate.of(2024, 1, 15);
+        insertBoard(context.getBean(JdbcTemplate.class), BoardFixtures.schedules(boardSize, date));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> entityQuery() {
+        return readOnlyTransaction.execute(status -> scheduleRepository.findTodaysScheduleWithTrainInfo(date)
+                .stream()
+                .map(TrainScheduleDTO::new)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> dtoProjection() {
+        return readOnlyTransaction.execute(status ->
+                scheduleRepository.findBoardRowsByStationAndDate(BoardFixtures.STATION, date));
+    }
+
+    /**
+     * Command line style arguments, so they override application.properties
+     */
+    static String[] embeddedDatabaseArgs() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        properties.put("spring.flyway.enabled", "false");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.example.trainticker", "WARN");
+        properties.put("trainticker.snapshot.refresh-interval-ms", "86400000");
+        // timetable_dates is created by Flyway, which is off here
+        properties.put("trainticker.timetable.enabled", "false");
+        return properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    static void insertBoard(JdbcTemplate jdbcTemplate, List<Schedule> schedules) {
+        Map<Long, Train> trains = new LinkedHashMap<>();
+        for (Schedule schedule : schedules) {
+            trains.putIfAbsent(schedule.getTrain().getId(), schedule.getTrain());
+        }
+
+        List<Object[]> trainRows = new ArrayList<>();
+        for (Train train : trains.values()) {
+            trainRows.add(new Object[]{train.getId(), train.getTrainNumber(), train.getTrainName(), train.getRoute()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO trains (id, train_number, train_name, route) VALUES (?, ?, ?, ?)",
+                trainRows);
+
+        List<Object[]> scheduleRows = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            scheduleRows.add(new Object[]{schedule.getId(), schedule.getTrain().getId(), schedule.getDestination(),
+                    Time.valueOf(schedule.getDepartureTime()), Time.valueOf(schedule.getArrivalTime()),
+                    schedule.getPlatform(), schedule.getStatus().name(), schedule.getDelayMinutes(),
+                    Date.valueOf(schedule.getScheduleDate()), schedule.getStation()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO schedules (id, train_id, destination, departure_time, arrival_time, " +
+                "platform, status, delay_minutes, schedule_date, station_code) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", scheduleRows);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.service.BoardKey;
+import com.example.trainticker.service.BoardSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Board Query Benchmark
+ *
+ * Measures the filter logic behind the board queries on a day's rows:
+ * - upcoming and time range: a linear filter vs. binary search on BoardSnapshot
+ *   (BoardSnapshot returns a subList view; it is copied into a new list here, like
+ *   the linear filter builds one, so only the search strategies differ)
+ * - platform: exact match filter
+ * - destination: case-insensitive "contains" filter (what LIKE '%x%' does)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardQueryBenchmark {
+
+    @Param({"50", "5000", "50000", "500000"})
+    public int boardSize;
+
+    // Fixed query values so results are comparable between runs
+    private final LocalTime now = LocalTime.of(18, 0);
+    private final LocalTime rangeStart = LocalTime.of(8, 0);
+    private final LocalTime rangeEnd = LocalTime.of(9, 0);
+    private final String platform = "B2";
+    private final String destination = "bos";
+
+    private BoardSnapshot snapshot;
+    private List<TrainScheduleDTO> rows;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        BoardKey key = BoardKey.of(BoardFixtures.STATION, date);
+        snapshot = BoardSnapshot.of(key, 1L, BoardFixtures.schedules(boardSize, date));
+        rows = snapshot.getRows();
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> upcomingLinearFilter() {
+        return rows.stream()
+                .filter(row -> !row.getDepartureTime().isBefore(now))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> upcomingBinarySearch() {
+        return new ArrayList<>(snapshot.getDepartingFrom(now));
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> timeRangeLinearFilter() {
+        return rows.stream()
+                .filter(row -> !row.getDepartureTime().isBefore(rangeStart)
+                        && !row.getDepartureTime().isAfter(rangeEnd))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> timeRangeBinarySearch() {
+        return new ArrayList<>(snapshot.getDepartingBetween(rangeStart, rangeEnd));
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> platformFilter() {
+        return rows.stream()
+                .filter(row -> platform.equals(row.getPlatform()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> destinationContainsIgnoreCase() {
+        return rows.stream()
+                .filter(row -> row.getDestination().toLowerCase().contains(destination))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.service.BoardKey;
+import com.example.trainticker.service.BoardSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board Serialization Benchmark
+ *
+ * Measures Jackson serialization of List<TrainScheduleDTO>, including the
+ * @JsonFormat("HH:mm") departure and arrival times.
+ * The ObjectMapper is built the same way Spring Boot builds the one used by
+ * the REST controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardSerializationBenchmark {
+
+    @Param({"50", "5000", "50000", "500000"})
+    public int boardSize;
+
+    private ObjectMapper objectMapper;
+    private List<TrainScheduleDTO> rows;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        BoardKey key = BoardKey.of(BoardFixtures.STATION, date);
+        rows = BoardSnapshot.of(key, 1L, BoardFixtures.schedules(boardSize, date)).getRows();
+    }
+
+    @Benchmark
+    public byte[] writeJsonBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(rows);
+    }
+}
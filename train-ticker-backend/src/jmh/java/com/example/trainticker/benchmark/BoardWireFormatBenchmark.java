@@ -0,0 +1,92 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.dto.CompactBoardDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.service.BoardKey;
+import com.example.trainticker.service.BoardSnapshot;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Board Wire Format Benchmark
+ *
+ * Compares the JSON board (List<TrainScheduleDTO>) with the compact CBOR board
+ * (CompactBoardDTO) that displays get with Accept: application/cbor.
+ * Measures decoding, which is what the displays pay for, and encoding, which
+ * the server pays once per board version (BoardResponseCache).
+ *
+ * The body sizes, plain and gzipped, are printed once per board size at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardWireFormatBenchmark {
+
+    private static final TypeReference<List<TrainScheduleDTO>> ROWS = new TypeReference<>() {};
+
+    @Param({"50", "5000", "50000"})
+    public int boardSize;
+
+    private ObjectMapper jsonMapper;
+    private CBORMapper cborMapper;
+    private List<TrainScheduleDTO> rows;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = new CBORMapper();
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        BoardKey key = BoardKey.of(BoardFixtures.STATION, date);
+        rows = BoardSnapshot.of(key, 1L, BoardFixtures.schedules(boardSize, date)).getRows();
+        json = jsonMapper.writeValueAsBytes(rows);
+        cbor = cborMapper.writeValueAsBytes(CompactBoardDTO.of(rows));
+
+        System.out.printf(Locale.ROOT, "%nboardSize=%d  json=%d bytes (gzip %d)  cbor=%d bytes (gzip %d)  cbor/json=%.1f%%%n",
+                boardSize, json.length, gzip(json).length, cbor.length, gzip(cbor).length,
+                100.0 * cbor.length / json.length);
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> decodeJson() throws IOException {
+        return jsonMapper.readValue(json, ROWS);
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> decodeCbor() throws IOException {
+        return cborMapper.readValue(cbor, CompactBoardDTO.class).toRows();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(rows);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(CompactBoardDTO.of(rows));
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
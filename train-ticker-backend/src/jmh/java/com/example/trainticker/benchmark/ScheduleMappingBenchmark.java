@@ -0,0 +1,62 @@
+package com.example.trainticker.benchmark;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.service.BoardKey;
+import com.example.trainticker.service.BoardSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Schedule Mapping Benchmark
+ *
+ * Measures turning Schedule entities into TrainScheduleDTOs:
+ * - the TrainScheduleDTO(Schedule) constructor on its own
+ * - the stream().map(...).collect(Collectors.toList()) used by TrainService
+ * - building a whole BoardSnapshot (mapping + sorting + delayed index)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleMappingBenchmark {
+
+    @Param({"50", "5000", "50000", "500000"})
+    public int boardSize;
+
+    private BoardKey key;
+    private List<Schedule> schedules;
+
+    @Setup
+    public void setUp() {
+        LocalDate date = LocalDate.of(2024, 1, 15);
+        key = BoardKey.of(BoardFixtures.STATION, date);
+        schedules = BoardFixtures.schedules(boardSize, date);
+    }
+
+    @Benchmark
+    public void dtoConstructor(Blackhole blackhole) {
+        for (Schedule schedule : schedules) {
+            blackhole.consume(new TrainScheduleDTO(schedule));
+        }
+    }
+
+    @Benchmark
+    public List<TrainScheduleDTO> streamToList() {
+        return schedules.stream()
+                .map(TrainScheduleDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public BoardSnapshot buildSnapshot() {
+        return BoardSnapshot.of(key, 1L, schedules);
+    }
+}
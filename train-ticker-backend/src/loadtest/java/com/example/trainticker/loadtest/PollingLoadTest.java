@@ -0,0 +1,365 @@
+package com.example.trainticker.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polling Load Test
+ *
+ * Simulates a rush-hour "polling storm": thousands of departure displays each
+ * polling the board once per interval (with If-None-Match, like a browser), and
+ * reports the latency distribution (p50 / p90 / p99 / p99.9 / max).
+ *
+ * Latency is measured from when a poll was due, not when it was sent, so a
+ * server that falls behind cannot hide it (no "coordinated omission").
+ *
+ * Two workloads, run one after the other and reported separately:
+ * - board: every display polls today's board (path, /api/trains). It is
+ *   answered from memory, mostly as 304 Not Modified, so it measures the
+ *   request path without the database.
+ * - jdbc: the displays ask for past dates in turn (jdbc-path, /api/trains/{date},
+ *   over the 'dates' days before today). There are more of them than a station
+ *   keeps in memory (trainticker.snapshot.max-dates), so every poll loads its
+ *   board from the database: this is the one that shows the connection pool
+ *   and the queries.
+ *
+ * Two ways to run it (see README, "Load Test"):
+ * - against a running backend:     --url=http://localhost:8080
+ * - comparing execution modes:     --jar=target/train-ticker-backend-1.0.0.jar --modes=platform,virtual
+ *   starts the jar once per mode (virtual = --spring.profiles.active=virtual),
+ *   runs the same load against each and prints them side by side
+ *
+ * Options (name=value or --name=value): pollers (10000), interval-ms (1000), ramp-up-s (10),
+ * warmup-s (15), duration-s (60), etag (true), workloads (board,jdbc), path,
+ * jdbc-path, dates (60), url, jar, modes, java (JVM for the backend; needs
+ * Java 21 for virtual), port (18080), app-args, out
+ */
+public final class PollingLoadTest {
+
+    private final Map<String, String> options;
+
+    private PollingLoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            // name=value, optionally written --name=value
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int equals = option.indexOf('=');
+            if (equals > 0) {
+                options.put(option.substring(0, equals), option.substring(equals + 1));
+            }
+        }
+        new PollingLoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        List<Result> results = new ArrayList<>();
+        String jar = options.get("jar");
+        if (jar == null) {
+            measureWorkloads(option("label", "backend"), option("url", "http://localhost:8080"), results);
+        } else {
+            int port = Integer.parseInt(option("port", "18080"));
+            for (String mode : option("modes", "platform,virtual").split(",")) {
+                Process backend = startBackend(jar, mode.trim(), port);
+                try {
+                    waitUntilHealthy(port);
+                    measureWorkloads(mode.trim(), "http://localhost:" + port, results);
+                } finally {
+                    stop(backend);
+                }
+            }
+        }
+        report(results);
+    }
+
+    /**
+     * Run each workload against one backend, one after the other
+     */
+    private void measureWorkloads(String label, String baseUrl, List<Result> results) throws InterruptedException {
+        for (String workload : option("workloads", "board,jdbc").split(",")) {
+            String path = switch (workload.trim()) {
+                case "board" -> option("path", "/api/trains");
+                case "jdbc" -> option("jdbc-path", "/api/trains/{date}");
+                default -> throw new IllegalArgumentException("Unknown workload " + workload + " (board, jdbc)");
+            };
+            results.add(measure(label, workload.trim(), baseUrl + path));
+        }
+    }
+
+    /**
+     * Run the polling load against one URL and collect the latencies
+     * A {date} in the URL is replaced by the 'dates' days before today in turn, one per poll
+     */
+    private Result measure(String mode, String workload, String url) throws InterruptedException {
+        String label = mode + "/" + workload;
+        int pollers = Integer.parseInt(option("pollers", "10000"));
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(option("interval-ms", "1000")));
+        long rampUpNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("ramp-up-s", "10")));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup-s", "15")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration-s", "60")));
+        boolean useEtag = Boolean.parseBoolean(option("etag", "true"));
+        int dates = Integer.parseInt(option("dates", "60"));
+
+        System.out.printf("[%s] %d pollers every %d ms against %s (warm-up %d s, measuring %d s)%n", label,
+                pollers, TimeUnit.NANOSECONDS.toMillis(intervalNanos), url,
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(callbacks)
+                .build();
+
+        Run run = new Run(client, timer, url, dates, useEtag, intervalNanos,
+                System.nanoTime() + rampUpNanos + warmupNanos, durationNanos, pollers);
+        long start = System.nanoTime();
+        for (int i = 0; i < pollers; i++) {
+            long offset = rampUpNanos > 0 ? ThreadLocalRandom.current().nextLong(rampUpNanos) : 0;
+            run.schedule(new Poller(), start + offset);
+        }
+        run.finished.await();
+        timer.shutdownNow();
+        callbacks.shutdownNow();
+
+        Result result = new Result(mode, workload, run.histogram, run.errors.sum(), run.notModified.sum(),
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        System.out.println("[" + label + "] " + result.summary());
+        return result;
+    }
+
+    /**
+     * Shared state of one measurement
+     */
+    private static final class Run {
+        final HttpClient client;
+        final ScheduledExecutorService timer;
+        final String url;
+        final int dates;
+        final LocalDate today = LocalDate.now();
+        final AtomicLong polls = new AtomicLong();
+        final boolean useEtag;
+        final long intervalNanos;
+        final long measureFrom;
+        final long measureUntil;
+        final CountDownLatch finished;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder notModified = new LongAdder();
+
+        Run(HttpClient client, ScheduledExecutorService timer, String url, int dates, boolean useEtag,
+            long intervalNanos, long measureFrom, long durationNanos, int pollers) {
+            this.client = client;
+            this.timer = timer;
+            this.url = url;
+            this.dates = dates;
+            this.useEtag = useEtag;
+            this.intervalNanos = intervalNanos;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureFrom + durationNanos;
+            this.finished = new CountDownLatch(pollers);
+        }
+
+        void schedule(Poller poller, long dueAt) {
+            if (dueAt >= measureUntil) {
+                finished.countDown();
+                return;
+            }
+            long delay = Math.max(0, dueAt - System.nanoTime());
+            timer.schedule(() -> poll(poller, dueAt), delay, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * The URL of the next poll: a round robin over the dates, so no date is asked
+         * for again before all the others have been
+         */
+        URI nextUri() {
+            if (!url.contains("{date}")) {
+                return URI.create(url);
+            }
+            LocalDate date = today.minusDays(1 + polls.getAndIncrement() % dates);
+            return URI.create(url.replace("{date}", date.toString()));
+        }
+
+        void poll(Poller poller, long dueAt) {
+            URI uri = nextUri();
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Accept-Encoding", "gzip");
+            // An ETag only matches the URL it came from
+            if (useEtag && poller.etag != null && uri.equals(poller.etagUri)) {
+                request.header("If-None-Match", poller.etag);
+            }
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long now = System.nanoTime();
+                        boolean measured = dueAt >= measureFrom && dueAt < measureUntil;
+                        if (failure != null || (response.statusCode() != 200 && response.statusCode() != 304)) {
+                            if (measured) {
+                                errors.increment();
+                            }
+                        } else {
+                            response.headers().firstValue("ETag").ifPresent(etag -> {
+                                poller.etag = etag;
+                                poller.etagUri = uri;
+                            });
+                            if (measured) {
+                                histogram.record(TimeUnit.NANOSECONDS.toMicros(now - dueAt));
+                                if (response.statusCode() == 304) {
+                                    notModified.increment();
+                                }
+                            }
+                        }
+                        // Fixed rate: the next poll is due one interval after this one was due,
+                        // even if that is already in the past (then the wait counts as latency)
+                        schedule(poller, dueAt + intervalNanos);
+                    });
+        }
+    }
+
+    /**
+     * One simulated display
+     */
+    private static final class Poller {
+        volatile String etag;
+        volatile URI etagUri;
+    }
+
+    /**
+     * Latency summary of one run
+     */
+    private static final class Result {
+        final String mode;
+        final String workload;
+        final String label;
+        final long requests;
+        final long errors;
+        final long notModified;
+        final double throughput;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double p999;
+        final double max;
+
+        Result(String mode, String workload, LatencyHistogram histogram, long errors, long notModified,
+               long seconds) {
+            this.mode = mode;
+            this.workload = workload;
+            this.label = mode + "/" + workload;
+            this.requests = histogram.count();
+            this.errors = errors;
+            this.notModified = notModified;
+            this.throughput = seconds > 0 ? (double) requests / seconds : requests;
+            this.p50 = histogram.percentile(50) / 1000.0;
+            this.p90 = histogram.percentile(90) / 1000.0;
+            this.p99 = histogram.percentile(99) / 1000.0;
+            this.p999 = histogram.percentile(99.9) / 1000.0;
+            this.max = histogram.max() / 1000.0;
+        }
+
+        String summary() {
+            return String.format(Locale.ROOT, "%d ok (%d not modified), %d errors, %.0f req/s, " +
+                    "p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms",
+                    requests, notModified, errors, throughput, p50, p90, p99, p999, max);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"mode\":\"%s\",\"workload\":\"%s\",\"requests\":%d,\"notModified\":%d,\"errors\":%d," +
+                    "\"throughput\":%.1f,\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                    mode, workload, requests, notModified, errors, throughput, p50, p90, p99, p999, max);
+        }
+    }
+
+    private void report(List<Result> results) throws IOException {
+        System.out.println();
+        System.out.printf("%-16s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "run", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        List<String> json = new ArrayList<>();
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-16s %10d %8d %10.0f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    result.label, result.requests, result.errors, result.throughput,
+                    result.p50, result.p90, result.p99, result.p999, result.max);
+            json.add(result.toJson());
+        }
+        Path out = Path.of(option("out", "target/loadtest-result.json"));
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, "[" + String.join(",\n", json) + "]\n");
+        System.out.println("Results written to " + out);
+    }
+
+    private Process startBackend(String jar, String mode, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(option("java", ProcessHandle.current().info().command().orElse("java")));
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        if (mode.equals("virtual")) {
+            command.add("--spring.profiles.active=virtual");
+        }
+        String appArgs = option("app-args", "");
+        if (!appArgs.isBlank()) {
+            command.addAll(Arrays.asList(appArgs.trim().split("\\s+")));
+        }
+        File log = new File("target/loadtest-" + mode + ".log");
+        System.out.println("[" + mode + "] starting backend: " + String.join(" ", command) + " (log: " + log + ")");
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private static void waitUntilHealthy(int port) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/health"))
+                .timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Backend did not become healthy on port " + port);
+    }
+
+    private static void stop(Process backend) throws InterruptedException {
+        backend.destroy();
+        if (!backend.waitFor(30, TimeUnit.SECONDS)) {
+            backend.destroyForcibly().waitFor();
+        }
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+}
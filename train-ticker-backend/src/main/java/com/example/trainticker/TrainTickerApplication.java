@@ -2,6 +2,7 @@ package com.example.trainticker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application Class
@@ -10,8 +11,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @Configuration: Tags the class as a source of bean definitions
  * - @EnableAutoConfiguration: Tells Spring Boot to start adding beans based on classpath settings
  * - @ComponentScan: Tells Spring to look for other components, configurations, and services
+ * 
+ * @EnableScheduling turns on @Scheduled methods (used to refresh the in-memory boards)
  */
 @SpringBootApplication
+@EnableScheduling
 public class TrainTickerApplication {
 
     /**
@@ -0,0 +1,81 @@
+package com.example.trainticker.config;
+
+import com.example.trainticker.dto.CompactBoardDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Compact Board HTTP Message Converter
+ *
+ * Content negotiation for the board endpoints that return List<TrainScheduleDTO>:
+ * a client sending "Accept: application/cbor" gets the rows as a CompactBoardDTO
+ * encoded in CBOR instead of JSON. Everyone else still gets JSON.
+ *
+ * WireFormatConfig registers it after the JSON converter, so browsers (which
+ * accept anything) keep getting JSON, and before the generic Jackson CBOR converter.
+ * The cached board views (GET /api/trains etc.) do their own negotiation in
+ * TrainController, with precomputed bytes from BoardResponseCache.
+ */
+public class CompactBoardHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    public CompactBoardHttpMessageConverter() {
+        super(MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CompactBoardDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (supports(clazz) || isBoardRows(type != null ? type : clazz));
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        CompactBoardDTO board = body instanceof CompactBoardDTO compact
+                ? compact
+                : CompactBoardDTO.of((List<TrainScheduleDTO>) body);
+        cborMapper.writeValue(outputMessage.getBody(), board);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Compact boards are only written", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Compact boards are only written", inputMessage);
+    }
+
+    private static boolean isBoardRows(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        return List.class.isAssignableFrom(resolved.toClass())
+                && TrainScheduleDTO.class.isAssignableFrom(resolved.getGeneric(0).toClass());
+    }
+}
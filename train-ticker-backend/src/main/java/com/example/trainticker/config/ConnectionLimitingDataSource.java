@@ -0,0 +1,148 @@
+package com.example.trainticker.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection Limiting Data Source
+ *
+ * Puts a fair semaphore in front of the connection pool.
+ *
+ * With virtual threads every request gets its own thread, so thousands of
+ * requests can ask for a database connection at the same moment. Without a
+ * limit they would all pile into HikariCP at once. With it:
+ * - at most "permits" threads hold or wait inside the pool
+ * - the others wait in the semaphore in arrival order (a parked virtual thread
+ *   costs almost nothing)
+ * - a thread that has waited longer than maxWaitMillis gets an error right away
+ *   instead of adding to the queue
+ *
+ * The permit is returned when the connection is closed (given back to the pool).
+ * Time spent waiting for a permit is summed up for the metrics (MetricsConfig);
+ * the wait inside HikariCP itself is its own hikaricp.connections.acquire timer.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public ConnectionLimitingDataSource(DataSource target, int permits, long maxWaitMillis) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Threads currently waiting for a permit
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Permits handed out so far
+     */
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * Total time threads have waited for a permit (nanoseconds), timeouts included
+     */
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * Threads that gave up after maxWaitMillis
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            boolean granted = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            waitNanos.add(System.nanoTime() - start);
+            if (granted) {
+                acquired.increment();
+            } else {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("No database connection available within " +
+                        maxWaitMillis + " ms (" + permits.getQueueLength() + " threads waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    /**
+     * Wrap the pooled connection so that close() also gives the permit back (once)
+     */
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, handler);
+    }
+}
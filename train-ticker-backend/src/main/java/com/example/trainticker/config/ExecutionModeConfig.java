@@ -0,0 +1,75 @@
+package com.example.trainticker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Execution Mode Configuration
+ *
+ * The backend can run in two modes:
+ * - platform threads (default): Tomcat's worker pool (200 threads) handles requests,
+ *   and every blocking MySQL call holds one of those threads
+ * - virtual threads (opt-in, Java 21+): start with --spring.profiles.active=virtual
+ *   (see application-virtual.properties). Every request and every repository call
+ *   runs on its own virtual thread, and the connection pool is guarded by
+ *   ConnectionLimitingDataSource
+ *
+ * Compare the two with the load test (mvn -P loadtest, see README).
+ */
+@Configuration
+public class ExecutionModeConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+    /**
+     * Wrap the DataSource in a ConnectionLimitingDataSource when
+     * trainticker.datasource.connection-limit.enabled=true
+     * Static, so it is created before (and without) the rest of this configuration
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof ConnectionLimitingDataSource)
+                        && environment.getProperty("trainticker.datasource.connection-limit.enabled",
+                                                   Boolean.class, false)) {
+                    int permits = environment.getProperty("trainticker.datasource.connection-limit.permits",
+                            Integer.class, 10);
+                    long maxWaitMillis = environment.getProperty("trainticker.datasource.connection-limit.max-wait-ms",
+                            Long.class, 2000L);
+                    log.info("Limiting {} to {} concurrent connections (max wait {} ms)",
+                            beanName, permits, maxWaitMillis);
+                    return new ConnectionLimitingDataSource(dataSource, permits, maxWaitMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Log which mode is actually running
+     * spring.threads.virtual.enabled is silently ignored before Java 21, so say so
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int javaVersion = Runtime.version().feature();
+        if (requested && javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled=true needs Java 21 or newer (running on Java {}); " +
+                     "requests are handled on platform threads", javaVersion);
+        } else {
+            log.info("Requests are handled on {} threads (Java {})", requested ? "virtual" : "platform", javaVersion);
+        }
+    }
+}
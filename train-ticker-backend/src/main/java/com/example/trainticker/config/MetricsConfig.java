@@ -0,0 +1,288 @@
+package com.example.trainticker.config;
+
+import com.example.trainticker.service.BoardInvalidationChannel;
+import com.example.trainticker.service.BoardInvalidationService;
+import com.example.trainticker.service.BoardSnapshotStore;
+import com.example.trainticker.service.BoardStreamService;
+import com.example.trainticker.service.GtfsImportService;
+import com.example.trainticker.service.MySqlInvalidationChannel;
+import com.example.trainticker.service.PlatformOccupancyIndex;
+import com.example.trainticker.service.ScheduleHistoryStore;
+import com.example.trainticker.service.ScheduleStatusUpdateBuffer;
+import com.example.trainticker.service.ScheduleStreamService;
+import com.example.trainticker.service.TrainDirectory;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics Configuration
+ *
+ * Everything below ends up on GET /actuator/prometheus.
+ *
+ * Provided by Spring Boot once actuator is on the classpath (see application.properties
+ * for the histograms):
+ * - http.server.requests: a timer per controller endpoint (uri, method, status)
+ * - spring.data.repository.invocations: a timer per repository method
+ * - hikaricp.connections.acquire: time spent waiting for a pooled connection
+ * - hibernate.second.level.cache.requests / hibernate.query.cache.requests: cache hits
+ *   and misses per region (hibernate-micrometer, with hibernate.generate_statistics)
+ *
+ * Added here:
+ * - trainticker.service: @Timed on TrainService, one timer per method
+ * - trainticker.http.statements: Hibernate statements per request (StatementCountInterceptor),
+ *   checked against each endpoint's @QueryBudget
+ * - trainticker.http.response.rows / .bytes: response sizes (ResponseMetricsAdvice)
+ * - trainticker.status.*: the status update buffer (also on /api/schedules/status/metrics)
+ * - trainticker.datasource.limit.*: waiting in ConnectionLimitingDataSource, when enabled
+ * - trainticker.trains.directory.*: shared train entries for board rows (TrainDirectory)
+ * - trainticker.platforms.conflicts: overlapping platform occupations today, all stations (PlatformOccupancyIndex)
+ * - trainticker.boards.*: stations and boards held in memory (BoardSnapshotStore); not tagged
+ *   by station, so hundreds of stations do not mean hundreds of series
+ * - trainticker.stream.*: open SSE board streams, and those dropped for being too slow (BoardStreamService)
+ * - trainticker.history.*: the month files of the schedule history (ScheduleHistoryStore)
+ * - trainticker.gtfs.import.*: progress of the running GTFS import (GtfsImportService)
+ * - trainticker.cluster.*: board invalidations between nodes and their convergence lag
+ *   (BoardInvalidationService, also on /api/cluster/metrics); trainticker.cluster.mysql.*
+ *   for the polling of MySqlInvalidationChannel
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final StatementCountInterceptor statementCountInterceptor;
+
+    @Autowired
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${trainticker.metrics.statement-warn-threshold:20}") int statementWarnThreshold,
+                         @Value("${trainticker.query-budget.enforce:false}") boolean enforceQueryBudget) {
+        this.statementCountInterceptor = new StatementCountInterceptor(meterRegistry, statementWarnThreshold,
+                enforceQueryBudget);
+    }
+
+    /**
+     * Makes @Timed work on any Spring bean method
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Let Hibernate report every statement it prepares to the counter
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCountCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCountInterceptor);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementCountInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Bean
+    public MeterBinder statusUpdateMetrics(ScheduleStatusUpdateBuffer buffer) {
+        return registry -> {
+            FunctionCounter.builder("trainticker.status.updates.received", buffer,
+                            b -> b.getMetrics().getUpdatesReceived())
+                    .description("Status updates accepted")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.status.rows.written", buffer,
+                            b -> b.getMetrics().getRowsWritten())
+                    .description("Schedule rows written by flushes")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.status.flushes", buffer, b -> b.getMetrics().getFlushes())
+                    .register(registry);
+            FunctionCounter.builder("trainticker.status.flush.failures", buffer,
+                            b -> b.getMetrics().getFlushFailures())
+                    .register(registry);
+            Gauge.builder("trainticker.status.pending", buffer, b -> b.getMetrics().getPendingUpdates())
+                    .description("Updates accepted but not written yet")
+                    .register(registry);
+            Gauge.builder("trainticker.status.flush.lag", buffer, b -> b.getMetrics().getLastFlushLagMillis())
+                    .description("Time from first buffered update to commit, last flush")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder trainDirectoryMetrics(TrainDirectory trainDirectory) {
+        return registry -> {
+            FunctionCounter.builder("trainticker.trains.directory.lookups", trainDirectory, TrainDirectory::getHits)
+                    .description("Board rows whose train was already in the directory")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.trains.directory.lookups", trainDirectory, TrainDirectory::getMisses)
+                    .description("Board rows whose train was added to (or replaced in) the directory")
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("trainticker.trains.directory.size", trainDirectory, TrainDirectory::size)
+                    .description("Trains in the directory")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder platformMetrics(PlatformOccupancyIndex platformOccupancyIndex) {
+        return registry -> Gauge.builder("trainticker.platforms.conflicts", platformOccupancyIndex,
+                        index -> index.getConflictCount(LocalDate.now()))
+                .description("Pairs of trains expected on the same platform at overlapping times today")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder boardMetrics(BoardSnapshotStore boardSnapshotStore) {
+        return registry -> {
+            Gauge.builder("trainticker.boards.stations", boardSnapshotStore, BoardSnapshotStore::getStationCount)
+                    .description("Stations with at least one board in memory")
+                    .register(registry);
+            Gauge.builder("trainticker.boards.loaded", boardSnapshotStore, BoardSnapshotStore::getBoardCount)
+                    .description("Boards (station and date) in memory")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder clusterMetrics(BoardInvalidationService boardInvalidationService,
+                                      ObjectProvider<BoardInvalidationChannel> channels) {
+        return registry -> {
+            // trainticker.cluster.convergence (timer) is registered by the service itself
+            FunctionCounter.builder("trainticker.cluster.invalidations.published", boardInvalidationService,
+                            BoardInvalidationService::getPublished)
+                    .description("Board invalidations sent to the other nodes")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.invalidations.publish.failures", boardInvalidationService,
+                            BoardInvalidationService::getPublishFailures)
+                    .description("Board invalidations that could not be sent")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.invalidations.received", boardInvalidationService,
+                            BoardInvalidationService::getReceived)
+                    .description("Board invalidations received from the other nodes")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.boards.reloaded", boardInvalidationService,
+                            BoardInvalidationService::getBoardsReloaded)
+                    .description("Boards in memory reloaded because another node changed them")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.boards.reload.failures", boardInvalidationService,
+                            BoardInvalidationService::getReloadFailures)
+                    .register(registry);
+            Gauge.builder("trainticker.cluster.lag", boardInvalidationService,
+                            BoardInvalidationService::getLastLagMillis)
+                    .description("Time from another node publishing a change until it showed here, last board")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+
+            if (!(channels.getIfAvailable() instanceof MySqlInvalidationChannel mysql)) {
+                return;
+            }
+            FunctionCounter.builder("trainticker.cluster.mysql.polls", mysql, MySqlInvalidationChannel::getPolls)
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.mysql.poll.failures", mysql,
+                            MySqlInvalidationChannel::getPollFailures)
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.mysql.gaps", mysql, MySqlInvalidationChannel::getGapsFilled)
+                    .description("Invalidation rows that became visible after a later row was polled")
+                    .tag("result", "filled")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.cluster.mysql.gaps", mysql, MySqlInvalidationChannel::getGapsExpired)
+                    .description("Skipped invalidation ids given up on (rolled back inserts)")
+                    .tag("result", "expired")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder streamMetrics(BoardStreamService boardStreamService) {
+        return registry -> {
+            Gauge.builder("trainticker.stream.subscribers", boardStreamService,
+                            BoardStreamService::getSubscriberCount)
+                    .description("Open SSE board streams")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.stream.slow.dropped", boardStreamService,
+                            BoardStreamService::getSlowSubscribersDropped)
+                    .description("SSE board streams closed because a write took longer than the write timeout")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rangeStreamMetrics(ScheduleStreamService scheduleStreamService) {
+        return registry -> {
+            Gauge.builder("trainticker.range.streams", scheduleStreamService,
+                            ScheduleStreamService::getDatabaseStreams)
+                    .description("NDJSON streams reading from the database")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.range.streams.rejected", scheduleStreamService,
+                            ScheduleStreamService::getStreamsRejected)
+                    .description("NDJSON streams refused with 503 because trainticker.range.max-streams were open")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder historyMetrics(ScheduleHistoryStore scheduleHistoryStore) {
+        return registry -> {
+            Gauge.builder("trainticker.history.rows", scheduleHistoryStore, ScheduleHistoryStore::getRowCount)
+                    .description("Departures in the schedule history files")
+                    .register(registry);
+            Gauge.builder("trainticker.history.bytes", scheduleHistoryStore, ScheduleHistoryStore::getSizeBytes)
+                    .description("Size of the schedule history files")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder gtfsImportMetrics(GtfsImportService gtfsImportService) {
+        return registry -> {
+            Gauge.builder("trainticker.gtfs.import.running", gtfsImportService, s -> s.isRunning() ? 1 : 0)
+                    .description("1 while a GTFS import is running")
+                    .register(registry);
+            Gauge.builder("trainticker.gtfs.import.bytes", gtfsImportService, GtfsImportService::getBytesRead)
+                    .description("Bytes of the feed read by the running (or last) GTFS import")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("trainticker.gtfs.import.stop.times", gtfsImportService, GtfsImportService::getStopTimesRead)
+                    .description("stop_times.txt lines read by the running (or last) GTFS import")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConnectionLimitingDataSource limited)) {
+                return;
+            }
+            FunctionTimer.builder("trainticker.datasource.limit.wait", limited,
+                            l -> l.getAcquiredCount() + l.getTimeoutCount(),
+                            ConnectionLimitingDataSource::getWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent waiting for a connection permit")
+                    .register(registry);
+            FunctionCounter.builder("trainticker.datasource.limit.timeouts", limited,
+                            ConnectionLimitingDataSource::getTimeoutCount)
+                    .register(registry);
+            Gauge.builder("trainticker.datasource.limit.waiting", limited,
+                            ConnectionLimitingDataSource::getQueueLength)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+}
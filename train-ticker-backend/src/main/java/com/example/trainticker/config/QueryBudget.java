@@ -0,0 +1,32 @@
+package com.example.trainticker.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query Budget Annotation
+ *
+ * The most SQL statements one request to this endpoint may run, whatever the
+ * size of the board. StatementCountInterceptor checks it on every request:
+ * - by default a request over budget is logged and counted
+ *   (trainticker.http.statements.over.budget)
+ * - with trainticker.query-budget.enforce=true the statement that goes over
+ *   budget fails, so an N+1 query breaks the endpoint in development instead
+ *   of slowing it down in production
+ *
+ * Example: @QueryBudget(2) on an endpoint that loads a board from the hot and
+ * the archive table at most once.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /**
+     * Maximum number of statements per request
+     */
+    int value();
+}
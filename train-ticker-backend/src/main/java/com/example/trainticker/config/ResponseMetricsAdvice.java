@@ -0,0 +1,96 @@
+package com.example.trainticker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Response Metrics Advice
+ *
+ * Records the size of every response body from our controllers, per endpoint:
+ * - trainticker.http.response.rows: rows in a list response
+ * - trainticker.http.response.bytes: bytes of a pre-serialized body (the cached
+ *   board views), tagged with the format that was sent (json, gzip or cbor)
+ *
+ * The cached board views return bytes, so their controller reports the row count
+ * with recordRows() before returning.
+ */
+@ControllerAdvice(basePackages = "com.example.trainticker.controller")
+public class ResponseMetricsAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final String ROWS_ATTRIBUTE = ResponseMetricsAdvice.class.getName() + ".rows";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ResponseMetricsAdvice(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Report the row count of a response whose body is already serialized
+     */
+    public static void recordRows(int rows) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ROWS_ATTRIBUTE, rows, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        String uri = StatementCountInterceptor.uri(httpRequest);
+
+        Object rows = body instanceof Collection<?> collection ? collection.size() : httpRequest.getAttribute(ROWS_ATTRIBUTE);
+        if (rows instanceof Integer count) {
+            DistributionSummary.builder("trainticker.http.response.rows")
+                    .description("Rows returned per response")
+                    .baseUnit("rows")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(count);
+        }
+        if (body instanceof byte[] bytes) {
+            DistributionSummary.builder("trainticker.http.response.bytes")
+                    .description("Bytes of pre-serialized response bodies")
+                    .baseUnit("bytes")
+                    .tag("uri", uri)
+                    .tag("format", format(response.getHeaders(), selectedContentType))
+                    .register(meterRegistry)
+                    .record(bytes.length);
+        }
+        return body;
+    }
+
+    private static String format(HttpHeaders headers, MediaType contentType) {
+        if ("gzip".equals(headers.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return "gzip";
+        }
+        return MediaType.APPLICATION_CBOR.isCompatibleWith(contentType) ? "cbor" : "json";
+    }
+}
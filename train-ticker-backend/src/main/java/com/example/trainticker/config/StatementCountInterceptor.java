@@ -0,0 +1,151 @@
+package com.example.trainticker.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.function.Supplier;
+
+/**
+ * Statement Count Interceptor
+ *
+ * Counts the SQL statements Hibernate prepares while one request is handled and
+ * records the count per endpoint (trainticker.http.statements).
+ *
+ * Schedule.train is LAZY, so code that walks schedules and touches their trains
+ * without JOIN FETCH (or a DTO query) turns one query into 1 + N. The response
+ * still looks fine; only the statement count gives it away. So the count is
+ * checked against the endpoint's @QueryBudget (or, without one, against
+ * warnThreshold): a request over it is logged, and with enforce=true the
+ * statement that goes over the budget throws instead of running.
+ *
+ * It is both a Hibernate StatementInspector (called for every statement,
+ * registered in MetricsConfig) and a Spring MVC interceptor (which starts and
+ * stops the count around each request). The count lives in a ThreadLocal, so
+ * only work done on the request thread is counted; JdbcTemplate queries and
+ * async (streaming) requests are not.
+ */
+public class StatementCountInterceptor implements AsyncHandlerInterceptor, StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCountInterceptor.class);
+
+    private static final ThreadLocal<RequestCount> COUNT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+    private final boolean enforce;
+
+    public StatementCountInterceptor(MeterRegistry meterRegistry, int warnThreshold, boolean enforce) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+        this.enforce = enforce;
+    }
+
+    /**
+     * Run work whose statements do not count towards the current request
+     * For one-off work that happens to run on a request thread, such as creating
+     * a date's schedules from the service patterns the first time it is shown
+     */
+    public static <T> T uncounted(Supplier<T> work) {
+        RequestCount count = COUNT.get();
+        COUNT.remove();
+        try {
+            return work.get();
+        } finally {
+            if (count != null) {
+                COUNT.set(count);
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestCount count = COUNT.get();
+        if (count != null) {
+            count.statements++;
+            if (enforce && count.budget >= 0 && count.statements > count.budget) {
+                throw new IllegalStateException("Query budget of " + count.budget + " statements exceeded by " +
+                        count.handler + " (possible N+1 query): " + sql);
+            }
+        }
+        return sql; // Unchanged; we only count
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryBudget budget = handler instanceof HandlerMethod method ? method.getMethodAnnotation(QueryBudget.class) : null;
+        COUNT.set(new RequestCount(handler instanceof HandlerMethod method ? method.getShortLogMessage() : "request",
+                budget != null ? budget.value() : -1));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The rest of the work happens on other threads
+        COUNT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestCount count = COUNT.get();
+        COUNT.remove();
+        if (count == null) {
+            return;
+        }
+        String uri = uri(request);
+        DistributionSummary.builder("trainticker.http.statements")
+                .description("SQL statements prepared by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count.statements);
+
+        if (count.budget >= 0 && count.statements > count.budget) {
+            Counter.builder("trainticker.http.statements.over.budget")
+                    .description("Requests that ran more statements than their @QueryBudget")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} ran {} SQL statements, over its budget of {} (possible N+1 query)",
+                    request.getMethod(), uri, count.statements, count.budget);
+        } else if (count.budget < 0 && count.statements > warnThreshold) {
+            log.warn("{} {} ran {} SQL statements (possible N+1 query)", request.getMethod(), uri, count.statements);
+        }
+    }
+
+    /**
+     * The matched URI pattern (e.g. /api/trains/{date}), so dates and ids
+     * do not each create their own time series
+     */
+    static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * Statements run so far by the request on this thread, and its budget (-1 = none)
+     */
+    private static final class RequestCount {
+        final String handler;
+        final int budget;
+        int statements;
+
+        RequestCount(String handler, int budget) {
+            this.handler = handler;
+            this.budget = budget;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.trainticker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Wire Format Configuration
+ *
+ * Registers the compact CBOR board encoding for content negotiation.
+ * Converter order decides what a client without a preference gets, so the
+ * compact converter goes after the JSON one and in front of any other CBOR converter.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        int position = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i).getSupportedMediaTypes().contains(MediaType.APPLICATION_CBOR)) {
+                position = i;
+                break;
+            }
+        }
+        converters.add(position, new CompactBoardHttpMessageConverter());
+    }
+}
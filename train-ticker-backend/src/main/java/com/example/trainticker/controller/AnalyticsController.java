@@ -0,0 +1,101 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.dto.DelayStatsDTO;
+import com.example.trainticker.service.DelayAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analytics Controller
+ *
+ * Delay statistics over any range of past dates, grouped by train, destination,
+ * platform or hour of the day ({dimension}: train, destination, platform, hour).
+ * Answered by DelayAnalyticsService from the schedule history files, so only
+ * exported months (up to yesterday) are included; today is on /api/trains/stats.
+ *
+ * Example: curl "http://localhost:8080/api/analytics/delays/hour?from=2024-01-01&to=2024-12-31"
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class AnalyticsController {
+
+    private final DelayAnalyticsService delayAnalyticsService;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public AnalyticsController(DelayAnalyticsService delayAnalyticsService) {
+        this.delayAnalyticsService = delayAnalyticsService;
+    }
+
+    /**
+     * GET /api/analytics/delays/{dimension}
+     * Departures, delayed and cancelled trains, average, percentile (p50, p90,
+     * p95, p99) and maximum delay per group from 'from' to 'to' (both inclusive)
+     *
+     * Example: GET /api/analytics/delays/train?from=2024-01-01&to=2024-12-31
+     */
+    @GetMapping("/delays/{dimension}")
+    public ResponseEntity<List<DelayStatsDTO>> getDelayStats(
+            @PathVariable String dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(delayAnalyticsService.getDelayStats(dimension(dimension), from, to));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error computing delay stats by " + dimension + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * GET /api/analytics/worst/{dimension}
+     * The groups with the worst delays, worst first
+     * Query parameters: rank (average, p95 or delayed_percentage; default average),
+     * limit (default 10), minDepartures (default 10; smaller groups are left out)
+     *
+     * Example: GET /api/analytics/worst/train?from=2024-01-01&to=2024-12-31&rank=p95&limit=5
+     */
+    @GetMapping("/worst/{dimension}")
+    public ResponseEntity<List<DelayStatsDTO>> getWorst(
+            @PathVariable String dimension,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "average") String rank,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "10") int minDepartures) {
+        try {
+            DelayAnalyticsService.Ranking ranking =
+                    DelayAnalyticsService.Ranking.valueOf(rank.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(delayAnalyticsService.getWorst(dimension(dimension), from, to,
+                    ranking, limit, minDepartures));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error ranking delays by " + dimension + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Throws IllegalArgumentException for an unknown dimension
+     */
+    private static DelayAnalyticsService.Dimension dimension(String value) {
+        return DelayAnalyticsService.Dimension.valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
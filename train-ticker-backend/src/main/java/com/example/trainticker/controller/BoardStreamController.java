@@ -0,0 +1,67 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.service.BoardSnapshotStore;
+import com.example.trainticker.service.BoardStreamService;
+import com.example.trainticker.service.StationNotFoundException;
+import com.example.trainticker.service.UnknownStationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+/**
+ * Board Stream Controller
+ *
+ * Live push alternative to polling GET /api/trains.
+ * Uses Server-Sent Events (SSE): the browser keeps one HTTP connection open
+ * (e.g. with the EventSource API) and the server writes events to it.
+ *
+ * Events sent on the stream:
+ * - "board"   - the full list of TrainScheduleDTO rows (sent on connect, or to resync)
+ * - "changes" - a BoardDeltaDTO with only the rows that were updated or removed
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class BoardStreamController {
+
+    private final BoardStreamService boardStreamService;
+    private final BoardSnapshotStore boardSnapshotStore;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public BoardStreamController(BoardStreamService boardStreamService, BoardSnapshotStore boardSnapshotStore) {
+        this.boardStreamService = boardStreamService;
+        this.boardSnapshotStore = boardSnapshotStore;
+    }
+
+    /**
+     * GET /api/trains/stream
+     * GET /api/stations/{station}/trains/stream
+     * Streams today's board, or the board for the optional date parameter,
+     * of the default station or the given one
+     *
+     * Example: GET /api/stations/BOS/trains/stream?date=2024-01-15
+     */
+    @GetMapping(value = {"/trains/stream", "/stations/{station}/trains/stream"},
+                produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTrains(
+            @PathVariable(required = false) String station,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        String code;
+        try {
+            code = boardSnapshotStore.resolveStation(station);
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(boardStreamService.subscribe(code, date != null ? date : LocalDate.now()));
+    }
+}
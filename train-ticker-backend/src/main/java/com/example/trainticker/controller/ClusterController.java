@@ -0,0 +1,40 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.dto.ClusterMetricsDTO;
+import com.example.trainticker.service.BoardInvalidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Cluster Controller
+ *
+ * How this node keeps up with the changes made by the other nodes of the
+ * cluster (see BoardInvalidationService).
+ *
+ * Example: curl http://localhost:8080/api/cluster/metrics
+ */
+@RestController
+@RequestMapping("/api/cluster")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class ClusterController {
+
+    private final BoardInvalidationService boardInvalidationService;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public ClusterController(BoardInvalidationService boardInvalidationService) {
+        this.boardInvalidationService = boardInvalidationService;
+    }
+
+    /**
+     * GET /api/cluster/metrics
+     * Node id, channel, invalidations sent and received, and the convergence lag
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<ClusterMetricsDTO> getMetrics() {
+        return ResponseEntity.ok(boardInvalidationService.getMetrics());
+    }
+}
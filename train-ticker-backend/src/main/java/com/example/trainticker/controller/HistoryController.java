@@ -0,0 +1,91 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.dto.HistoryDaySummaryDTO;
+import com.example.trainticker.dto.HistoryMonthDTO;
+import com.example.trainticker.service.ScheduleHistoryStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * History Controller
+ *
+ * Questions about years of past departures, answered from the column files of
+ * ScheduleHistoryStore instead of the schedules tables. Only months that have
+ * been exported (nightly, up to yesterday) are included.
+ *
+ * Example: curl "http://localhost:8080/api/history/days?from=2022-01-01&to=2024-12-31&trainNumber=T101"
+ */
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class HistoryController {
+
+    private final ScheduleHistoryStore scheduleHistoryStore;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public HistoryController(ScheduleHistoryStore scheduleHistoryStore) {
+        this.scheduleHistoryStore = scheduleHistoryStore;
+    }
+
+    /**
+     * GET /api/history/months
+     * Lists the exported months, oldest first
+     */
+    @GetMapping("/months")
+    public ResponseEntity<List<HistoryMonthDTO>> getMonths() {
+        return ResponseEntity.ok(scheduleHistoryStore.getMonths());
+    }
+
+    /**
+     * GET /api/history/days
+     * Departures, delayed and cancelled trains and delay minutes per day from
+     * 'from' to 'to' (both inclusive), optionally of one train
+     *
+     * Example: GET /api/history/days?from=2023-01-01&to=2023-12-31
+     */
+    @GetMapping("/days")
+    public ResponseEntity<List<HistoryDaySummaryDTO>> getDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String trainNumber) {
+        try {
+            return ResponseEntity.ok(scheduleHistoryStore.summarizeDays(from, to, trainNumber));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error reading schedule history " + from + " to " + to + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * POST /api/history/export?month=2024-03
+     * Exports one month again, e.g. after past schedules were corrected
+     * Returns the number of departures exported
+     */
+    @PostMapping("/export")
+    public ResponseEntity<Integer> exportMonth(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        try {
+            return ResponseEntity.ok(scheduleHistoryStore.exportMonth(month));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error exporting schedule history of " + month + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
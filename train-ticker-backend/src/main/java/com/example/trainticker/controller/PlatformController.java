@@ -0,0 +1,121 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.config.QueryBudget;
+import com.example.trainticker.dto.PlatformConflictDTO;
+import com.example.trainticker.dto.PlatformOccupancyDTO;
+import com.example.trainticker.service.BoardSnapshotStore;
+import com.example.trainticker.service.PlatformOccupancyIndex;
+import com.example.trainticker.service.StationNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Platform Controller
+ *
+ * Who is on which platform when, and which trains are expected on the same
+ * platform at the same time (see PlatformOccupancyIndex). Both follow delays
+ * and platform changes as soon as they reach the board.
+ * The date defaults to today; like the board endpoints, a date that is not in
+ * memory yet is loaded (2 statements). Platforms belong to a station: the
+ * optional station parameter picks one, the default station otherwise.
+ *
+ * Example: curl "http://localhost:8080/api/platforms/A1/occupancy?from=07:00&until=09:00"
+ */
+@RestController
+@RequestMapping("/api/platforms")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class PlatformController {
+
+    private final PlatformOccupancyIndex platformOccupancyIndex;
+    private final BoardSnapshotStore boardSnapshotStore;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public PlatformController(PlatformOccupancyIndex platformOccupancyIndex, BoardSnapshotStore boardSnapshotStore) {
+        this.platformOccupancyIndex = platformOccupancyIndex;
+        this.boardSnapshotStore = boardSnapshotStore;
+    }
+
+    /**
+     * GET /api/platforms/{platform}/occupancy
+     * Trains holding the platform, in the order they take it
+     * Optional from and until (HH:mm) keep only those there at some point in between
+     *
+     * Example: GET /api/platforms/A1/occupancy?station=BOS&date=2024-01-15&from=07:00&until=09:00
+     */
+    @GetMapping("/{platform}/occupancy")
+    @QueryBudget(2)
+    public ResponseEntity<List<PlatformOccupancyDTO>> getOccupancy(
+            @PathVariable String platform,
+            @RequestParam(required = false) String station,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime until) {
+        try {
+            LocalDate day = date != null ? date : LocalDate.now();
+            return ResponseEntity.ok(platformOccupancyIndex.getOccupancy(
+                    boardSnapshotStore.resolveStation(station), day, platform, from, until));
+
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalArgumentException e) {
+            // 'until' before 'from', or an invalid station code
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error fetching occupancy of platform " + platform + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * GET /api/platforms/conflicts
+     * Pairs of trains expected on the same platform at overlapping times, on every platform
+     *
+     * Example: GET /api/platforms/conflicts?date=2024-01-15
+     */
+    @GetMapping("/conflicts")
+    @QueryBudget(2)
+    public ResponseEntity<List<PlatformConflictDTO>> getConflicts(
+            @RequestParam(required = false) String station,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return getConflicts(null, station, date);
+    }
+
+    /**
+     * GET /api/platforms/{platform}/conflicts
+     * Conflicts on one platform
+     */
+    @GetMapping("/{platform}/conflicts")
+    @QueryBudget(2)
+    public ResponseEntity<List<PlatformConflictDTO>> getConflicts(
+            @PathVariable String platform,
+            @RequestParam(required = false) String station,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            LocalDate day = date != null ? date : LocalDate.now();
+            return ResponseEntity.ok(platformOccupancyIndex.getConflicts(
+                    boardSnapshotStore.resolveStation(station), day, platform));
+
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error fetching platform conflicts: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
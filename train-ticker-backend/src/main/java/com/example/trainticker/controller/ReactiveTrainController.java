@@ -0,0 +1,129 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.service.ScheduleStreamService;
+import com.example.trainticker.service.StationNotFoundException;
+import com.example.trainticker.service.StreamLimitException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Reactive Train Controller
+ *
+ * Streaming variant of the /api/trains endpoints for exports and large date ranges.
+ * The answer is a Flux<TrainScheduleDTO> written as newline-delimited JSON
+ * (application/x-ndjson): one row per line, sent as soon as it is read.
+ * Spring MVC asks the Flux for the next row only after the previous one was
+ * written, so a slow client slows down the database cursor instead of filling memory.
+ *
+ * The ticker display keeps using TrainController (ETag, gzip, cached bodies);
+ * these endpoints are for tools that want every row of many days.
+ *
+ * Every endpoint has a station-scoped variant under /stations/{station}; the
+ * unscoped ones stream the default station (trainticker.stations.default).
+ *
+ * A stream that has to read from the database holds pooled connections while
+ * the client reads, so only trainticker.range.max-streams of them run at once;
+ * the next one gets 503 Service Unavailable with Retry-After.
+ *
+ * Example: curl "http://localhost:8080/api/reactive/trains/range?from=2024-01-01&to=2024-03-31"
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class ReactiveTrainController {
+
+    private final ScheduleStreamService scheduleStreamService;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public ReactiveTrainController(ScheduleStreamService scheduleStreamService) {
+        this.scheduleStreamService = scheduleStreamService;
+    }
+
+    /**
+     * GET /api/reactive/trains
+     * GET /api/reactive/stations/{station}/trains
+     * Streams today's departures (of the default station, or the given one)
+     */
+    @GetMapping(value = {"/trains", "/stations/{station}/trains"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<TrainScheduleDTO>> streamTodaysTrains(@PathVariable(required = false) String station) {
+        LocalDate today = LocalDate.now();
+        return stream(station, today, today, null, null);
+    }
+
+    /**
+     * GET /api/reactive/trains/{date}
+     * GET /api/reactive/stations/{station}/trains/{date}
+     * Streams the departures of one date
+     *
+     * Example: GET /api/reactive/stations/BOS/trains/2024-01-15
+     */
+    @GetMapping(value = {"/trains/{date}", "/stations/{station}/trains/{date}"},
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<TrainScheduleDTO>> streamTrainsByDate(
+            @PathVariable(required = false) String station,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return stream(station, date, date, null, null);
+    }
+
+    /**
+     * GET /api/reactive/trains/range
+     * GET /api/reactive/stations/{station}/trains/range
+     * Streams every departure from 'from' to 'to' (both inclusive), date by date
+     * Optional startTime and endTime (HH:mm) keep only departures in that window on each day
+     *
+     * Example: GET /api/reactive/trains/range?from=2024-01-15&to=2024-01-21&startTime=07:00&endTime=09:00
+     */
+    @GetMapping(value = {"/trains/range", "/stations/{station}/trains/range"},
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<TrainScheduleDTO>> streamTrainsInRange(
+            @PathVariable(required = false) String station,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime endTime) {
+        return stream(station, from, to, startTime, endTime);
+    }
+
+    private ResponseEntity<Flux<TrainScheduleDTO>> stream(String station, LocalDate from, LocalDate to,
+                                                          LocalTime startTime, LocalTime endTime) {
+        try {
+            // Over the stream limit the Flux fails before its first row (see handleStreamLimit)
+            return ResponseEntity.ok(scheduleStreamService.streamRange(station, from, to, startTime, endTime));
+
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+
+        } catch (IllegalArgumentException e) {
+            // Checked before the first row, so there is still a status code to send
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error streaming trains from " + from + " to " + to + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * A stream that needs the database while maxStreams others already read from it
+     * Nothing has been sent yet, so the client still gets a status code
+     */
+    @ExceptionHandler(StreamLimitException.class)
+    public ResponseEntity<Void> handleStreamLimit(StreamLimitException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+    }
+}
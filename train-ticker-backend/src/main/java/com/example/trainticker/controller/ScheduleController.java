@@ -0,0 +1,283 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.dto.GtfsImportStatusDTO;
+import com.example.trainticker.dto.ScheduleImportResultDTO;
+import com.example.trainticker.dto.ScheduleStatusUpdateDTO;
+import com.example.trainticker.dto.ServicePatternDTO;
+import com.example.trainticker.dto.StatusUpdateMetricsDTO;
+import com.example.trainticker.dto.StatusUpdateResultDTO;
+import com.example.trainticker.service.GtfsImportService;
+import com.example.trainticker.service.ScheduleImportService;
+import com.example.trainticker.service.ScheduleStatusUpdateBuffer;
+import com.example.trainticker.service.ServicePatternService;
+import com.example.trainticker.service.TimetableMaterializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Schedule Controller Class
+ *
+ * Write side of the API: loading timetables, recurring service patterns and
+ * live status changes.
+ * (TrainController is the read side used by the ticker display.)
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8000"}) // Allow frontend access
+public class ScheduleController {
+
+    private final ScheduleImportService scheduleImportService;
+    private final ScheduleStatusUpdateBuffer statusUpdateBuffer;
+    private final ServicePatternService servicePatternService;
+    private final GtfsImportService gtfsImportService;
+    private final TimetableMaterializer timetableMaterializer;
+
+    /**
+     * Constructor-based dependency injection
+     */
+    @Autowired
+    public ScheduleController(ScheduleImportService scheduleImportService,
+                              ScheduleStatusUpdateBuffer statusUpdateBuffer,
+                              ServicePatternService servicePatternService,
+                              GtfsImportService gtfsImportService,
+                              TimetableMaterializer timetableMaterializer) {
+        this.scheduleImportService = scheduleImportService;
+        this.statusUpdateBuffer = statusUpdateBuffer;
+        this.servicePatternService = servicePatternService;
+        this.gtfsImportService = gtfsImportService;
+        this.timetableMaterializer = timetableMaterializer;
+    }
+
+    /**
+     * POST /api/schedules/bulk
+     * Imports a timetable in one transaction and republishes the affected boards
+     * Body: a JSON array (application/json), newline-delimited JSON
+     * (application/x-ndjson) or CSV with a header line (text/csv)
+     * Query parameter replace=true first deletes the existing schedules of every
+     * date that appears in the upload
+     *
+     * Example: curl -X POST -H "Content-Type: text/csv" --data-binary @timetable.csv
+     *          "http://localhost:8080/api/schedules/bulk?replace=true"
+     */
+    @PostMapping(value = "/schedules/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ScheduleImportResultDTO> importSchedules(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = "false") boolean replace) {
+        try {
+            ScheduleImportResultDTO result = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))
+                    ? scheduleImportService.importCsv(body, replace)
+                    : scheduleImportService.importJson(body, replace);
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            // Bad row in the upload: nothing was written
+            return ResponseEntity.badRequest().body(ScheduleImportResultDTO.failed(e.getMessage()));
+
+        } catch (Exception e) {
+            System.err.println("Error importing schedules: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ScheduleImportResultDTO.failed("Import failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/schedules/patterns
+     * Returns every recurring service pattern
+     */
+    @GetMapping("/schedules/patterns")
+    public ResponseEntity<List<ServicePatternDTO>> getPatterns() {
+        try {
+            return ResponseEntity.ok(servicePatternService.getPatterns());
+
+        } catch (Exception e) {
+            System.err.println("Error fetching service patterns: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * POST /api/schedules/patterns
+     * Adds recurring service patterns (a JSON array), all or none
+     * Query parameter replace=true first removes every existing pattern (and its
+     * departures from today on)
+     * Schedules are created from them per date, by a nightly job for the next
+     * trainticker.timetable.horizon-days days (see POST /api/schedules/patterns/materialize
+     * for later dates); dates that already have their schedules get the new departures at once,
+     * later dates show them expanded from the patterns
+     *
+     * Example: POST /api/schedules/patterns  [{"trainNumber": "T101", "destination": "Boston",
+     *          "departureTime": "08:30", "arrivalTime": "12:30", "platform": "A1",
+     *          "daysOfWeek": ["MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"],
+     *          "startDate": "2024-01-01", "endDate": "2024-12-31"}]
+     */
+    @PostMapping(value = "/schedules/patterns", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> addPatterns(@RequestBody List<ServicePatternDTO> patterns,
+                                         @RequestParam(defaultValue = "false") boolean replace) {
+        try {
+            return ResponseEntity.ok(servicePatternService.addPatterns(patterns, replace));
+
+        } catch (IllegalArgumentException e) {
+            // Bad pattern: nothing was written
+            return ResponseEntity.badRequest().body(e.getMessage());
+
+        } catch (Exception e) {
+            System.err.println("Error adding service patterns: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * POST /api/schedules/patterns/materialize
+     * Creates the schedules of the dates from 'from' to 'to' (default: 'from') from
+     * the service patterns now, for boards further ahead than the nightly job goes
+     * (until then those boards are expanded from the patterns in memory)
+     * Dates already materialized, before today or more than
+     * trainticker.timetable.max-days-ahead days ahead are left alone
+     * Returns the number of schedules created per date
+     *
+     * Example: POST /api/schedules/patterns/materialize?from=2024-06-01&to=2024-06-30
+     */
+    @PostMapping("/schedules/patterns/materialize")
+    public ResponseEntity<Map<LocalDate, Integer>> materialize(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(timetableMaterializer.materialize(from, to != null ? to : from));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (Exception e) {
+            System.err.println("Error creating schedules from " + from + " to " + to + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * DELETE /api/schedules/patterns/{id}
+     * Removes a service pattern and its departures from today on (past days are kept)
+     */
+    @DeleteMapping("/schedules/patterns/{id}")
+    public ResponseEntity<Void> removePattern(@PathVariable Long id) {
+        try {
+            return servicePatternService.removePattern(id)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+
+        } catch (Exception e) {
+            System.err.println("Error removing service pattern " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * POST /api/schedules/gtfs
+     * Imports a GTFS static feed (the zip as the request body) as service patterns:
+     * every trip that stops at one of the given stop_ids and goes on from there
+     * Query parameter stop: the station's stop_id(s), comma-separated (required)
+     * Query parameter station: the board the patterns are for (default: the default station)
+     * Query parameter replace=true first removes every existing pattern
+     * One import runs at a time; follow it with GET /api/schedules/gtfs/status
+     *
+     * Example: curl -X POST -H "Content-Type: application/zip" --data-binary @gtfs.zip
+     *          "http://localhost:8080/api/schedules/gtfs?stop=8000105,8000105_1&replace=true"
+     */
+    @PostMapping(value = "/schedules/gtfs",
+                 consumes = {"application/zip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<GtfsImportStatusDTO> importGtfs(InputStream body,
+                                                          @RequestParam String stop,
+                                                          @RequestParam(required = false) String station,
+                                                          @RequestParam(defaultValue = "false") boolean replace) {
+        Set<String> stopIds = Arrays.stream(stop.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toSet());
+        try {
+            return ResponseEntity.ok(gtfsImportService.importFeed(body, stopIds, station, replace));
+
+        } catch (IllegalArgumentException e) {
+            // Unusable feed or pattern: nothing was written
+            return ResponseEntity.badRequest().body(gtfsImportService.getStatus());
+
+        } catch (IllegalStateException e) {
+            // Another import is running
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(gtfsImportService.getStatus());
+
+        } catch (Exception e) {
+            System.err.println("Error importing GTFS feed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(gtfsImportService.getStatus());
+        }
+    }
+
+    /**
+     * GET /api/schedules/gtfs/status
+     * Progress of the running GTFS import, or the result of the last one
+     */
+    @GetMapping("/schedules/gtfs/status")
+    public ResponseEntity<GtfsImportStatusDTO> getGtfsImportStatus() {
+        return ResponseEntity.ok(gtfsImportService.getStatus());
+    }
+
+    /**
+     * PATCH /api/schedules/{id}/status
+     * Changes the status, delay and/or platform of one departure
+     * The boards show the change at once; the database is updated with the next flush
+     * 
+     * Example: PATCH /api/schedules/42/status  {"status": "DELAYED", "delayMinutes": 10}
+     */
+    @PatchMapping("/schedules/{id}/status")
+    public ResponseEntity<StatusUpdateResultDTO> updateStatus(@PathVariable Long id,
+                                                              @RequestBody ScheduleStatusUpdateDTO update) {
+        update.setId(id);
+        ResponseEntity<StatusUpdateResultDTO> response = updateStatuses(List.of(update));
+        if (response.getBody() != null && !response.getBody().getUnknownIds().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response.getBody());
+        }
+        return response;
+    }
+
+    /**
+     * PATCH /api/schedules/status
+     * Batch variant for the signalling feed: a list of updates, each with its id
+     * Several updates for the same schedule are fine; the last one wins
+     * 
+     * Example: PATCH /api/schedules/status  [{"id": 42, "delayMinutes": 12}, {"id": 43, "status": "CANCELLED"}]
+     */
+    @PatchMapping("/schedules/status")
+    public ResponseEntity<StatusUpdateResultDTO> updateStatuses(@RequestBody List<ScheduleStatusUpdateDTO> updates) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(statusUpdateBuffer.accept(updates));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(StatusUpdateResultDTO.failed(e.getMessage()));
+
+        } catch (Exception e) {
+            System.err.println("Error applying status updates: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * GET /api/schedules/status/metrics
+     * Coalescing ratio, flush lag and pending count of the status update buffer
+     */
+    @GetMapping("/schedules/status/metrics")
+    public ResponseEntity<StatusUpdateMetricsDTO> getStatusUpdateMetrics() {
+        return ResponseEntity.ok(statusUpdateBuffer.getMetrics());
+    }
+}
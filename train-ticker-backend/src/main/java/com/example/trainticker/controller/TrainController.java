@@ -1,10 +1,24 @@
 package com.example.trainticker.controller;
 
+import com.example.trainticker.config.QueryBudget;
+import com.example.trainticker.config.ResponseMetricsAdvice;
+import com.example.trainticker.dto.BoardChangesDTO;
+import com.example.trainticker.dto.SearchSuggestionDTO;
 import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.service.BoardChangeLog;
+import com.example.trainticker.service.BoardResponseCache;
+import com.example.trainticker.service.BoardSnapshotStore;
+import com.example.trainticker.service.StationNotFoundException;
 import com.example.trainticker.service.TrainService;
+import com.example.trainticker.service.UnknownStationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,6 +39,21 @@ import java.util.List;
  * @GetMapping - Maps HTTP GET requests
  * @PathVariable - Extracts values from URL path
  * @RequestParam - Extracts query parameters
+ * 
+ * The board views (today, a date, a platform, delayed, stats) are answered from
+ * BoardResponseCache: pre-serialized, pre-gzipped bytes with a strong ETag.
+ * A poll with a matching If-None-Match gets 304 Not Modified without calling
+ * TrainService or Jackson.
+ * 
+ * Every board endpoint also answers under /api/stations/{station}/...; the
+ * unscoped paths show the default station (trainticker.stations.default).
+ * An invalid station code is a 400, a code that names no station a 404 (no
+ * board is loaded or kept for it). Cached bodies are keyed by station, so a
+ * change at one station never invalidates another station's ETags.
+ * 
+ * Each endpoint declares how many SQL statements it may run (@QueryBudget):
+ * loading a board that is not in memory yet reads the hot and the archive
+ * table, so 2, however many rows the board has.
  */
 @RestController
 @RequestMapping("/api")
@@ -32,27 +61,57 @@ import java.util.List;
 public class TrainController {
     
     private final TrainService trainService;
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final BoardResponseCache boardResponseCache;
+    private final BoardChangeLog boardChangeLog;
+    private final long crossDateMaxAgeMillis;
     
     /**
      * Constructor-based dependency injection
      */
     @Autowired
-    public TrainController(TrainService trainService) {
+    public TrainController(TrainService trainService,
+                           BoardSnapshotStore boardSnapshotStore,
+                           BoardResponseCache boardResponseCache,
+                           BoardChangeLog boardChangeLog,
+                           @Value("${trainticker.snapshot.refresh-interval-ms:30000}") long crossDateMaxAgeMillis) {
         this.trainService = trainService;
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.boardResponseCache = boardResponseCache;
+        this.boardChangeLog = boardChangeLog;
+        this.crossDateMaxAgeMillis = crossDateMaxAgeMillis;
     }
     
     /**
      * GET /api/trains
+     * GET /api/stations/{station}/trains
      * Returns today's train schedule
      * This is the main endpoint used by our ticker display
      */
-    @GetMapping("/trains")
-    public ResponseEntity<List<TrainScheduleDTO>> getTodaysTrains() {
+    @GetMapping({"/trains", "/stations/{station}/trains"})
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getTodaysTrains(
+            @PathVariable(required = false) String station,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getTodaysSchedule();
+            String code = boardSnapshotStore.resolveStation(station);
+            LocalDate today = LocalDate.now();
+            BoardResponseCache.CachedBody body = boardResponseCache.get("date:" + code + "/" + today,
+                    boardSnapshotStore.get(code, today).getVersion(),
+                    () -> trainService.getTodaysSchedule(code));
             
-            // Return 200 OK with the train data
-            return ResponseEntity.ok(trains);
+            // Return 200 OK with the train data (or 304 if the client already has it)
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            // No such station
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            // Invalid station code
+            return ResponseEntity.badRequest().build();
             
         } catch (Exception e) {
             // Log the error (in production, use proper logging framework)
@@ -66,17 +125,33 @@ public class TrainController {
     
     /**
      * GET /api/trains/{date}
+     * GET /api/stations/{station}/trains/{date}
      * Returns train schedule for a specific date
      * Date format: YYYY-MM-DD (e.g., 2024-01-15)
      * 
      * Example: GET /api/trains/2024-01-15
+     * Example: GET /api/stations/BOS/trains/2024-01-15
      */
-    @GetMapping("/trains/{date}")
-    public ResponseEntity<List<TrainScheduleDTO>> getTrainsByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    @GetMapping({"/trains/{date}", "/stations/{station}/trains/{date}"})
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getTrainsByDate(
+            @PathVariable(required = false) String station,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getScheduleByDate(date);
-            return ResponseEntity.ok(trains);
+            String code = boardSnapshotStore.resolveStation(station);
+            BoardResponseCache.CachedBody body = boardResponseCache.get("date:" + code + "/" + date,
+                    boardSnapshotStore.get(code, date).getVersion(),
+                    () -> trainService.getScheduleByDate(code, date));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
             
         } catch (Exception e) {
             System.err.println("Error fetching trains for date " + date + ": " + e.getMessage());
@@ -84,17 +159,63 @@ public class TrainController {
         }
     }
     
+    /**
+     * GET /api/trains/changes
+     * GET /api/stations/{station}/trains/changes
+     * Returns only the rows added, changed or removed since a revision, for displays
+     * that poll often: the answer is as small as the number of changes
+     * Query parameters: since (the revision from the previous answer; leave out on
+     * the first call) and optional date (default today)
+     * If the answer has resync=true, fetch the full board and continue from its revision
+     * Revisions are per station and per server: a revision from another station or
+     * node (or from before a restart) gets a resync
+     * 
+     * Example: GET /api/trains/changes?since=5299989643387
+     */
+    @GetMapping({"/trains/changes", "/stations/{station}/trains/changes"})
+    @QueryBudget(2)
+    public ResponseEntity<BoardChangesDTO> getChanges(
+            @PathVariable(required = false) String station,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            BoardChangesDTO changes = boardChangeLog.changesSince(boardSnapshotStore.resolveStation(station),
+                    date != null ? date : LocalDate.now(), since);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(changes);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
+        } catch (Exception e) {
+            System.err.println("Error fetching changes since " + since + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * GET /api/trains/upcoming
+     * GET /api/stations/{station}/trains/upcoming
      * Returns only upcoming departures (trains that haven't left yet)
      * Useful for real-time displays
      */
-    @GetMapping("/trains/upcoming")
-    public ResponseEntity<List<TrainScheduleDTO>> getUpcomingTrains() {
+    @GetMapping({"/trains/upcoming", "/stations/{station}/trains/upcoming"})
+    @QueryBudget(2)
+    public ResponseEntity<List<TrainScheduleDTO>> getUpcomingTrains(@PathVariable(required = false) String station) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getUpcomingDepartures();
+            List<TrainScheduleDTO> trains = trainService.getUpcomingDepartures(boardSnapshotStore.resolveStation(station));
             return ResponseEntity.ok(trains);
             
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             System.err.println("Error fetching upcoming trains: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -103,33 +224,99 @@ public class TrainController {
     
     /**
      * GET /api/trains/destination/{destination}
-     * Returns trains going to a specific destination
+     * GET /api/stations/{station}/trains/destination/{destination}
+     * Returns trains going to a specific destination (today, or the optional date parameter)
+     * Matches case-insensitively anywhere in the destination name
      * 
      * Example: GET /api/trains/destination/Boston
+     * Example: GET /api/trains/destination/bos?date=2024-01-15
      */
-    @GetMapping("/trains/destination/{destination}")
-    public ResponseEntity<List<TrainScheduleDTO>> getTrainsByDestination(@PathVariable String destination) {
+    @GetMapping({"/trains/destination/{destination}", "/stations/{station}/trains/destination/{destination}"})
+    @QueryBudget(2)
+    public ResponseEntity<List<TrainScheduleDTO>> getTrainsByDestination(
+            @PathVariable(required = false) String station,
+            @PathVariable String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getSchedulesByDestination(destination);
+            List<TrainScheduleDTO> trains = trainService.getSchedulesByDestination(
+                    boardSnapshotStore.resolveStation(station), destination, date != null ? date : LocalDate.now());
             return ResponseEntity.ok(trains);
             
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             System.err.println("Error fetching trains to " + destination + ": " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * GET /api/trains/search/suggest
+     * GET /api/stations/{station}/trains/search/suggest
+     * Type-ahead suggestions for a search box: matching destinations, train names,
+     * train numbers and routes, best matches first
+     * Query parameters: q (the text typed so far), optional date and limit
+     * 
+     * Example: GET /api/trains/search/suggest?q=bos&limit=5
+     */
+    @GetMapping({"/trains/search/suggest", "/stations/{station}/trains/search/suggest"})
+    @QueryBudget(2)
+    public ResponseEntity<List<SearchSuggestionDTO>> getSearchSuggestions(
+            @PathVariable(required = false) String station,
+            @RequestParam String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<SearchSuggestionDTO> suggestions = trainService.getSearchSuggestions(
+                    boardSnapshotStore.resolveStation(station), q, date != null ? date : LocalDate.now(),
+                    Math.max(1, Math.min(limit, 50)));
+            return ResponseEntity.ok(suggestions);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
+        } catch (Exception e) {
+            System.err.println("Error fetching search suggestions for " + q + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * GET /api/trains/platform/{platform}
+     * GET /api/stations/{station}/trains/platform/{platform}
      * Returns trains departing from a specific platform
      * 
      * Example: GET /api/trains/platform/A1
      */
-    @GetMapping("/trains/platform/{platform}")
-    public ResponseEntity<List<TrainScheduleDTO>> getTrainsByPlatform(@PathVariable String platform) {
+    @GetMapping({"/trains/platform/{platform}", "/stations/{station}/trains/platform/{platform}"})
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> getTrainsByPlatform(
+            @PathVariable(required = false) String station,
+            @PathVariable String platform,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getSchedulesByPlatform(platform);
-            return ResponseEntity.ok(trains);
+            // Spans all dates of the station, so it is also re-read after one refresh interval;
+            // changes at other stations leave its version alone
+            String code = boardSnapshotStore.resolveStation(station);
+            BoardResponseCache.CachedBody body = boardResponseCache.get(BoardResponseCache.platformView(code, platform),
+                    boardSnapshotStore.getLatestVersion(code), crossDateMaxAgeMillis,
+                    () -> trainService.getSchedulesByPlatform(code, platform));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
             
         } catch (Exception e) {
             System.err.println("Error fetching trains from platform " + platform + ": " + e.getMessage());
@@ -139,14 +326,30 @@ public class TrainController {
     
     /**
      * GET /api/trains/delayed
+     * GET /api/stations/{station}/trains/delayed
      * Returns only delayed trains for today
      * Useful for maintenance and customer service
      */
-    @GetMapping("/trains/delayed")
-    public ResponseEntity<List<TrainScheduleDTO>> getDelayedTrains() {
+    @GetMapping({"/trains/delayed", "/stations/{station}/trains/delayed"})
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getDelayedTrains(
+            @PathVariable(required = false) String station,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getDelayedTrains();
-            return ResponseEntity.ok(trains);
+            String code = boardSnapshotStore.resolveStation(station);
+            LocalDate today = LocalDate.now();
+            BoardResponseCache.CachedBody body = boardResponseCache.get("delayed:" + code + "/" + today,
+                    boardSnapshotStore.get(code, today).getVersion(),
+                    () -> trainService.getDelayedTrains(code));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
             
         } catch (Exception e) {
             System.err.println("Error fetching delayed trains: " + e.getMessage());
@@ -156,19 +359,29 @@ public class TrainController {
     
     /**
      * GET /api/trains/time-range
+     * GET /api/stations/{station}/trains/time-range
      * Returns trains departing within a specific time range
      * Query parameters: startTime and endTime in HH:mm format
      * 
      * Example: GET /api/trains/time-range?startTime=08:00&endTime=12:00
      */
-    @GetMapping("/trains/time-range")
+    @GetMapping({"/trains/time-range", "/stations/{station}/trains/time-range"})
+    @QueryBudget(2)
     public ResponseEntity<List<TrainScheduleDTO>> getTrainsInTimeRange(
+            @PathVariable(required = false) String station,
             @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime startTime,
             @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime endTime) {
         try {
-            List<TrainScheduleDTO> trains = trainService.getSchedulesInTimeRange(startTime, endTime);
+            List<TrainScheduleDTO> trains = trainService.getSchedulesInTimeRange(
+                    boardSnapshotStore.resolveStation(station), startTime, endTime);
             return ResponseEntity.ok(trains);
             
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
         } catch (Exception e) {
             System.err.println("Error fetching trains in time range " + startTime + "-" + endTime + ": " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -177,14 +390,30 @@ public class TrainController {
     
     /**
      * GET /api/trains/stats
+     * GET /api/stations/{station}/trains/stats
      * Returns statistics about today's schedule
      * Shows count of on-time, delayed, and cancelled trains
      */
-    @GetMapping("/trains/stats")
-    public ResponseEntity<TrainService.ScheduleStats> getTodaysStats() {
+    @GetMapping({"/trains/stats", "/stations/{station}/trains/stats"})
+    @QueryBudget(3) // Board load, plus the GROUP BY fallback if the counters are not ready
+    public ResponseEntity<byte[]> getTodaysStats(
+            @PathVariable(required = false) String station,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            TrainService.ScheduleStats stats = trainService.getTodaysStats();
-            return ResponseEntity.ok(stats);
+            String code = boardSnapshotStore.resolveStation(station);
+            LocalDate today = LocalDate.now();
+            BoardResponseCache.CachedBody body = boardResponseCache.get("stats:" + code + "/" + today,
+                    boardSnapshotStore.get(code, today).getVersion(),
+                    () -> trainService.getTodaysStats(code));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
             
         } catch (Exception e) {
             System.err.println("Error fetching train statistics: " + e.getMessage());
@@ -192,16 +421,160 @@ public class TrainController {
         }
     }
     
+    /**
+     * GET /api/trains/stats/platforms
+     * GET /api/stations/{station}/trains/stats/platforms
+     * Returns today's statistics for each platform
+     */
+    @GetMapping({"/trains/stats/platforms", "/stations/{station}/trains/stats/platforms"})
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getTodaysStatsByPlatform(
+            @PathVariable(required = false) String station,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            String code = boardSnapshotStore.resolveStation(station);
+            LocalDate today = LocalDate.now();
+            BoardResponseCache.CachedBody body = boardResponseCache.get("stats-platforms:" + code + "/" + today,
+                    boardSnapshotStore.get(code, today).getVersion(),
+                    () -> trainService.getTodaysStatsByPlatform(code));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
+        } catch (Exception e) {
+            System.err.println("Error fetching platform statistics: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * GET /api/trains/stats/destinations
+     * GET /api/stations/{station}/trains/stats/destinations
+     * Returns today's statistics for each destination
+     */
+    @GetMapping({"/trains/stats/destinations", "/stations/{station}/trains/stats/destinations"})
+    @QueryBudget(2)
+    public ResponseEntity<byte[]> getTodaysStatsByDestination(
+            @PathVariable(required = false) String station,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            String code = boardSnapshotStore.resolveStation(station);
+            LocalDate today = LocalDate.now();
+            BoardResponseCache.CachedBody body = boardResponseCache.get("stats-destinations:" + code + "/" + today,
+                    boardSnapshotStore.get(code, today).getVersion(),
+                    () -> trainService.getTodaysStatsByDestination(code));
+            return cachedResponse(body, ifNoneMatch, acceptEncoding, accept);
+            
+        } catch (StationNotFoundException e) {
+            return ResponseEntity.notFound().build();
+            
+        } catch (UnknownStationException e) {
+            return ResponseEntity.badRequest().build();
+            
+        } catch (Exception e) {
+            System.err.println("Error fetching destination statistics: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * GET /api/health
      * Simple health check endpoint
      * Returns 200 OK if the service is running
      */
     @GetMapping("/health")
+    @QueryBudget(0)
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Train Ticker API is running! 🚂");
     }
     
+    /**
+     * Build the HTTP response for a cached board body
+     * - 304 Not Modified if the client's If-None-Match matches
+     * - the compact CBOR board if the client prefers application/cbor (board rows only)
+     * - otherwise 200 with the gzip or plain JSON bytes, depending on Accept-Encoding
+     */
+    private ResponseEntity<byte[]> cachedResponse(BoardResponseCache.CachedBody body,
+                                                  String ifNoneMatch, String acceptEncoding, String accept) {
+        byte[] compact = prefersCbor(accept) ? boardResponseCache.getCompact(body) : null;
+        boolean gzip = compact == null && acceptsGzip(acceptEncoding);
+        String etag = compact != null ? body.getCompactEtag() : gzip ? body.getGzipEtag() : body.getEtag();
+        
+        if (body.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        
+        // Only a 200 sends the rows; a 304 would count a whole board that never went out
+        if (body.getRowCount() >= 0) {
+            ResponseMetricsAdvice.recordRows(body.getRowCount());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(compact != null ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache()) // Always revalidate, it's a live board
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (compact != null) {
+            // Already compact; the displays that ask for it are short on CPU for gunzip
+            return response.body(compact);
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getJson());
+    }
+    
+    /**
+     * Check whether the client prefers CBOR over JSON
+     * Only an explicit application/cbor counts; wildcards (browsers) get JSON
+     */
+    private static boolean prefersCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        double cbor = 0;
+        double json = 0;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                    cbor = Math.max(cbor, mediaType.getQualityValue());
+                } else if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, mediaType.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false; // Unparseable Accept header: fall back to JSON
+        }
+        return cbor > 0 && cbor >= json;
+    }
+    
+    /**
+     * Check whether the client accepts gzip (and didn't disable it with q=0)
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip")) {
+                return tokens.length < 2 || !tokens[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
     /**
      * Exception handler for this controller
      * Catches any unhandled exceptions and returns a proper error response
@@ -0,0 +1,96 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Board Changes Data Transfer Object
+ *
+ * Answer to GET /api/trains/changes?since={revision}: what happened to one
+ * date's board after the given revision.
+ * - updated: rows that were added or changed (latest state only)
+ * - removed: ids of rows that are no longer on the board
+ * - revision: pass this as 'since' on the next poll
+ * - resync: the changes cannot be given (the client is too far behind, or the
+ *   board was reloaded); fetch the full board and continue from 'revision'
+ */
+public class BoardChangesDTO {
+
+    private LocalDate date;
+    private Long since;
+    private long revision;
+    private boolean resync;
+    private List<TrainScheduleDTO> updated = new ArrayList<>();
+    private List<Long> removed = new ArrayList<>();
+
+    // Default constructor (required for JSON serialization)
+    public BoardChangesDTO() {}
+
+    public BoardChangesDTO(LocalDate date, Long since, long revision,
+                           List<TrainScheduleDTO> updated, List<Long> removed) {
+        this.date = date;
+        this.since = since;
+        this.revision = revision;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    /**
+     * Tell the client to fetch the full board and continue from this revision
+     */
+    public static BoardChangesDTO resync(LocalDate date, Long since, long revision) {
+        BoardChangesDTO changes = new BoardChangesDTO(date, since, revision, new ArrayList<>(), new ArrayList<>());
+        changes.resync = true;
+        return changes;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Long getSince() {
+        return since;
+    }
+
+    public void setSince(Long since) {
+        this.since = since;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    public List<TrainScheduleDTO> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<TrainScheduleDTO> updated) {
+        this.updated = updated;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Board Delta Data Transfer Object
+ *
+ * Describes how a departure board changed between two versions.
+ * Instead of re-sending the whole board, clients receive only:
+ * - updated: rows that were added or whose status, delay, platform etc. changed
+ * - removed: ids of rows that are no longer on the board
+ */
+public class BoardDeltaDTO {
+
+    private LocalDate date;
+    private long fromVersion;
+    private long toVersion;
+    private List<TrainScheduleDTO> updated = new ArrayList<>();
+    private List<Long> removed = new ArrayList<>();
+
+    // Default constructor (required for JSON serialization)
+    public BoardDeltaDTO() {}
+
+    public BoardDeltaDTO(LocalDate date, long fromVersion, long toVersion,
+                         List<TrainScheduleDTO> updated, List<Long> removed) {
+        this.date = date;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public void setFromVersion(long fromVersion) {
+        this.fromVersion = fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public void setToVersion(long toVersion) {
+        this.toVersion = toVersion;
+    }
+
+    public List<TrainScheduleDTO> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<TrainScheduleDTO> updated) {
+        this.updated = updated;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+
+    /**
+     * Utility method to check if anything changed at all
+     */
+    public boolean isEmpty() {
+        return updated.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Total number of changed rows (updated + removed)
+     */
+    public int size() {
+        return updated.size() + removed.size();
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "BoardDeltaDTO{" +
+                "date=" + date +
+                ", fromVersion=" + fromVersion +
+                ", toVersion=" + toVersion +
+                ", updated=" + updated.size() +
+                ", removed=" + removed.size() +
+                '}';
+    }
+}
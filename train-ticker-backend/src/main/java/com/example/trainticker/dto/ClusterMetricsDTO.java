@@ -0,0 +1,122 @@
+package com.example.trainticker.dto;
+
+/**
+ * Cluster Metrics Data Transfer Object
+
+ * How board invalidations between the backend nodes are doing:
+ * - published / received: invalidations sent by this node / received from others
+ * - boardsReloaded: boards this node reloaded because of them
+ * - lag: time from another node publishing a change until this node's board shows it
+ */
+public class ClusterMetricsDTO {
+
+    private String nodeId;
+    private String channel;
+    private long published;
+    private long publishFailures;
+    private long received;
+    private long boardsReloaded;
+    private long reloadFailures;
+    private long lastLagMillis;
+    private long maxLagMillis;
+    private long meanLagMillis;
+
+    // Default constructor (required for JSON serialization)
+    public ClusterMetricsDTO() {}
+
+    public ClusterMetricsDTO(String nodeId, String channel, long published, long publishFailures, long received,
+                             long boardsReloaded, long reloadFailures, long lastLagMillis, long maxLagMillis,
+                             long meanLagMillis) {
+        this.nodeId = nodeId;
+        this.channel = channel;
+        this.published = published;
+        this.publishFailures = publishFailures;
+        this.received = received;
+        this.boardsReloaded = boardsReloaded;
+        this.reloadFailures = reloadFailures;
+        this.lastLagMillis = lastLagMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.meanLagMillis = meanLagMillis;
+    }
+
+    // Getters and Setters
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public void setPublished(long published) {
+        this.published = published;
+    }
+
+    public long getPublishFailures() {
+        return publishFailures;
+    }
+
+    public void setPublishFailures(long publishFailures) {
+        this.publishFailures = publishFailures;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getBoardsReloaded() {
+        return boardsReloaded;
+    }
+
+    public void setBoardsReloaded(long boardsReloaded) {
+        this.boardsReloaded = boardsReloaded;
+    }
+
+    public long getReloadFailures() {
+        return reloadFailures;
+    }
+
+    public void setReloadFailures(long reloadFailures) {
+        this.reloadFailures = reloadFailures;
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public void setLastLagMillis(long lastLagMillis) {
+        this.lastLagMillis = lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public void setMaxLagMillis(long maxLagMillis) {
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public long getMeanLagMillis() {
+        return meanLagMillis;
+    }
+
+    public void setMeanLagMillis(long meanLagMillis) {
+        this.meanLagMillis = meanLagMillis;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact Board Data Transfer Object
+ *
+ * The same rows as a List<TrainScheduleDTO>, laid out for small embedded displays
+ * (sent as CBOR, media type application/cbor).
+ *
+ * Instead of one object per row that repeats every field name and every long route
+ * string, the board is stored column by column:
+ * - strings: a dictionary holding each distinct train number, name, route,
+ *   destination, platform and status once
+ * - trainNumber, trainName, route, destination, platform, status: one index into
+ *   strings per row
+ * - departure, arrival: minutes since midnight
+ * - id, delayMinutes: plain numbers
+ *
+ * Row i is made of element i of every column. A missing value is -1.
+ * The field names appear once per board, not once per row.
+ */
+public class CompactBoardDTO {
+
+    /**
+     * Identifies the layout, so displays can reject a board they cannot read
+     */
+    public static final String FORMAT = "board-columns-v1";
+
+    private String format = FORMAT;
+    private int size;
+    private List<String> strings = new ArrayList<>();
+    private long[] id;
+    private int[] trainNumber;
+    private int[] trainName;
+    private int[] route;
+    private int[] destination;
+    private int[] platform;
+    private int[] status;
+    private int[] departure;
+    private int[] arrival;
+    private int[] delayMinutes;
+
+    // Default constructor (required for JSON serialization)
+    public CompactBoardDTO() {}
+
+    /**
+     * Encode board rows; row order is kept
+     */
+    public static CompactBoardDTO of(List<TrainScheduleDTO> rows) {
+        int size = rows.size();
+        CompactBoardDTO board = new CompactBoardDTO();
+        board.size = size;
+        board.id = new long[size];
+        board.trainNumber = new int[size];
+        board.trainName = new int[size];
+        board.route = new int[size];
+        board.destination = new int[size];
+        board.platform = new int[size];
+        board.status = new int[size];
+        board.departure = new int[size];
+        board.arrival = new int[size];
+        board.delayMinutes = new int[size];
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            TrainScheduleDTO row = rows.get(i);
+            board.id[i] = row.getId() != null ? row.getId() : -1;
+            board.trainNumber[i] = board.indexOf(row.getTrainNumber(), dictionary);
+            board.trainName[i] = board.indexOf(row.getTrainName(), dictionary);
+            board.route[i] = board.indexOf(row.getRoute(), dictionary);
+            board.destination[i] = board.indexOf(row.getDestination(), dictionary);
+            board.platform[i] = board.indexOf(row.getPlatform(), dictionary);
+            board.status[i] = board.indexOf(row.getStatus(), dictionary);
+            board.departure[i] = minutesOf(row.getDepartureTime());
+            board.arrival[i] = minutesOf(row.getArrivalTime());
+            board.delayMinutes[i] = row.getDelayMinutes() != null ? row.getDelayMinutes() : -1;
+        }
+        return board;
+    }
+
+    /**
+     * Decode back into board rows
+     */
+    public List<TrainScheduleDTO> toRows() {
+        List<TrainScheduleDTO> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TrainScheduleDTO row = new TrainScheduleDTO(string(trainNumber[i]), string(trainName[i]),
+                    string(route[i]), string(destination[i]), timeOf(departure[i]), timeOf(arrival[i]),
+                    string(platform[i]), string(status[i]), delayMinutes[i] >= 0 ? delayMinutes[i] : null);
+            row.setId(id[i] >= 0 ? id[i] : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private int indexOf(String value, Map<String, Integer> dictionary) {
+        if (value == null) {
+            return -1;
+        }
+        return dictionary.computeIfAbsent(value, v -> {
+            strings.add(v);
+            return strings.size() - 1;
+        });
+    }
+
+    private String string(int index) {
+        return index >= 0 ? strings.get(index) : null;
+    }
+
+    private static int minutesOf(LocalTime time) {
+        return time != null ? time.getHour() * 60 + time.getMinute() : -1;
+    }
+
+    private static LocalTime timeOf(int minutes) {
+        return minutes >= 0 ? LocalTime.of(minutes / 60, minutes % 60) : null;
+    }
+
+    // Getters and Setters
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public List<String> getStrings() {
+        return strings;
+    }
+
+    public void setStrings(List<String> strings) {
+        this.strings = strings;
+    }
+
+    public long[] getId() {
+        return id;
+    }
+
+    public void setId(long[] id) {
+        this.id = id;
+    }
+
+    public int[] getTrainNumber() {
+        return trainNumber;
+    }
+
+    public void setTrainNumber(int[] trainNumber) {
+        this.trainNumber = trainNumber;
+    }
+
+    public int[] getTrainName() {
+        return trainName;
+    }
+
+    public void setTrainName(int[] trainName) {
+        this.trainName = trainName;
+    }
+
+    public int[] getRoute() {
+        return route;
+    }
+
+    public void setRoute(int[] route) {
+        this.route = route;
+    }
+
+    public int[] getDestination() {
+        return destination;
+    }
+
+    public void setDestination(int[] destination) {
+        this.destination = destination;
+    }
+
+    public int[] getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(int[] platform) {
+        this.platform = platform;
+    }
+
+    public int[] getStatus() {
+        return status;
+    }
+
+    public void setStatus(int[] status) {
+        this.status = status;
+    }
+
+    public int[] getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(int[] departure) {
+        this.departure = departure;
+    }
+
+    public int[] getArrival() {
+        return arrival;
+    }
+
+    public void setArrival(int[] arrival) {
+        this.arrival = arrival;
+    }
+
+    public int[] getDelayMinutes() {
+        return delayMinutes;
+    }
+
+    public void setDelayMinutes(int[] delayMinutes) {
+        this.delayMinutes = delayMinutes;
+    }
+}
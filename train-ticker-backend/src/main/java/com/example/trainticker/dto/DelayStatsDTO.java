@@ -0,0 +1,132 @@
+package com.example.trainticker.dto;
+
+/**
+ * Delay Stats Data Transfer Object
+ *
+ * Delays of one group of past departures (a train, destination, platform or
+ * hour of the day) over a date range, from DelayAnalyticsService.
+ * Averages and percentiles are over the departures that were not cancelled,
+ * in whole minutes (exact up to 3 hours; longer delays count as the maximum).
+ */
+public class DelayStatsDTO {
+
+    private String key;
+    private int departures;
+    private int delayed;
+    private int cancelled;
+    private double delayedPercentage;
+    private double averageDelayMinutes;
+    private int p50DelayMinutes;
+    private int p90DelayMinutes;
+    private int p95DelayMinutes;
+    private int p99DelayMinutes;
+    private int maxDelayMinutes;
+
+    // Default constructor (required for JSON serialization)
+    public DelayStatsDTO() {}
+
+    public DelayStatsDTO(String key, int departures, int delayed, int cancelled, double averageDelayMinutes,
+                         int p50DelayMinutes, int p90DelayMinutes, int p95DelayMinutes, int p99DelayMinutes,
+                         int maxDelayMinutes) {
+        this.key = key;
+        this.departures = departures;
+        this.delayed = delayed;
+        this.cancelled = cancelled;
+        this.delayedPercentage = departures > 0 ? (double) delayed / departures * 100 : 0;
+        this.averageDelayMinutes = averageDelayMinutes;
+        this.p50DelayMinutes = p50DelayMinutes;
+        this.p90DelayMinutes = p90DelayMinutes;
+        this.p95DelayMinutes = p95DelayMinutes;
+        this.p99DelayMinutes = p99DelayMinutes;
+        this.maxDelayMinutes = maxDelayMinutes;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    public int getDelayed() {
+        return delayed;
+    }
+
+    public void setDelayed(int delayed) {
+        this.delayed = delayed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(int cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public double getDelayedPercentage() {
+        return delayedPercentage;
+    }
+
+    public void setDelayedPercentage(double delayedPercentage) {
+        this.delayedPercentage = delayedPercentage;
+    }
+
+    public double getAverageDelayMinutes() {
+        return averageDelayMinutes;
+    }
+
+    public void setAverageDelayMinutes(double averageDelayMinutes) {
+        this.averageDelayMinutes = averageDelayMinutes;
+    }
+
+    public int getP50DelayMinutes() {
+        return p50DelayMinutes;
+    }
+
+    public void setP50DelayMinutes(int p50DelayMinutes) {
+        this.p50DelayMinutes = p50DelayMinutes;
+    }
+
+    public int getP90DelayMinutes() {
+        return p90DelayMinutes;
+    }
+
+    public void setP90DelayMinutes(int p90DelayMinutes) {
+        this.p90DelayMinutes = p90DelayMinutes;
+    }
+
+    public int getP95DelayMinutes() {
+        return p95DelayMinutes;
+    }
+
+    public void setP95DelayMinutes(int p95DelayMinutes) {
+        this.p95DelayMinutes = p95DelayMinutes;
+    }
+
+    public int getP99DelayMinutes() {
+        return p99DelayMinutes;
+    }
+
+    public void setP99DelayMinutes(int p99DelayMinutes) {
+        this.p99DelayMinutes = p99DelayMinutes;
+    }
+
+    public int getMaxDelayMinutes() {
+        return maxDelayMinutes;
+    }
+
+    public void setMaxDelayMinutes(int maxDelayMinutes) {
+        this.maxDelayMinutes = maxDelayMinutes;
+    }
+}
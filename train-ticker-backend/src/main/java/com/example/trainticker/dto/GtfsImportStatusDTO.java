@@ -0,0 +1,130 @@
+package com.example.trainticker.dto;
+
+import java.time.Instant;
+
+/**
+ * GTFS Import Status Data Transfer Object
+ *
+ * Progress of the GTFS import that is running (or the last one that finished),
+ * as returned by GET /api/schedules/gtfs/status, and the result of
+ * POST /api/schedules/gtfs.
+ */
+public class GtfsImportStatusDTO {
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private State state = State.IDLE;
+    private Instant startedAt;
+    private String currentFile;
+    private long bytesRead;
+    private long stopTimesRead;
+    private long tripsRead;
+    private int tripsAtStop;
+    private int tripsSkipped;
+    private int patternsCreated;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private String error;
+
+    // Default constructor (required for JSON serialization)
+    public GtfsImportStatusDTO() {}
+
+    // Getters and Setters
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getCurrentFile() {
+        return currentFile;
+    }
+
+    public void setCurrentFile(String currentFile) {
+        this.currentFile = currentFile;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    public long getStopTimesRead() {
+        return stopTimesRead;
+    }
+
+    public void setStopTimesRead(long stopTimesRead) {
+        this.stopTimesRead = stopTimesRead;
+    }
+
+    public long getTripsRead() {
+        return tripsRead;
+    }
+
+    public void setTripsRead(long tripsRead) {
+        this.tripsRead = tripsRead;
+    }
+
+    public int getTripsAtStop() {
+        return tripsAtStop;
+    }
+
+    public void setTripsAtStop(int tripsAtStop) {
+        this.tripsAtStop = tripsAtStop;
+    }
+
+    public int getTripsSkipped() {
+        return tripsSkipped;
+    }
+
+    public void setTripsSkipped(int tripsSkipped) {
+        this.tripsSkipped = tripsSkipped;
+    }
+
+    public int getPatternsCreated() {
+        return patternsCreated;
+    }
+
+    public void setPatternsCreated(int patternsCreated) {
+        this.patternsCreated = patternsCreated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
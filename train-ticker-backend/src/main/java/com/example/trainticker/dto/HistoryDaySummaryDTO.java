@@ -0,0 +1,82 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * History Day Summary Data Transfer Object
+ *
+ * Departures of one past date from the schedule history (see ScheduleHistoryStore):
+ * how many ran late or were cancelled, and by how much they were late.
+ * averageDelayMinutes is over the departures that were not cancelled.
+ */
+public class HistoryDaySummaryDTO {
+
+    private LocalDate date;
+    private int departures;
+    private int delayed;
+    private int cancelled;
+    private double averageDelayMinutes;
+    private int maxDelayMinutes;
+
+    // Default constructor (required for JSON serialization)
+    public HistoryDaySummaryDTO() {}
+
+    public HistoryDaySummaryDTO(LocalDate date, int departures, int delayed, int cancelled,
+                                double averageDelayMinutes, int maxDelayMinutes) {
+        this.date = date;
+        this.departures = departures;
+        this.delayed = delayed;
+        this.cancelled = cancelled;
+        this.averageDelayMinutes = averageDelayMinutes;
+        this.maxDelayMinutes = maxDelayMinutes;
+    }
+
+    // Getters and Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    public int getDelayed() {
+        return delayed;
+    }
+
+    public void setDelayed(int delayed) {
+        this.delayed = delayed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(int cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public double getAverageDelayMinutes() {
+        return averageDelayMinutes;
+    }
+
+    public void setAverageDelayMinutes(double averageDelayMinutes) {
+        this.averageDelayMinutes = averageDelayMinutes;
+    }
+
+    public int getMaxDelayMinutes() {
+        return maxDelayMinutes;
+    }
+
+    public void setMaxDelayMinutes(int maxDelayMinutes) {
+        this.maxDelayMinutes = maxDelayMinutes;
+    }
+}
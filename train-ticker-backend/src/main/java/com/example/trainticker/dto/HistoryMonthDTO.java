@@ -0,0 +1,60 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+
+/**
+ * History Month Data Transfer Object
+ *
+ * One exported month of the schedule history (see ScheduleHistoryStore):
+ * the last date it covers, its departures and the size of its file.
+ */
+public class HistoryMonthDTO {
+
+    private String month;
+    private LocalDate throughDate;
+    private int departures;
+    private long sizeBytes;
+
+    // Default constructor (required for JSON serialization)
+    public HistoryMonthDTO() {}
+
+    public HistoryMonthDTO(String month, LocalDate throughDate, int departures, long sizeBytes) {
+        this.month = month;
+        this.throughDate = throughDate;
+        this.departures = departures;
+        this.sizeBytes = sizeBytes;
+    }
+
+    // Getters and Setters
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public LocalDate getThroughDate() {
+        return throughDate;
+    }
+
+    public void setThroughDate(LocalDate throughDate) {
+        this.throughDate = throughDate;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+}
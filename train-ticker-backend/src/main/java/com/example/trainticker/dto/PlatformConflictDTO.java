@@ -0,0 +1,60 @@
+package com.example.trainticker.dto;
+
+/**
+ * Platform Conflict Data Transfer Object
+ *
+ * Two trains expected on the same platform at overlapping times:
+ * 'first' is the one that takes the platform first, and the two overlap by
+ * overlapMinutes.
+ */
+public class PlatformConflictDTO {
+
+    private String platform;
+    private PlatformOccupancyDTO first;
+    private PlatformOccupancyDTO second;
+    private int overlapMinutes;
+
+    // Default constructor (required for JSON serialization)
+    public PlatformConflictDTO() {}
+
+    public PlatformConflictDTO(String platform, PlatformOccupancyDTO first, PlatformOccupancyDTO second,
+                               int overlapMinutes) {
+        this.platform = platform;
+        this.first = first;
+        this.second = second;
+        this.overlapMinutes = overlapMinutes;
+    }
+
+    // Getters and Setters
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public PlatformOccupancyDTO getFirst() {
+        return first;
+    }
+
+    public void setFirst(PlatformOccupancyDTO first) {
+        this.first = first;
+    }
+
+    public PlatformOccupancyDTO getSecond() {
+        return second;
+    }
+
+    public void setSecond(PlatformOccupancyDTO second) {
+        this.second = second;
+    }
+
+    public int getOverlapMinutes() {
+        return overlapMinutes;
+    }
+
+    public void setOverlapMinutes(int overlapMinutes) {
+        this.overlapMinutes = overlapMinutes;
+    }
+}
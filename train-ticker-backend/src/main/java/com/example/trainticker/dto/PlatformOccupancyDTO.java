@@ -0,0 +1,124 @@
+package com.example.trainticker.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalTime;
+
+/**
+ * Platform Occupancy Data Transfer Object
+ *
+ * One train holding a platform: from 'from' until 'until', around its expected
+ * departure (the timetabled departure plus the current delay).
+ * See PlatformOccupancyIndex for how long a train is taken to hold its platform.
+ */
+public class PlatformOccupancyDTO {
+
+    private Long scheduleId;
+    private String trainNumber;
+    private String destination;
+    private String platform;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureTime;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime expectedDepartureTime;
+
+    private int delayMinutes;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime from;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime until;
+
+    // Default constructor (required for JSON serialization)
+    public PlatformOccupancyDTO() {}
+
+    public PlatformOccupancyDTO(Long scheduleId, String trainNumber, String destination, String platform,
+                                LocalTime departureTime, LocalTime expectedDepartureTime, int delayMinutes,
+                                LocalTime from, LocalTime until) {
+        this.scheduleId = scheduleId;
+        this.trainNumber = trainNumber;
+        this.destination = destination;
+        this.platform = platform;
+        this.departureTime = departureTime;
+        this.expectedDepartureTime = expectedDepartureTime;
+        this.delayMinutes = delayMinutes;
+        this.from = from;
+        this.until = until;
+    }
+
+    // Getters and Setters
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public void setTrainNumber(String trainNumber) {
+        this.trainNumber = trainNumber;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getExpectedDepartureTime() {
+        return expectedDepartureTime;
+    }
+
+    public void setExpectedDepartureTime(LocalTime expectedDepartureTime) {
+        this.expectedDepartureTime = expectedDepartureTime;
+    }
+
+    public int getDelayMinutes() {
+        return delayMinutes;
+    }
+
+    public void setDelayMinutes(int delayMinutes) {
+        this.delayMinutes = delayMinutes;
+    }
+
+    public LocalTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalTime from) {
+        this.from = from;
+    }
+
+    public LocalTime getUntil() {
+        return until;
+    }
+
+    public void setUntil(LocalTime until) {
+        this.until = until;
+    }
+}
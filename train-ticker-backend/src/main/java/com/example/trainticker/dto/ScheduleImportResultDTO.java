@@ -0,0 +1,119 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedule Import Result Data Transfer Object
+ *
+ * Summary of a bulk timetable upload: how many rows were written, how fast,
+ * and which dates' boards were republished. On failure nothing is written
+ * and error describes the first bad row.
+ */
+public class ScheduleImportResultDTO {
+
+    private long rowsImported;
+    private int trainsCreated;
+    private long rowsReplaced;
+    private List<LocalDate> dates = new ArrayList<>();
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private String error;
+
+    // Default constructor (required for JSON serialization)
+    public ScheduleImportResultDTO() {}
+
+    public ScheduleImportResultDTO(long rowsImported, int trainsCreated, long rowsReplaced,
+                                   List<LocalDate> dates, long elapsedMillis) {
+        this.rowsImported = rowsImported;
+        this.trainsCreated = trainsCreated;
+        this.rowsReplaced = rowsReplaced;
+        this.dates = dates;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis > 0 ? rowsImported * 1000.0 / elapsedMillis : rowsImported;
+    }
+
+    /**
+     * Result for an upload that was rejected
+     */
+    public static ScheduleImportResultDTO failed(String error) {
+        ScheduleImportResultDTO result = new ScheduleImportResultDTO();
+        result.setError(error);
+        return result;
+    }
+
+    // Getters and Setters
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public int getTrainsCreated() {
+        return trainsCreated;
+    }
+
+    public void setTrainsCreated(int trainsCreated) {
+        this.trainsCreated = trainsCreated;
+    }
+
+    /**
+     * Existing schedules deleted because replace=true was requested
+     */
+    public long getRowsReplaced() {
+        return rowsReplaced;
+    }
+
+    public void setRowsReplaced(long rowsReplaced) {
+        this.rowsReplaced = rowsReplaced;
+    }
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public void setDates(List<LocalDate> dates) {
+        this.dates = dates;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "ScheduleImportResultDTO{" +
+                "rowsImported=" + rowsImported +
+                ", trainsCreated=" + trainsCreated +
+                ", rowsReplaced=" + rowsReplaced +
+                ", dates=" + dates +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + rowsPerSecond +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.trainticker.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Schedule Import Row Data Transfer Object
+ *
+ * One departure in a bulk timetable upload (JSON object or CSV line).
+ * The train is identified by its number; trainName and route are only needed
+ * when the train does not exist yet and should be created.
+ * station may be left out for the default station (trainticker.stations.default).
+ *
+ * JSON example:
+ * {"trainNumber": "T101", "destination": "Boston", "departureTime": "08:30",
+ *  "arrivalTime": "12:30", "platform": "A1", "scheduleDate": "2024-01-15"}
+ */
+public class ScheduleImportRowDTO {
+
+    private String trainNumber;
+    private String trainName;
+    private String route;
+    private String destination;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private String platform;
+    private LocalDate scheduleDate;
+    private String status;
+    private Integer delayMinutes;
+    private String station;
+
+    // Default constructor (required for JSON serialization)
+    public ScheduleImportRowDTO() {}
+
+    // Getters and Setters
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public void setTrainNumber(String trainNumber) {
+        this.trainNumber = trainNumber;
+    }
+
+    public String getTrainName() {
+        return trainName;
+    }
+
+    public void setTrainName(String trainName) {
+        this.trainName = trainName;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public LocalDate getScheduleDate() {
+        return scheduleDate;
+    }
+
+    public void setScheduleDate(LocalDate scheduleDate) {
+        this.scheduleDate = scheduleDate;
+    }
+
+    /**
+     * ON_TIME, DELAYED or CANCELLED (optional, defaults to ON_TIME)
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getDelayMinutes() {
+        return delayMinutes;
+    }
+
+    public void setDelayMinutes(Integer delayMinutes) {
+        this.delayMinutes = delayMinutes;
+    }
+
+    /**
+     * Code of the station the departure is shown at (optional)
+     */
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "ScheduleImportRowDTO{" +
+                "trainNumber='" + trainNumber + '\'' +
+                ", destination='" + destination + '\'' +
+                ", departureTime=" + departureTime +
+                ", platform='" + platform + '\'' +
+                ", scheduleDate=" + scheduleDate +
+                ", station='" + station + '\'' +
+                '}';
+    }
+}
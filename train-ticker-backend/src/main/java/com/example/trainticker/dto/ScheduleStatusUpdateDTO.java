@@ -0,0 +1,90 @@
+package com.example.trainticker.dto;
+
+/**
+ * Schedule Status Update Data Transfer Object
+ *
+ * A live change from the signalling feed. Only the fields that are set are
+ * changed; null means "keep the current value".
+ * station is optional: when the feed knows it, only that station's boards are
+ * searched for the schedule.
+ *
+ * JSON example: {"id": 42, "status": "DELAYED", "delayMinutes": 10}
+ */
+public class ScheduleStatusUpdateDTO {
+
+    private Long id;
+    private String status;
+    private Integer delayMinutes;
+    private String platform;
+    private String station;
+
+    // Default constructor (required for JSON serialization)
+    public ScheduleStatusUpdateDTO() {}
+
+    public ScheduleStatusUpdateDTO(Long id, String status, Integer delayMinutes, String platform) {
+        this.id = id;
+        this.status = status;
+        this.delayMinutes = delayMinutes;
+        this.platform = platform;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Schedule id (only needed in the batch endpoint; the single endpoint takes it from the URL)
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getDelayMinutes() {
+        return delayMinutes;
+    }
+
+    public void setDelayMinutes(Integer delayMinutes) {
+        this.delayMinutes = delayMinutes;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * Code of the schedule's station (optional)
+     */
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "ScheduleStatusUpdateDTO{" +
+                "id=" + id +
+                ", status='" + status + '\'' +
+                ", delayMinutes=" + delayMinutes +
+                ", platform='" + platform + '\'' +
+                ", station='" + station + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.trainticker.dto;
+
+/**
+ * Search Suggestion Data Transfer Object
+ *
+ * One entry in the type-ahead list, e.g. "Boston" (destination, 12 departures).
+ */
+public class SearchSuggestionDTO {
+
+    private String text;
+    private String field;
+    private int departures;
+
+    // Default constructor (required for JSON serialization)
+    public SearchSuggestionDTO() {}
+
+    public SearchSuggestionDTO(String text, String field, int departures) {
+        this.text = text;
+        this.field = field;
+        this.departures = departures;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Which field matched: DESTINATION, TRAIN_NAME, TRAIN_NUMBER or ROUTE
+     */
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Number of departures on that date with this value
+     */
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "SearchSuggestionDTO{" +
+                "text='" + text + '\'' +
+                ", field='" + field + '\'' +
+                ", departures=" + departures +
+                '}';
+    }
+}
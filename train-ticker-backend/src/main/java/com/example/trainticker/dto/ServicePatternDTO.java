@@ -0,0 +1,161 @@
+package com.example.trainticker.dto;
+
+import com.example.trainticker.model.ServicePattern;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Service Pattern Data Transfer Object
+ *
+ * A recurring departure, as sent to and returned by /api/schedules/patterns.
+ * Like a bulk import row, the train is identified by its number; trainName and
+ * route are only needed when the train does not exist yet.
+ * daysOfWeek may be left out for a pattern that runs every day, station for
+ * the default station (trainticker.stations.default).
+ *
+ * JSON example:
+ * {"trainNumber": "T101", "destination": "Boston", "departureTime": "08:30",
+ *  "arrivalTime": "12:30", "platform": "A1", "daysOfWeek": ["MONDAY", "FRIDAY"],
+ *  "startDate": "2024-01-01", "endDate": "2024-12-31"}
+ */
+public class ServicePatternDTO {
+
+    private Long id;
+    private String trainNumber;
+    private String trainName;
+    private String route;
+    private String destination;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime departureTime;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime arrivalTime;
+
+    private String platform;
+    private Set<DayOfWeek> daysOfWeek;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String station;
+
+    // Default constructor (required for JSON serialization)
+    public ServicePatternDTO() {}
+
+    /**
+     * Constructor that converts a ServicePattern entity (with its train loaded) to DTO
+     */
+    public ServicePatternDTO(ServicePattern pattern) {
+        this.id = pattern.getId();
+        this.trainNumber = pattern.getTrain().getTrainNumber();
+        this.trainName = pattern.getTrain().getTrainName();
+        this.route = pattern.getTrain().getRoute();
+        this.destination = pattern.getDestination();
+        this.departureTime = pattern.getDepartureTime();
+        this.arrivalTime = pattern.getArrivalTime();
+        this.platform = pattern.getPlatform();
+        this.daysOfWeek = pattern.getDays();
+        this.startDate = pattern.getStartDate();
+        this.endDate = pattern.getEndDate();
+        this.station = pattern.getStation();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTrainNumber() {
+        return trainNumber;
+    }
+
+    public void setTrainNumber(String trainNumber) {
+        this.trainNumber = trainNumber;
+    }
+
+    public String getTrainName() {
+        return trainName;
+    }
+
+    public void setTrainName(String trainName) {
+        this.trainName = trainName;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+}
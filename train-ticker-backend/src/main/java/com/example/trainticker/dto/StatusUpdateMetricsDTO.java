@@ -0,0 +1,118 @@
+package com.example.trainticker.dto;
+
+/**
+ * Status Update Metrics Data Transfer Object
+ *
+ * How the status update buffer is doing:
+ * - coalescingRatio: updates received per database row written
+ *   (3.0 means two out of three updates never had to touch MySQL)
+ * - flush lag: time from the first buffered update of a row to its commit
+ */
+public class StatusUpdateMetricsDTO {
+
+    private long updatesReceived;
+    private long rowsWritten;
+    private long flushes;
+    private long flushFailures;
+    private int pendingUpdates;
+    private double coalescingRatio;
+    private long lastFlushLagMillis;
+    private long maxFlushLagMillis;
+    private long lastFlushMillis;
+
+    // Default constructor (required for JSON serialization)
+    public StatusUpdateMetricsDTO() {}
+
+    public StatusUpdateMetricsDTO(long updatesReceived, long rowsWritten, long flushes, long flushFailures,
+                                  int pendingUpdates, long lastFlushLagMillis, long maxFlushLagMillis,
+                                  long lastFlushMillis) {
+        this.updatesReceived = updatesReceived;
+        this.rowsWritten = rowsWritten;
+        this.flushes = flushes;
+        this.flushFailures = flushFailures;
+        this.pendingUpdates = pendingUpdates;
+        this.coalescingRatio = rowsWritten > 0 ? (double) updatesReceived / rowsWritten : 0.0;
+        this.lastFlushLagMillis = lastFlushLagMillis;
+        this.maxFlushLagMillis = maxFlushLagMillis;
+        this.lastFlushMillis = lastFlushMillis;
+    }
+
+    // Getters and Setters
+    public long getUpdatesReceived() {
+        return updatesReceived;
+    }
+
+    public void setUpdatesReceived(long updatesReceived) {
+        this.updatesReceived = updatesReceived;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public void setFlushes(long flushes) {
+        this.flushes = flushes;
+    }
+
+    public long getFlushFailures() {
+        return flushFailures;
+    }
+
+    public void setFlushFailures(long flushFailures) {
+        this.flushFailures = flushFailures;
+    }
+
+    public int getPendingUpdates() {
+        return pendingUpdates;
+    }
+
+    public void setPendingUpdates(int pendingUpdates) {
+        this.pendingUpdates = pendingUpdates;
+    }
+
+    public double getCoalescingRatio() {
+        return coalescingRatio;
+    }
+
+    public void setCoalescingRatio(double coalescingRatio) {
+        this.coalescingRatio = coalescingRatio;
+    }
+
+    /**
+     * Oldest update written by the most recent flush, in milliseconds
+     */
+    public long getLastFlushLagMillis() {
+        return lastFlushLagMillis;
+    }
+
+    public void setLastFlushLagMillis(long lastFlushLagMillis) {
+        this.lastFlushLagMillis = lastFlushLagMillis;
+    }
+
+    public long getMaxFlushLagMillis() {
+        return maxFlushLagMillis;
+    }
+
+    public void setMaxFlushLagMillis(long maxFlushLagMillis) {
+        this.maxFlushLagMillis = maxFlushLagMillis;
+    }
+
+    /**
+     * How long the most recent flush (the batched UPDATE) took
+     */
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public void setLastFlushMillis(long lastFlushMillis) {
+        this.lastFlushMillis = lastFlushMillis;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.trainticker.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Status Update Result Data Transfer Object
+ *
+ * Answer to a status update request. Accepted updates are already visible on
+ * the boards; they reach the database with the next flush.
+ */
+public class StatusUpdateResultDTO {
+
+    private int accepted;
+    private List<Long> unknownIds = new ArrayList<>();
+    private String error;
+
+    // Default constructor (required for JSON serialization)
+    public StatusUpdateResultDTO() {}
+
+    public StatusUpdateResultDTO(int accepted, List<Long> unknownIds) {
+        this.accepted = accepted;
+        this.unknownIds = unknownIds;
+    }
+
+    /**
+     * Result for a request that was rejected
+     */
+    public static StatusUpdateResultDTO failed(String error) {
+        StatusUpdateResultDTO result = new StatusUpdateResultDTO();
+        result.setError(error);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    /**
+     * Ids that do not match any schedule (these updates were skipped)
+     */
+    public List<Long> getUnknownIds() {
+        return unknownIds;
+    }
+
+    public void setUnknownIds(List<Long> unknownIds) {
+        this.unknownIds = unknownIds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.trainticker.dto;
 import com.example.trainticker.model.Schedule;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.LocalTime;
+import java.util.Objects;
 
 /**
  * Train Schedule Data Transfer Object (DTO)
@@ -18,6 +19,10 @@ import java.time.LocalTime;
  */
 public class TrainScheduleDTO {
     
+    /**
+     * Schedule id, so clients can match rows in live updates
+     */
+    private Long id;
     private String trainNumber;
     private String trainName;
     private String destination;
@@ -45,6 +50,7 @@ public class TrainScheduleDTO {
      * This is a common pattern - create DTO from entity
      */
     public TrainScheduleDTO(Schedule schedule) {
+        this.id = schedule.getId();
         this.trainNumber = schedule.getTrain().getTrainNumber();
         this.trainName = schedule.getTrain().getTrainName();
         this.route = schedule.getTrain().getRoute();
@@ -74,7 +80,28 @@ public class TrainScheduleDTO {
         this.delayMinutes = delayMinutes;
     }
     
+    /**
+     * Constructor used by JPQL constructor expressions (SELECT new ...TrainScheduleDTO(...))
+     * Lets board queries build DTOs straight from the result set, without loading
+     * managed Schedule and Train entities first
+     */
+    public TrainScheduleDTO(Long id, String trainNumber, String trainName, String route, String destination,
+                           LocalTime departureTime, LocalTime arrivalTime, String platform,
+                           Schedule.Status status, Integer delayMinutes) {
+        this(trainNumber, trainName, route, destination, departureTime, arrivalTime, platform,
+                status != null ? status.toString() : null, delayMinutes);
+        this.id = id;
+    }
+    
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     public String getTrainNumber() {
         return trainNumber;
     }
@@ -172,11 +199,39 @@ public class TrainScheduleDTO {
         return "ON_TIME".equals(status);
     }
     
+    /**
+     * Two DTOs are equal when the id and every displayed field match
+     * This lets the board snapshot detect whether a reload actually changed anything
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrainScheduleDTO)) return false;
+        TrainScheduleDTO that = (TrainScheduleDTO) o;
+        return Objects.equals(id, that.id) &&
+                Objects.equals(trainNumber, that.trainNumber) &&
+                Objects.equals(trainName, that.trainName) &&
+                Objects.equals(destination, that.destination) &&
+                Objects.equals(departureTime, that.departureTime) &&
+                Objects.equals(arrivalTime, that.arrivalTime) &&
+                Objects.equals(platform, that.platform) &&
+                Objects.equals(status, that.status) &&
+                Objects.equals(delayMinutes, that.delayMinutes) &&
+                Objects.equals(route, that.route);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, trainNumber, trainName, destination, departureTime, arrivalTime,
+                platform, status, delayMinutes, route);
+    }
+    
     // toString method for debugging
     @Override
     public String toString() {
         return "TrainScheduleDTO{" +
-                "trainNumber='" + trainNumber + '\'' +
+                "id=" + id +
+                ", trainNumber='" + trainNumber + '\'' +
                 ", trainName='" + trainName + '\'' +
                 ", destination='" + destination + '\'' +
                 ", departureTime=" + departureTime +
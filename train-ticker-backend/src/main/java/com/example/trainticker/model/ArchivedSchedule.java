@@ -0,0 +1,125 @@
+package com.example.trainticker.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Archived Schedule Entity Class
+ *
+ * A schedule of a past day, in the 'schedules_archive' table.
+ * Same columns as Schedule; rows are moved here by ScheduleArchiveService with
+ * plain SQL and never changed afterwards, so the entity is read-only.
+ *
+ * @Immutable - Hibernate never writes changes to these rows
+ */
+@Entity
+@Immutable
+@Table(name = "schedules_archive")
+public class ArchivedSchedule {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "train_id", nullable = false)
+    private Train train;
+
+    @Column(nullable = false, length = 100)
+    private String destination;
+
+    @Column(name = "departure_time", nullable = false)
+    private LocalTime departureTime;
+
+    @Column(name = "arrival_time", nullable = false)
+    private LocalTime arrivalTime;
+
+    @Column(nullable = false, length = 5)
+    private String platform;
+
+    @Enumerated(EnumType.STRING)
+    private Schedule.Status status;
+
+    @Column(name = "delay_minutes")
+    private Integer delayMinutes;
+
+    @Column(name = "schedule_date", nullable = false)
+    private LocalDate scheduleDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @Column(name = "station_code", nullable = false, length = 20)
+    private String station;
+
+    // Default constructor (required by JPA)
+    protected ArchivedSchedule() {}
+
+    // Getters only: archived rows are not modified
+    public Long getId() {
+        return id;
+    }
+
+    public Train getTrain() {
+        return train;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public Schedule.Status getStatus() {
+        return status;
+    }
+
+    public Integer getDelayMinutes() {
+        return delayMinutes;
+    }
+
+    public LocalDate getScheduleDate() {
+        return scheduleDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedSchedule{" +
+                "id=" + id +
+                ", destination='" + destination + '\'' +
+                ", departureTime=" + departureTime +
+                ", platform='" + platform + '\'' +
+                ", status=" + status +
+                ", scheduleDate=" + scheduleDate +
+                ", station='" + station + '\'' +
+                '}';
+    }
+}
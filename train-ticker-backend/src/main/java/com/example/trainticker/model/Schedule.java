@@ -17,13 +17,29 @@ import java.time.LocalTime;
  * @ManyToOne - Defines relationship with Train entity
  * @JoinColumn - Specifies the foreign key column
  * @Enumerated - Maps Java enum to database enum
+ * @TableGenerator - Hands out ids in blocks, so inserts can be batched
  */
 @Entity
 @Table(name = "schedules")
 public class Schedule {
     
+    /**
+     * Number of ids reserved per round trip to id_sequences
+     * Must match the gap left by db/migration/V3__schedule_id_sequence.sql
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+    
+    /**
+     * Ids come from a pooled table generator instead of AUTO_INCREMENT (IDENTITY):
+     * with IDENTITY, Hibernate must run every INSERT on its own to read back the
+     * generated key, which turns off JDBC batching. Here one UPDATE of the
+     * id_sequences row reserves a block of ALLOCATION_SIZE ids in memory.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "schedule_ids")
+    @TableGenerator(name = "schedule_ids", table = "id_sequences",
+                    pkColumnName = "sequence_name", valueColumnName = "next_val",
+                    pkColumnValue = "schedules", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     /**
@@ -63,6 +79,20 @@ public class Schedule {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    /**
+     * The ServicePattern this departure was created from (null if imported)
+     * A plain id rather than a relationship: board reads never need the pattern
+     */
+    @Column(name = "service_pattern_id")
+    private Long servicePatternId;
+    
+    /**
+     * Code of the station this departure is shown at (e.g. "BOS")
+     * Each station has its own boards (see BoardSnapshotStore)
+     */
+    @Column(name = "station_code", nullable = false, length = 20)
+    private String station;
+    
     /**
      * Enum defining possible train statuses
      * This matches the ENUM in our database schema
@@ -173,6 +203,22 @@ public class Schedule {
         this.createdAt = createdAt;
     }
     
+    public Long getServicePatternId() {
+        return servicePatternId;
+    }
+    
+    public void setServicePatternId(Long servicePatternId) {
+        this.servicePatternId = servicePatternId;
+    }
+    
+    public String getStation() {
+        return station;
+    }
+    
+    public void setStation(String station) {
+        this.station = station;
+    }
+    
     // toString method for debugging
     @Override
     public String toString() {
@@ -185,6 +231,7 @@ public class Schedule {
                 ", status=" + status +
                 ", delayMinutes=" + delayMinutes +
                 ", scheduleDate=" + scheduleDate +
+                ", station='" + station + '\'' +
                 '}';
     }
 }
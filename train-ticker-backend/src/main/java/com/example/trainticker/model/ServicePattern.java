@@ -0,0 +1,232 @@
+package com.example.trainticker.model;
+
+import jakarta.persistence.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Service Pattern Entity Class
+ *
+ * This represents the 'service_patterns' table: one departure that repeats on
+ * certain days of the week between two dates (inclusive), like a GTFS trip
+ * with its calendar.
+ *
+ * Schedules are not stored for every day in advance. TimetableMaterializer
+ * creates the schedules of the coming days from the patterns that run on them;
+ * boards of later dates are expanded from the patterns in memory (see
+ * TimetableExpander). Changes for one day (delay, cancellation, platform) are
+ * made on that day's schedule, which is stored for that purpose if need be.
+ *
+ * The days of the week are stored as a bit mask: bit 0 = Monday ... bit 6 = Sunday.
+ */
+@Entity
+@Table(name = "service_patterns")
+public class ServicePattern {
+
+    public static final int EVERY_DAY = 0b1111111;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "train_id", nullable = false)
+    private Train train;
+
+    @Column(nullable = false, length = 100)
+    private String destination;
+
+    @Column(name = "departure_time", nullable = false)
+    private LocalTime departureTime;
+
+    @Column(name = "arrival_time", nullable = false)
+    private LocalTime arrivalTime;
+
+    @Column(nullable = false, length = 5)
+    private String platform;
+
+    @Column(name = "days_of_week", nullable = false)
+    private Integer daysOfWeek;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "station_code", nullable = false, length = 20)
+    private String station;
+
+    // Default constructor (required by JPA)
+    public ServicePattern() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Constructor with parameters
+    public ServicePattern(Train train, String destination, LocalTime departureTime, LocalTime arrivalTime,
+                          String platform, Set<DayOfWeek> days, LocalDate startDate, LocalDate endDate) {
+        this.train = train;
+        this.destination = destination;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.platform = platform;
+        this.daysOfWeek = toMask(days);
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Check whether this pattern has a departure on a date
+     */
+    public boolean runsOn(LocalDate date) {
+        return !date.isBefore(startDate) && !date.isAfter(endDate)
+                && (daysOfWeek & bit(date.getDayOfWeek())) != 0;
+    }
+
+    /**
+     * The departure on a date, as a new (not yet saved) schedule
+     */
+    public Schedule toSchedule(LocalDate date) {
+        Schedule schedule = new Schedule(train, destination, departureTime, arrivalTime, platform, date);
+        schedule.setServicePatternId(id);
+        schedule.setStation(station);
+        return schedule;
+    }
+
+    public static int toMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= bit(day);
+        }
+        return mask;
+    }
+
+    private static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Train getTrain() {
+        return train;
+    }
+
+    public void setTrain(Train train) {
+        this.train = train;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public void setPlatform(String platform) {
+        this.platform = platform;
+    }
+
+    public Integer getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Integer daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    /**
+     * The days of the week as a set, Monday first
+     */
+    public Set<DayOfWeek> getDays() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((daysOfWeek & bit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    // toString method for debugging
+    @Override
+    public String toString() {
+        return "ServicePattern{" +
+                "id=" + id +
+                ", destination='" + destination + '\'' +
+                ", departureTime=" + departureTime +
+                ", platform='" + platform + '\'' +
+                ", days=" + getDays() +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", station='" + station + '\'' +
+                '}';
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.trainticker.model;
 
+import com.example.trainticker.service.TrainDirectory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,9 +20,18 @@ import java.util.List;
  * @GeneratedValue - Auto-generates the ID value
  * @Column - Maps field to database column
  * @OneToMany - Defines relationship with Schedule entity
+ * @Cache - Keeps trains in the Hibernate second-level cache (region "trains")
+ * @EntityListeners - Tells TrainDirectory when a train changes
+ * 
+ * Trains are reference data that almost never change, so loading a schedule's
+ * train (or a train by number, see TrainRepository) is answered from the cache.
+ * READ_WRITE keeps the cache consistent with edits made through Hibernate.
  */
 @Entity
 @Table(name = "trains")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trains")
+@EntityListeners(TrainDirectory.class)
 public class Train {
     
     @Id
@@ -0,0 +1,31 @@
+package com.example.trainticker.repository;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.ArchivedSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Archived Schedule Repository Interface
+ *
+ * Read access to past days in schedules_archive (see ScheduleArchiveService).
+ * Like ScheduleRepository, every query here has an entry in QueryPlanVerifier.
+ */
+@Repository
+public interface ArchivedScheduleRepository extends JpaRepository<ArchivedSchedule, Long> {
+
+    /**
+     * Board rows of a station for an archived date, built directly as DTOs
+     * Same shape and order as ScheduleRepository.findBoardRowsByStationAndDate
+     */
+    @Query("SELECT new com.example.trainticker.dto.TrainScheduleDTO(a.id, t.trainNumber, t.trainName, t.route, " +
+           "a.destination, a.departureTime, a.arrivalTime, a.platform, a.status, a.delayMinutes) " +
+           "FROM ArchivedSchedule a JOIN a.train t WHERE a.station = :station AND a.scheduleDate = :date " +
+           "ORDER BY a.departureTime")
+    List<TrainScheduleDTO> findBoardRowsByStationAndDate(@Param("station") String station,
+                                                         @Param("date") LocalDate date);
+}
@@ -0,0 +1,265 @@
+package com.example.trainticker.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query Plan Verifier
+ *
+ * Runs EXPLAIN at startup for the SQL behind every ScheduleRepository and
+ * ArchivedScheduleRepository method and
+ * stops the application if a query would scan a whole table or sort its result
+ * ("Using filesort" / "Using temporary") instead of reading it in index order.
+ *
+ * Each repository method is listed below with the SQL Hibernate runs for it,
+ * written against the real table and column names. A repository method without
+ * an entry is also reported, so a new query cannot skip the check.
+ *
+ * Notes:
+ * - Only MySQL is checked (EXPLAIN output differs between databases)
+ * - Plans for nearly empty tables are not meaningful (a full scan of 15 rows is
+ *   the best plan), so a repository's queries are skipped until its table has
+ *   enough rows
+ * - Set trainticker.query-plan.fail-on-violation=false to only log problems
+ */
+@Component
+public class QueryPlanVerifier implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    private static final String BOARD_COLUMNS =
+            "schedules.id, trains.train_number, trains.train_name, trains.route, schedules.destination, " +
+            "schedules.departure_time, schedules.arrival_time, schedules.platform, schedules.status, " +
+            "schedules.delay_minutes";
+
+    private static final String JOIN_TRAINS = "FROM schedules JOIN trains ON trains.id = schedules.train_id ";
+
+    // What @EntityGraph(attributePaths = "train") generates
+    private static final String LEFT_JOIN_TRAINS = "FROM schedules LEFT JOIN trains ON trains.id = schedules.train_id ";
+
+    private static final String ARCHIVE_BOARD_COLUMNS = BOARD_COLUMNS.replace("schedules.", "schedules_archive.");
+
+    // Sample station for the per-station queries (the one rows from before V6 belong to)
+    private static final String STATION = "MAIN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean failOnViolation;
+    private final long minTableRows;
+
+    @Autowired
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate,
+                             @Value("${trainticker.query-plan.check-enabled:true}") boolean enabled,
+                             @Value("${trainticker.query-plan.fail-on-violation:true}") boolean failOnViolation,
+                             @Value("${trainticker.query-plan.min-table-rows:1000}") long minTableRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.failOnViolation = failOnViolation;
+        this.minTableRows = minTableRows;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        String database = jdbcTemplate.execute(
+                (Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        if (database == null || !JdbcUtils.commonDatabaseName(database).equals("MySQL")) {
+            log.info("Query plan check skipped: only supported on MySQL (database is {})", database);
+            return;
+        }
+
+        List<String> violations = verify();
+        if (violations.isEmpty()) {
+            return;
+        }
+        String report = "Query plan check failed:\n  " + String.join("\n  ", violations);
+        if (failOnViolation) {
+            throw new IllegalStateException(report +
+                    "\nAdd a matching index (db/migration) or set trainticker.query-plan.fail-on-violation=false");
+        }
+        log.warn(report);
+    }
+
+    /**
+     * Check every planned query, returning one message per problem found
+     */
+    public List<String> verify() {
+        List<String> violations = new ArrayList<>();
+        Map<String, Long> tableRows = tableRows();
+        verify(ScheduleRepository.class, "schedules", plannedQueries(), tableRows, violations);
+        verify(ArchivedScheduleRepository.class, "schedules_archive", plannedArchiveQueries(), tableRows, violations);
+        return violations;
+    }
+
+    /**
+     * Check the planned queries of one repository, whose main table is the given one
+     */
+    private void verify(Class<?> repository, String mainTable, Map<String, PlannedQuery> queries,
+                        Map<String, Long> tableRows, List<String> violations) {
+        for (Method method : repository.getDeclaredMethods()) {
+            if (!method.isDefault() && !method.isSynthetic()
+                    && !Modifier.isStatic(method.getModifiers())
+                    && !queries.containsKey(method.getName())) {
+                violations.add(repository.getSimpleName() + "." + method.getName() +
+                        ": no query plan entry in QueryPlanVerifier");
+            }
+        }
+
+        long mainTableRows = tableRows.getOrDefault(mainTable, 0L);
+        if (mainTableRows < minTableRows) {
+            log.info("Query plan check skipped for {}: {} has about {} rows (checked from {} rows)",
+                    repository.getSimpleName(), mainTable, mainTableRows, minTableRows);
+            return;
+        }
+
+        for (Map.Entry<String, PlannedQuery> entry : queries.entrySet()) {
+            PlannedQuery query = entry.getValue();
+            if (query.exemptReason != null) {
+                log.debug("Query plan check: {} not checked ({})", entry.getKey(), query.exemptReason);
+                continue;
+            }
+            List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query.sql, query.params);
+            for (Map<String, Object> step : plan) {
+                String table = String.valueOf(step.get("table"));
+                String extra = step.get("Extra") != null ? step.get("Extra").toString() : "";
+                if ("ALL".equals(step.get("type")) && tableRows.getOrDefault(table, 0L) >= minTableRows) {
+                    violations.add(entry.getKey() + ": full table scan of " + table);
+                }
+                if (extra.contains("Using filesort")) {
+                    violations.add(entry.getKey() + ": sorts rows of " + table + " (Using filesort)");
+                }
+                if (extra.contains("Using temporary")) {
+                    violations.add(entry.getKey() + ": builds a temporary table for " + table);
+                }
+            }
+            log.debug("Query plan for {}: {}", entry.getKey(), plan);
+        }
+    }
+
+    /**
+     * Estimated row count per table, from the data dictionary (no COUNT(*) scans)
+     */
+    private Map<String, Long> tableRows() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT table_name, table_rows FROM information_schema.tables " +
+                           "WHERE table_schema = DATABASE() AND table_name IN ('schedules', 'schedules_archive', 'trains')",
+                resultSet -> {
+                    rows.put(resultSet.getString(1).toLowerCase(), resultSet.getLong(2));
+                });
+        return rows;
+    }
+
+    /**
+     * The SQL for each ScheduleRepository method, with sample parameters
+     * Keep this in step with ScheduleRepository
+     */
+    private static Map<String, PlannedQuery> plannedQueries() {
+        LocalDate date = LocalDate.now();
+        LocalTime morning = LocalTime.of(8, 0);
+        LocalTime evening = LocalTime.of(20, 0);
+
+        Map<String, PlannedQuery> queries = new LinkedHashMap<>();
+        queries.put("findByScheduleDateOrderByDepartureTime", new PlannedQuery(
+                "SELECT * " + LEFT_JOIN_TRAINS + "WHERE schedules.schedule_date = ? ORDER BY schedules.departure_time",
+                date));
+        queries.put("findByScheduleDateAndStatusOrderByDepartureTime", new PlannedQuery(
+                "SELECT * " + LEFT_JOIN_TRAINS + "WHERE schedules.schedule_date = ? AND schedules.status = ? " +
+                "ORDER BY schedules.departure_time",
+                date, "DELAYED"));
+        queries.put("findUpcomingSchedules", new PlannedQuery(
+                "SELECT * " + JOIN_TRAINS + "WHERE schedules.schedule_date = ? AND schedules.departure_time >= ? " +
+                "ORDER BY schedules.departure_time",
+                date, morning));
+        queries.put("findTodaysScheduleWithTrainInfo", new PlannedQuery(
+                "SELECT * " + JOIN_TRAINS + "WHERE schedules.schedule_date = ? ORDER BY schedules.departure_time",
+                date));
+        queries.put("findBoardRowsByStationAndDate", new PlannedQuery(
+                "SELECT " + BOARD_COLUMNS + " " + JOIN_TRAINS +
+                "WHERE schedules.station_code = ? AND schedules.schedule_date = ? " +
+                "ORDER BY schedules.departure_time",
+                STATION, date));
+        queries.put("findBoardRowsByStationAndPlatform", new PlannedQuery(
+                "SELECT " + BOARD_COLUMNS + " " + JOIN_TRAINS +
+                "WHERE schedules.station_code = ? AND schedules.platform = ? " +
+                "ORDER BY schedules.schedule_date, schedules.departure_time",
+                STATION, "A1"));
+        queries.put("findByDestinationContainingIgnoreCaseOrderByDepartureTime", PlannedQuery.exempt(
+                "LIKE '%...%' cannot use an index; destination search is served by ScheduleSearchIndex"));
+        queries.put("findByPlatformOrderByScheduleDateAscDepartureTimeAsc", new PlannedQuery(
+                "SELECT * " + LEFT_JOIN_TRAINS + "WHERE schedules.platform = ? " +
+                "ORDER BY schedules.schedule_date, schedules.departure_time",
+                "A1"));
+        queries.put("findDelayedSchedules", new PlannedQuery(
+                "SELECT * " + JOIN_TRAINS + "WHERE schedules.schedule_date = ? AND schedules.status = 'DELAYED' " +
+                "ORDER BY schedules.delay_minutes DESC",
+                date));
+        queries.put("countByScheduleDateAndStatus", new PlannedQuery(
+                "SELECT COUNT(id) FROM schedules WHERE schedule_date = ? AND status = ?",
+                date, "DELAYED"));
+        queries.put("countByStatusForStationAndDate", new PlannedQuery(
+                "SELECT status, COUNT(id) FROM schedules WHERE station_code = ? AND schedule_date = ? GROUP BY status",
+                STATION, date));
+        queries.put("findSchedulesInTimeRange", new PlannedQuery(
+                "SELECT * " + JOIN_TRAINS + "WHERE schedules.schedule_date = ? " +
+                "AND schedules.departure_time BETWEEN ? AND ? ORDER BY schedules.departure_time",
+                date, morning, evening));
+        return queries;
+    }
+
+    /**
+     * The SQL for each ArchivedScheduleRepository method
+     * Keep this in step with ArchivedScheduleRepository
+     */
+    private static Map<String, PlannedQuery> plannedArchiveQueries() {
+        Map<String, PlannedQuery> queries = new LinkedHashMap<>();
+        queries.put("findBoardRowsByStationAndDate", new PlannedQuery(
+                "SELECT " + ARCHIVE_BOARD_COLUMNS + " FROM schedules_archive " +
+                "JOIN trains ON trains.id = schedules_archive.train_id " +
+                "WHERE schedules_archive.station_code = ? AND schedules_archive.schedule_date = ? " +
+                "ORDER BY schedules_archive.departure_time",
+                STATION, LocalDate.now().minusYears(1)));
+        return queries;
+    }
+
+    /**
+     * One query to EXPLAIN, or a documented reason why it is not checked
+     */
+    private static final class PlannedQuery {
+        final String sql;
+        final Object[] params;
+        final String exemptReason;
+
+        PlannedQuery(String sql, Object... params) {
+            this(sql, params, null);
+        }
+
+        private PlannedQuery(String sql, Object[] params, String exemptReason) {
+            this.sql = sql;
+            this.params = params;
+            this.exemptReason = exemptReason;
+        }
+
+        static PlannedQuery exempt(String reason) {
+            return new PlannedQuery(null, null, reason);
+        }
+    }
+}
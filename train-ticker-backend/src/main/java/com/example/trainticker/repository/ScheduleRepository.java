@@ -1,6 +1,8 @@
 package com.example.trainticker.repository;
 
+import com.example.trainticker.dto.TrainScheduleDTO;
 import com.example.trainticker.model.Schedule;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +16,10 @@ import java.util.List;
  * 
  * This interface provides data access methods for Schedule entities.
  * It includes both Spring Data JPA generated methods and custom queries.
+ * 
+ * Each query has a matching index (db/migration/V2__composite_schedule_indexes.sql,
+ * V6__station_code.sql for the per-station queries) and a matching entry in QueryPlanVerifier, which checks its plan at startup.
+ * When you add a query here, add it there too.
  */
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
@@ -21,20 +27,24 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     /**
      * Find all schedules for a specific date, ordered by departure time
      * This is perfect for our train ticker display
+     * @EntityGraph loads each schedule's train in the same query: Schedule.train is
+     * LAZY, and without it every row would fire its own SELECT (N+1)
      */
+    @EntityGraph(attributePaths = "train")
     List<Schedule> findByScheduleDateOrderByDepartureTime(LocalDate date);
     
     /**
      * Find schedules by date and status
      * Useful for filtering only on-time trains or delayed trains
      */
+    @EntityGraph(attributePaths = "train")
     List<Schedule> findByScheduleDateAndStatusOrderByDepartureTime(LocalDate date, Schedule.Status status);
     
     /**
      * Find schedules departing after a specific time today
      * Useful for showing only upcoming departures
      */
-    @Query("SELECT s FROM Schedule s WHERE s.scheduleDate = :date AND s.departureTime >= :time ORDER BY s.departureTime")
+    @Query("SELECT s FROM Schedule s JOIN FETCH s.train t WHERE s.scheduleDate = :date AND s.departureTime >= :time ORDER BY s.departureTime")
     List<Schedule> findUpcomingSchedules(@Param("date") LocalDate date, @Param("time") LocalTime time);
     
     /**
@@ -45,17 +55,42 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     @Query("SELECT s FROM Schedule s JOIN FETCH s.train t WHERE s.scheduleDate = :date ORDER BY s.departureTime")
     List<Schedule> findTodaysScheduleWithTrainInfo(@Param("date") LocalDate date);
     
+    /**
+     * Board rows of a station for a date, built directly as DTOs by a JPQL constructor expression
+     * No Schedule/Train entities are created, so there are no proxies, no dirty-checking
+     * snapshots and the persistence context does not grow with the size of the board
+     */
+    @Query("SELECT new com.example.trainticker.dto.TrainScheduleDTO(s.id, t.trainNumber, t.trainName, t.route, " +
+           "s.destination, s.departureTime, s.arrivalTime, s.platform, s.status, s.delayMinutes) " +
+           "FROM Schedule s JOIN s.train t WHERE s.station = :station AND s.scheduleDate = :date " +
+           "ORDER BY s.departureTime")
+    List<TrainScheduleDTO> findBoardRowsByStationAndDate(@Param("station") String station,
+                                                         @Param("date") LocalDate date);
+    
+    /**
+     * Board rows for a platform of a station (all dates, in date and time order), built directly as DTOs
+     * Covers the days still in this table; days moved to schedules_archive are not included
+     */
+    @Query("SELECT new com.example.trainticker.dto.TrainScheduleDTO(s.id, t.trainNumber, t.trainName, t.route, " +
+           "s.destination, s.departureTime, s.arrivalTime, s.platform, s.status, s.delayMinutes) " +
+           "FROM Schedule s JOIN s.train t WHERE s.station = :station AND s.platform = :platform " +
+           "ORDER BY s.scheduleDate, s.departureTime")
+    List<TrainScheduleDTO> findBoardRowsByStationAndPlatform(@Param("station") String station,
+                                                             @Param("platform") String platform);
+    
     /**
      * Find schedules by destination (case-insensitive)
      * Useful for passengers looking for trains to specific destinations
      */
+    @EntityGraph(attributePaths = "train")
     List<Schedule> findByDestinationContainingIgnoreCaseOrderByDepartureTime(String destination);
     
     /**
-     * Find schedules by platform
+     * Find schedules by platform, in date and time order
      * Useful for displaying departures from specific platforms
      */
-    List<Schedule> findByPlatformOrderByDepartureTime(String platform);
+    @EntityGraph(attributePaths = "train")
+    List<Schedule> findByPlatformOrderByScheduleDateAscDepartureTimeAsc(String platform);
     
     /**
      * Find delayed schedules for a specific date
@@ -70,6 +105,15 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
      */
     long countByScheduleDateAndStatus(LocalDate date, Schedule.Status status);
     
+    /**
+     * Count schedules per status of a station for a specific date in a single query
+     * Returns one row per status that occurs on that date (GROUP BY)
+     */
+    @Query("SELECT s.status AS status, COUNT(s) AS count FROM Schedule s " +
+           "WHERE s.station = :station AND s.scheduleDate = :date GROUP BY s.status")
+    List<StatusCount> countByStatusForStationAndDate(@Param("station") String station,
+                                                     @Param("date") LocalDate date);
+    
     /**
      * Find schedules within a time range for a specific date
      * Useful for showing departures in specific time windows (e.g., morning, afternoon)
@@ -78,4 +122,13 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findSchedulesInTimeRange(@Param("date") LocalDate date, 
                                           @Param("startTime") LocalTime startTime, 
                                           @Param("endTime") LocalTime endTime);
+    
+    /**
+     * Interface-based projection for countByStatusForStationAndDate
+     * Spring Data creates the implementation from the query aliases
+     */
+    interface StatusCount {
+        Schedule.Status getStatus();
+        long getCount();
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.trainticker.repository;
+
+import com.example.trainticker.model.ServicePattern;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service Pattern Repository Interface
+ *
+ * Recurring departures (see ServicePattern). The table holds one row per
+ * departure of the timetable, not per day, so it stays small.
+ */
+@Repository
+public interface ServicePatternRepository extends JpaRepository<ServicePattern, Long> {
+
+    /**
+     * Patterns whose date range includes a date, with their trains
+     * The day of the week is checked in Java (ServicePattern.runsOn)
+     */
+    @Query("SELECT p FROM ServicePattern p JOIN FETCH p.train " +
+           "WHERE p.startDate <= :date AND p.endDate >= :date ORDER BY p.departureTime")
+    List<ServicePattern> findValidOn(@Param("date") LocalDate date);
+
+    /**
+     * Patterns of one station whose date range includes a date, with their trains
+     * For the boards of dates that are not materialized (see TimetableExpander)
+     */
+    @Query("SELECT p FROM ServicePattern p JOIN FETCH p.train " +
+           "WHERE p.station = :station AND p.startDate <= :date AND p.endDate >= :date ORDER BY p.departureTime")
+    List<ServicePattern> findValidOnAt(@Param("station") String station, @Param("date") LocalDate date);
+
+    /**
+     * Every pattern with its train, in departure order
+     */
+    @Query("SELECT p FROM ServicePattern p JOIN FETCH p.train ORDER BY p.departureTime, p.id")
+    List<ServicePattern> findAllWithTrain();
+}
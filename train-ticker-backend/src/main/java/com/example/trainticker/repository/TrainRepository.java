@@ -1,8 +1,11 @@
 package com.example.trainticker.repository;
 
 import com.example.trainticker.model.Train;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +23,10 @@ import java.util.Optional;
  * - Long: The type of the entity's primary key
  * 
  * Spring Data JPA automatically implements this interface at runtime
+ * 
+ * The lookups by train number are cacheable queries: the result (the train's id)
+ * comes from the Hibernate query cache and the train from the "trains" entity
+ * cache. Hibernate drops the cached results whenever the trains table is written.
  */
 @Repository
 public interface TrainRepository extends JpaRepository<Train, Long> {
@@ -29,6 +36,7 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
      * Spring Data JPA automatically generates the query based on method name:
      * SELECT * FROM trains WHERE train_number = ?
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Train> findByTrainNumber(String trainNumber);
     
     /**
@@ -55,5 +63,6 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
      * Check if a train exists by train number
      * Returns true if train exists, false otherwise
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByTrainNumber(String trainNumber);
 }
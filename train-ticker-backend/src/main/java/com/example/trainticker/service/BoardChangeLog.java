@@ -0,0 +1,251 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardChangesDTO;
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Board Change Log
+ *
+ * Gives every change to a schedule row a revision number, so polling displays
+ * can ask "what changed since revision N?" instead of fetching the whole board.
+ * The cost of a poll is then proportional to the number of changes, not to
+ * the size of the board.
+ *
+ * Changes are taken from BoardUpdatedEvent: each row added, changed or removed
+ * in a snapshot swap becomes one entry. Only the newest maxEntries entries are
+ * kept; a client that is further behind is told to resync (fetch the full
+ * board and continue from the revision it is given).
+ *
+ * Revisions only cover boards in memory. When a board is loaded (again), the
+ * changes from before are unknown, so clients behind that point resync too.
+ *
+ * Revisions are only meaningful to the log that handed them out: another
+ * node, this node after a restart, or a station log started again all count
+ * from their own starting point. So every revision carries the id of its log
+ * (high bits) in front of a counter (low 32 bits), and a revision from any
+ * other log makes the client resync instead of being compared with this
+ * log's counter. A node takes its log ids in sequence from a random start, so
+ * its own logs never share an id and two nodes rarely do (1 in 2^21). The 53
+ * bits are exact as a JavaScript number. A log that runs out of counter
+ * starts over under a new id.
+ *
+ * Behind a load balancer, a client whose polls alternate between nodes
+ * resyncs on every switch; delta polling needs sticky sessions to pay off.
+ *
+ * Each station has its own log (its own revisions, lock and maxEntries), so
+ * a burst of changes at one station neither waits for nor pushes out the
+ * changes of another. A station's log is dropped with its last board.
+ */
+@Component
+public class BoardChangeLog {
+
+    private static final int COUNTER_BITS = 32;
+    private static final long MAX_COUNTER = (1L << COUNTER_BITS) - 1;
+    private static final long LOG_IDS = 1L << 21;
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final int maxEntries;
+
+    private final Map<String, StationLog> stations = new ConcurrentHashMap<>();
+    private final AtomicLong nextLogId = new AtomicLong(ThreadLocalRandom.current().nextLong(LOG_IDS));
+
+    @Autowired
+    public BoardChangeLog(BoardSnapshotStore boardSnapshotStore,
+                          @Value("${trainticker.changes.max-entries:100000}") int maxEntries) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Changes to a station's board of a date after the given revision
+     * Several changes to the same row are merged into its latest state
+     *
+     * @param since revision the client is at, or null to get a resync with the current revision
+     */
+    public BoardChangesDTO changesSince(String station, LocalDate date, Long since) {
+        // Loading the board starts recording its changes (and makes this client resync)
+        boardSnapshotStore.get(station, date);
+        StationLog log = stations.computeIfAbsent(station, s -> newLog());
+        long revision = log.latestRevision;
+        Long loaded = log.loadedAt.get(date);
+        if (since == null || !log.handedOut(since) || since < log.trimmedThrough || since > revision || loaded == null || since < loaded) {
+            return BoardChangesDTO.resync(date, since, revision);
+        }
+
+        Map<Long, Change> latestPerRow = new LinkedHashMap<>();
+        for (Change change : log.changes.subMap(since, false, revision, true).values()) {
+            if (change.date.equals(date)) {
+                latestPerRow.remove(change.scheduleId);
+                latestPerRow.put(change.scheduleId, change);
+            }
+        }
+        if (since < log.trimmedThrough) {
+            // Entries we just read may have been trimmed meanwhile
+            return BoardChangesDTO.resync(date, since, revision);
+        }
+
+        List<TrainScheduleDTO> updated = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Change change : latestPerRow.values()) {
+            if (change.row != null) {
+                updated.add(change.row);
+            } else {
+                removed.add(change.scheduleId);
+            }
+        }
+        return new BoardChangesDTO(date, since, revision, updated, removed);
+    }
+
+    @EventListener
+    public void onBoardUpdated(BoardUpdatedEvent event) {
+        LocalDate date = event.getDate();
+        StationLog log = lockLog(event.getStation());
+        try {
+            if (log.counterLeft() < (event.getPrevious() == null ? 1 : event.getDelta().size())) {
+                log = startOver(event.getStation(), log);
+            }
+            if (event.getPrevious() == null) {
+                log.loadedAt.put(date, ++log.nextRevision);
+            } else {
+                BoardDeltaDTO delta = event.getDelta();
+                for (TrainScheduleDTO row : delta.getUpdated()) {
+                    log.changes.put(++log.nextRevision, new Change(date, row.getId(), row));
+                }
+                for (Long id : delta.getRemoved()) {
+                    log.changes.put(++log.nextRevision, new Change(date, id, null));
+                }
+                log.size += delta.size();
+                while (log.size > maxEntries) {
+                    Map.Entry<Long, Change> oldest = log.changes.pollFirstEntry();
+                    if (oldest == null) {
+                        break;
+                    }
+                    log.trimmedThrough = oldest.getKey();
+                    log.size--;
+                }
+            }
+            log.latestRevision = log.nextRevision;
+        } finally {
+            log.appendLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onBoardEvicted(BoardEvictedEvent event) {
+        StationLog log = stations.get(event.getStation());
+        // Its entries age out of the log; a reload sets a new starting point
+        if (log == null || boardSnapshotStore.peek(event.getStation(), event.getDate()) != null) {
+            return;
+        }
+        log.appendLock.lock();
+        try {
+            log.loadedAt.remove(event.getDate());
+            if (log.loadedAt.isEmpty()) {
+                // No board of the station left; a new log starts at a later revision
+                stations.remove(event.getStation(), log);
+            }
+        } finally {
+            log.appendLock.unlock();
+        }
+    }
+
+    /**
+     * The log of a station, created if needed, with its append lock held
+     * Retries if the log was dropped (its last board evicted) before the lock was taken
+     */
+    private StationLog lockLog(String station) {
+        while (true) {
+            StationLog log = stations.computeIfAbsent(station, s -> newLog());
+            log.appendLock.lock();
+            if (stations.get(station) == log) {
+                return log;
+            }
+            log.appendLock.unlock();
+        }
+    }
+
+    private StationLog newLog() {
+        return new StationLog(1 + nextLogId.getAndIncrement() % (LOG_IDS - 1));
+    }
+
+    /**
+     * Replace a station's log whose counter ran out with a new one, locked like the old one was
+     * Its boards stay in memory, so they count as loaded at the new log's first revision
+     * (their clients resync once)
+     */
+    private StationLog startOver(String station, StationLog full) {
+        StationLog log = newLog();
+        log.appendLock.lock();
+        full.loadedAt.keySet().forEach(date -> log.loadedAt.put(date, log.nextRevision));
+        stations.put(station, log);
+        full.appendLock.unlock();
+        return log;
+    }
+
+    /**
+     * The change log of one station
+     */
+    private static final class StationLog {
+        final ConcurrentSkipListMap<Long, Change> changes = new ConcurrentSkipListMap<>();
+
+        // Revision at which each date's board was last loaded into memory
+        final Map<LocalDate, Long> loadedAt = new ConcurrentHashMap<>();
+
+        // Revisions are handed out and published together, so readers never see a gap
+        final ReentrantLock appendLock = new ReentrantLock();
+        long nextRevision;
+        int size;
+        volatile long latestRevision;
+        // Highest revision dropped from the log; anything after it is complete
+        volatile long trimmedThrough;
+
+        // Revisions of this log are id << COUNTER_BITS plus a counter
+        final long id;
+
+        StationLog(long id) {
+            this.id = id;
+            this.nextRevision = id << COUNTER_BITS;
+            this.latestRevision = nextRevision;
+            this.trimmedThrough = nextRevision;
+        }
+
+        boolean handedOut(long revision) {
+            return revision >>> COUNTER_BITS == id;
+        }
+
+        long counterLeft() {
+            return MAX_COUNTER - (nextRevision & MAX_COUNTER);
+        }
+    }
+
+    /**
+     * One row added or changed (row set) or removed (row null)
+     */
+    private static final class Change {
+        final LocalDate date;
+        final Long scheduleId;
+        final TrainScheduleDTO row;
+
+        Change(LocalDate date, Long scheduleId, TrainScheduleDTO row) {
+            this.date = date;
+            this.scheduleId = scheduleId;
+            this.row = row;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.trainticker.service;
+
+import java.time.LocalDate;
+
+/**
+ * Board Evicted Event
+ *
+ * Published by BoardSnapshotStore when a board (one station, one date) is
+ * dropped from memory. Components that keep state derived from the board can
+ * free it.
+ */
+public class BoardEvictedEvent {
+
+    private final BoardKey key;
+
+    public BoardEvictedEvent(BoardKey key) {
+        this.key = key;
+    }
+
+    public BoardKey getKey() {
+        return key;
+    }
+
+    public String getStation() {
+        return key.getStation();
+    }
+
+    public LocalDate getDate() {
+        return key.getDate();
+    }
+
+    @Override
+    public String toString() {
+        return "BoardEvictedEvent{board=" + key + '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.trainticker.service;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Board Invalidation
+ *
+ * One message on the BoardInvalidationChannel: "the board of this station and
+ * date changed in the database". A node that has the board in memory reloads it.
+ *
+ * platform names the platform whose cross-date view (/trains/platform/{platform})
+ * changed as well; null means any platform of the station may have changed
+ * (e.g. a whole board was imported).
+ *
+ * originNode is the node that made the change, so it can skip its own messages.
+ * publishedAtMillis is when the change was published, on the clock of the node
+ * that receives it (each channel converts), so the receiver can measure the lag.
+ */
+public final class BoardInvalidation {
+
+    private final String originNode;
+    private final BoardKey board;
+    private final String platform;
+    private final long publishedAtMillis;
+
+    public BoardInvalidation(String originNode, BoardKey board, String platform, long publishedAtMillis) {
+        this.originNode = Objects.requireNonNull(originNode);
+        this.board = Objects.requireNonNull(board);
+        this.platform = platform;
+        this.publishedAtMillis = publishedAtMillis;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public BoardKey getBoard() {
+        return board;
+    }
+
+    public String getStation() {
+        return board.getStation();
+    }
+
+    public LocalDate getDate() {
+        return board.getDate();
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public long getPublishedAtMillis() {
+        return publishedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardInvalidation{" +
+                "board=" + board +
+                ", platform='" + platform + '\'' +
+                ", originNode='" + originNode + '\'' +
+                ", publishedAtMillis=" + publishedAtMillis +
+                '}';
+    }
+}
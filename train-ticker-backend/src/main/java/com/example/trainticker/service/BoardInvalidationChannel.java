@@ -0,0 +1,38 @@
+package com.example.trainticker.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Board Invalidation Channel
+ *
+ * Carries BoardInvalidation messages between the backend nodes of one cluster
+ * (see BoardInvalidationService). Chosen with trainticker.cluster.channel:
+ * - none (default): a single node; nothing is sent
+ * - loopback: LoopbackInvalidationChannel, between the nodes in one JVM (tests)
+ * - mysql: MySqlInvalidationChannel, through a table every node polls
+ *
+ * A channel delivers every message to every node, the publishing node included;
+ * BoardInvalidationService skips its own. Delivery is at least once and in
+ * publishing order per node, but a message may arrive after a later one from
+ * another node: reloading a board is idempotent, so order does not matter.
+ */
+public interface BoardInvalidationChannel {
+
+    /**
+     * Send invalidations to every node
+     * Called after the change has committed
+     */
+    void publish(List<BoardInvalidation> invalidations);
+
+    /**
+     * Register the receiver of every batch of invalidations this node gets
+     * Called once, at startup
+     */
+    void setReceiver(Consumer<List<BoardInvalidation>> receiver);
+
+    /**
+     * Short name for logs and metrics (e.g. "mysql")
+     */
+    String getName();
+}
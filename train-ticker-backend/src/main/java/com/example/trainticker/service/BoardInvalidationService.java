@@ -0,0 +1,243 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.ClusterMetricsDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Board Invalidation Service
+ *
+ * Keeps the boards of several backend nodes in step. Each node serves its
+ * boards from memory (BoardSnapshotStore), so a change written by one node is
+ * otherwise only seen by the others at their next periodic refresh.
+ *
+ * The components that change schedules report which boards they changed once
+ * their transaction has committed:
+ * - ScheduleImportService and ServicePatternService: whole boards (station and date)
+ * - ScheduleStatusUpdateBuffer, after each flush: the boards and platforms of the
+ *   rows it wrote
+ * This service sends them over the BoardInvalidationChannel. A node receiving
+ * them reloads only those boards, and only if it has them in memory (the
+ * others are read fresh when first asked for), and drops only the cached
+ * platform views they name. The rest of the node's state (change log, SSE
+ * streams, statistics...) follows from the reload's BoardUpdatedEvent.
+ *
+ * Convergence lag: for every board in a received batch, the time from the
+ * earliest publish to the reload being done is recorded
+ * (trainticker.cluster.convergence, also on GET /api/cluster/metrics).
+ *
+ * Without a channel (trainticker.cluster.channel=none, the default) nothing is
+ * sent and every method here is a no-op.
+ */
+@Component
+public class BoardInvalidationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardInvalidationService.class);
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final BoardResponseCache boardResponseCache;
+    private final BoardInvalidationChannel channel;
+    private final String nodeId;
+    private final Timer convergence;
+
+    // Metrics
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder boardsReloaded = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    @Autowired
+    public BoardInvalidationService(BoardSnapshotStore boardSnapshotStore,
+                                    BoardResponseCache boardResponseCache,
+                                    ObjectProvider<BoardInvalidationChannel> channels,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${trainticker.cluster.node-id:}") String nodeId) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.boardResponseCache = boardResponseCache;
+        this.channel = channels.getIfAvailable();
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : truncate(nodeId.trim(), 64);
+        this.convergence = Timer.builder("trainticker.cluster.convergence")
+                .description("Time from another node publishing a board change until this node shows it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        if (channel != null) {
+            channel.setReceiver(this::receive);
+            log.info("Board invalidations over the {} channel, as node {}", channel.getName(), this.nodeId);
+        }
+    }
+
+    public boolean isEnabled() {
+        return channel != null;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Tell the other nodes that whole boards changed in the database
+     * (any row, on any platform of the station)
+     */
+    public void boardsChanged(Collection<BoardKey> boards) {
+        if (channel == null || boards.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<BoardInvalidation> invalidations = new ArrayList<>(boards.size());
+        for (BoardKey board : boards) {
+            invalidations.add(new BoardInvalidation(nodeId, board, null, now));
+        }
+        publish(invalidations);
+    }
+
+    /**
+     * Tell the other nodes that rows of boards changed in the database, on the given platforms only
+     */
+    public void platformsChanged(Map<BoardKey, Set<String>> platformsByBoard) {
+        if (channel == null || platformsByBoard.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<BoardInvalidation> invalidations = new ArrayList<>();
+        platformsByBoard.forEach((board, platforms) -> {
+            for (String platform : platforms) {
+                invalidations.add(new BoardInvalidation(nodeId, board, platform, now));
+            }
+        });
+        publish(invalidations);
+    }
+
+    public ClusterMetricsDTO getMetrics() {
+        return new ClusterMetricsDTO(nodeId, channel != null ? channel.getName() : "none",
+                published.sum(), publishFailures.sum(), received.sum(), boardsReloaded.sum(), reloadFailures.sum(),
+                lastLagMillis.get(), maxLagMillis.get(), convergence.count() > 0
+                        ? Math.round(convergence.mean(TimeUnit.MILLISECONDS)) : 0L);
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getPublishFailures() {
+        return publishFailures.sum();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getBoardsReloaded() {
+        return boardsReloaded.sum();
+    }
+
+    public long getReloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    private void publish(List<BoardInvalidation> invalidations) {
+        try {
+            channel.publish(invalidations);
+            published.add(invalidations.size());
+        } catch (Exception e) {
+            // The change is committed; the other nodes still pick it up with their periodic refresh
+            publishFailures.add(invalidations.size());
+            log.warn("Could not publish {} board invalidation(s): {}", invalidations.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a batch from the channel: reload each affected board once, however
+     * many messages name it
+     */
+    void receive(List<BoardInvalidation> batch) {
+        // Earliest publish per board, and the platform views to drop
+        Map<BoardKey, Long> boards = new LinkedHashMap<>();
+        Set<String> allPlatforms = new HashSet<>();
+        Set<String> platformViews = new HashSet<>();
+        for (BoardInvalidation invalidation : batch) {
+            if (nodeId.equals(invalidation.getOriginNode())) {
+                continue; // Made here; this node's boards already show it
+            }
+            received.increment();
+            boards.merge(invalidation.getBoard(), invalidation.getPublishedAtMillis(), Math::min);
+            if (invalidation.getPlatform() == null) {
+                allPlatforms.add(invalidation.getStation());
+            } else {
+                platformViews.add(BoardResponseCache.platformView(invalidation.getStation(),
+                        invalidation.getPlatform()));
+            }
+        }
+        if (boards.isEmpty()) {
+            return;
+        }
+
+        for (String station : allPlatforms) {
+            boardResponseCache.invalidateAll(BoardResponseCache.platformViewPrefix(station));
+        }
+        platformViews.forEach(boardResponseCache::invalidate);
+
+        for (Map.Entry<BoardKey, Long> entry : boards.entrySet()) {
+            BoardKey board = entry.getKey();
+            try {
+                // Boards not in memory are read fresh when first asked for; nothing to do
+                if (boardSnapshotStore.peek(board.getStation(), board.getDate()) != null) {
+                    boardSnapshotStore.refresh(board.getStation(), board.getDate());
+                    boardsReloaded.increment();
+                }
+            } catch (Exception e) {
+                // The periodic refresh tries again
+                reloadFailures.increment();
+                log.warn("Could not reload board {} after an invalidation: {}", board, e.getMessage());
+                continue;
+            }
+            long lag = Math.max(0, System.currentTimeMillis() - entry.getValue());
+            convergence.record(lag, TimeUnit.MILLISECONDS);
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    /**
+     * Host name plus a random suffix, so two nodes on one host (or a restarted
+     * node) never mistake each other's messages for their own
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return truncate(host, 55) + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+}
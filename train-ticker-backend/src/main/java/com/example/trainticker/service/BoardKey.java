@@ -0,0 +1,76 @@
+package com.example.trainticker.service;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Board Key
+ *
+ * Identifies one departure board: a station and a date.
+ * BoardSnapshotStore keeps one board per key, and the components that keep
+ * state derived from the boards (statistics, search index, change log...)
+ * key it the same way, so the boards of different stations never mix.
+ *
+ * Station codes are short and case-insensitive; normalizeStation() turns
+ * "bos " into "BOS" and rejects anything else, so a station given in a URL can
+ * be used as a map key and a query parameter as it is.
+ */
+public final class BoardKey {
+
+    private static final Pattern STATION_CODE = Pattern.compile("[A-Z0-9_-]{1,20}");
+
+    private final String station;
+    private final LocalDate date;
+
+    private BoardKey(String station, LocalDate date) {
+        this.station = station;
+        this.date = date;
+    }
+
+    /**
+     * Key for a station (already normalized) and a date
+     */
+    public static BoardKey of(String station, LocalDate date) {
+        return new BoardKey(Objects.requireNonNull(station), Objects.requireNonNull(date));
+    }
+
+    /**
+     * Upper-case and trim a station code
+     * Throws UnknownStationException if it is not 1-20 letters, digits, '-' or '_'
+     */
+    public static String normalizeStation(String code) {
+        String normalized = code != null ? code.trim().toUpperCase(Locale.ROOT) : "";
+        if (!STATION_CODE.matcher(normalized).matches()) {
+            throw new UnknownStationException("Invalid station code " + code +
+                    " (1 to 20 letters, digits, '-' or '_')");
+        }
+        return normalized;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BoardKey other)) return false;
+        return station.equals(other.station) && date.equals(other.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * station.hashCode() + date.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return station + "/" + date;
+    }
+}
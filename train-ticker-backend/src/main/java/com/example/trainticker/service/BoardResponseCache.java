@@ -0,0 +1,244 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.CompactBoardDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Board Response Cache
+ *
+ * Keeps the ready-to-send HTTP body of each board view (today, a date, a platform,
+ * delayed, stats) together with the version of the data it was built from.
+ *
+ * For each view we store:
+ * - the JSON bytes, serialized once with Jackson
+ * - the same bytes gzip-compressed, also computed once
+ * - a strong ETag (MD5 of the JSON bytes, like Spring's ShallowEtagHeaderFilter)
+ * - for views made of board rows, the compact CBOR encoding (CompactBoardDTO),
+ *   built the first time a display asks for it
+ *
+ * As long as the version has not changed, polls are answered straight from these
+ * bytes, and a matching If-None-Match can be answered with 304 Not Modified
+ * without calling the service layer or Jackson at all.
+ *
+ * The entries are a bounded Caffeine cache (max-entries), so evicting one is O(1).
+ * A body is built by one thread per view: callers that miss the same view at the
+ * same time wait for that body instead of each running the supplier.
+ */
+@Component
+public class BoardResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    private final Cache<String, CachedBody> entries;
+
+    @Autowired
+    public BoardResponseCache(ObjectMapper objectMapper,
+                              @Value("${trainticker.response-cache.max-entries:1000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .executor(Runnable::run) // Evict on the calling thread, not the common pool
+                .build();
+    }
+
+    /**
+     * Get the cached body for a view if it was built from the given version,
+     * otherwise build it from the supplier and cache it
+     *
+     * @param view    name of the board view, e.g. "date:MAIN/2024-01-15"
+     * @param version version of the data the view is built from
+     * @param maxAgeMillis  how long the entry may be reused even if the version
+     *                      is unchanged (0 = no limit)
+     * @param body    produces the response object; only called on a miss
+     */
+    public CachedBody get(String view, long version, long maxAgeMillis, Supplier<?> body) {
+        CachedBody cached = entries.getIfPresent(view);
+        if (isCurrent(cached, version, maxAgeMillis)) {
+            return cached;
+        }
+
+        // Built under the view's entry lock: concurrent misses of the view wait and reuse
+        // it. If the supplier throws, the entry is left as it was.
+        return entries.asMap().compute(view, (key, current) -> isCurrent(current, version, maxAgeMillis)
+                ? current
+                : build(version, body.get(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Same as above, for views that only change when their version changes
+     */
+    public CachedBody get(String view, long version, Supplier<?> body) {
+        return get(view, version, 0L, body);
+    }
+
+    /**
+     * The compact CBOR encoding of a cached body, or null if the view is not a list
+     * of board rows (e.g. statistics); computed once per body
+     */
+    public byte[] getCompact(CachedBody body) {
+        byte[] compact = body.compact;
+        if (compact == null && body.rows != null) {
+            try {
+                compact = cborMapper.writeValueAsBytes(CompactBoardDTO.of(body.rows));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            body.compact = compact; // Racing threads compute the same bytes
+        }
+        return compact;
+    }
+
+    /**
+     * Forget every cached body
+     */
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    /**
+     * Forget the cached body of one view, e.g. when another node changed its data
+     */
+    public void invalidate(String view) {
+        entries.invalidate(view);
+    }
+
+    /**
+     * Forget the cached bodies of every view whose name starts with a prefix
+     */
+    public void invalidateAll(String prefix) {
+        entries.asMap().keySet().removeIf(view -> view.startsWith(prefix));
+    }
+
+    /**
+     * Name of the cross-date view of one platform of a station
+     */
+    public static String platformView(String station, String platform) {
+        return platformViewPrefix(station) + platform;
+    }
+
+    /**
+     * Common start of the names of every platform view of a station
+     */
+    public static String platformViewPrefix(String station) {
+        return "platform:" + station + "/";
+    }
+
+    /**
+     * Number of cached bodies (approximate while entries are being evicted)
+     */
+    long size() {
+        return entries.estimatedSize();
+    }
+
+    private static boolean isCurrent(CachedBody cached, long version, long maxAgeMillis) {
+        return cached != null && cached.version == version
+                && (maxAgeMillis <= 0 || System.currentTimeMillis() - cached.createdAt < maxAgeMillis);
+    }
+
+    private CachedBody build(long version, Object value, long now) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new CachedBody(version, json, gzip(json), DigestUtils.md5DigestAsHex(json), now, boardRows(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize board response", e);
+        }
+    }
+
+    /**
+     * The value as board rows, if that is what it is
+     */
+    @SuppressWarnings("unchecked")
+    private static List<TrainScheduleDTO> boardRows(Object value) {
+        if (value instanceof List<?> list && (list.isEmpty() || list.get(0) instanceof TrainScheduleDTO)) {
+            return (List<TrainScheduleDTO>) list;
+        }
+        return null;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A precomputed response body for one version of one view
+     */
+    public static final class CachedBody {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+        private final String compactEtag;
+        private final long createdAt;
+        // Kept to build the compact encoding on demand; the rows are shared, not copied
+        private final List<TrainScheduleDTO> rows;
+        private volatile byte[] compact;
+
+        CachedBody(long version, byte[] json, byte[] gzip, String hash, long createdAt,
+                   List<TrainScheduleDTO> rows) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            // The gzip body is a different byte sequence, so it needs its own strong ETag
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+            this.compactEtag = "\"" + hash + "-cbor\"";
+            this.createdAt = createdAt;
+            this.rows = rows;
+        }
+
+        public long getVersion() { return version; }
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        public String getEtag() { return etag; }
+        public String getGzipEtag() { return gzipEtag; }
+        public String getCompactEtag() { return compactEtag; }
+        /** Number of board rows, or -1 if the view is not a list of rows */
+        public int getRowCount() { return rows != null ? rows.size() : -1; }
+
+        /**
+         * Check an If-None-Match header against the ETag of the representation chosen
+         * for this request (getEtag, getGzipEtag or getCompactEtag)
+         * Only that one counts: a client holding the gzip ETag has not cached the
+         * identity bytes, and a 304 must carry the ETag it validated
+         */
+        public boolean matches(String ifNoneMatch, String representationEtag) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2); // If-None-Match uses weak comparison
+                }
+                if (tag.equals("*") || tag.equals(representationEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+
+/**
+ * Board Row Overlay
+ *
+ * Changes that are already accepted but not yet written to the database
+ * (see ScheduleStatusUpdateBuffer). BoardSnapshotStore applies every overlay
+ * to the rows it loads, so a reload never brings back an older value.
+ */
+public interface BoardRowOverlay {
+
+    /**
+     * The row as it should be shown, or the same instance if nothing is pending for it
+     */
+    TrainScheduleDTO apply(TrainScheduleDTO row);
+}
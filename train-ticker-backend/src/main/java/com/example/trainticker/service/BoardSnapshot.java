@@ -0,0 +1,243 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Board Snapshot Class
+ *
+ * An immutable, in-memory copy of one day's departure board at one station.
+ * Rows are kept sorted by departure time so that "upcoming" and "time range"
+ * lookups can be answered with a binary search instead of a database query.
+ *
+ * A snapshot is never modified after it is built. When the data changes,
+ * BoardSnapshotStore builds a new snapshot and swaps it in, so readers always
+ * see a complete and consistent board.
+ */
+public final class BoardSnapshot {
+
+    private final BoardKey key;
+    private final LocalDate date;
+    private final long version;
+
+    // Departure time of each row, in the same order as rows
+    private final long[] departureNanos;
+
+    // Schedule ids in ascending order, and the row index each one points to
+    private final long[] sortedIds;
+    private final int[] rowOfSortedId;
+
+    // The DTOs are shared between all readers and must be treated as read-only
+    private final List<TrainScheduleDTO> rows;
+    private final List<TrainScheduleDTO> delayedRows;
+
+    private BoardSnapshot(BoardKey key, long version, TrainScheduleDTO[] rows) {
+        this.key = key;
+        this.date = key.getDate();
+        this.version = version;
+        this.rows = Collections.unmodifiableList(Arrays.asList(rows));
+
+        this.departureNanos = new long[rows.length];
+        List<TrainScheduleDTO> delayed = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            departureNanos[i] = rows[i].getDepartureTime().toNanoOfDay();
+            if (rows[i].isDelayed()) {
+                delayed.add(rows[i]);
+            }
+        }
+
+        // Same order as ScheduleRepository.findDelayedSchedules: biggest delay first
+        delayed.sort(Comparator.comparing(BoardSnapshot::delayOf).reversed());
+        this.delayedRows = Collections.unmodifiableList(delayed);
+
+        // Id index for getRow(id): a sorted array is much smaller than a HashMap<Long, ...>
+        Integer[] order = new Integer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> idOf(rows[i])));
+        this.sortedIds = new long[rows.length];
+        this.rowOfSortedId = new int[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = idOf(rows[order[i]]);
+            rowOfSortedId[i] = order[i];
+        }
+    }
+
+    /**
+     * Build a snapshot from schedule entities
+     * The train association must already be loaded (e.g. with JOIN FETCH)
+     */
+    public static BoardSnapshot of(BoardKey key, long version, List<Schedule> schedules) {
+        List<Schedule> sorted = new ArrayList<>(schedules);
+        sorted.sort(Comparator.comparing(Schedule::getDepartureTime));
+
+        TrainScheduleDTO[] dtos = new TrainScheduleDTO[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            dtos[i] = new TrainScheduleDTO(sorted.get(i));
+        }
+        return new BoardSnapshot(key, version, dtos);
+    }
+
+    /**
+     * Build a snapshot from board rows that were already projected into DTOs
+     */
+    public static BoardSnapshot ofRows(BoardKey key, long version, List<TrainScheduleDTO> rows) {
+        TrainScheduleDTO[] dtos = rows.toArray(new TrainScheduleDTO[0]);
+        // Usually already in order (ORDER BY departure_time), which makes this sort O(n)
+        Arrays.sort(dtos, Comparator.comparing(TrainScheduleDTO::getDepartureTime));
+        return new BoardSnapshot(key, version, dtos);
+    }
+
+    public BoardKey getKey() {
+        return key;
+    }
+
+    public String getStation() {
+        return key.getStation();
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * All rows for the day, sorted by departure time
+     */
+    public List<TrainScheduleDTO> getRows() {
+        return rows;
+    }
+
+    /**
+     * Delayed rows only, biggest delay first
+     */
+    public List<TrainScheduleDTO> getDelayedRows() {
+        return delayedRows;
+    }
+
+    /**
+     * Find a row by schedule id, or null if it is not on this board
+     */
+    public TrainScheduleDTO getRow(long scheduleId) {
+        int index = Arrays.binarySearch(sortedIds, scheduleId);
+        return index >= 0 ? rows.get(rowOfSortedId[index]) : null;
+    }
+
+    /**
+     * Rows departing at or after the given time
+     */
+    public List<TrainScheduleDTO> getDepartingFrom(LocalTime time) {
+        return rows.subList(lowerBound(time.toNanoOfDay()), rows.size());
+    }
+
+    /**
+     * Rows departing between start and end (both inclusive, like SQL BETWEEN)
+     */
+    public List<TrainScheduleDTO> getDepartingBetween(LocalTime startTime, LocalTime endTime) {
+        int from = lowerBound(startTime.toNanoOfDay());
+        int to = upperBound(endTime.toNanoOfDay());
+        return from < to ? rows.subList(from, to) : Collections.emptyList();
+    }
+
+    /**
+     * Check whether another snapshot shows exactly the same board
+     * Used to avoid swapping (and bumping the version) when a reload found no changes
+     */
+    public boolean hasSameRows(BoardSnapshot other) {
+        return other != null && rows.equals(other.rows);
+    }
+    
+    /**
+     * Work out which rows changed since an older snapshot of the same date
+     * Rows are matched by schedule id; a null previous snapshot means everything is new
+     */
+    public BoardDeltaDTO changesSince(BoardSnapshot previous) {
+        List<TrainScheduleDTO> updated = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        if (previous == null) {
+            updated.addAll(rows);
+            return new BoardDeltaDTO(date, 0L, version, updated, removed);
+        }
+        
+        for (TrainScheduleDTO row : rows) {
+            if (!row.equals(previous.getRow(idOf(row)))) {
+                updated.add(row);
+            }
+        }
+        for (TrainScheduleDTO row : previous.rows) {
+            if (getRow(idOf(row)) == null) {
+                removed.add(row.getId());
+            }
+        }
+        return new BoardDeltaDTO(date, previous.version, version, updated, removed);
+    }
+
+    /**
+     * First index whose departure time is >= the given time
+     */
+    private int lowerBound(long nanos) {
+        int low = 0;
+        int high = departureNanos.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureNanos[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First index whose departure time is > the given time
+     */
+    private int upperBound(long nanos) {
+        int low = 0;
+        int high = departureNanos.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureNanos[mid] <= nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long idOf(TrainScheduleDTO dto) {
+        return dto.getId() != null ? dto.getId() : 0L;
+    }
+
+    private static int delayOf(TrainScheduleDTO dto) {
+        return dto.getDelayMinutes() != null ? dto.getDelayMinutes() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSnapshot{" +
+                "station=" + key.getStation() +
+                ", date=" + date +
+                ", version=" + version +
+                ", rows=" + rows.size() +
+                '}';
+    }
+}
@@ -0,0 +1,479 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Board Snapshot Store
+ *
+ * Keeps one BoardSnapshot per station and schedule date in memory.
+ * The first request for a board loads it from the database; every request after
+ * that is answered from memory without a database round trip.
+ *
+ * Snapshots are replaced atomically: a new snapshot is fully built first and
+ * then published with a single volatile write, so readers never see a
+ * half-updated board.
+ *
+ * Every swap is announced with a BoardUpdatedEvent, and every eviction
+ * with a BoardEvictedEvent.
+ *
+ * Rows are passed through every BoardRowOverlay on the way in, so changes that
+ * are accepted but not yet in the database (pending status updates) are shown
+ * straight away and survive a reload.
+ *
+ * Train number, name and route strings are shared between rows and dates
+ * through TrainDirectory.
+ *
+ * The boards are sharded by station: each station has its own map of dates,
+ * its own lock per board, its own latest version and its own maxDates budget.
+ * Loading, swapping or evicting a board of one station never waits for, bumps
+ * the version of, or pushes out a board of another. With more than maxStations
+ * stations in memory, the least recently used station (never the default one)
+ * is dropped as a whole. Only stations that exist get a shard (see
+ * StationDirectory): any other code is answered with StationNotFoundException.
+ */
+@Component
+public class BoardSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardSnapshotStore.class);
+
+    private final ScheduleArchiveService scheduleArchiveService;
+    private final TrainDirectory trainDirectory;
+    private final TimetableExpander timetableExpander;
+    private final StationDirectory stationDirectory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<BoardRowOverlay> overlays;
+    private final int maxDates;
+    private final int maxStations;
+    private final String defaultStation;
+
+    private final Map<String, StationBoards> stations = new ConcurrentHashMap<>();
+
+    // Every published snapshot gets a new, higher version number
+    private final AtomicLong versions = new AtomicLong();
+
+    @Autowired
+    public BoardSnapshotStore(ScheduleArchiveService scheduleArchiveService,
+                              TrainDirectory trainDirectory,
+                              TimetableExpander timetableExpander,
+                              StationDirectory stationDirectory,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectProvider<BoardRowOverlay> overlays,
+                              @Value("${trainticker.snapshot.max-dates:14}") int maxDates,
+                              @Value("${trainticker.snapshot.max-stations:500}") int maxStations,
+                              @Value("${trainticker.stations.default:MAIN}") String defaultStation) {
+        this.scheduleArchiveService = scheduleArchiveService;
+        this.trainDirectory = trainDirectory;
+        this.timetableExpander = timetableExpander;
+        this.stationDirectory = stationDirectory;
+        this.eventPublisher = eventPublisher;
+        this.overlays = overlays;
+        this.maxDates = maxDates;
+        this.maxStations = maxStations;
+        this.defaultStation = BoardKey.normalizeStation(defaultStation);
+    }
+
+    /**
+     * The station shown by the endpoints that do not name one
+     */
+    public String getDefaultStation() {
+        return defaultStation;
+    }
+
+    /**
+     * The station an endpoint was asked for: normalized, or the default station if none was given
+     * Throws UnknownStationException for an invalid station code, and its subclass
+     * StationNotFoundException for a code that names no station
+     */
+    public String resolveStation(String station) {
+        if (station == null) {
+            return defaultStation;
+        }
+        String code = BoardKey.normalizeStation(station);
+        if (!stations.containsKey(code) && !stationDirectory.exists(code)) {
+            throw new StationNotFoundException(code);
+        }
+        return code;
+    }
+
+    /**
+     * Get the board of a station for a date, loading it from the database on first use
+     */
+    public BoardSnapshot get(String station, LocalDate date) {
+        StationBoards boards = boardsOf(station);
+        BoardHolder holder = boards.holders.computeIfAbsent(date, d -> new BoardHolder());
+        long now = System.nanoTime();
+        holder.lastAccess = now;
+        boards.lastAccess = now;
+
+        BoardSnapshot snapshot = holder.snapshot;
+        if (snapshot == null) {
+            // Only one thread loads a given board; the others wait for its result
+            holder.lock.lock();
+            try {
+                snapshot = holder.snapshot;
+                if (snapshot == null) {
+                    snapshot = load(boards, BoardKey.of(station, date));
+                    holder.snapshot = snapshot;
+                    eventPublisher.publishEvent(new BoardUpdatedEvent(null, snapshot));
+                }
+            } finally {
+                holder.lock.unlock();
+            }
+            evictIfNeeded(boards);
+            evictStationsIfNeeded();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the board of a station for a date only if it is already in memory
+     * Returns null instead of touching the database
+     */
+    public BoardSnapshot peek(String station, LocalDate date) {
+        StationBoards boards = stations.get(station);
+        BoardHolder holder = boards != null ? boards.holders.get(date) : null;
+        return holder != null ? holder.snapshot : null;
+    }
+
+    /**
+     * Find the board in memory of one station that contains a schedule
+     * Returns null if none of its loaded boards has it
+     */
+    public BoardSnapshot findBoardContaining(String station, long scheduleId) {
+        StationBoards boards = stations.get(station);
+        return boards != null ? boards.findBoardContaining(scheduleId) : null;
+    }
+
+    /**
+     * Find the board in memory that contains a schedule, at any station
+     * Returns null if no loaded board has it (its date may simply not be loaded)
+     */
+    public BoardSnapshot findBoardContaining(long scheduleId) {
+        for (StationBoards boards : stations.values()) {
+            BoardSnapshot snapshot = boards.findBoardContaining(scheduleId);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reload a board from the database and swap in the new snapshot
+     * If nothing changed the current snapshot (and its version) is kept
+     */
+    public BoardSnapshot refresh(String station, LocalDate date) {
+        StationBoards boards = boardsOf(station);
+        BoardHolder holder = boards.holders.computeIfAbsent(date, d -> new BoardHolder());
+        holder.lock.lock();
+        try {
+            BoardSnapshot current = holder.snapshot;
+            BoardSnapshot fresh = load(boards, BoardKey.of(station, date));
+            if (fresh.hasSameRows(current)) {
+                return current;
+            }
+            holder.snapshot = fresh;
+            log.debug("Swapped board for {}: {}", fresh.getKey(), fresh);
+            eventPublisher.publishEvent(new BoardUpdatedEvent(current, fresh));
+            return fresh;
+        } finally {
+            holder.lock.unlock();
+        }
+    }
+
+    /**
+     * Reload the boards of a date that are in memory, at every station
+     * For changes whose stations are not known (e.g. a whole date was replaced)
+     */
+    public void refreshLoaded(LocalDate date) {
+        for (StationBoards boards : stations.values()) {
+            BoardHolder holder = boards.holders.get(date);
+            if (holder != null && holder.snapshot != null) {
+                refresh(boards.station, date);
+            }
+        }
+    }
+
+    /**
+     * Re-apply the overlays to a board in memory, without going to the database
+     * Called when new changes were accepted; copy-on-write like refresh()
+     * Returns null if the board is not in memory
+     */
+    public BoardSnapshot applyOverlays(String station, LocalDate date) {
+        StationBoards boards = stations.get(station);
+        BoardHolder holder = boards != null ? boards.holders.get(date) : null;
+        if (holder == null) {
+            return null;
+        }
+        holder.lock.lock();
+        try {
+            BoardSnapshot current = holder.snapshot;
+            if (current == null) {
+                return null;
+            }
+            List<TrainScheduleDTO> rows = overlay(current.getRows());
+            if (rows == current.getRows()) {
+                return current;
+            }
+            BoardSnapshot fresh = BoardSnapshot.ofRows(current.getKey(), boards.nextVersion(), rows);
+            holder.snapshot = fresh;
+            eventPublisher.publishEvent(new BoardUpdatedEvent(current, fresh));
+            return fresh;
+        } finally {
+            holder.lock.unlock();
+        }
+    }
+
+    /**
+     * Highest version handed out so far, across all stations and dates
+     * Changes whenever any board in memory is loaded or swapped
+     */
+    public long getLatestVersion() {
+        return versions.get();
+    }
+
+    /**
+     * Highest version handed out so far to a station's boards (0 if none is in memory)
+     * Changes only when a board of that station is loaded or swapped
+     */
+    public long getLatestVersion(String station) {
+        StationBoards boards = stations.get(station);
+        return boards != null ? boards.latestVersion.get() : 0L;
+    }
+
+    /**
+     * Codes of the stations with boards in memory, sorted
+     */
+    public List<String> getLoadedStations() {
+        return new ArrayList<>(new TreeSet<>(stations.keySet()));
+    }
+
+    /**
+     * Dates of a station's boards in memory from a date on, sorted
+     */
+    public List<LocalDate> getLoadedDates(String station, LocalDate from) {
+        StationBoards boards = stations.get(station);
+        List<LocalDate> dates = new ArrayList<>();
+        if (boards != null) {
+            for (Map.Entry<LocalDate, BoardHolder> entry : boards.holders.entrySet()) {
+                if (entry.getValue().snapshot != null && !entry.getKey().isBefore(from)) {
+                    dates.add(entry.getKey());
+                }
+            }
+        }
+        dates.sort(null);
+        return dates;
+    }
+
+    /**
+     * Number of stations with boards in memory
+     */
+    public int getStationCount() {
+        return stations.size();
+    }
+
+    /**
+     * Number of boards in memory, over all stations
+     */
+    public int getBoardCount() {
+        int count = 0;
+        for (StationBoards boards : stations.values()) {
+            count += boards.holders.size();
+        }
+        return count;
+    }
+
+    /**
+     * Drop a board from memory; the next request will reload it
+     */
+    public void evict(String station, LocalDate date) {
+        StationBoards boards = stations.get(station);
+        if (boards != null && boards.holders.remove(date) != null) {
+            eventPublisher.publishEvent(new BoardEvictedEvent(BoardKey.of(station, date)));
+        }
+    }
+
+    /**
+     * Periodically reload every board that is in memory
+     * This picks up changes made directly in the database (e.g. SQL scripts)
+     * Runs on the scheduler thread, never on a request thread
+     */
+    @Scheduled(fixedDelayString = "${trainticker.snapshot.refresh-interval-ms:30000}",
+               initialDelayString = "${trainticker.snapshot.refresh-interval-ms:30000}")
+    public void refreshLoadedBoards() {
+        for (StationBoards boards : stations.values()) {
+            for (Map.Entry<LocalDate, BoardHolder> entry : boards.holders.entrySet()) {
+                if (entry.getValue().snapshot == null) {
+                    continue;
+                }
+                try {
+                    refresh(boards.station, entry.getKey());
+                } catch (Exception e) {
+                    // Keep serving the previous snapshot if the database is unavailable
+                    log.warn("Could not refresh board for {}/{}: {}", boards.station, entry.getKey(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * The boards of a station, created on first use for a station that exists only
+     * Throws StationNotFoundException otherwise, so a made-up code never takes a place
+     */
+    private StationBoards boardsOf(String station) {
+        StationBoards boards = stations.get(station);
+        if (boards != null) {
+            return boards;
+        }
+        if (!stationDirectory.exists(station)) {
+            throw new StationNotFoundException(station);
+        }
+        return stations.computeIfAbsent(station, StationBoards::new);
+    }
+
+    private BoardSnapshot load(StationBoards boards, BoardKey key) {
+        // DTO projection: no managed entities are loaded just to be copied
+        // Past dates come from the archive table (see ScheduleArchiveService)
+        List<TrainScheduleDTO> rows = scheduleArchiveService.findBoardRowsByDate(key.getStation(), key.getDate());
+        // Read only: a future date that is not materialized adds its patterns' departures in memory
+        rows = timetableExpander.expand(key.getStation(), key.getDate(), rows);
+        // Share one copy of each train's name and route across all boards in memory
+        trainDirectory.intern(rows);
+        rows = overlay(rows);
+        BoardSnapshot snapshot = BoardSnapshot.ofRows(key, boards.nextVersion(), rows);
+        log.debug("Loaded board for {}: {}", key, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Pass rows through every overlay
+     * Returns the same list if no overlay changed anything
+     */
+    private List<TrainScheduleDTO> overlay(List<TrainScheduleDTO> rows) {
+        List<TrainScheduleDTO> result = rows;
+        for (BoardRowOverlay overlay : overlays) {
+            List<TrainScheduleDTO> changed = null;
+            for (int i = 0; i < result.size(); i++) {
+                TrainScheduleDTO row = result.get(i);
+                TrainScheduleDTO shown = overlay.apply(row);
+                if (shown != row) {
+                    if (changed == null) {
+                        changed = new ArrayList<>(result);
+                    }
+                    changed.set(i, shown);
+                }
+            }
+            if (changed != null) {
+                result = changed;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keep a station's memory bounded by dropping its least recently used dates
+     * Today's board is never evicted
+     */
+    private void evictIfNeeded(StationBoards boards) {
+        LocalDate today = LocalDate.now();
+        while (boards.holders.size() > maxDates) {
+            LocalDate oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<LocalDate, BoardHolder> entry : boards.holders.entrySet()) {
+                if (!entry.getKey().equals(today) && entry.getValue().lastAccess < oldestAccess) {
+                    oldest = entry.getKey();
+                    oldestAccess = entry.getValue().lastAccess;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            evict(boards.station, oldest);
+        }
+    }
+
+    /**
+     * Keep the number of stations bounded by dropping the least recently used one
+     * with all its boards; the default station is never dropped
+     */
+    private void evictStationsIfNeeded() {
+        while (stations.size() > maxStations) {
+            StationBoards oldest = null;
+            for (StationBoards boards : stations.values()) {
+                if (!boards.station.equals(defaultStation)
+                        && (oldest == null || boards.lastAccess < oldest.lastAccess)) {
+                    oldest = boards;
+                }
+            }
+            if (oldest == null || !stations.remove(oldest.station, oldest)) {
+                return;
+            }
+            for (LocalDate date : oldest.holders.keySet()) {
+                eventPublisher.publishEvent(new BoardEvictedEvent(BoardKey.of(oldest.station, date)));
+            }
+            log.debug("Dropped the boards of station {} from memory", oldest.station);
+        }
+    }
+
+    /**
+     * The boards of one station (one shard)
+     */
+    private final class StationBoards {
+        final String station;
+        final Map<LocalDate, BoardHolder> holders = new ConcurrentHashMap<>();
+        final AtomicLong latestVersion = new AtomicLong();
+        volatile long lastAccess = System.nanoTime();
+
+        StationBoards(String station) {
+            this.station = station;
+        }
+
+        /**
+         * A new version for one of this station's boards
+         * Two boards of the station may race here, so its latest version only moves up
+         */
+        long nextVersion() {
+            long version = versions.incrementAndGet();
+            latestVersion.accumulateAndGet(version, Math::max);
+            return version;
+        }
+
+        BoardSnapshot findBoardContaining(long scheduleId) {
+            for (BoardHolder holder : holders.values()) {
+                BoardSnapshot snapshot = holder.snapshot;
+                if (snapshot != null && snapshot.getRow(scheduleId) != null) {
+                    return snapshot;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Mutable slot holding the current snapshot for one board
+     * Uses a ReentrantLock rather than synchronized: a virtual thread that blocks
+     * on the database inside synchronized would pin its carrier thread
+     */
+    private static final class BoardHolder {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile BoardSnapshot snapshot;
+        volatile long lastAccess = System.nanoTime();
+    }
+}
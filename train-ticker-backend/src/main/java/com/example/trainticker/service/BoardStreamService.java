@@ -0,0 +1,390 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Board Stream Service
+ *
+ * Pushes live departure board updates to connected displays over Server-Sent Events.
+ *
+ * How it works:
+ * - A new subscriber first receives the whole board ("board" event)
+ * - Whenever BoardSnapshotStore swaps in a new snapshot, subscribers of that board
+ *   (station and date) receive only the rows that changed ("changes" event)
+ *
+ * No thread is held per client: the request is async, and a small fixed pool of
+ * sender threads writes to whichever subscribers have something new.
+ *
+ * SseEmitter.send blocks until the container has taken the bytes, and a
+ * blocked servlet write cannot be interrupted. So the writes run on a fixed
+ * pool of writer threads, and the senders never wait for them. A subscriber
+ * has at most one write queued or in flight; its next update is only built
+ * once that write is done. A write that is not done within writeTimeoutMillis
+ * drops the subscriber (it reconnects and gets the full board): nothing more
+ * is written to it, and the writer thread it holds is freed when the
+ * container gives up on the connection. However many clients stall, they hold
+ * at most writerThreads threads.
+ *
+ * Slow consumers are coalesced rather than queued: each subscriber only remembers
+ * the last snapshot it was sent. When it is ready for more, it gets a single delta
+ * from that snapshot to the current one, so intermediate versions are skipped.
+ * If it fell so far behind that the delta is bigger than the board, it gets the
+ * full board instead.
+ */
+@Service
+public class BoardStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardStreamService.class);
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final long writeTimeoutMillis;
+    private final ExecutorService senders;
+    // Runs the blocking writes; a thread stuck on a dropped client is released when its connection closes
+    private final ExecutorService writers;
+    private final long writeTimeoutNanos;
+    private final LongAdder slowSubscribersDropped = new LongAdder();
+
+    private final Map<BoardKey, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    // Serialized payloads for the current version of each board, shared by all its subscribers
+    private final Map<BoardKey, Payloads> payloads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BoardStreamService(BoardSnapshotStore boardSnapshotStore,
+                              ObjectMapper objectMapper,
+                              @Value("${trainticker.stream.timeout-ms:1800000}") long timeoutMillis,
+                              @Value("${trainticker.stream.sender-threads:4}") int senderThreads,
+                              @Value("${trainticker.stream.write-timeout-ms:5000}") long writeTimeoutMillis,
+                              @Value("${trainticker.stream.writer-threads:16}") int writerThreads) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "board-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "board-stream-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Register a new display for a station's board of a date
+     * The full board is sent right away; changes follow as they happen
+     */
+    public SseEmitter subscribe(String station, LocalDate date) {
+        return subscribe(BoardKey.of(station, date), new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(BoardKey key, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(key, emitter);
+
+        // Atomic per board, so remove() cannot drop the set between creating and adding to it
+        subscribers.compute(subscriber.key, (board, forDate) -> {
+            Set<Subscriber> set = forDate != null ? forDate : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Number of currently connected displays
+     */
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Subscribers dropped because a write took longer than the write timeout
+     */
+    public long getSlowSubscribersDropped() {
+        return slowSubscribersDropped.sum();
+    }
+
+    /**
+     * Called after every snapshot swap; wakes up the subscribers of that board
+     */
+    @EventListener
+    public void onBoardUpdated(BoardUpdatedEvent event) {
+        Set<Subscriber> forDate = subscribers.get(event.getKey());
+        if (forDate == null || forDate.isEmpty()) {
+            payloads.remove(event.getKey());
+            return;
+        }
+        for (Subscriber subscriber : forDate) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Send a comment line periodically so dead connections are detected and
+     * proxies don't close idle streams
+     */
+    @Scheduled(fixedDelayString = "${trainticker.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (Set<Subscriber> forDate : subscribers.values()) {
+            for (Subscriber subscriber : forDate) {
+                if (subscriber.sending.compareAndSet(false, true)) {
+                    write(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the subscribers whose write has been in flight for longer than the write timeout
+     * Only marks them: the emitter is completed by the writer thread once the write
+     * returns, since completing it here would wait for the stuck write
+     */
+    @Scheduled(fixedDelayString = "${trainticker.stream.write-timeout-ms:5000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> forDate : subscribers.values()) {
+            for (Subscriber subscriber : forDate) {
+                long started = subscriber.writeStartedNanos;
+                if (started != 0 && now - started > writeTimeoutNanos && !subscriber.dropped) {
+                    subscriber.dropped = true;
+                    slowSubscribersDropped.increment();
+                    log.debug("Dropping board stream subscriber for {}: no event taken within {} ms",
+                            subscriber.key, writeTimeoutMillis);
+                    remove(subscriber);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Queue a subscriber for sending, unless it is already queued
+     * This is what makes updates coalesce for slow consumers
+     */
+    private void schedule(Subscriber subscriber) {
+        subscriber.dirty.set(true);
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Build the subscriber's next update and hand it to a writer
+     * Runs while holding the subscriber's "sending" flag; the write releases it
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscriber.dirty.getAndSet(false)) {
+                BoardSnapshot current = boardSnapshotStore.get(subscriber.key.getStation(), subscriber.key.getDate());
+                BoardSnapshot lastSent = subscriber.lastSent;
+                if (lastSent == current) {
+                    continue;
+                }
+                SseEmitter.SseEventBuilder event = buildUpdate(lastSent, current);
+                subscriber.lastSent = current;
+                if (event != null) {
+                    write(subscriber, event);
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The update could not be built; this stream is done
+            drop(subscriber, e);
+            subscriber.sending.set(false);
+            return;
+        }
+        release(subscriber);
+    }
+
+    /**
+     * The event that takes a subscriber from lastSent to current, or null if nothing changed
+     */
+    private SseEmitter.SseEventBuilder buildUpdate(BoardSnapshot lastSent, BoardSnapshot current) throws IOException {
+        if (lastSent == null) {
+            return SseEmitter.event()
+                    .name("board")
+                    .id(String.valueOf(current.getVersion()))
+                    .data(boardPayload(current));
+        }
+
+        Payloads cached = payloadsFor(current);
+        String payload = cached.deltas.get(lastSent.getVersion());
+        if (payload == null) {
+            BoardDeltaDTO delta = current.changesSince(lastSent);
+            if (delta.isEmpty()) {
+                return null;
+            }
+            if (delta.size() > current.size()) {
+                // Cheaper to start over than to apply a huge delta
+                return SseEmitter.event()
+                        .name("board")
+                        .id(String.valueOf(current.getVersion()))
+                        .data(boardPayload(current));
+            }
+            payload = objectMapper.writeValueAsString(delta);
+            cached.deltas.put(lastSent.getVersion(), payload);
+        }
+        return SseEmitter.event()
+                .name("changes")
+                .id(String.valueOf(current.getVersion()))
+                .data(payload);
+    }
+
+    /**
+     * Queue one event on the writers without waiting for it
+     * The caller holds the subscriber's "sending" flag; it is released once the write is done
+     */
+    private void write(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        writers.execute(() -> {
+            try {
+                if (!subscriber.dropped) {
+                    subscriber.writeStartedNanos = System.nanoTime();
+                    subscriber.emitter.send(event);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Client went away (the emitter callbacks may not fire for a broken pipe)
+                subscriber.dropped = true;
+            } finally {
+                subscriber.writeStartedNanos = 0;
+            }
+            if (subscriber.dropped) {
+                drop(subscriber, new IOException("Board stream closed"));
+                subscriber.sending.set(false);
+                return;
+            }
+            release(subscriber);
+        });
+    }
+
+    /**
+     * Give up the "sending" flag, and start over if an update arrived meanwhile
+     */
+    private void release(Subscriber subscriber) {
+        subscriber.sending.set(false);
+        if (subscriber.dirty.get() && !subscriber.dropped && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        log.debug("Dropping board stream subscriber for {}: {}", subscriber.key, cause.getMessage());
+        subscriber.dropped = true;
+        remove(subscriber);
+        try {
+            subscriber.emitter.completeWithError(cause);
+        } catch (RuntimeException e) {
+            // Already completed
+        }
+    }
+
+    private String boardPayload(BoardSnapshot snapshot) throws JsonProcessingException {
+        Payloads cached = payloadsFor(snapshot);
+        String payload = cached.board;
+        if (payload == null) {
+            payload = objectMapper.writeValueAsString(snapshot.getRows());
+            cached.board = payload;
+        }
+        return payload;
+    }
+
+    /**
+     * Payload cache for a snapshot, replacing the cache of any older version
+     */
+    private Payloads payloadsFor(BoardSnapshot snapshot) {
+        Payloads cached = payloads.get(snapshot.getKey());
+        if (cached == null || cached.version != snapshot.getVersion()) {
+            cached = new Payloads(snapshot.getVersion());
+            payloads.put(snapshot.getKey(), cached);
+        }
+        return cached;
+    }
+
+    private void remove(Subscriber subscriber) {
+        // The last subscriber of a board takes its entry (and cached payloads) with it
+        subscribers.computeIfPresent(subscriber.key, (key, forDate) -> {
+            forDate.remove(subscriber);
+            if (forDate.isEmpty()) {
+                payloads.remove(key);
+                return null;
+            }
+            return forDate;
+        });
+    }
+
+    /**
+     * Serialized board and deltas (keyed by the version they start from) for one version
+     */
+    private static final class Payloads {
+        final long version;
+        volatile String board;
+        final Map<Long, String> deltas = new ConcurrentHashMap<>();
+
+        Payloads(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * One connected display
+     */
+    private static final class Subscriber {
+        final BoardKey key;
+        final SseEmitter emitter;
+
+        // Last board this client received; only touched by the thread holding "sending"
+        BoardSnapshot lastSent;
+
+        final AtomicBoolean dirty = new AtomicBoolean();
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        // When the write in flight started; 0 if none
+        volatile long writeStartedNanos;
+        volatile boolean dropped;
+
+        Subscriber(BoardKey key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Board Updated Event
+ *
+ * Published by BoardSnapshotStore every time a new snapshot is swapped in.
+ * Other components (live stream, caches, counters...) listen for it with
+ * Spring's @EventListener instead of polling the store.
+ *
+ * previous is null when a board is loaded into memory for the first time.
+ * Listeners that keep per-board state key it by getKey() (station and date).
+ */
+public class BoardUpdatedEvent {
+
+    private final BoardSnapshot previous;
+    private final BoardSnapshot current;
+
+    // Computed on first use and shared by all listeners
+    private volatile BoardDeltaDTO delta;
+
+    public BoardUpdatedEvent(BoardSnapshot previous, BoardSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public BoardKey getKey() {
+        return current.getKey();
+    }
+
+    public String getStation() {
+        return current.getStation();
+    }
+
+    public LocalDate getDate() {
+        return current.getDate();
+    }
+
+    public BoardSnapshot getPrevious() {
+        return previous;
+    }
+
+    public BoardSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * Rows that changed between the previous and current snapshot
+     */
+    public BoardDeltaDTO getDelta() {
+        BoardDeltaDTO result = delta;
+        if (result == null) {
+            result = current.changesSince(previous);
+            delta = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardUpdatedEvent{" +
+                "board=" + getKey() +
+                ", previous=" + (previous != null ? previous.getVersion() : null) +
+                ", current=" + current.getVersion() +
+                '}';
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.DelayStatsDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.TrainRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Delay Analytics Service
+ *
+ * Average and percentile delays per train, destination, platform or hour of
+ * the day over any range of past dates, read from the schedule history files
+ * (see ScheduleHistoryStore; exported months only, so up to yesterday).
+ *
+ * One request is one fork-join pass over the history columns:
+ * - the rows of the range are cut into chunks (a few per core)
+ * - each chunk fills its own primitive arrays indexed by group: counts, delay
+ *   sum and maximum, and a histogram of delay minutes
+ * - the arrays are added up as the tasks join
+ * No object is created per departure, and percentiles come exactly from the
+ * merged histograms (in whole minutes, up to 3 hours).
+ *
+ * The pass runs on its own ForkJoinPool (trainticker.analytics.parallelism),
+ * so a heavy query never competes with the common pool.
+ */
+@Service
+public class DelayAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayAnalyticsService.class);
+
+    // Histogram of delay minutes: 0..179, and one bucket for 3 hours or more
+    private static final int BUCKETS = 181;
+
+    private static final int MIN_CHUNK_ROWS = 64 * 1024;
+
+    private static final int DELAYED = Schedule.Status.DELAYED.ordinal();
+    private static final int CANCELLED = Schedule.Status.CANCELLED.ordinal();
+
+    /**
+     * What the departures are grouped by
+     */
+    public enum Dimension {
+        TRAIN, DESTINATION, PLATFORM, HOUR
+    }
+
+    /**
+     * What the worst-offender ranking sorts by (highest first)
+     */
+    public enum Ranking {
+        AVERAGE, P95, DELAYED_PERCENTAGE
+    }
+
+    private final ScheduleHistoryStore scheduleHistoryStore;
+    private final TrainRepository trainRepository;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public DelayAnalyticsService(ScheduleHistoryStore scheduleHistoryStore,
+                                 TrainRepository trainRepository,
+                                 @Value("${trainticker.analytics.parallelism:0}") int parallelism) {
+        this.scheduleHistoryStore = scheduleHistoryStore;
+        this.trainRepository = trainRepository;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Delay statistics of every group with departures from 'from' to 'to'
+     * (both inclusive), ordered by group (trains by number, hours by time of day)
+     */
+    public List<DelayStatsDTO> getDelayStats(Dimension dimension, LocalDate from, LocalDate to) {
+        List<DelayStatsDTO> stats = aggregate(dimension, from, to);
+        stats.sort(Comparator.comparing(DelayStatsDTO::getKey));
+        return stats;
+    }
+
+    /**
+     * The groups with the worst delays, highest first
+     * Groups with fewer than minDepartures departures that ran are left out,
+     * so a single late train does not top the list
+     */
+    public List<DelayStatsDTO> getWorst(Dimension dimension, LocalDate from, LocalDate to,
+                                        Ranking ranking, int limit, int minDepartures) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        Comparator<DelayStatsDTO> order = switch (ranking) {
+            case AVERAGE -> Comparator.comparingDouble(DelayStatsDTO::getAverageDelayMinutes);
+            case P95 -> Comparator.comparingInt(DelayStatsDTO::getP95DelayMinutes);
+            case DELAYED_PERCENTAGE -> Comparator.comparingDouble(DelayStatsDTO::getDelayedPercentage);
+        };
+        return aggregate(dimension, from, to).stream()
+                .filter(stats -> stats.getDepartures() - stats.getCancelled() >= minDepartures)
+                .sorted(order.reversed().thenComparing(DelayStatsDTO::getKey))
+                .limit(limit)
+                .toList();
+    }
+
+    private List<DelayStatsDTO> aggregate(Dimension dimension, LocalDate from, LocalDate to) {
+        long started = System.nanoTime();
+        Groups groups = new Groups(dimension);
+        if (dimension == Dimension.TRAIN) {
+            groups.indexTrains(trainRepository.findAll());
+        }
+        List<Chunk> chunks = chunk(from, to, groups);
+        if (chunks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Totals totals = pool.invoke(new Pass(chunks, 0, chunks.size(), groups));
+
+        List<DelayStatsDTO> result = new ArrayList<>();
+        long rows = 0;
+        for (int key = 0; key < groups.size(); key++) {
+            rows += totals.departures[key];
+            if (totals.departures[key] > 0) {
+                result.add(totals.toStats(key, groups.label(key)));
+            }
+        }
+        log.debug("Delay stats by {} from {} to {}: {} departures in {} chunk(s), {} ms",
+                dimension, from, to, rows, chunks.size(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * The rows of the range, as chunks of about equal size
+     * Days of the same month are next to each other in its file, so each month
+     * contributes one row range, which is then cut up
+     */
+    private List<Chunk> chunk(LocalDate from, LocalDate to, Groups groups) {
+        List<Chunk> ranges = new ArrayList<>();
+        scheduleHistoryStore.scan(from, to, (date, month, fromRow, toRow) -> {
+            Chunk last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last.month == month && last.to == fromRow) {
+                ranges.set(ranges.size() - 1, new Chunk(month, last.from, toRow, last.codes));
+            } else if (toRow > fromRow) {
+                ranges.add(new Chunk(month, fromRow, toRow, groups.codesOf(month)));
+            }
+        });
+        long rows = 0;
+        for (Chunk range : ranges) {
+            rows += range.to - range.from;
+        }
+        int chunkRows = (int) Math.max(MIN_CHUNK_ROWS, rows / (pool.getParallelism() * 4L) + 1);
+        List<Chunk> chunks = new ArrayList<>();
+        for (Chunk range : ranges) {
+            for (int start = range.from; start < range.to; start += chunkRows) {
+                chunks.add(new Chunk(range.month, start, (int) Math.min(range.to, (long) start + chunkRows), range.codes));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Rows [from, to) of a month file; codes maps the file's dictionary codes to groups
+     */
+    private record Chunk(HistoryMonth month, int from, int to, int[] codes) {}
+
+    /**
+     * The groups of one request, numbered 0..size-1
+     */
+    private static final class Groups {
+        private final Dimension dimension;
+        private final List<String> labels = new ArrayList<>();
+        private final Map<String, Integer> byLabel = new HashMap<>();
+        private int[] byTrainId = new int[0];
+        private int unknownTrain = -1;
+
+        Groups(Dimension dimension) {
+            this.dimension = dimension;
+            if (dimension == Dimension.HOUR) {
+                for (int hour = 0; hour < 24; hour++) {
+                    group(String.format("%02d:00", hour));
+                }
+            }
+        }
+
+        /**
+         * One group per train number; ids not in the trains table (deleted since) share one group
+         */
+        void indexTrains(List<Train> trains) {
+            int maxId = 0;
+            for (Train train : trains) {
+                maxId = Math.max(maxId, Math.toIntExact(train.getId()));
+            }
+            byTrainId = new int[maxId + 1];
+            Arrays.fill(byTrainId, -1);
+            for (Train train : trains) {
+                byTrainId[Math.toIntExact(train.getId())] = group(train.getTrainNumber());
+            }
+            unknownTrain = group("(unknown)");
+            for (int i = 0; i < byTrainId.length; i++) {
+                if (byTrainId[i] < 0) {
+                    byTrainId[i] = unknownTrain;
+                }
+            }
+        }
+
+        /**
+         * Group of each dictionary code of a month file, for destinations and platforms
+         * Each file has its own dictionary, so the same name can have different codes
+         */
+        int[] codesOf(HistoryMonth month) {
+            if (dimension == Dimension.DESTINATION) {
+                int[] codes = new int[month.destinationCount()];
+                for (int code = 0; code < codes.length; code++) {
+                    codes[code] = group(month.destination(code));
+                }
+                return codes;
+            }
+            if (dimension == Dimension.PLATFORM) {
+                int[] codes = new int[month.platformCount()];
+                for (int code = 0; code < codes.length; code++) {
+                    codes[code] = group(month.platform(code));
+                }
+                return codes;
+            }
+            return null;
+        }
+
+        int groupOf(Chunk chunk, int row) {
+            return switch (dimension) {
+                case TRAIN -> {
+                    int id = chunk.month.trainId(row);
+                    yield id >= 0 && id < byTrainId.length ? byTrainId[id] : unknownTrain;
+                }
+                case DESTINATION -> chunk.codes[chunk.month.destinationCode(row)];
+                case PLATFORM -> chunk.codes[chunk.month.platformCode(row)];
+                case HOUR -> Math.min(23, Math.max(0, chunk.month.departureMinute(row) / 60));
+            };
+        }
+
+        int size() {
+            return labels.size();
+        }
+
+        String label(int group) {
+            return labels.get(group);
+        }
+
+        private int group(String label) {
+            Integer group = byLabel.get(label);
+            if (group == null) {
+                group = labels.size();
+                byLabel.put(label, group);
+                labels.add(label);
+            }
+            return group;
+        }
+    }
+
+    /**
+     * Running totals per group, in flat primitive arrays
+     */
+    private static final class Totals {
+        final int[] departures;
+        final int[] delayed;
+        final int[] cancelled;
+        final long[] delaySum;
+        final int[] maxDelay;
+        final int[] histogram;
+
+        Totals(int groups) {
+            departures = new int[groups];
+            delayed = new int[groups];
+            cancelled = new int[groups];
+            delaySum = new long[groups];
+            maxDelay = new int[groups];
+            histogram = new int[groups * BUCKETS];
+        }
+
+        void add(Chunk chunk, Groups groups) {
+            HistoryMonth month = chunk.month;
+            for (int row = chunk.from; row < chunk.to; row++) {
+                int group = groups.groupOf(chunk, row);
+                departures[group]++;
+                int status = month.status(row);
+                if (status == CANCELLED) {
+                    cancelled[group]++;
+                    continue;
+                }
+                int delay = Math.max(0, month.delayMinutes(row));
+                if (status == DELAYED || delay > 0) {
+                    delayed[group]++;
+                }
+                delaySum[group] += delay;
+                if (delay > maxDelay[group]) {
+                    maxDelay[group] = delay;
+                }
+                histogram[group * BUCKETS + Math.min(delay, BUCKETS - 1)]++;
+            }
+        }
+
+        void merge(Totals other) {
+            for (int group = 0; group < departures.length; group++) {
+                departures[group] += other.departures[group];
+                delayed[group] += other.delayed[group];
+                cancelled[group] += other.cancelled[group];
+                delaySum[group] += other.delaySum[group];
+                maxDelay[group] = Math.max(maxDelay[group], other.maxDelay[group]);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        DelayStatsDTO toStats(int group, String label) {
+            int ran = departures[group] - cancelled[group];
+            return new DelayStatsDTO(label, departures[group], delayed[group], cancelled[group],
+                    ran > 0 ? (double) delaySum[group] / ran : 0.0,
+                    percentile(group, ran, 0.50), percentile(group, ran, 0.90),
+                    percentile(group, ran, 0.95), percentile(group, ran, 0.99),
+                    maxDelay[group]);
+        }
+
+        private int percentile(int group, int count, double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            int offset = group * BUCKETS;
+            for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+                seen += histogram[offset + bucket];
+                if (seen >= rank) {
+                    return bucket;
+                }
+            }
+            return maxDelay[group];
+        }
+    }
+
+    /**
+     * Adds up chunks [from, to) by splitting in halves until one chunk is left
+     */
+    private static final class Pass extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final Groups groups;
+
+        Pass(List<Chunk> chunks, int from, int to, Groups groups) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.groups = groups;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from == 1) {
+                Totals totals = new Totals(groups.size());
+                totals.add(chunks.get(from), groups);
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            Pass left = new Pass(chunks, from, middle, groups);
+            left.fork();
+            Totals totals = new Pass(chunks, middle, to, groups).compute();
+            totals.merge(left.join());
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.trainticker.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * GTFS CSV Reader
+ *
+ * Reads one GTFS text file (RFC 4180 CSV with a header line) record by record,
+ * for GtfsImportService. Built for stop_times.txt, which can have millions of
+ * lines:
+ * - characters are read through one reusable buffer
+ * - each column is copied into a reusable Field, never into a new String;
+ *   callers parse numbers and times straight from it, look it up in maps
+ *   directly (map.get(field)) and turn it into a String through an Interner,
+ *   so a value repeated on every line (trip_id, stop_id) exists once
+ *
+ * Quoted values (with "" for a quote and line breaks inside quotes) are supported.
+ * Unquoted values are trimmed; a quoted value is kept exactly as written, as
+ * RFC 4180 has it. A byte order mark at the start of the file is skipped.
+ */
+final class GtfsCsvReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private Field[] fields = new Field[16];
+    private int fieldCount;
+    private long records;
+
+    GtfsCsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new Field();
+        }
+        if (fill() && buffer[0] == '\uFEFF') {
+            position = 1;
+        }
+        if (readRecord()) {
+            for (int i = 0; i < fieldCount; i++) {
+                String name = fields[i].toString().trim().toLowerCase(Locale.ROOT);
+                columns.put(name, i);
+            }
+        }
+    }
+
+    /**
+     * Index of a column by its header name, or -1 if the file does not have it
+     */
+    int column(String name) {
+        return columns.getOrDefault(name, -1);
+    }
+
+    /**
+     * Move to the next record; false at the end of the file
+     * Blank lines are skipped ("" on its own is an empty value, not a blank line)
+     */
+    boolean next() throws IOException {
+        while (readRecord()) {
+            if (fieldCount > 1 || fields[0].length > 0 || fields[0].quoted) {
+                records++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A column of the current record (empty if the record or file does not have it)
+     * Only valid until the next call to next()
+     */
+    Field field(int column) {
+        if (column < 0 || column >= fieldCount) {
+            return Field.EMPTY;
+        }
+        return fields[column];
+    }
+
+    /**
+     * Records read so far, not counting the header
+     */
+    long getRecords() {
+        return records;
+    }
+
+    private boolean readRecord() throws IOException {
+        fieldCount = 0;
+        Field field = startField();
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                if (!any) {
+                    return false;
+                }
+                field.finish();
+                return true;
+            }
+            char c = buffer[position++];
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (position == limit) {
+                        fill();
+                    }
+                    if (position < limit && buffer[position] == '"') {
+                        field.append('"');
+                        position++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == ',') {
+                field.finish();
+                field = startField();
+            } else if (c == '\n') {
+                field.finish();
+                return true;
+            } else if (c == '"' && !field.quoted && field.isBlank()) {
+                // Spaces before the opening quote are not part of the value
+                field.length = 0;
+                field.quoted = true;
+                quoted = true;
+            } else if (c != '\r' && !(field.quoted && c <= ' ')) {
+                // Spaces after the closing quote are dropped too
+                field.append(c);
+            }
+        }
+    }
+
+    private Field startField() {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount * 2);
+            for (int i = fieldCount; i < fields.length; i++) {
+                fields[i] = new Field();
+            }
+        }
+        Field field = fields[fieldCount++];
+        field.length = 0;
+        field.hash = 0;
+        field.quoted = false;
+        return field;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * One column of the current record, reused for every record
+     *
+     * hashCode() is String's and equals() compares the characters with any
+     * CharSequence, so a Field can be used to look up a String key in a HashMap
+     * without creating the String.
+     */
+    static final class Field implements CharSequence {
+
+        static final Field EMPTY = new Field();
+
+        private char[] chars = new char[32];
+        private int length;
+        private int hash;
+        private boolean quoted;
+
+        void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, length * 2);
+            }
+            chars[length++] = c;
+        }
+
+        /**
+         * End of the value: trim it unless it was quoted
+         */
+        void finish() {
+            if (quoted) {
+                return;
+            }
+            int start = 0;
+            while (start < length && chars[start] <= ' ') {
+                start++;
+            }
+            int end = length;
+            while (end > start && chars[end - 1] <= ' ') {
+                end--;
+            }
+            if (start > 0) {
+                System.arraycopy(chars, start, chars, 0, end - start);
+            }
+            length = end - start;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return length == 0;
+        }
+
+        boolean isBlank() {
+            for (int i = 0; i < length; i++) {
+                if (chars[i] > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * A non-negative integer, or -1 if empty or not a number
+         */
+        int toInt() {
+            if (length == 0) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = 0; i < length; i++) {
+                char c = chars[i];
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        /**
+         * A GTFS time (H:MM:SS or HH:MM:SS, may be past 24:00:00) as seconds after
+         * midnight of the service day, or -1 if empty or malformed
+         */
+        int toSeconds() {
+            int seconds = 0;
+            int part = 0;
+            int digits = 0;
+            int parts = 0;
+            for (int i = 0; i <= length; i++) {
+                char c = i < length ? chars[i] : ':';
+                if (c >= '0' && c <= '9') {
+                    part = part * 10 + (c - '0');
+                    digits++;
+                } else if (c == ':' && digits > 0) {
+                    seconds = seconds * 60 + part;
+                    part = 0;
+                    digits = 0;
+                    parts++;
+                } else {
+                    return -1;
+                }
+            }
+            return parts == 3 ? seconds : -1;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0 && length > 0) {
+                for (int i = 0; i < length; i++) {
+                    h = 31 * h + chars[i];
+                }
+                hash = h;
+            }
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CharSequence sequence) || sequence.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (sequence.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+    }
+
+    /**
+     * Shared String per distinct value
+     */
+    static final class Interner {
+
+        private final Map<Object, String> strings = new HashMap<>();
+
+        String intern(Field field) {
+            String value = strings.get(field);
+            if (value == null) {
+                value = field.toString();
+                strings.put(value, value);
+            }
+            return value;
+        }
+    }
+}
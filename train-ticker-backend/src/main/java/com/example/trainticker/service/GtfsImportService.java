@@ -0,0 +1,495 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.GtfsImportStatusDTO;
+import com.example.trainticker.dto.ServicePatternDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * GTFS Import Service
+ *
+ * Imports a GTFS static feed (a zip with trips.txt, stop_times.txt, calendar.txt
+ * and optionally routes.txt and stops.txt) as service patterns for this station.
+ *
+ * How it stays fast with bounded heap:
+ * - The zip is read straight from the upload with ZipInputStream, entry by
+ *   entry; nothing is unpacked to disk
+ * - stop_times.txt (millions of lines for a whole network) is never held in
+ *   memory: each line only updates a small per-trip record (the departure at
+ *   this station and the last stop), parsed by GtfsCsvReader without a String
+ *   or array per line
+ * - The smaller files (trips, calendar, routes, stops) are kept in maps, so the
+ *   entries may come in any order
+ *
+ * Every trip that stops at one of the given stop_ids (and goes on from there)
+ * becomes a ServicePattern: the trip's calendar gives the days and date range,
+ * trip_short_name (or the route) the train number, trip_headsign (or the last
+ * stop) the destination and the stop's platform_code the platform. Patterns and
+ * their trains are written in batches by ServicePatternService; the schedules
+ * of each date are then created from them (see TimetableMaterializer).
+ *
+ * Not supported: calendar_dates.txt exceptions, frequencies.txt.
+ * One import runs at a time; its progress is available from getStatus().
+ */
+@Service
+public class GtfsImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(GtfsImportService.class);
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final DayOfWeek[] CALENDAR_DAYS = DayOfWeek.values(); // Monday first, as in calendar.txt
+
+    private final ServicePatternService servicePatternService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run lastRun;
+
+    @Autowired
+    public GtfsImportService(ServicePatternService servicePatternService) {
+        this.servicePatternService = servicePatternService;
+    }
+
+    /**
+     * Import a GTFS zip for the given stop_ids (a station's platforms)
+     * The patterns belong to the given station (null: the default station)
+     * With replace=true the existing service patterns are replaced
+     * Throws IllegalArgumentException for an unusable feed, and
+     * IllegalStateException if another import is running
+     */
+    public GtfsImportStatusDTO importFeed(InputStream body, Set<String> stopIds, String station,
+                                          boolean replace) throws IOException {
+        if (stopIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one stop_id is required");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A GTFS import is already running");
+        }
+        Run run = new Run();
+        lastRun = run;
+        try {
+            Feed feed = new Feed(stopIds);
+            feed.read(new CountingInputStream(body, run), run);
+            List<ServicePatternDTO> patterns = feed.toPatterns(run);
+            patterns.forEach(pattern -> pattern.setStation(station));
+
+            run.currentFile = null;
+            run.patternsCreated = servicePatternService.addPatterns(patterns, replace).size();
+            run.finish(GtfsImportStatusDTO.State.COMPLETED, null);
+            log.info("Imported GTFS feed: {} stop_times, {} trips at {}, {} patterns in {} ms",
+                    run.stopTimesRead, run.tripsAtStop, stopIds, run.patternsCreated, run.elapsedMillis());
+            return run.toDTO();
+
+        } catch (IOException | RuntimeException e) {
+            run.finish(GtfsImportStatusDTO.State.FAILED, e.getMessage());
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Progress of the running import, or the result of the last one
+     */
+    public GtfsImportStatusDTO getStatus() {
+        Run run = lastRun;
+        return run != null ? run.toDTO() : new GtfsImportStatusDTO();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Bytes of the zip read so far by the running (or last) import
+     */
+    public long getBytesRead() {
+        Run run = lastRun;
+        return run != null ? run.bytesRead : 0;
+    }
+
+    /**
+     * stop_times.txt lines read so far by the running (or last) import
+     */
+    public long getStopTimesRead() {
+        Run run = lastRun;
+        return run != null ? run.stopTimesRead : 0;
+    }
+
+    /**
+     * Everything read from one feed
+     */
+    private static final class Feed {
+        private final Set<String> stopIds;
+        private final GtfsCsvReader.Interner strings = new GtfsCsvReader.Interner();
+        private final Map<String, TripStops> stopTimes = new HashMap<>();
+        private final Map<String, Trip> trips = new HashMap<>();
+        private final Map<String, Calendar> calendars = new HashMap<>();
+        private final Map<String, Route> routes = new HashMap<>();
+        private final Map<String, Stop> stops = new HashMap<>();
+        private boolean hasTrips;
+        private boolean hasStopTimes;
+        private boolean hasCalendar;
+
+        Feed(Set<String> stopIds) {
+            this.stopIds = stopIds;
+        }
+
+        void read(InputStream zipped, Run run) throws IOException {
+            try (ZipInputStream zip = new ZipInputStream(zipped, StandardCharsets.UTF_8)) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+                    if (entry.isDirectory() || !name.endsWith(".txt")) {
+                        continue;
+                    }
+                    run.currentFile = name;
+                    // Not closed: that would close the zip stream
+                    GtfsCsvReader csv = new GtfsCsvReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+                    switch (name) {
+                        case "stop_times.txt" -> readStopTimes(csv, run);
+                        case "trips.txt" -> readTrips(csv, run);
+                        case "calendar.txt" -> readCalendar(csv);
+                        case "routes.txt" -> readRoutes(csv);
+                        case "stops.txt" -> readStops(csv);
+                        default -> log.debug("GTFS import: {} not used", name);
+                    }
+                }
+            }
+            if (!hasTrips || !hasStopTimes || !hasCalendar) {
+                throw new IllegalArgumentException("Not a usable GTFS feed: trips.txt, stop_times.txt and " +
+                        "calendar.txt are required");
+            }
+        }
+
+        private void readStopTimes(GtfsCsvReader csv, Run run) throws IOException {
+            hasStopTimes = true;
+            int tripColumn = required(csv, "stop_times.txt", "trip_id");
+            int stopColumn = required(csv, "stop_times.txt", "stop_id");
+            int sequenceColumn = required(csv, "stop_times.txt", "stop_sequence");
+            int arrivalColumn = csv.column("arrival_time");
+            int departureColumn = csv.column("departure_time");
+
+            // Files are usually sorted by trip, so most lines belong to the trip of the line before
+            String lastTripId = null;
+            TripStops trip = null;
+            while (csv.next()) {
+                GtfsCsvReader.Field tripId = csv.field(tripColumn);
+                if (trip == null || !tripId.equals(lastTripId)) {
+                    trip = stopTimes.get(tripId);
+                    if (trip == null) {
+                        lastTripId = tripId.toString();
+                        trip = new TripStops();
+                        stopTimes.put(lastTripId, trip);
+                    } else {
+                        lastTripId = tripId.toString();
+                    }
+                }
+
+                int sequence = csv.field(sequenceColumn).toInt();
+                if (sequence < 0) {
+                    continue; // Malformed line
+                }
+                GtfsCsvReader.Field stopId = csv.field(stopColumn);
+                int arrival = csv.field(arrivalColumn).toSeconds();
+                int departure = csv.field(departureColumn).toSeconds();
+                if (sequence > trip.lastSequence) {
+                    trip.lastSequence = sequence;
+                    trip.lastArrival = arrival >= 0 ? arrival : departure;
+                    trip.lastStopId = strings.intern(stopId);
+                }
+                if (stopIds.contains(stopId)) {
+                    trip.sequenceHere = sequence;
+                    trip.departureHere = departure >= 0 ? departure : arrival;
+                    trip.stopHere = strings.intern(stopId);
+                }
+                if ((csv.getRecords() & 0x3FFF) == 0) {
+                    run.stopTimesRead = csv.getRecords();
+                }
+            }
+            run.stopTimesRead = csv.getRecords();
+        }
+
+        private void readTrips(GtfsCsvReader csv, Run run) throws IOException {
+            hasTrips = true;
+            int tripColumn = required(csv, "trips.txt", "trip_id");
+            int routeColumn = required(csv, "trips.txt", "route_id");
+            int serviceColumn = required(csv, "trips.txt", "service_id");
+            int headsignColumn = csv.column("trip_headsign");
+            int shortNameColumn = csv.column("trip_short_name");
+            while (csv.next()) {
+                trips.put(csv.field(tripColumn).toString(), new Trip(
+                        strings.intern(csv.field(routeColumn)),
+                        strings.intern(csv.field(serviceColumn)),
+                        strings.intern(csv.field(headsignColumn)),
+                        csv.field(shortNameColumn).toString()));
+            }
+            run.tripsRead = csv.getRecords();
+        }
+
+        private void readCalendar(GtfsCsvReader csv) throws IOException {
+            hasCalendar = true;
+            int serviceColumn = required(csv, "calendar.txt", "service_id");
+            int startColumn = required(csv, "calendar.txt", "start_date");
+            int endColumn = required(csv, "calendar.txt", "end_date");
+            int[] dayColumns = new int[CALENDAR_DAYS.length];
+            for (int i = 0; i < dayColumns.length; i++) {
+                dayColumns[i] = required(csv, "calendar.txt", CALENDAR_DAYS[i].name().toLowerCase());
+            }
+            while (csv.next()) {
+                Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                for (int i = 0; i < dayColumns.length; i++) {
+                    if (csv.field(dayColumns[i]).toInt() == 1) {
+                        days.add(CALENDAR_DAYS[i]);
+                    }
+                }
+                try {
+                    calendars.put(strings.intern(csv.field(serviceColumn)), new Calendar(days,
+                            LocalDate.parse(csv.field(startColumn), DateTimeFormatter.BASIC_ISO_DATE),
+                            LocalDate.parse(csv.field(endColumn), DateTimeFormatter.BASIC_ISO_DATE)));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("calendar.txt line " + (csv.getRecords() + 1) + ": " +
+                            e.getMessage(), e);
+                }
+            }
+        }
+
+        private void readRoutes(GtfsCsvReader csv) throws IOException {
+            int routeColumn = required(csv, "routes.txt", "route_id");
+            int shortNameColumn = csv.column("route_short_name");
+            int longNameColumn = csv.column("route_long_name");
+            while (csv.next()) {
+                routes.put(strings.intern(csv.field(routeColumn)),
+                        new Route(csv.field(shortNameColumn).toString(), csv.field(longNameColumn).toString()));
+            }
+        }
+
+        private void readStops(GtfsCsvReader csv) throws IOException {
+            int stopColumn = required(csv, "stops.txt", "stop_id");
+            int nameColumn = csv.column("stop_name");
+            int platformColumn = csv.column("platform_code");
+            while (csv.next()) {
+                stops.put(strings.intern(csv.field(stopColumn)),
+                        new Stop(csv.field(nameColumn).toString(), csv.field(platformColumn).toString()));
+            }
+        }
+
+        /**
+         * One pattern per trip that departs from this station
+         */
+        List<ServicePatternDTO> toPatterns(Run run) {
+            LocalDate today = LocalDate.now();
+            List<ServicePatternDTO> patterns = new ArrayList<>();
+            for (Map.Entry<String, TripStops> entry : stopTimes.entrySet()) {
+                TripStops stopsOfTrip = entry.getValue();
+                if (stopsOfTrip.stopHere == null) {
+                    continue;
+                }
+                run.tripsAtStop++;
+                ServicePatternDTO pattern = toPattern(entry.getKey(), stopsOfTrip, today);
+                if (pattern == null) {
+                    run.tripsSkipped++;
+                } else {
+                    patterns.add(pattern);
+                }
+            }
+            patterns.sort(Comparator.comparing(ServicePatternDTO::getDepartureTime)
+                    .thenComparing(ServicePatternDTO::getTrainNumber));
+            return patterns;
+        }
+
+        /**
+         * The pattern for one trip, or null if it cannot be shown on the board
+         * (ends here, has no times or calendar, already over, train number too long)
+         */
+        private ServicePatternDTO toPattern(String tripId, TripStops stopsOfTrip, LocalDate today) {
+            Trip trip = trips.get(tripId);
+            Calendar calendar = trip != null ? calendars.get(trip.serviceId) : null;
+            if (calendar == null || calendar.days.isEmpty()
+                    || stopsOfTrip.departureHere < 0 || stopsOfTrip.lastArrival < 0
+                    || stopsOfTrip.lastSequence <= stopsOfTrip.sequenceHere) {
+                return null;
+            }
+            // Times past 24:00:00 belong to the next calendar day
+            int dayOffset = stopsOfTrip.departureHere / SECONDS_PER_DAY;
+            LocalDate endDate = calendar.endDate.plusDays(dayOffset);
+            if (endDate.isBefore(today)) {
+                return null;
+            }
+
+            Route route = routes.get(trip.routeId);
+            String routeShortName = route != null ? route.shortName : "";
+            String routeLongName = route != null ? route.longName : "";
+            String trainNumber = firstNonBlank(trip.shortName, routeShortName, trip.routeId);
+            if (trainNumber.length() > 10) {
+                return null;
+            }
+            Stop last = stops.get(stopsOfTrip.lastStopId);
+            Stop here = stops.get(stopsOfTrip.stopHere);
+
+            ServicePatternDTO pattern = new ServicePatternDTO();
+            pattern.setTrainNumber(trainNumber);
+            pattern.setTrainName(truncate(firstNonBlank(routeShortName, routeLongName, trainNumber), 100));
+            pattern.setRoute(truncate(firstNonBlank(routeLongName, routeShortName, trip.routeId), 200));
+            pattern.setDestination(truncate(firstNonBlank(trip.headsign,
+                    last != null ? last.name : "", stopsOfTrip.lastStopId), 100));
+            pattern.setPlatform(truncate(firstNonBlank(here != null ? here.platformCode : "", "-"), 5));
+            pattern.setDepartureTime(LocalTime.ofSecondOfDay(stopsOfTrip.departureHere % SECONDS_PER_DAY));
+            pattern.setArrivalTime(LocalTime.ofSecondOfDay(stopsOfTrip.lastArrival % SECONDS_PER_DAY));
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (DayOfWeek day : calendar.days) {
+                days.add(day.plus(dayOffset));
+            }
+            pattern.setDaysOfWeek(days);
+            pattern.setStartDate(calendar.startDate.plusDays(dayOffset));
+            pattern.setEndDate(endDate);
+            return pattern;
+        }
+
+        private static int required(GtfsCsvReader csv, String file, String column) {
+            int index = csv.column(column);
+            if (index < 0) {
+                throw new IllegalArgumentException(file + ": column " + column + " is missing");
+            }
+            return index;
+        }
+
+        private static String firstNonBlank(String... values) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    return value;
+                }
+            }
+            return "";
+        }
+
+        private static String truncate(String value, int length) {
+            return value.length() > length ? value.substring(0, length) : value;
+        }
+    }
+
+    /**
+     * What stop_times.txt says about one trip
+     * Times in seconds after midnight of the service day, -1 = unknown
+     */
+    private static final class TripStops {
+        int lastSequence = -1;
+        int lastArrival = -1;
+        String lastStopId;
+        int sequenceHere = -1;
+        int departureHere = -1;
+        String stopHere;
+    }
+
+    private record Trip(String routeId, String serviceId, String headsign, String shortName) {}
+
+    private record Calendar(Set<DayOfWeek> days, LocalDate startDate, LocalDate endDate) {}
+
+    private record Route(String shortName, String longName) {}
+
+    private record Stop(String name, String platformCode) {}
+
+    /**
+     * Progress of one import, updated by the importing thread and read by
+     * getStatus() from others
+     */
+    private static final class Run {
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+        volatile GtfsImportStatusDTO.State state = GtfsImportStatusDTO.State.RUNNING;
+        volatile String currentFile;
+        volatile long bytesRead;
+        volatile long stopTimesRead;
+        volatile long tripsRead;
+        volatile int tripsAtStop;
+        volatile int tripsSkipped;
+        volatile int patternsCreated;
+        volatile long finishedNanos;
+        volatile String error;
+
+        void finish(GtfsImportStatusDTO.State state, String error) {
+            this.finishedNanos = System.nanoTime();
+            this.error = error;
+            this.state = state;
+        }
+
+        long elapsedMillis() {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        GtfsImportStatusDTO toDTO() {
+            GtfsImportStatusDTO dto = new GtfsImportStatusDTO();
+            long elapsedMillis = elapsedMillis();
+            dto.setState(state);
+            dto.setStartedAt(startedAt);
+            dto.setCurrentFile(currentFile);
+            dto.setBytesRead(bytesRead);
+            dto.setStopTimesRead(stopTimesRead);
+            dto.setTripsRead(tripsRead);
+            dto.setTripsAtStop(tripsAtStop);
+            dto.setTripsSkipped(tripsSkipped);
+            dto.setPatternsCreated(patternsCreated);
+            dto.setElapsedMillis(elapsedMillis);
+            dto.setRowsPerSecond(elapsedMillis > 0 ? stopTimesRead * 1000.0 / elapsedMillis : stopTimesRead);
+            dto.setError(error);
+            return dto;
+        }
+    }
+
+    /**
+     * Counts the bytes of the upload as the zip reader consumes them
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Run run;
+        private long count;
+
+        CountingInputStream(InputStream in, Run run) {
+            super(in);
+            this.run = run;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                run.bytesRead = ++count;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+                run.bytesRead = count;
+            }
+            return read;
+        }
+    }
+}
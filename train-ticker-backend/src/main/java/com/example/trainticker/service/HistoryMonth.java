@@ -0,0 +1,346 @@
+package com.example.trainticker.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History Month
+ *
+ * One month of past schedules in a memory-mapped, column-oriented file
+ * (see ScheduleHistoryStore). The file is read in place: the operating system
+ * pages it in, the heap only holds the two small dictionaries, and reading a
+ * row's values allocates nothing.
+ *
+ * File layout (big-endian):
+ * - header: magic, version, year, month, row count, last day included,
+ *   dictionary sizes, then 32 ints with the first row of each day
+ *   (rows are sorted by day, then departure)
+ * - one column after the other, rowCount values each:
+ *   train id (int), departure and arrival (short, minutes after midnight),
+ *   destination and platform (short, code in the dictionary),
+ *   status (byte, Schedule.Status ordinal), delay minutes (short)
+ * - the destination and platform dictionaries (length-prefixed UTF-8)
+ *
+ * 15 bytes per departure, against several hundred for a Schedule entity.
+ */
+final class HistoryMonth {
+
+    private static final int MAGIC = 0x54544843; // "TTHC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8 * 4 + 32 * 4;
+
+    private final YearMonth month;
+    private final Path path;
+    private final ByteBuffer data;
+    private final int rowCount;
+    private final int throughDay;
+    private final int[] dayStart = new int[32];
+    private final String[] destinations;
+    private final String[] platforms;
+
+    private final int trainIds;
+    private final int departures;
+    private final int arrivals;
+    private final int destinationCodes;
+    private final int platformCodes;
+    private final int statuses;
+    private final int delays;
+
+    private HistoryMonth(Path path, ByteBuffer data) {
+        this.path = path;
+        this.data = data;
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IllegalStateException(path + " is not a schedule history file of version " + VERSION);
+        }
+        this.month = YearMonth.of(data.getInt(8), data.getInt(12));
+        this.rowCount = data.getInt(16);
+        this.throughDay = data.getInt(20);
+        this.destinations = new String[data.getInt(24)];
+        this.platforms = new String[data.getInt(28)];
+        for (int i = 0; i < dayStart.length; i++) {
+            dayStart[i] = data.getInt(32 + i * 4);
+        }
+
+        this.trainIds = HEADER_BYTES;
+        this.departures = trainIds + rowCount * 4;
+        this.arrivals = departures + rowCount * 2;
+        this.destinationCodes = arrivals + rowCount * 2;
+        this.platformCodes = destinationCodes + rowCount * 2;
+        this.statuses = platformCodes + rowCount * 2;
+        this.delays = statuses + rowCount;
+
+        int position = delays + rowCount * 2;
+        position = readDictionary(position, destinations);
+        readDictionary(position, platforms);
+    }
+
+    /**
+     * Map an existing month file (read-only)
+     */
+    static HistoryMonth open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new HistoryMonth(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    YearMonth getMonth() {
+        return month;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    long getSizeBytes() {
+        return data.capacity();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Last date whose departures are in the file (the month may not have been over yet)
+     */
+    LocalDate getThroughDate() {
+        return throughDay > 0 ? month.atDay(throughDay) : month.atDay(1).minusDays(1);
+    }
+
+    /**
+     * First row of a day of the month (1-31)
+     */
+    int firstRow(int dayOfMonth) {
+        return dayStart[dayOfMonth - 1];
+    }
+
+    /**
+     * Row after the last row of a day of the month (1-31)
+     */
+    int endRow(int dayOfMonth) {
+        return dayOfMonth < 31 ? dayStart[dayOfMonth] : rowCount;
+    }
+
+    int trainId(int row) {
+        return data.getInt(trainIds + row * 4);
+    }
+
+    int departureMinute(int row) {
+        return data.getShort(departures + row * 2);
+    }
+
+    int arrivalMinute(int row) {
+        return data.getShort(arrivals + row * 2);
+    }
+
+    int destinationCode(int row) {
+        return data.getShort(destinationCodes + row * 2) & 0xFFFF;
+    }
+
+    int platformCode(int row) {
+        return data.getShort(platformCodes + row * 2) & 0xFFFF;
+    }
+
+    /**
+     * Schedule.Status ordinal
+     */
+    int status(int row) {
+        return data.get(statuses + row);
+    }
+
+    int delayMinutes(int row) {
+        return data.getShort(delays + row * 2);
+    }
+
+    String destination(int code) {
+        return destinations[code];
+    }
+
+    String platform(int code) {
+        return platforms[code];
+    }
+
+    int destinationCount() {
+        return destinations.length;
+    }
+
+    int platformCount() {
+        return platforms.length;
+    }
+
+    private int readDictionary(int position, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            int length = data.getShort(position) & 0xFFFF;
+            byte[] bytes = new byte[length];
+            data.get(position + 2, bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        return position;
+    }
+
+    /**
+     * Collects the rows of one month for export, then writes the file
+     * Rows may be added in any order; they are sorted by day and departure on write
+     */
+    static final class Builder {
+
+        private final YearMonth month;
+        private final LocalDate through;
+        private int size;
+        private byte[] day = new byte[1024];
+        private int[] trainId = new int[1024];
+        private short[] departure = new short[1024];
+        private short[] arrival = new short[1024];
+        private short[] destination = new short[1024];
+        private short[] platform = new short[1024];
+        private byte[] status = new byte[1024];
+        private short[] delay = new short[1024];
+        private final Map<String, Integer> destinationCodes = new HashMap<>();
+        private final List<String> destinationValues = new ArrayList<>();
+        private final Map<String, Integer> platformCodes = new HashMap<>();
+        private final List<String> platformValues = new ArrayList<>();
+
+        /**
+         * @param through last date the export covers (the month's last day once it is over)
+         */
+        Builder(YearMonth month, LocalDate through) {
+            this.month = month;
+            this.through = through;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(LocalDate date, long trainId, int departureMinute, int arrivalMinute, String destination,
+                 String platform, int statusOrdinal, int delayMinutes) {
+            if (size == this.day.length) {
+                grow();
+            }
+            this.day[size] = (byte) date.getDayOfMonth();
+            this.trainId[size] = Math.toIntExact(trainId);
+            this.departure[size] = (short) departureMinute;
+            this.arrival[size] = (short) arrivalMinute;
+            this.destination[size] = code(destination, destinationCodes, destinationValues);
+            this.platform[size] = code(platform, platformCodes, platformValues);
+            this.status[size] = (byte) statusOrdinal;
+            this.delay[size] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, delayMinutes));
+            size++;
+        }
+
+        /**
+         * Write the file next to its final name, then move it into place, so a
+         * reader only ever sees a complete file
+         */
+        void writeTo(Path path) throws IOException {
+            // Sort key: day and departure in the high bits, the row in the low bits
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) (day[i] * 1440 + departure[i]) << 32) | i;
+            }
+            Arrays.sort(order);
+
+            byte[][] destinationBytes = encode(destinationValues);
+            byte[][] platformBytes = encode(platformValues);
+            long length = HEADER_BYTES + (long) size * 15 + dictionaryBytes(destinationBytes)
+                    + dictionaryBytes(platformBytes);
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException(month + " has too many departures for one history file");
+            }
+
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                out.putInt(MAGIC).putInt(VERSION).putInt(month.getYear()).putInt(month.getMonthValue())
+                        .putInt(size).putInt(through.getDayOfMonth())
+                        .putInt(destinationValues.size()).putInt(platformValues.size());
+                int[] dayStart = new int[32];
+                Arrays.fill(dayStart, size);
+                for (int i = size - 1; i >= 0; i--) {
+                    dayStart[day[(int) order[i]] - 1] = i;
+                }
+                for (int d = 30; d >= 0; d--) {
+                    // Days without departures start where the next day starts
+                    dayStart[d] = Math.min(dayStart[d], dayStart[d + 1]);
+                }
+                for (int start : dayStart) {
+                    out.putInt(start);
+                }
+                for (long o : order) out.putInt(trainId[(int) o]);
+                for (long o : order) out.putShort(departure[(int) o]);
+                for (long o : order) out.putShort(arrival[(int) o]);
+                for (long o : order) out.putShort(destination[(int) o]);
+                for (long o : order) out.putShort(platform[(int) o]);
+                for (long o : order) out.put(status[(int) o]);
+                for (long o : order) out.putShort(delay[(int) o]);
+                putDictionary(out, destinationBytes);
+                putDictionary(out, platformBytes);
+                out.force();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void grow() {
+            int capacity = day.length * 2;
+            day = Arrays.copyOf(day, capacity);
+            trainId = Arrays.copyOf(trainId, capacity);
+            departure = Arrays.copyOf(departure, capacity);
+            arrival = Arrays.copyOf(arrival, capacity);
+            destination = Arrays.copyOf(destination, capacity);
+            platform = Arrays.copyOf(platform, capacity);
+            status = Arrays.copyOf(status, capacity);
+            delay = Arrays.copyOf(delay, capacity);
+        }
+
+        private static short code(String value, Map<String, Integer> codes, List<String> values) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                if (values.size() > 0xFFFF) {
+                    throw new IllegalStateException("More than 65536 distinct values in one history file");
+                }
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return (short) code.intValue();
+        }
+
+        private static byte[][] encode(List<String> values) {
+            byte[][] bytes = new byte[values.size()][];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+            return bytes;
+        }
+
+        private static long dictionaryBytes(byte[][] values) {
+            long length = 0;
+            for (byte[] value : values) {
+                length += 2 + value.length;
+            }
+            return length;
+        }
+
+        private static void putDictionary(ByteBuffer out, byte[][] values) {
+            for (byte[] value : values) {
+                out.putShort((short) value.length).put(value);
+            }
+        }
+    }
+}
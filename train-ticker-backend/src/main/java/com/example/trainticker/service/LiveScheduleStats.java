@@ -0,0 +1,166 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live Schedule Stats
+ *
+ * Keeps per-board (station and date), per-status counters that are updated as schedules change,
+ * so the statistics endpoints never need to run COUNT queries.
+ *
+ * The counters are maintained from BoardUpdatedEvent:
+ * - when a date is first loaded, every row is counted once
+ * - after that only the changed rows are applied (old status -1, new status +1)
+ *
+ * Besides the totals, the same counters are kept per platform and per destination.
+ * LongAdder is used because many threads read while updates are applied.
+ *
+ * A row without a status counts as on time, the column's default.
+ */
+@Component
+public class LiveScheduleStats {
+
+    private final Map<BoardKey, DateCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics of a station for a date, or null if the board is not being tracked
+     * (i.e. it has not been loaded into memory)
+     */
+    public TrainService.ScheduleStats getStats(String station, LocalDate date) {
+        DateCounters forDate = counters.get(BoardKey.of(station, date));
+        return forDate != null ? forDate.total.toStats() : null;
+    }
+
+    /**
+     * Statistics per platform of a station for a date, sorted by platform
+     * If the board is not tracked (evicted since it was read), its rows are counted instead
+     */
+    public Map<String, TrainService.ScheduleStats> getStatsByPlatform(String station, LocalDate date,
+                                                                      BoardSnapshot board) {
+        return toStats(countersOf(BoardKey.of(station, date), board).byPlatform);
+    }
+
+    /**
+     * Statistics per destination of a station for a date, sorted by destination
+     * If the board is not tracked (evicted since it was read), its rows are counted instead
+     */
+    public Map<String, TrainService.ScheduleStats> getStatsByDestination(String station, LocalDate date,
+                                                                         BoardSnapshot board) {
+        return toStats(countersOf(BoardKey.of(station, date), board).byDestination);
+    }
+
+    /**
+     * Apply a board change to the counters
+     * Events for one board arrive one at a time (the store publishes them under its lock)
+     */
+    @EventListener
+    public void onBoardUpdated(BoardUpdatedEvent event) {
+        BoardSnapshot previous = event.getPrevious();
+        if (previous == null) {
+            // First load: count everything into fresh counters, then publish them
+            counters.put(event.getKey(), count(event.getCurrent()));
+            return;
+        }
+
+        DateCounters forDate = counters.get(event.getKey());
+        if (forDate == null) {
+            // Not tracked (evicted before this reload): start over from the new board
+            counters.put(event.getKey(), count(event.getCurrent()));
+            return;
+        }
+        BoardDeltaDTO delta = event.getDelta();
+        for (TrainScheduleDTO row : delta.getUpdated()) {
+            TrainScheduleDTO old = previous.getRow(row.getId());
+            if (old != null) {
+                forDate.apply(old, -1);
+            }
+            forDate.apply(row, 1);
+        }
+        for (Long id : delta.getRemoved()) {
+            TrainScheduleDTO old = previous.getRow(id);
+            if (old != null) {
+                forDate.apply(old, -1);
+            }
+        }
+    }
+
+    @EventListener
+    public void onBoardEvicted(BoardEvictedEvent event) {
+        counters.remove(event.getKey());
+    }
+
+    private DateCounters countersOf(BoardKey key, BoardSnapshot board) {
+        DateCounters forDate = counters.get(key);
+        return forDate != null ? forDate : count(board);
+    }
+
+    private static DateCounters count(BoardSnapshot board) {
+        DateCounters fresh = new DateCounters();
+        for (TrainScheduleDTO row : board.getRows()) {
+            fresh.apply(row, 1);
+        }
+        return fresh;
+    }
+
+    private static Map<String, TrainService.ScheduleStats> toStats(Map<String, StatusCounters> byKey) {
+        Map<String, TrainService.ScheduleStats> result = new TreeMap<>();
+        for (Map.Entry<String, StatusCounters> entry : byKey.entrySet()) {
+            TrainService.ScheduleStats stats = entry.getValue().toStats();
+            if (stats.getTotalCount() > 0) {
+                result.put(entry.getKey(), stats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All counters for one board
+     */
+    private static final class DateCounters {
+        final StatusCounters total = new StatusCounters();
+        final Map<String, StatusCounters> byPlatform = new ConcurrentHashMap<>();
+        final Map<String, StatusCounters> byDestination = new ConcurrentHashMap<>();
+
+        void apply(TrainScheduleDTO row, int change) {
+            Schedule.Status status = row.getStatus() != null
+                    ? Schedule.Status.valueOf(row.getStatus()) : Schedule.Status.ON_TIME;
+            total.add(status, change);
+            byPlatform.computeIfAbsent(row.getPlatform(), p -> new StatusCounters()).add(status, change);
+            byDestination.computeIfAbsent(row.getDestination(), d -> new StatusCounters()).add(status, change);
+        }
+    }
+
+    /**
+     * One LongAdder per status
+     */
+    private static final class StatusCounters {
+        final LongAdder[] counts = new LongAdder[Schedule.Status.values().length];
+
+        StatusCounters() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void add(Schedule.Status status, int change) {
+            counts[status.ordinal()].add(change);
+        }
+
+        TrainService.ScheduleStats toStats() {
+            return new TrainService.ScheduleStats(
+                    counts[Schedule.Status.ON_TIME.ordinal()].sum(),
+                    counts[Schedule.Status.DELAYED.ordinal()].sum(),
+                    counts[Schedule.Status.CANCELLED.ordinal()].sum());
+        }
+    }
+}
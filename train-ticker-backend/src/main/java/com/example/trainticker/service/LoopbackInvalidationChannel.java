@@ -0,0 +1,68 @@
+package com.example.trainticker.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Loopback Invalidation Channel (trainticker.cluster.channel=loopback)
+ *
+ * In-process channel: every node (application context) started in the same JVM
+ * with this channel receives the messages of all of them, synchronously, on the
+ * publishing thread. A test can start two contexts with different
+ * trainticker.cluster.node-id values against one database, change a schedule
+ * through one and find the other one's board reloaded as soon as the call returns.
+ *
+ * Nothing leaves the JVM; use MySqlInvalidationChannel for real nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "trainticker.cluster.channel", havingValue = "loopback")
+public class LoopbackInvalidationChannel implements BoardInvalidationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(LoopbackInvalidationChannel.class);
+
+    // Every loopback channel in this JVM, one per running node
+    private static final Set<LoopbackInvalidationChannel> NODES = ConcurrentHashMap.newKeySet();
+
+    private volatile Consumer<List<BoardInvalidation>> receiver;
+
+    @Override
+    public void publish(List<BoardInvalidation> invalidations) {
+        List<BoardInvalidation> batch = List.copyOf(invalidations);
+        for (LoopbackInvalidationChannel node : NODES) {
+            Consumer<List<BoardInvalidation>> target = node.receiver;
+            if (target == null) {
+                continue;
+            }
+            try {
+                target.accept(batch);
+            } catch (Exception e) {
+                // One failing node must not keep the others from getting the message
+                log.warn("Loopback delivery of {} invalidation(s) failed: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void setReceiver(Consumer<List<BoardInvalidation>> receiver) {
+        this.receiver = receiver;
+        NODES.add(this);
+    }
+
+    @Override
+    public String getName() {
+        return "loopback";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        NODES.remove(this);
+    }
+}
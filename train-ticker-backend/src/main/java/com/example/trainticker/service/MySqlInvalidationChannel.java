@@ -0,0 +1,245 @@
+package com.example.trainticker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * MySQL Invalidation Channel (trainticker.cluster.channel=mysql)
+ *
+ * Sends invalidations through the board_invalidations table (V7), so a cluster
+ * needs nothing but the database it already shares:
+ * - publish() inserts one row per invalidation (one batched INSERT)
+ * - every node polls the rows after the highest id it has seen, every
+ *   pollIntervalMillis; the query is a primary key range scan, so an idle
+ *   cluster costs one cheap SELECT per node per interval
+ * - each node deletes rows older than retentionSeconds
+ *
+ * AUTO_INCREMENT ids are handed out at insert time, not at commit, so a row may
+ * become visible after a row with a higher id was already polled. An id skipped
+ * that way is remembered as a gap and looked up again on every poll until it
+ * shows up or gapTimeoutMillis has passed (an insert that was rolled back, or
+ * auto_increment_increment > 1, leaves gaps that never fill).
+ *
+ * The age of a row is computed by MySQL (published_at against its own clock),
+ * so the measured lag does not depend on the clocks of the nodes agreeing.
+ *
+ * Binlog tailing would deliver faster than polling, but needs replication
+ * privileges and a binlog client library; polling needs neither.
+ */
+@Component
+@ConditionalOnProperty(name = "trainticker.cluster.channel", havingValue = "mysql")
+public class MySqlInvalidationChannel implements BoardInvalidationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(MySqlInvalidationChannel.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO board_invalidations (origin_node, station_code, schedule_date, platform) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_ROWS =
+            "SELECT id, origin_node, station_code, schedule_date, platform, " +
+            "TIMESTAMPDIFF(MICROSECOND, published_at, CURRENT_TIMESTAMP(3)) FROM board_invalidations ";
+
+    private static final String POLL_SQL = SELECT_ROWS + "WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String CLEANUP_SQL =
+            "DELETE FROM board_invalidations WHERE published_at < CURRENT_TIMESTAMP(3) - INTERVAL ? SECOND LIMIT ?";
+
+    private static final int CLEANUP_BATCH = 10_000;
+
+    // More open gaps than this means something else is going on; the oldest are given up
+    private static final int MAX_GAPS = 1000;
+
+    private static final RowMapper<Row> ROW = (rs, rowNum) -> new Row(rs.getLong(1),
+            new BoardInvalidation(rs.getString(2),
+                    BoardKey.of(rs.getString(3), rs.getObject(4, LocalDate.class)),
+                    rs.getString(5),
+                    // Age on the database clock, turned into a time on this node's clock
+                    System.currentTimeMillis() - rs.getLong(6) / 1000));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final long retentionSeconds;
+
+    private volatile Consumer<List<BoardInvalidation>> receiver;
+
+    // Only touched by the poll, which never runs twice at once (fixed delay)
+    private long lastId = -1;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private final LongAdder gapsFilled = new LongAdder();
+    private final LongAdder gapsExpired = new LongAdder();
+
+    @Autowired
+    public MySqlInvalidationChannel(JdbcTemplate jdbcTemplate,
+                                    @Value("${trainticker.cluster.mysql.batch-size:1000}") int batchSize,
+                                    @Value("${trainticker.cluster.mysql.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                                    @Value("${trainticker.cluster.mysql.retention-seconds:3600}") long retentionSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    @Override
+    public void publish(List<BoardInvalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        // Outside any transaction: each batch is visible to the other nodes as soon as it is written
+        jdbcTemplate.batchUpdate(INSERT_SQL, invalidations, batchSize, (statement, invalidation) -> {
+            statement.setString(1, invalidation.getOriginNode());
+            statement.setString(2, invalidation.getStation());
+            statement.setObject(3, invalidation.getDate());
+            statement.setString(4, invalidation.getPlatform());
+        });
+    }
+
+    @Override
+    public void setReceiver(Consumer<List<BoardInvalidation>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    /**
+     * Deliver the rows written since the last poll, plus any gap that has filled in
+     */
+    @Scheduled(fixedDelayString = "${trainticker.cluster.mysql.poll-interval-ms:500}")
+    public void poll() {
+        Consumer<List<BoardInvalidation>> target = receiver;
+        if (target == null) {
+            return;
+        }
+        List<BoardInvalidation> batch = new ArrayList<>();
+        try {
+            if (lastId < 0) {
+                // Boards loaded from now on are read fresh; only later changes matter
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM board_invalidations",
+                        Long.class);
+                lastId = max != null ? max : 0;
+                log.info("Polling board_invalidations after id {}", lastId);
+                return;
+            }
+
+            pollGaps(batch);
+            List<Row> rows;
+            do {
+                rows = jdbcTemplate.query(POLL_SQL, ROW, lastId, batchSize);
+                for (Row row : rows) {
+                    recordGaps(row.id);
+                    lastId = row.id;
+                    batch.add(row.invalidation);
+                }
+            } while (rows.size() == batchSize);
+            polls.increment();
+
+        } catch (Exception e) {
+            // Try again next time; lastId only moved past rows that were read, and those are delivered below
+            pollFailures.increment();
+            log.warn("Could not poll board invalidations: {}", e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            target.accept(batch);
+        }
+    }
+
+    /**
+     * Delete the rows every node has had time to poll
+     */
+    @Scheduled(fixedDelayString = "${trainticker.cluster.mysql.cleanup-interval-ms:60000}")
+    public void cleanup() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(CLEANUP_SQL, retentionSeconds, CLEANUP_BATCH);
+            } while (deleted == CLEANUP_BATCH);
+        } catch (Exception e) {
+            log.warn("Could not delete old board invalidations: {}", e.getMessage());
+        }
+    }
+
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    public long getPollFailures() {
+        return pollFailures.sum();
+    }
+
+    public long getGapsFilled() {
+        return gapsFilled.sum();
+    }
+
+    public long getGapsExpired() {
+        return gapsExpired.sum();
+    }
+
+    /**
+     * Look up the ids skipped earlier; deliver those that are now visible and
+     * give up on those older than gapTimeoutMillis
+     */
+    private void pollGaps(List<BoardInvalidation> batch) {
+        if (gaps.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, Long>> expired = gaps.entrySet().iterator();
+        while (expired.hasNext()) {
+            if (now - expired.next().getValue() > gapTimeoutMillis) {
+                expired.remove();
+                gapsExpired.increment();
+            }
+        }
+        if (gaps.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        String sql = SELECT_ROWS + "WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        for (Row row : jdbcTemplate.query(sql, ROW, ids.toArray())) {
+            gaps.remove(row.id);
+            gapsFilled.increment();
+            batch.add(row.invalidation);
+        }
+    }
+
+    /**
+     * Remember the ids between the last one seen and this one
+     */
+    private void recordGaps(long id) {
+        long now = System.currentTimeMillis();
+        for (long missing = Math.max(lastId + 1, id - MAX_GAPS); missing < id; missing++) {
+            gaps.put(missing, now);
+        }
+        Iterator<Long> oldest = gaps.keySet().iterator();
+        while (gaps.size() > MAX_GAPS) {
+            oldest.next();
+            oldest.remove();
+            gapsExpired.increment();
+        }
+    }
+
+    private record Row(long id, BoardInvalidation invalidation) {}
+}
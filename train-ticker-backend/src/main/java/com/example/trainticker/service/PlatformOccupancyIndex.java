@@ -0,0 +1,318 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.example.trainticker.dto.PlatformConflictDTO;
+import com.example.trainticker.dto.PlatformOccupancyDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Platform Occupancy Index
+ *
+ * Which train holds which platform when, per station and date, and which
+ * trains are expected on the same platform at the same time.
+ *
+ * A train holds its platform from beforeMinutes before its expected departure
+ * (timetabled departure plus delay) until afterMinutes after it. Schedules only
+ * have an arrival time at the destination, not at this station, so the time at
+ * the platform is this fixed window; cancelled trains hold no platform.
+ *
+ * Because every occupation is equally long (L minutes), a map sorted by start
+ * time is an interval index: the occupations overlapping [a, b) are exactly
+ * those starting in (a - L, b), one range lookup, O(log n + k). Two trains
+ * conflict when their starts are less than L apart, so the conflicts of a
+ * train are found the same way and kept in a sorted set per platform.
+ *
+ * The index is maintained like LiveScheduleStats, from BoardUpdatedEvent:
+ * built when a board is loaded, then only the changed rows are moved
+ * (a delay or platform change is one remove and one insert), so a status
+ * update costs O(log n), not a pass over the day.
+ */
+@Component
+public class PlatformOccupancyIndex {
+
+    // Starts are stored shifted, so a start before midnight still gives a positive key
+    private static final int KEY_OFFSET_MINUTES = 2 * 24 * 60;
+    // Schedule ids, expanded ones included (bit 39, see TimetableExpander), fit in 40 bits
+    private static final int ID_BITS = 40;
+
+    private static final Comparator<Conflict> CONFLICT_ORDER =
+            Comparator.<Conflict>comparingLong(c -> c.first.key).thenComparingLong(c -> c.second.key);
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final int beforeMinutes;
+    private final int length;
+
+    private final Map<BoardKey, Map<String, Platform>> boards = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PlatformOccupancyIndex(BoardSnapshotStore boardSnapshotStore,
+                                  @Value("${trainticker.platforms.occupied-before-minutes:5}") int beforeMinutes,
+                                  @Value("${trainticker.platforms.occupied-after-minutes:1}") int afterMinutes) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.beforeMinutes = beforeMinutes;
+        this.length = Math.max(1, beforeMinutes + afterMinutes);
+    }
+
+    /**
+     * Trains holding a platform at some point between 'from' and 'until'
+     * (both inclusive, to the minute), in the order they take it
+     * Without from/until: the whole day
+     */
+    public List<PlatformOccupancyDTO> getOccupancy(String station, LocalDate date, String platform,
+                                                   LocalTime from, LocalTime until) {
+        Platform index = platform(station, date, platform);
+        List<PlatformOccupancyDTO> result = new ArrayList<>();
+        if (index == null) {
+            return result;
+        }
+        int start = from != null ? minuteOf(from) : -KEY_OFFSET_MINUTES;
+        int end = until != null ? minuteOf(until) + 1 : KEY_OFFSET_MINUTES;
+        for (Occupation occupation : index.overlapping(start, end)) {
+            result.add(occupation.toDTO());
+        }
+        return result;
+    }
+
+    /**
+     * Pairs of trains expected on the same platform at overlapping times,
+     * in time order; platform null for every platform of the station on that date
+     */
+    public List<PlatformConflictDTO> getConflicts(String station, LocalDate date, String platform) {
+        List<PlatformConflictDTO> result = new ArrayList<>();
+        if (platform != null) {
+            Platform index = platform(station, date, platform);
+            if (index != null) {
+                index.conflicts.forEach(conflict -> result.add(conflict.toDTO()));
+            }
+            return result;
+        }
+        boardSnapshotStore.get(station, date);
+        Map<String, Platform> platforms = boards.get(BoardKey.of(station, date));
+        if (platforms != null) {
+            List<Conflict> all = new ArrayList<>();
+            platforms.values().forEach(index -> all.addAll(index.conflicts));
+            all.sort(CONFLICT_ORDER);
+            all.forEach(conflict -> result.add(conflict.toDTO()));
+        }
+        return result;
+    }
+
+    /**
+     * Number of conflicts at a station on a date whose board is in memory (0 otherwise)
+     */
+    public int getConflictCount(String station, LocalDate date) {
+        Map<String, Platform> platforms = boards.get(BoardKey.of(station, date));
+        if (platforms == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Platform index : platforms.values()) {
+            count += index.conflicts.size();
+        }
+        return count;
+    }
+
+    /**
+     * Number of conflicts on a date at every station whose board is in memory
+     */
+    public int getConflictCount(LocalDate date) {
+        int count = 0;
+        for (Map.Entry<BoardKey, Map<String, Platform>> board : boards.entrySet()) {
+            if (board.getKey().getDate().equals(date)) {
+                for (Platform index : board.getValue().values()) {
+                    count += index.conflicts.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Apply a board change to the index
+     * Events for one board arrive one at a time (the store publishes them under its lock)
+     */
+    @EventListener
+    public void onBoardUpdated(BoardUpdatedEvent event) {
+        BoardSnapshot previous = event.getPrevious();
+        if (previous == null) {
+            // First load: index every row into a fresh map, then publish it
+            Map<String, Platform> fresh = new ConcurrentHashMap<>();
+            for (TrainScheduleDTO row : event.getCurrent().getRows()) {
+                add(fresh, row);
+            }
+            boards.put(event.getKey(), fresh);
+            return;
+        }
+
+        Map<String, Platform> platforms = boards.get(event.getKey());
+        if (platforms == null) {
+            return;
+        }
+        BoardDeltaDTO delta = event.getDelta();
+        for (TrainScheduleDTO row : delta.getUpdated()) {
+            TrainScheduleDTO old = previous.getRow(row.getId());
+            if (old != null) {
+                remove(platforms, old);
+            }
+            add(platforms, row);
+        }
+        for (Long id : delta.getRemoved()) {
+            TrainScheduleDTO old = previous.getRow(id);
+            if (old != null) {
+                remove(platforms, old);
+            }
+        }
+    }
+
+    @EventListener
+    public void onBoardEvicted(BoardEvictedEvent event) {
+        boards.remove(event.getKey());
+    }
+
+    /**
+     * The index of one platform, loading the board if needed
+     */
+    private Platform platform(String station, LocalDate date, String platform) {
+        boardSnapshotStore.get(station, date);
+        Map<String, Platform> platforms = boards.get(BoardKey.of(station, date));
+        return platforms != null ? platforms.get(platform) : null;
+    }
+
+    private void add(Map<String, Platform> platforms, TrainScheduleDTO row) {
+        Occupation occupation = toOccupation(row);
+        if (occupation != null) {
+            platforms.computeIfAbsent(row.getPlatform(), p -> new Platform()).add(occupation);
+        }
+    }
+
+    private void remove(Map<String, Platform> platforms, TrainScheduleDTO row) {
+        Occupation occupation = toOccupation(row);
+        Platform index = occupation != null ? platforms.get(row.getPlatform()) : null;
+        if (index != null) {
+            index.remove(occupation);
+        }
+    }
+
+    /**
+     * The time a row holds its platform, or null if it holds none
+     * The same row always gives the same key, so it can be found again to remove it
+     */
+    private Occupation toOccupation(TrainScheduleDTO row) {
+        if (row.getId() == null || row.getPlatform() == null || row.getDepartureTime() == null
+                || Schedule.Status.CANCELLED.name().equals(row.getStatus())) {
+            return null;
+        }
+        int delay = row.getDelayMinutes() != null ? Math.max(0, row.getDelayMinutes()) : 0;
+        int start = Math.min(minuteOf(row.getDepartureTime()) + delay, KEY_OFFSET_MINUTES) - beforeMinutes;
+        return new Occupation(key(start, row.getId()), start, start + length, row, delay);
+    }
+
+    private static long key(int startMinute, long id) {
+        return ((long) (startMinute + KEY_OFFSET_MINUTES) << ID_BITS) | id;
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime timeOf(int minute) {
+        return LocalTime.of(Math.floorMod(minute, 24 * 60) / 60, Math.floorMod(minute, 60));
+    }
+
+    /**
+     * Occupations and conflicts of one platform on one board
+     */
+    private final class Platform {
+        final ConcurrentSkipListMap<Long, Occupation> byStart = new ConcurrentSkipListMap<>();
+        final NavigableSet<Conflict> conflicts = new ConcurrentSkipListSet<>(CONFLICT_ORDER);
+
+        /**
+         * Occupations overlapping [start, end): those starting in (start - length, end)
+         */
+        Iterable<Occupation> overlapping(int start, int end) {
+            return byStart.subMap(key(start - length + 1, 0), key(end, 0)).values();
+        }
+
+        void add(Occupation occupation) {
+            for (Occupation other : overlapping(occupation.start, occupation.start + length)) {
+                if (other.key != occupation.key) {
+                    conflicts.add(Conflict.of(occupation, other));
+                }
+            }
+            byStart.put(occupation.key, occupation);
+        }
+
+        void remove(Occupation occupation) {
+            if (byStart.remove(occupation.key) == null) {
+                return;
+            }
+            for (Occupation other : overlapping(occupation.start, occupation.start + length)) {
+                conflicts.remove(Conflict.of(occupation, other));
+            }
+        }
+    }
+
+    /**
+     * One train holding a platform from 'start' until 'end'
+     * (minutes after midnight; may be before midnight or after the next one)
+     */
+    private static final class Occupation {
+        final long key;
+        final int start;
+        final int end;
+        final TrainScheduleDTO row;
+        final int delay;
+
+        Occupation(long key, int start, int end, TrainScheduleDTO row, int delay) {
+            this.key = key;
+            this.start = start;
+            this.end = end;
+            this.row = row;
+            this.delay = delay;
+        }
+
+        PlatformOccupancyDTO toDTO() {
+            LocalTime expected = row.getDepartureTime().plusMinutes(delay);
+            return new PlatformOccupancyDTO(row.getId(), row.getTrainNumber(), row.getDestination(),
+                    row.getPlatform(), row.getDepartureTime(), expected, delay, timeOf(start), timeOf(end));
+        }
+    }
+
+    /**
+     * Two overlapping occupations, the earlier one first
+     */
+    private static final class Conflict {
+        final Occupation first;
+        final Occupation second;
+
+        private Conflict(Occupation first, Occupation second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        static Conflict of(Occupation a, Occupation b) {
+            return a.key < b.key ? new Conflict(a, b) : new Conflict(b, a);
+        }
+
+        PlatformConflictDTO toDTO() {
+            return new PlatformConflictDTO(first.row.getPlatform(), first.toDTO(), second.toDTO(),
+                    Math.min(first.end, second.end) - second.start);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.repository.ArchivedScheduleRepository;
+import com.example.trainticker.repository.ScheduleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Schedule Archive Service
+ *
+ * Keeps the schedules table small: only the last hotDays days (and the future)
+ * stay there, older days are moved to schedules_archive by a nightly job.
+ * The board, platform and status queries then only touch the current days,
+ * however many years of history the database holds.
+ *
+ * Reads are routed by date:
+ * - dates inside the hot window are read from schedules only
+ * - older dates are read from schedules_archive, plus any rows for that date
+ *   still in schedules (a day not moved yet, or imported later), so a past
+ *   board through getScheduleByDate looks the same before and after archiving
+ *
+ * Each day is moved in its own transaction (INSERT ... SELECT, then DELETE),
+ * so a day is never half in one table and half in the other.
+ */
+@Service
+public class ScheduleArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleArchiveService.class);
+
+    private static final String COLUMNS =
+            "id, train_id, destination, departure_time, arrival_time, platform, status, " +
+            "delay_minutes, schedule_date, created_at, station_code";
+
+    private final ScheduleRepository scheduleRepository;
+    private final ArchivedScheduleRepository archivedScheduleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotDays;
+    private final boolean enabled;
+
+    @Autowired
+    public ScheduleArchiveService(ScheduleRepository scheduleRepository,
+                                  ArchivedScheduleRepository archivedScheduleRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${trainticker.archive.hot-days:7}") int hotDays,
+                                  @Value("${trainticker.archive.enabled:true}") boolean enabled) {
+        this.scheduleRepository = scheduleRepository;
+        this.archivedScheduleRepository = archivedScheduleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotDays = hotDays;
+        this.enabled = enabled;
+    }
+
+    /**
+     * First date kept in the schedules table; anything before it may be archived
+     */
+    public LocalDate getHotFrom() {
+        return LocalDate.now().minusDays(hotDays);
+    }
+
+    /**
+     * True if a date's schedules may be in schedules_archive
+     */
+    public boolean mayBeArchived(LocalDate date) {
+        return date.isBefore(getHotFrom());
+    }
+
+    /**
+     * Board rows of a station for a date from whichever table holds them, in departure order
+     */
+    public List<TrainScheduleDTO> findBoardRowsByDate(String station, LocalDate date) {
+        if (!mayBeArchived(date)) {
+            return scheduleRepository.findBoardRowsByStationAndDate(station, date);
+        }
+        List<TrainScheduleDTO> archived = archivedScheduleRepository.findBoardRowsByStationAndDate(station, date);
+        List<TrainScheduleDTO> hot = scheduleRepository.findBoardRowsByStationAndDate(station, date);
+        if (hot.isEmpty()) {
+            return archived;
+        }
+        List<TrainScheduleDTO> rows = new ArrayList<>(archived.size() + hot.size());
+        rows.addAll(archived);
+        rows.addAll(hot);
+        rows.sort(Comparator.comparing(TrainScheduleDTO::getDepartureTime));
+        return rows;
+    }
+
+    /**
+     * Move every day before the hot window to the archive
+     * Runs at night; a failed day is logged and retried on the next run
+     */
+    @Scheduled(cron = "${trainticker.archive.cron:0 30 2 * * *}")
+    public void archiveOldDays() {
+        if (!enabled) {
+            return;
+        }
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+                "SELECT DISTINCT schedule_date FROM schedules WHERE schedule_date < ? ORDER BY schedule_date",
+                LocalDate.class, getHotFrom());
+        int moved = 0;
+        for (LocalDate date : dates) {
+            try {
+                moved += archiveDate(date);
+            } catch (Exception e) {
+                log.warn("Could not archive schedules of {}: {}", date, e.getMessage());
+            }
+        }
+        if (!dates.isEmpty()) {
+            log.info("Archived {} schedules of {} day(s) before {}", moved, dates.size(), getHotFrom());
+        }
+    }
+
+    /**
+     * Move one day to the archive in one transaction
+     * Returns the number of schedules moved
+     */
+    public int archiveDate(LocalDate date) {
+        Integer moved = transactionTemplate.execute(status -> {
+            int copied = jdbcTemplate.update("INSERT INTO schedules_archive (" + COLUMNS + ") " +
+                    "SELECT " + COLUMNS + " FROM schedules WHERE schedule_date = ?", date);
+            int deleted = jdbcTemplate.update("DELETE FROM schedules WHERE schedule_date = ?", date);
+            if (copied != deleted) {
+                // Rows changed in between; roll back and let the next run try again
+                throw new IllegalStateException("copied " + copied + " rows but deleted " + deleted);
+            }
+            return copied;
+        });
+        log.debug("Archived {} schedules of {}", moved, date);
+        return moved != null ? moved : 0;
+    }
+}
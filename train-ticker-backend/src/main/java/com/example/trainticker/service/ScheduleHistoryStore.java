@@ -0,0 +1,290 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.HistoryDaySummaryDTO;
+import com.example.trainticker.dto.HistoryMonthDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.TrainRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Schedule History Store
+ *
+ * Years of past schedules for range and delay-history queries, without loading
+ * a Schedule entity (or a DTO) per departure.
+ *
+ * Every night, after the archive job, each finished month that has no file yet
+ * (and the current month, up to yesterday) is exported from schedules_archive
+ * and schedules into one column file per month (see HistoryMonth), in
+ * trainticker.history.dir. The files are memory-mapped: a scan over years of
+ * departures reads primitive values straight from the page cache, one column
+ * at a time, and allocates nothing per row.
+ *
+ * The files are a copy for analysis: a change made to a past schedule after its
+ * month was exported only shows up once that month is exported again
+ * (exportMonth). Today and the future are never in here.
+ */
+@Service
+public class ScheduleHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleHistoryStore.class);
+
+    private static final String FILE_PREFIX = "schedules-";
+    private static final String FILE_SUFFIX = ".col";
+
+    // No ORDER BY: HistoryMonth.Builder sorts the month in memory instead of a filesort
+    private static final String MONTH_ROWS_SQL =
+            "SELECT schedule_date, train_id, departure_time, arrival_time, destination, platform, status, delay_minutes " +
+            "FROM schedules_archive WHERE schedule_date BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT schedule_date, train_id, departure_time, arrival_time, destination, platform, status, delay_minutes " +
+            "FROM schedules WHERE schedule_date BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TrainRepository trainRepository;
+    private final Path directory;
+    private final boolean enabled;
+
+    private final NavigableMap<YearMonth, HistoryMonth> months = new ConcurrentSkipListMap<>();
+
+    @Autowired
+    public ScheduleHistoryStore(JdbcTemplate jdbcTemplate,
+                                TrainRepository trainRepository,
+                                @Value("${trainticker.history.dir:data/history}") String directory,
+                                @Value("${trainticker.history.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.trainRepository = trainRepository;
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Map the month files written by earlier runs
+     */
+    @PostConstruct
+    public void openExisting() {
+        if (!enabled || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    HistoryMonth month = HistoryMonth.open(file);
+                    months.put(month.getMonth(), month);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping schedule history file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read schedule history directory {}: {}", directory, e.getMessage());
+        }
+        log.info("Opened {} month(s) of schedule history from {}", months.size(), directory);
+    }
+
+    /**
+     * Export every month that is missing or not complete yet
+     * Runs at night, after ScheduleArchiveService; a failed month is retried on the next run
+     */
+    @Scheduled(cron = "${trainticker.history.cron:0 45 2 * * *}")
+    public void exportPending() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate first = jdbcTemplate.queryForObject(
+                "SELECT MIN(d) FROM (SELECT MIN(schedule_date) AS d FROM schedules_archive " +
+                "UNION ALL SELECT MIN(schedule_date) FROM schedules) m", LocalDate.class);
+        if (first == null || first.isAfter(yesterday)) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(first); !month.isAfter(YearMonth.from(yesterday)); month = month.plusMonths(1)) {
+            HistoryMonth existing = months.get(month);
+            if (existing != null && !existing.getThroughDate().isBefore(lastDay(month, yesterday))) {
+                continue;
+            }
+            try {
+                exportMonth(month);
+            } catch (RuntimeException e) {
+                log.warn("Could not export schedule history of {}: {}", month, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * (Re)write the file of one month from the database, up to yesterday
+     * Returns the number of departures exported
+     */
+    public int exportMonth(YearMonth month) {
+        LocalDate through = lastDay(month, LocalDate.now().minusDays(1));
+        if (through.isBefore(month.atDay(1))) {
+            throw new IllegalArgumentException(month + " has not started yet");
+        }
+        HistoryMonth.Builder builder = new HistoryMonth.Builder(month, through);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MONTH_ROWS_SQL);
+            // Stream the rows instead of buffering the month in the driver (see ScheduleStreamService)
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            statement.setObject(1, month.atDay(1));
+            statement.setObject(2, through);
+            statement.setObject(3, month.atDay(1));
+            statement.setObject(4, through);
+            return statement;
+        }, rs -> {
+            String status = rs.getString(7);
+            builder.add(rs.getObject(1, LocalDate.class), rs.getLong(2),
+                    minuteOfDay(rs.getObject(3, LocalTime.class)), minuteOfDay(rs.getObject(4, LocalTime.class)),
+                    rs.getString(5), rs.getString(6),
+                    status != null ? Schedule.Status.valueOf(status).ordinal() : Schedule.Status.ON_TIME.ordinal(),
+                    rs.getInt(8));
+        });
+
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(FILE_PREFIX + month + FILE_SUFFIX);
+            builder.writeTo(file);
+            months.put(month, HistoryMonth.open(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write schedule history of " + month, e);
+        }
+        log.info("Exported {} departures of {} to the schedule history (through {})", builder.size(), month, through);
+        return builder.size();
+    }
+
+    /**
+     * Visit the rows of every exported date from 'from' to 'to' (both inclusive),
+     * one day at a time, in date order
+     */
+    void scan(LocalDate from, LocalDate to, DayVisitor visitor) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        for (HistoryMonth month : months.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+            LocalDate first = month.getMonth().atDay(1);
+            LocalDate start = from.isAfter(first) ? from : first;
+            LocalDate end = to.isBefore(month.getThroughDate()) ? to : month.getThroughDate();
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                int day = date.getDayOfMonth();
+                visitor.visit(date, month, month.firstRow(day), month.endRow(day));
+            }
+        }
+    }
+
+    /**
+     * Departures, delays and cancellations per day, optionally of one train
+     * Days without departures are left out
+     * Throws IllegalArgumentException for an unknown train number
+     */
+    public List<HistoryDaySummaryDTO> summarizeDays(LocalDate from, LocalDate to, String trainNumber) {
+        int delayed = Schedule.Status.DELAYED.ordinal();
+        int cancelled = Schedule.Status.CANCELLED.ordinal();
+        boolean allTrains = trainNumber == null;
+        int wantedTrain = allTrains ? 0 : trainRepository.findByTrainNumber(trainNumber)
+                .map(Train::getId)
+                .map(Math::toIntExact)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown train " + trainNumber));
+        List<HistoryDaySummaryDTO> days = new ArrayList<>();
+        scan(from, to, (date, month, fromRow, toRow) -> {
+            int departures = 0;
+            int delayedCount = 0;
+            int cancelledCount = 0;
+            long delayMinutes = 0;
+            int maxDelay = 0;
+            for (int row = fromRow; row < toRow; row++) {
+                if (!allTrains && month.trainId(row) != wantedTrain) {
+                    continue;
+                }
+                departures++;
+                int status = month.status(row);
+                if (status == cancelled) {
+                    cancelledCount++;
+                    continue;
+                }
+                int delay = month.delayMinutes(row);
+                if (status == delayed || delay > 0) {
+                    delayedCount++;
+                }
+                delayMinutes += Math.max(delay, 0);
+                maxDelay = Math.max(maxDelay, delay);
+            }
+            if (departures > 0) {
+                int running = departures - cancelledCount;
+                days.add(new HistoryDaySummaryDTO(date, departures, delayedCount, cancelledCount,
+                        running > 0 ? (double) delayMinutes / running : 0.0, maxDelay));
+            }
+        });
+        return days;
+    }
+
+    /**
+     * The exported months, oldest first
+     */
+    public List<HistoryMonthDTO> getMonths() {
+        List<HistoryMonthDTO> result = new ArrayList<>();
+        for (HistoryMonth month : months.values()) {
+            result.add(new HistoryMonthDTO(month.getMonth().toString(), month.getThroughDate(),
+                    month.getRowCount(), month.getSizeBytes()));
+        }
+        return result;
+    }
+
+    public long getRowCount() {
+        long rows = 0;
+        for (HistoryMonth month : months.values()) {
+            rows += month.getRowCount();
+        }
+        return rows;
+    }
+
+    public long getSizeBytes() {
+        long bytes = 0;
+        for (HistoryMonth month : months.values()) {
+            bytes += month.getSizeBytes();
+        }
+        return bytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static LocalDate lastDay(YearMonth month, LocalDate yesterday) {
+        LocalDate end = month.atEndOfMonth();
+        return end.isAfter(yesterday) ? yesterday : end;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Receives the rows [fromRow, toRow) of one date in a month file
+     */
+    @FunctionalInterface
+    interface DayVisitor {
+        void visit(LocalDate date, HistoryMonth month, int fromRow, int toRow);
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.ScheduleImportResultDTO;
+import com.example.trainticker.dto.ScheduleImportRowDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.TrainRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Schedule Import Service
+ *
+ * Writes a whole timetable (tens of thousands of departures) in one go.
+ *
+ * How it stays fast:
+ * - The upload is read as a stream, one row at a time (Jackson's MappingIterator
+ *   for JSON, a line reader for CSV), so the file is never held in memory
+ * - Schedules get their ids from a pooled generator (see Schedule.id), so Hibernate
+ *   can send INSERTs in JDBC batches (hibernate.jdbc.batch_size), and the MySQL
+ *   driver rewrites each batch into one multi-row INSERT (rewriteBatchedStatements)
+ * - Every batchSize rows the persistence context is flushed and cleared, so it
+ *   does not grow with the size of the upload
+ *
+ * The whole upload is one transaction: either every row is written or none.
+ * Once it has committed, the boards of the affected stations and dates that are
+ * in memory are reloaded, so displays switch to the new timetable in a single swap;
+ * the other nodes of the cluster are told to do the same (see BoardInvalidationService).
+ * Rows without a station belong to the default station (trainticker.stations.default);
+ * replace mode replaces the departures of each station and date in the upload,
+ * leaving the other stations' boards of that date alone.
+ */
+@Service
+public class ScheduleImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleImportService.class);
+
+    private final TrainRepository trainRepository;
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final StationDirectory stationDirectory;
+    private final BoardInvalidationService boardInvalidationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ScheduleImportService(TrainRepository trainRepository,
+                                 BoardSnapshotStore boardSnapshotStore,
+                                 StationDirectory stationDirectory,
+                                 BoardInvalidationService boardInvalidationService,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.trainRepository = trainRepository;
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.stationDirectory = stationDirectory;
+        this.boardInvalidationService = boardInvalidationService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import a JSON array (or newline-delimited JSON) of ScheduleImportRowDTO objects
+     */
+    public ScheduleImportResultDTO importJson(InputStream body, boolean replace) throws IOException {
+        MappingIterator<ScheduleImportRowDTO> rows =
+                objectMapper.readerFor(ScheduleImportRowDTO.class).readValues(body);
+        try (rows) {
+            return importRows(rows, replace);
+        }
+    }
+
+    /**
+     * Import CSV with a header line naming the columns (any order, case-insensitive):
+     * trainNumber,trainName,route,destination,departureTime,arrivalTime,platform,scheduleDate,status,delayMinutes
+     * and optionally station
+     */
+    public ScheduleImportResultDTO importCsv(InputStream body, boolean replace) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return importRows(new CsvRows(reader), replace);
+        }
+    }
+
+    private ScheduleImportResultDTO importRows(Iterator<ScheduleImportRowDTO> rows, boolean replace) {
+        long start = System.nanoTime();
+        ImportRun run = transactionTemplate.execute(status -> write(rows, replace));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Committed: swap in the new boards that are on display right now
+        // (boards not in memory load the new rows on their next request anyway)
+        for (BoardKey key : run.boards) {
+            stationDirectory.add(key.getStation());
+            if (boardSnapshotStore.peek(key.getStation(), key.getDate()) != null) {
+                boardSnapshotStore.refresh(key.getStation(), key.getDate());
+            }
+        }
+        boardInvalidationService.boardsChanged(run.boards);
+
+        ScheduleImportResultDTO result = new ScheduleImportResultDTO(
+                run.rows, run.trainsCreated, run.rowsReplaced, new ArrayList<>(run.dates), elapsedMillis);
+        log.info("Imported {} schedules for {} date(s) in {} ms ({} rows/s)",
+                run.rows, run.dates.size(), elapsedMillis, Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Runs inside the import transaction
+     */
+    private ImportRun write(Iterator<ScheduleImportRowDTO> rows, boolean replace) {
+        ImportRun run = new ImportRun();
+        Map<String, Train> trains = new HashMap<>();
+        for (Train train : trainRepository.findAll()) {
+            trains.put(train.getTrainNumber(), train);
+        }
+        String defaultStation = boardSnapshotStore.getDefaultStation();
+
+        while (true) {
+            ScheduleImportRowDTO row;
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+                row = rows.next();
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Row " + (run.rows + 1) + ": could not be read (" +
+                        rootMessage(e) + ")", e);
+            }
+            long rowNumber = run.rows + 1;
+            Schedule.Status status = validate(row, rowNumber);
+            String station = station(row, rowNumber, defaultStation);
+
+            LocalDate date = row.getScheduleDate();
+            run.dates.add(date);
+            if (run.boards.add(BoardKey.of(station, date)) && replace) {
+                entityManager.flush();
+                run.rowsReplaced += entityManager
+                        .createQuery("DELETE FROM Schedule s WHERE s.station = :station AND s.scheduleDate = :date")
+                        .setParameter("station", station)
+                        .setParameter("date", date)
+                        .executeUpdate();
+                // A past date may already be archived; replace those rows too
+                run.rowsReplaced += entityManager
+                        .createNativeQuery("DELETE FROM schedules_archive WHERE station_code = :station " +
+                                "AND schedule_date = :date")
+                        .setParameter("station", station)
+                        .setParameter("date", date)
+                        .executeUpdate();
+            }
+
+            Train train = trains.get(row.getTrainNumber());
+            if (train == null) {
+                if (isBlank(row.getTrainName()) || isBlank(row.getRoute())) {
+                    throw new IllegalArgumentException("Row " + rowNumber + ": unknown train " +
+                            row.getTrainNumber() + " (give trainName and route to create it)");
+                }
+                train = new Train(row.getTrainNumber(), row.getTrainName(), row.getRoute());
+                entityManager.persist(train);
+                trains.put(train.getTrainNumber(), train);
+                run.trainsCreated++;
+            }
+
+            Schedule schedule = new Schedule(train, row.getDestination(), row.getDepartureTime(),
+                    row.getArrivalTime(), row.getPlatform(), date);
+            schedule.setStation(station);
+            schedule.setStatus(status);
+            schedule.setDelayMinutes(row.getDelayMinutes() != null ? row.getDelayMinutes() : 0);
+            entityManager.persist(schedule);
+            run.rows++;
+
+            if (run.rows % batchSize == 0) {
+                // Send this batch and forget the entities; trains in the map stay usable as references
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return run;
+    }
+
+    private static Schedule.Status validate(ScheduleImportRowDTO row, long rowNumber) {
+        String missing = isBlank(row.getTrainNumber()) ? "trainNumber"
+                : isBlank(row.getDestination()) ? "destination"
+                : row.getDepartureTime() == null ? "departureTime"
+                : row.getArrivalTime() == null ? "arrivalTime"
+                : isBlank(row.getPlatform()) ? "platform"
+                : row.getScheduleDate() == null ? "scheduleDate"
+                : null;
+        if (missing != null) {
+            throw new IllegalArgumentException("Row " + rowNumber + ": " + missing + " is required");
+        }
+        if (row.getPlatform().length() > 5 || row.getDestination().length() > 100
+                || row.getTrainNumber().length() > 10) {
+            throw new IllegalArgumentException("Row " + rowNumber + ": value too long for its column");
+        }
+        if (isBlank(row.getStatus())) {
+            return Schedule.Status.ON_TIME;
+        }
+        try {
+            return Schedule.Status.valueOf(row.getStatus().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Row " + rowNumber + ": unknown status " + row.getStatus());
+        }
+    }
+
+    private static String station(ScheduleImportRowDTO row, long rowNumber, String defaultStation) {
+        if (isBlank(row.getStation())) {
+            return defaultStation;
+        }
+        try {
+            return BoardKey.normalizeStation(row.getStation());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Row " + rowNumber + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * Counters for one import
+     */
+    private static final class ImportRun {
+        long rows;
+        int trainsCreated;
+        long rowsReplaced;
+        final Set<LocalDate> dates = new LinkedHashSet<>();
+        final Set<BoardKey> boards = new LinkedHashSet<>();
+    }
+
+    /**
+     * Reads CSV lines into ScheduleImportRowDTO objects, one line at a time
+     * Supports double-quoted values (with "" for a quote inside a value)
+     */
+    private static final class CsvRows implements Iterator<ScheduleImportRowDTO> {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private String nextLine;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            List<String> names = split(header.replace("\uFEFF", ""));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public ScheduleImportRowDTO next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> values = split(nextLine);
+            advance();
+
+            ScheduleImportRowDTO row = new ScheduleImportRowDTO();
+            row.setTrainNumber(value(values, "trainnumber"));
+            row.setTrainName(value(values, "trainname"));
+            row.setRoute(value(values, "route"));
+            row.setDestination(value(values, "destination"));
+            row.setPlatform(value(values, "platform"));
+            row.setStation(value(values, "station"));
+            row.setStatus(value(values, "status"));
+            try {
+                String departure = value(values, "departuretime");
+                String arrival = value(values, "arrivaltime");
+                String date = value(values, "scheduledate");
+                String delay = value(values, "delayminutes");
+                row.setDepartureTime(departure != null ? LocalTime.parse(departure) : null);
+                row.setArrivalTime(arrival != null ? LocalTime.parse(arrival) : null);
+                row.setScheduleDate(date != null ? LocalDate.parse(date) : null);
+                row.setDelayMinutes(delay != null ? Integer.valueOf(delay) : null);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+            return row;
+        }
+
+        private void advance() {
+            try {
+                do {
+                    nextLine = reader.readLine();
+                } while (nextLine != null && nextLine.isBlank());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+}
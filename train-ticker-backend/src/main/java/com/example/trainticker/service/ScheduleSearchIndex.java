@@ -0,0 +1,318 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardDeltaDTO;
+import com.example.trainticker.dto.SearchSuggestionDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Schedule Search Index
+ *
+ * In-memory text index over destination, train name, train number and route,
+ * one per board (station and date). It replaces LIKE '%x%' queries, which cannot use a
+ * database index and scan every row.
+ *
+ * How it works:
+ * - Every distinct value (a "term") is case-folded and accent-stripped
+ * - Each term is split into all of its 1, 2 and 3 character substrings (n-grams)
+ * - A query of up to 3 characters is a single n-gram lookup; a longer query
+ *   intersects the terms of all its trigrams and then checks "contains"
+ *
+ * Because the index is over distinct values (a few hundred destinations and
+ * trains, not every row), it stays small and lookups take microseconds.
+ *
+ * The index is kept up to date from BoardUpdatedEvent: only changed rows are
+ * re-indexed.
+ */
+@Component
+public class ScheduleSearchIndex {
+
+    /**
+     * The fields that are indexed, in ranking order (earlier = more relevant)
+     */
+    public enum Field {
+        DESTINATION, TRAIN_NAME, TRAIN_NUMBER, ROUTE
+    }
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<BoardKey, DateIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Rows of a board whose destination contains the query, best matches first
+     * (exact, then starts with, then a word starts with, then anywhere), and by
+     * departure time within each destination
+     * Returns null if the board is not indexed
+     */
+    public List<TrainScheduleDTO> findDestination(BoardSnapshot board, String query) {
+        DateIndex index = indexes.get(board.getKey());
+        if (index == null) {
+            return null;
+        }
+        List<TrainScheduleDTO> rows = new ArrayList<>();
+        index.lock.readLock().lock();
+        try {
+            for (Term term : index.search(fold(query), Field.DESTINATION)) {
+                int start = rows.size();
+                for (Long id : term.scheduleIds) {
+                    TrainScheduleDTO row = board.getRow(id);
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                }
+                rows.subList(start, rows.size()).sort(Comparator.comparing(TrainScheduleDTO::getDepartureTime));
+            }
+        } finally {
+            index.lock.readLock().unlock();
+        }
+        return rows;
+    }
+
+    /**
+     * Type-ahead suggestions for a station's board of a date across all indexed
+     * fields, best first
+     * Returns null if the board is not indexed
+     */
+    public List<SearchSuggestionDTO> suggest(String station, LocalDate date, String query, int limit) {
+        DateIndex index = indexes.get(BoardKey.of(station, date));
+        if (index == null) {
+            return null;
+        }
+        List<SearchSuggestionDTO> suggestions = new ArrayList<>();
+        index.lock.readLock().lock();
+        try {
+            for (Term term : index.search(fold(query), null)) {
+                if (suggestions.size() >= limit) {
+                    break;
+                }
+                suggestions.add(new SearchSuggestionDTO(term.display, term.field.name(), term.scheduleIds.size()));
+            }
+        } finally {
+            index.lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    /**
+     * Keep the index in step with the board
+     */
+    @EventListener
+    public void onBoardUpdated(BoardUpdatedEvent event) {
+        BoardSnapshot previous = event.getPrevious();
+        if (previous == null) {
+            DateIndex fresh = new DateIndex();
+            for (TrainScheduleDTO row : event.getCurrent().getRows()) {
+                fresh.add(row);
+            }
+            indexes.put(event.getKey(), fresh);
+            return;
+        }
+
+        DateIndex index = indexes.get(event.getKey());
+        if (index == null) {
+            return;
+        }
+        BoardDeltaDTO delta = event.getDelta();
+        index.lock.writeLock().lock();
+        try {
+            for (TrainScheduleDTO row : delta.getUpdated()) {
+                TrainScheduleDTO old = previous.getRow(row.getId());
+                if (old != null) {
+                    index.remove(old);
+                }
+                index.add(row);
+            }
+            for (Long id : delta.getRemoved()) {
+                TrainScheduleDTO old = previous.getRow(id);
+                if (old != null) {
+                    index.remove(old);
+                }
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onBoardEvicted(BoardEvictedEvent event) {
+        indexes.remove(event.getKey());
+    }
+
+    /**
+     * Lower case, without accents, trimmed: "  Zürich " -> "zurich"
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Index for one board
+     */
+    private static final class DateIndex {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Key is field + ':' + folded value
+        final Map<String, Term> terms = new HashMap<>();
+        // n-gram -> terms containing it
+        final Map<String, Set<Term>> grams = new HashMap<>();
+
+        void add(TrainScheduleDTO row) {
+            addValue(Field.DESTINATION, row.getDestination(), row.getId());
+            addValue(Field.TRAIN_NAME, row.getTrainName(), row.getId());
+            addValue(Field.TRAIN_NUMBER, row.getTrainNumber(), row.getId());
+            addValue(Field.ROUTE, row.getRoute(), row.getId());
+        }
+
+        void remove(TrainScheduleDTO row) {
+            removeValue(Field.DESTINATION, row.getDestination(), row.getId());
+            removeValue(Field.TRAIN_NAME, row.getTrainName(), row.getId());
+            removeValue(Field.TRAIN_NUMBER, row.getTrainNumber(), row.getId());
+            removeValue(Field.ROUTE, row.getRoute(), row.getId());
+        }
+
+        private void addValue(Field field, String value, Long scheduleId) {
+            String folded = fold(value);
+            if (folded.isEmpty()) {
+                return;
+            }
+            Term term = terms.get(field + ":" + folded);
+            if (term == null) {
+                term = new Term(field, value.trim(), folded);
+                terms.put(field + ":" + folded, term);
+                for (String gram : gramsOf(folded)) {
+                    grams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            term.scheduleIds.add(scheduleId);
+        }
+
+        private void removeValue(Field field, String value, Long scheduleId) {
+            String folded = fold(value);
+            Term term = terms.get(field + ":" + folded);
+            if (term == null) {
+                return;
+            }
+            term.scheduleIds.remove(scheduleId);
+            if (term.scheduleIds.isEmpty()) {
+                terms.remove(field + ":" + folded);
+                for (String gram : gramsOf(folded)) {
+                    Set<Term> withGram = grams.get(gram);
+                    if (withGram != null) {
+                        withGram.remove(term);
+                        if (withGram.isEmpty()) {
+                            grams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Terms containing the query, ranked; field == null means all fields
+         * The caller must hold the read lock
+         */
+        List<Term> search(String query, Field field) {
+            if (query.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Term> matches = new ArrayList<>();
+            for (Term term : candidates(query)) {
+                if ((field == null || term.field == field) && term.folded.contains(query)) {
+                    matches.add(term);
+                }
+            }
+            matches.sort(Comparator
+                    .comparingInt((Term term) -> matchQuality(term.folded, query))
+                    .thenComparing(term -> term.field)
+                    .thenComparing(Comparator.comparingInt((Term term) -> term.scheduleIds.size()).reversed())
+                    .thenComparing(term -> term.folded));
+            return matches;
+        }
+
+        /**
+         * Terms that contain every trigram of the query (smallest posting set first)
+         */
+        private Set<Term> candidates(String query) {
+            if (query.length() <= GRAM_LENGTH) {
+                return grams.getOrDefault(query, Collections.emptySet());
+            }
+            List<Set<Term>> postings = new ArrayList<>();
+            for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+                Set<Term> withGram = grams.get(query.substring(i, i + GRAM_LENGTH));
+                if (withGram == null) {
+                    return Collections.emptySet();
+                }
+                postings.add(withGram);
+            }
+            postings.sort(Comparator.comparingInt(Set::size));
+            Set<Term> result = new HashSet<>(postings.get(0));
+            for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+                result.retainAll(postings.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 0 = exact match, 1 = starts with the query, 2 = a word starts with it, 3 = anywhere
+     */
+    private static int matchQuality(String folded, String query) {
+        if (folded.equals(query)) {
+            return 0;
+        }
+        if (folded.startsWith(query)) {
+            return 1;
+        }
+        int at = folded.indexOf(query);
+        return at > 0 && !Character.isLetterOrDigit(folded.charAt(at - 1)) ? 2 : 3;
+    }
+
+    /**
+     * All distinct substrings of length 1 to GRAM_LENGTH
+     */
+    private static Set<String> gramsOf(String folded) {
+        Set<String> result = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= folded.length(); i++) {
+                result.add(folded.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One distinct value of one field, and the schedules that have it
+     */
+    private static final class Term {
+        final Field field;
+        final String display;
+        final String folded;
+        final Set<Long> scheduleIds = new HashSet<>();
+
+        Term(Field field, String display, String folded) {
+            this.field = field;
+            this.display = display;
+            this.folded = folded;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.ScheduleStatusUpdateDTO;
+import com.example.trainticker.dto.StatusUpdateMetricsDTO;
+import com.example.trainticker.dto.StatusUpdateResultDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedule Status Update Buffer
+ *
+ * Live status changes (status, delay, platform) arrive in bursts, often several
+ * per train per second. Writing each one to MySQL would mostly write values
+ * that are overwritten a moment later.
+ *
+ * Instead:
+ * - every update is merged into a map holding only the latest value per schedule
+ * - the boards in memory are updated at once (copy-on-write), so reads, the
+ *   SSE stream and the statistics see the change immediately
+ * - every flush interval the map is written with one batched UPDATE in one
+ *   transaction; ten updates to the same train become one row written
+ *
+ * The buffer is also a BoardRowOverlay: a board reloaded from the database
+ * before a flush still shows the buffered values.
+ * Flushed values stay in the map for one more interval, so a reload that read
+ * the database just before the commit cannot bring back the old value.
+ *
+ * Other nodes of the cluster only see an update once it is flushed: after each
+ * flush, the boards and platforms (old and new) of the rows written are
+ * published through BoardInvalidationService. The rows' boards and old
+ * platforms are read in the flush transaction, and only when a channel is set.
+ *
+ * Updates for rows that are no longer in schedules but in schedules_archive
+ * (see ScheduleArchiveService) are written to the archive.
+ *
+ * A departure of a date that is not materialized is not stored (see
+ * TimetableExpander). Its first update stores it, in the flush transaction,
+ * as the exception row for that day; its boards are then reloaded with the
+ * stored row in place of the expanded one.
+ */
+@Component
+public class ScheduleStatusUpdateBuffer implements BoardRowOverlay {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleStatusUpdateBuffer.class);
+
+    // COALESCE keeps the current value for fields the update did not set
+    private static final String UPDATE_SQL =
+            "UPDATE schedules SET status = COALESCE(?, status), delay_minutes = COALESCE(?, delay_minutes), " +
+            "platform = COALESCE(?, platform) WHERE id = ?";
+
+    // Same, for a row the nightly archive job moved (a late correction of a past departure)
+    private static final String ARCHIVE_UPDATE_SQL =
+            "UPDATE schedules_archive SET status = COALESCE(?, status), delay_minutes = COALESCE(?, delay_minutes), " +
+            "platform = COALESCE(?, platform) WHERE id = ?";
+
+    private static final String LOCATE_SQL = "SELECT id, station_code, schedule_date, platform FROM %s WHERE id IN ";
+
+    private static final String EXISTS_SQL = "SELECT id FROM %s WHERE id IN ";
+
+    // Ids per lookup statement (existence checks, invalidations)
+    private static final int LOCATE_CHUNK = 1000;
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final TimetableExpander timetableExpander;
+    private final BoardInvalidationService boardInvalidationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    // Not synchronized: the flush blocks on JDBC, which would pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Metrics
+    private final LongAdder updatesReceived = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final AtomicLong lastFlushLagMillis = new AtomicLong();
+    private final AtomicLong maxFlushLagMillis = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+
+    @Autowired
+    public ScheduleStatusUpdateBuffer(BoardSnapshotStore boardSnapshotStore,
+                                      TimetableExpander timetableExpander,
+                                      BoardInvalidationService boardInvalidationService,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.timetableExpander = timetableExpander;
+        this.boardInvalidationService = boardInvalidationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Accept a batch of updates
+     * Updates for ids that do not exist are skipped and reported back
+     *
+     * @throws IllegalArgumentException if an update is invalid (nothing is accepted then)
+     */
+    public StatusUpdateResultDTO accept(List<ScheduleStatusUpdateDTO> updates) {
+        List<PendingUpdate> parsed = new ArrayList<>(updates.size());
+        List<String> stations = new ArrayList<>(updates.size());
+        for (ScheduleStatusUpdateDTO update : updates) {
+            parsed.add(PendingUpdate.of(update, System.nanoTime()));
+            // Optional hint: only that station's boards are searched for the row
+            stations.add(update.getStation() != null ? BoardKey.normalizeStation(update.getStation()) : null);
+        }
+
+        List<BoardSnapshot> boards = new ArrayList<>(parsed.size());
+        Set<Long> notInMemory = new HashSet<>();
+        for (int i = 0; i < parsed.size(); i++) {
+            long id = parsed.get(i).id;
+            BoardSnapshot board = stations.get(i) != null
+                    ? boardSnapshotStore.findBoardContaining(stations.get(i), id)
+                    : boardSnapshotStore.findBoardContaining(id);
+            boards.add(board);
+            if (board == null) {
+                notInMemory.add(id);
+            }
+        }
+        // One lookup per table for the whole batch, not one per update
+        Set<Long> existing = findExisting(notInMemory);
+
+        List<Long> unknownIds = new ArrayList<>();
+        Set<BoardKey> changedBoards = new LinkedHashSet<>();
+        int accepted = 0;
+        for (int i = 0; i < parsed.size(); i++) {
+            PendingUpdate update = parsed.get(i);
+            BoardSnapshot board = boards.get(i);
+            if (board == null && !existing.contains(update.id)) {
+                unknownIds.add(update.id);
+                continue;
+            }
+            pending.merge(update.id, update, PendingUpdate::then);
+            updatesReceived.increment();
+            accepted++;
+            if (board != null) {
+                changedBoards.add(board.getKey());
+            }
+        }
+
+        // One new snapshot per board, however many of its rows changed
+        for (BoardKey key : changedBoards) {
+            boardSnapshotStore.applyOverlays(key.getStation(), key.getDate());
+        }
+        return new StatusUpdateResultDTO(accepted, unknownIds);
+    }
+
+    /**
+     * The ids, of schedules on no board in memory, that name a departure: a row of
+     * schedules or schedules_archive, or a departure of a pattern that is not stored
+     */
+    private Set<Long> findExisting(Set<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> stored = new ArrayList<>(ids.size());
+        List<Long> expanded = new ArrayList<>();
+        for (Long id : ids) {
+            (TimetableExpander.isExpandedId(id) ? expanded : stored).add(id);
+        }
+        if (!expanded.isEmpty()) {
+            existing.addAll(timetableExpander.findScheduled(expanded));
+        }
+        if (!stored.isEmpty()) {
+            existing.addAll(selectIds("schedules", stored));
+            stored.removeAll(existing);
+        }
+        if (!stored.isEmpty()) {
+            existing.addAll(selectIds("schedules_archive", stored));
+        }
+        return existing;
+    }
+
+    private List<Long> selectIds(String table, List<Long> ids) {
+        List<Long> found = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += LOCATE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOCATE_CHUNK, ids.size()));
+            String sql = String.format(EXISTS_SQL, table) + inList(chunk.size());
+            found.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+        return found;
+    }
+
+    private static String inList(int size) {
+        return "(" + String.join(",", Collections.nCopies(size, "?")) + ")";
+    }
+
+    @Override
+    public TrainScheduleDTO apply(TrainScheduleDTO row) {
+        PendingUpdate update = row.getId() != null ? pending.get(row.getId()) : null;
+        if (update == null) {
+            return row;
+        }
+        TrainScheduleDTO shown = new TrainScheduleDTO(row.getId(), row.getTrainNumber(), row.getTrainName(),
+                row.getRoute(), row.getDestination(), row.getDepartureTime(), row.getArrivalTime(),
+                update.platform != null ? update.platform : row.getPlatform(),
+                update.status != null ? update.status : Schedule.Status.valueOf(row.getStatus()),
+                update.delayMinutes != null ? update.delayMinutes : row.getDelayMinutes());
+        return shown.equals(row) ? row : shown;
+    }
+
+    /**
+     * Write the latest buffered value of every changed schedule in one batched UPDATE
+     */
+    @Scheduled(fixedDelayString = "${trainticker.status-updates.flush-interval-ms:500}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            // Values written by the previous flush are in the database by now
+            pending.values().removeIf(update -> update.flushed);
+
+            List<PendingUpdate> batch = new ArrayList<>();
+            for (PendingUpdate update : pending.values()) {
+                if (!update.flushed) {
+                    batch.add(update);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            boolean publish = boardInvalidationService.isEnabled();
+            Map<BoardKey, Set<String>> changedPlatforms = new HashMap<>();
+            Map<Long, Long> storedIds = new HashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<PendingUpdate> rows = store(batch, storedIds);
+                    if (publish) {
+                        locate(rows, storedIds, changedPlatforms);
+                    }
+                    ParameterizedPreparedStatementSetter<PendingUpdate> values = (statement, update) -> {
+                        statement.setString(1, update.status != null ? update.status.name() : null);
+                        statement.setObject(2, update.delayMinutes, Types.INTEGER);
+                        statement.setString(3, update.platform);
+                        statement.setLong(4, storedIds.getOrDefault(update.id, update.id));
+                    };
+                    int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), values);
+                    // A row archived since it was accepted is not in schedules any more
+                    List<PendingUpdate> archived = new ArrayList<>();
+                    int row = 0;
+                    for (int[] chunk : counts) {
+                        for (int count : chunk) {
+                            if (count == 0) {
+                                archived.add(rows.get(row));
+                            }
+                            row++;
+                        }
+                    }
+                    if (!archived.isEmpty()) {
+                        jdbcTemplate.batchUpdate(ARCHIVE_UPDATE_SQL, archived, archived.size(), values);
+                    }
+                });
+            } catch (Exception e) {
+                // Keep everything buffered and try again next time
+                flushFailures.increment();
+                log.warn("Could not flush {} status updates: {}", batch.size(), e.getMessage());
+                return;
+            }
+
+            long now = System.nanoTime();
+            long oldest = now;
+            for (PendingUpdate update : batch) {
+                update.flushed = true;
+                oldest = Math.min(oldest, update.firstQueuedNanos);
+            }
+            long lagMillis = (now - oldest) / 1_000_000;
+            lastFlushLagMillis.set(lagMillis);
+            maxFlushLagMillis.accumulateAndGet(lagMillis, Math::max);
+            lastFlushMillis.set((now - start) / 1_000_000);
+            rowsWritten.add(batch.size());
+            flushes.increment();
+            if (!storedIds.isEmpty()) {
+                reloadBoards(storedIds.keySet());
+            }
+            if (publish) {
+                boardInvalidationService.platformsChanged(changedPlatforms);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Store the departures of the batch that were not stored (see TimetableExpander),
+     * adding their stored ids to 'storedIds'
+     * Runs inside the flush transaction. Returns the updates that still have a row;
+     * an update whose pattern has been removed since is dropped.
+     */
+    private List<PendingUpdate> store(List<PendingUpdate> batch, Map<Long, Long> storedIds) {
+        List<PendingUpdate> rows = new ArrayList<>(batch.size());
+        for (PendingUpdate update : batch) {
+            if (TimetableExpander.isExpandedId(update.id)) {
+                Long id = timetableExpander.store(update.id);
+                if (id == null) {
+                    continue;
+                }
+                storedIds.put(update.id, id);
+            }
+            rows.add(update);
+        }
+        return rows;
+    }
+
+    /**
+     * Swap the stored rows of departures that were not stored into their boards in memory
+     */
+    private void reloadBoards(Set<Long> expandedIds) {
+        Set<BoardKey> boards = new LinkedHashSet<>();
+        for (Long id : expandedIds) {
+            BoardSnapshot board = boardSnapshotStore.findBoardContaining(id);
+            if (board != null) {
+                boards.add(board.getKey());
+            }
+        }
+        for (BoardKey key : boards) {
+            try {
+                boardSnapshotStore.refresh(key.getStation(), key.getDate());
+            } catch (Exception e) {
+                // The periodic refresh tries again; until then the overlay shows the value
+                log.warn("Could not reload board {} after storing its departures: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Find the board and the platforms (before and after) of every row in the batch
+     * Runs inside the flush transaction, before the UPDATE
+     */
+    private void locate(List<PendingUpdate> batch, Map<Long, Long> storedIds,
+                        Map<BoardKey, Set<String>> changedPlatforms) {
+        Map<Long, String> newPlatforms = new HashMap<>();
+        for (PendingUpdate update : batch) {
+            newPlatforms.put(storedIds.getOrDefault(update.id, update.id), update.platform);
+        }
+        List<Long> ids = new ArrayList<>(newPlatforms.keySet());
+        for (String table : List.of("schedules", "schedules_archive")) {
+            Set<Long> found = new HashSet<>();
+            for (int from = 0; from < ids.size(); from += LOCATE_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + LOCATE_CHUNK, ids.size()));
+                String sql = String.format(LOCATE_SQL, table) + inList(chunk.size());
+                jdbcTemplate.query(sql, rs -> {
+                    Set<String> platforms = changedPlatforms.computeIfAbsent(
+                            BoardKey.of(rs.getString(2), rs.getObject(3, LocalDate.class)), key -> new HashSet<>());
+                    platforms.add(rs.getString(4));
+                    String newPlatform = newPlatforms.get(rs.getLong(1));
+                    if (newPlatform != null) {
+                        platforms.add(newPlatform);
+                    }
+                    found.add(rs.getLong(1));
+                }, chunk.toArray());
+            }
+            // Look for the rest in the archive
+            ids.removeAll(found);
+            if (ids.isEmpty()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Write whatever is still buffered before the application stops
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public StatusUpdateMetricsDTO getMetrics() {
+        int waiting = 0;
+        for (PendingUpdate update : pending.values()) {
+            if (!update.flushed) {
+                waiting++;
+            }
+        }
+        return new StatusUpdateMetricsDTO(updatesReceived.sum(), rowsWritten.sum(), flushes.sum(),
+                flushFailures.sum(), waiting, lastFlushLagMillis.get(), maxFlushLagMillis.get(),
+                lastFlushMillis.get());
+    }
+
+    /**
+     * The latest accepted value for one schedule
+     * Immutable except for the flushed flag; merging creates a new instance
+     */
+    private static final class PendingUpdate {
+        final long id;
+        final Schedule.Status status;
+        final Integer delayMinutes;
+        final String platform;
+        final long firstQueuedNanos;
+        volatile boolean flushed;
+
+        PendingUpdate(long id, Schedule.Status status, Integer delayMinutes, String platform,
+                      long firstQueuedNanos) {
+            this.id = id;
+            this.status = status;
+            this.delayMinutes = delayMinutes;
+            this.platform = platform;
+            this.firstQueuedNanos = firstQueuedNanos;
+        }
+
+        static PendingUpdate of(ScheduleStatusUpdateDTO update, long now) {
+            if (update.getId() == null) {
+                throw new IllegalArgumentException("id is required");
+            }
+            if (update.getStatus() == null && update.getDelayMinutes() == null && update.getPlatform() == null) {
+                throw new IllegalArgumentException("Update for " + update.getId() + " changes nothing");
+            }
+            Schedule.Status status = null;
+            if (update.getStatus() != null) {
+                try {
+                    status = Schedule.Status.valueOf(update.getStatus().trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown status " + update.getStatus());
+                }
+            }
+            if (update.getDelayMinutes() != null && update.getDelayMinutes() < 0) {
+                throw new IllegalArgumentException("delayMinutes must not be negative");
+            }
+            String platform = update.getPlatform() != null ? update.getPlatform().trim() : null;
+            if (platform != null && (platform.isEmpty() || platform.length() > 5)) {
+                throw new IllegalArgumentException("platform must be 1 to 5 characters");
+            }
+            return new PendingUpdate(update.getId(), status, update.getDelayMinutes(), platform, now);
+        }
+
+        /**
+         * This update followed by a newer one: the newer fields win
+         */
+        PendingUpdate then(PendingUpdate newer) {
+            return new PendingUpdate(id,
+                    newer.status != null ? newer.status : status,
+                    newer.delayMinutes != null ? newer.delayMinutes : delayMinutes,
+                    newer.platform != null ? newer.platform : platform,
+                    // Once flushed this value is in the database; the newer one starts a fresh wait
+                    flushed ? newer.firstQueuedNanos : firstQueuedNanos);
+        }
+    }
+}
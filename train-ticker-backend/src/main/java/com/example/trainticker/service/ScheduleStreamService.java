@@ -0,0 +1,222 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Schedule Stream Service
+ *
+ * Departures as a Flux, for the streaming (NDJSON) endpoints.
+ * Where TrainService builds the whole answer as a List, this service hands out
+ * one row at a time and only as fast as the client reads them, so memory stays
+ * flat however many departures a date or a date range has.
+ *
+ * - a date whose board is already in memory is streamed from the snapshot
+ *   (no copy, no database round trip)
+ * - any other date is streamed straight from a database cursor, one date at a
+ *   time, and is NOT loaded into BoardSnapshotStore: a three-month export must
+ *   not push the live boards out of memory; past dates are read from the
+ *   archive table too (see ScheduleArchiveService)
+ *
+ * The cursor is read on the boundedElastic scheduler, never on a request thread,
+ * and is closed as soon as the client disconnects.
+ *
+ * A cursor holds its pooled connection for as long as the client takes to read
+ * it (two for a past date: archive and hot table). So at most maxStreams
+ * streams that read from the database are open at once; another one is refused
+ * with StreamLimitException before anything is sent, instead of waiting for a
+ * connection the live boards need. Streams served from memory only do not count.
+ */
+@Service
+public class ScheduleStreamService {
+
+    // Served by the (station_code, schedule_date, departure_time) index of either
+    // table: an index range scan, already in departure order
+    private static final String BOARD_ROWS_SQL =
+            "SELECT s.id, t.train_number, t.train_name, t.route, s.destination, s.departure_time, " +
+            "s.arrival_time, s.platform, s.status, s.delay_minutes " +
+            "FROM %s s JOIN trains t ON t.id = s.train_id " +
+            "WHERE s.station_code = ? AND s.schedule_date = ? AND s.departure_time BETWEEN ? AND ? " +
+            "ORDER BY s.departure_time";
+
+    private static final Comparator<TrainScheduleDTO> BY_DEPARTURE =
+            Comparator.comparing(TrainScheduleDTO::getDepartureTime);
+
+    // Whole seconds: TIME columns have no fractions to compare against
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+
+    private static final RowMapper<TrainScheduleDTO> BOARD_ROW = (rs, rowNum) -> new TrainScheduleDTO(
+            rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+            rs.getObject(6, LocalTime.class), rs.getObject(7, LocalTime.class), rs.getString(8),
+            rs.getString(9) != null ? Schedule.Status.valueOf(rs.getString(9)) : null,
+            rs.getObject(10, Integer.class));
+
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final ScheduleArchiveService scheduleArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<BoardRowOverlay> overlays;
+    private final int maxDays;
+    private final int fetchSize;
+    private final int maxStreams;
+    private final Semaphore streamPermits;
+    private final LongAdder streamsRejected = new LongAdder();
+
+    @Autowired
+    public ScheduleStreamService(BoardSnapshotStore boardSnapshotStore,
+                                 ScheduleArchiveService scheduleArchiveService,
+                                 JdbcTemplate jdbcTemplate,
+                                 ObjectProvider<BoardRowOverlay> overlays,
+                                 @Value("${trainticker.range.max-days:366}") int maxDays,
+                                 @Value("${trainticker.range.fetch-size:500}") int fetchSize,
+                                 @Value("${trainticker.range.max-streams:3}") int maxStreams) {
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.scheduleArchiveService = scheduleArchiveService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.overlays = overlays;
+        this.maxDays = maxDays;
+        this.fetchSize = fetchSize;
+        this.maxStreams = maxStreams;
+        this.streamPermits = new Semaphore(maxStreams);
+    }
+
+    /**
+     * All departures of one station on one date, in departure order
+     * Station null: the default station
+     */
+    public Flux<TrainScheduleDTO> streamDate(String station, LocalDate date) {
+        return streamRange(station, date, date, null, null);
+    }
+
+    /**
+     * Departures of a station on every date from 'from' to 'to' (both inclusive), date by date
+     * in departure order, optionally only those departing between startTime and endTime
+     *
+     * @throws IllegalArgumentException if the station code is invalid, the range is reversed,
+     *         too long, or only one of startTime / endTime is given (checked before anything is streamed)
+     * The Flux fails with StreamLimitException, before its first row, if the range needs the
+     * database and maxStreams streams already do when it is subscribed to
+     */
+    public Flux<TrainScheduleDTO> streamRange(String station, LocalDate from, LocalDate to,
+                                              LocalTime startTime, LocalTime endTime) {
+        String code = boardSnapshotStore.resolveStation(station);
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("A range can cover at most " + maxDays + " days");
+        }
+        if ((startTime == null) != (endTime == null)) {
+            throw new IllegalArgumentException("Give both startTime and endTime, or neither");
+        }
+        LocalTime start = startTime != null ? startTime : LocalTime.MIN;
+        LocalTime end = endTime != null ? endTime : END_OF_DAY;
+
+        // Decided per subscription: a Flux that is never subscribed holds no permit
+        return Flux.defer(() -> {
+            List<BoardSnapshot> boards = new ArrayList<>();
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                BoardSnapshot board = boardSnapshotStore.peek(code, date);
+                if (board == null) {
+                    boards = null;
+                    break;
+                }
+                boards.add(board);
+            }
+            if (boards != null) {
+                // Every board is in memory: stream those very snapshots, even if one is evicted meanwhile
+                return Flux.fromIterable(boards)
+                        .concatMapIterable(board -> board.getDepartingBetween(start, end));
+            }
+            if (!streamPermits.tryAcquire()) {
+                streamsRejected.increment();
+                return Flux.error(new StreamLimitException(
+                        "Already " + maxStreams + " streams reading from the database"));
+            }
+            // concatMap: the next date is only opened once the previous one is fully sent
+            return Flux.fromStream(() -> from.datesUntil(to.plusDays(1)))
+                    .concatMap(date -> streamDate(code, date, start, end))
+                    // Completed, failed or cancelled (client gone): the connections are back in the pool
+                    .doFinally(signal -> streamPermits.release());
+        });
+    }
+
+    /**
+     * Streams reading from the database right now
+     */
+    public int getDatabaseStreams() {
+        return maxStreams - streamPermits.availablePermits();
+    }
+
+    public long getStreamsRejected() {
+        return streamsRejected.sum();
+    }
+
+    private Flux<TrainScheduleDTO> streamDate(String station, LocalDate date, LocalTime start, LocalTime end) {
+        BoardSnapshot board = boardSnapshotStore.peek(station, date);
+        if (board != null) {
+            return Flux.fromIterable(board.getDepartingBetween(start, end));
+        }
+        Flux<TrainScheduleDTO> hot = streamTable("schedules", station, date, start, end);
+        if (!scheduleArchiveService.mayBeArchived(date)) {
+            return hot;
+        }
+        // A past date is normally all in the archive, but rows imported later are in
+        // schedules; merging the two ordered cursors keeps departure order either way
+        return Flux.mergeComparing(BY_DEPARTURE, streamTable("schedules_archive", station, date, start, end), hot);
+    }
+
+    private Flux<TrainScheduleDTO> streamTable(String table, String station, LocalDate date,
+                                               LocalTime start, LocalTime end) {
+        // Flux.fromStream pulls the next row from the cursor only when the client asks for it
+        return Flux.using(() -> queryBoardRows(table, station, date, start, end), Flux::fromStream, Stream::close)
+                .map(this::overlay)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Stream<TrainScheduleDTO> queryBoardRows(String table, String station, LocalDate date,
+                                                    LocalTime start, LocalTime end) {
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(String.format(BOARD_ROWS_SQL, table));
+            // MySQL Connector/J buffers the whole result unless the fetch size is
+            // Integer.MIN_VALUE, which makes it read rows off the socket one by one
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            statement.setString(1, station);
+            statement.setObject(2, date);
+            statement.setObject(3, start);
+            statement.setObject(4, end);
+            return statement;
+        }, BOARD_ROW);
+    }
+
+    /**
+     * Same overlays as BoardSnapshotStore, so a streamed row shows pending status updates too
+     */
+    private TrainScheduleDTO overlay(TrainScheduleDTO row) {
+        TrainScheduleDTO shown = row;
+        for (BoardRowOverlay overlay : overlays) {
+            shown = overlay.apply(shown);
+        }
+        return shown;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.ServicePatternDTO;
+import com.example.trainticker.model.ServicePattern;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.ServicePatternRepository;
+import com.example.trainticker.repository.TrainRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service Pattern Service
+ *
+ * Adds and removes recurring departures (see ServicePattern).
+ *
+ * Dates that are already materialized (see TimetableMaterializer) are kept in
+ * step: a new pattern adds its departure to those dates, a removed pattern takes
+ * its departures (and its exceptions on later dates) off them from today on.
+ * Past departures are left alone. Boards of later dates follow by themselves,
+ * as they are expanded from the patterns (see TimetableExpander).
+ * Once the change has committed, the affected boards in memory are reloaded,
+ * here and on the other nodes of the cluster (see BoardInvalidationService).
+ * Patterns without a station belong to the default station (trainticker.stations.default).
+ */
+@Service
+public class ServicePatternService {
+
+    private static final Logger log = LoggerFactory.getLogger(ServicePatternService.class);
+
+    private final ServicePatternRepository servicePatternRepository;
+    private final TrainRepository trainRepository;
+    private final TimetableMaterializer timetableMaterializer;
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final StationDirectory stationDirectory;
+    private final BoardInvalidationService boardInvalidationService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ServicePatternService(ServicePatternRepository servicePatternRepository,
+                                 TrainRepository trainRepository,
+                                 TimetableMaterializer timetableMaterializer,
+                                 BoardSnapshotStore boardSnapshotStore,
+                                 StationDirectory stationDirectory,
+                                 BoardInvalidationService boardInvalidationService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.servicePatternRepository = servicePatternRepository;
+        this.trainRepository = trainRepository;
+        this.timetableMaterializer = timetableMaterializer;
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.stationDirectory = stationDirectory;
+        this.boardInvalidationService = boardInvalidationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Every pattern, in departure order
+     */
+    @Transactional(readOnly = true)
+    public List<ServicePatternDTO> getPatterns() {
+        return servicePatternRepository.findAllWithTrain().stream()
+                .map(ServicePatternDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Add patterns in one transaction: either all are added or none
+     * With replace=true every existing pattern is removed first, with its
+     * departures from today on
+     * Throws IllegalArgumentException for an invalid pattern
+     */
+    public List<ServicePatternDTO> addPatterns(List<ServicePatternDTO> patterns, boolean replace) {
+        LocalDate today = LocalDate.now();
+        Set<BoardKey> affected = new LinkedHashSet<>();
+        List<ServicePatternDTO> added = transactionTemplate.execute(status -> {
+            if (replace) {
+                List<Object[]> boards = entityManager.createQuery(
+                                "SELECT DISTINCT s.station, s.scheduleDate FROM Schedule s " +
+                                "WHERE s.servicePatternId IS NOT NULL AND s.scheduleDate >= :today", Object[].class)
+                        .setParameter("today", today)
+                        .getResultList();
+                for (Object[] board : boards) {
+                    affected.add(BoardKey.of((String) board[0], (LocalDate) board[1]));
+                }
+                entityManager.createQuery("DELETE FROM Schedule s " +
+                                "WHERE s.servicePatternId IS NOT NULL AND s.scheduleDate >= :today")
+                        .setParameter("today", today)
+                        .executeUpdate();
+                entityManager.createQuery("DELETE FROM ServicePattern p").executeUpdate();
+                // Boards expanded from the patterns just removed
+                for (String station : boardSnapshotStore.getLoadedStations()) {
+                    for (LocalDate date : boardSnapshotStore.getLoadedDates(station, today)) {
+                        affected.add(BoardKey.of(station, date));
+                    }
+                }
+            }
+
+            List<LocalDate> materialized = timetableMaterializer.findMaterializedDatesFrom(today);
+            Map<String, Train> trains = new HashMap<>();
+            String defaultStation = boardSnapshotStore.getDefaultStation();
+            List<ServicePatternDTO> result = new ArrayList<>();
+            for (int i = 0; i < patterns.size(); i++) {
+                ServicePattern pattern = toPattern(patterns.get(i), i + 1, trains, defaultStation);
+                entityManager.persist(pattern);
+                for (LocalDate date : materialized) {
+                    if (pattern.runsOn(date)) {
+                        entityManager.persist(pattern.toSchedule(date));
+                        affected.add(BoardKey.of(pattern.getStation(), date));
+                    }
+                }
+                addExpandedBoards(pattern, today, affected);
+                result.add(new ServicePatternDTO(pattern));
+                if ((i + 1) % batchSize == 0) {
+                    // Send this batch and forget the entities; trains in the map stay usable as references
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return result;
+        });
+        for (ServicePatternDTO pattern : added) {
+            stationDirectory.add(pattern.getStation());
+        }
+        refreshBoards(affected);
+        log.info("Added {} service pattern(s){}; {} board(s) updated",
+                patterns.size(), replace ? " (replacing all)" : "", affected.size());
+        return added;
+    }
+
+    /**
+     * Remove a pattern and its departures from today on
+     * Returns false if there is no such pattern
+     */
+    public boolean removePattern(Long id) {
+        LocalDate today = LocalDate.now();
+        List<BoardKey> affected = transactionTemplate.execute(status -> {
+            ServicePattern pattern = entityManager.find(ServicePattern.class, id);
+            if (pattern == null) {
+                return null;
+            }
+            List<LocalDate> dates = entityManager.createQuery(
+                            "SELECT DISTINCT s.scheduleDate FROM Schedule s " +
+                            "WHERE s.servicePatternId = :id AND s.scheduleDate >= :today", LocalDate.class)
+                    .setParameter("id", id)
+                    .setParameter("today", today)
+                    .getResultList();
+            entityManager.createQuery("DELETE FROM Schedule s " +
+                            "WHERE s.servicePatternId = :id AND s.scheduleDate >= :today")
+                    .setParameter("id", id)
+                    .setParameter("today", today)
+                    .executeUpdate();
+            // Past schedules stay; the foreign key sets their service_pattern_id to NULL
+            entityManager.remove(pattern);
+            Set<BoardKey> boards = new LinkedHashSet<>();
+            for (LocalDate date : dates) {
+                boards.add(BoardKey.of(pattern.getStation(), date));
+            }
+            addExpandedBoards(pattern, today, boards);
+            return new ArrayList<>(boards);
+        });
+        if (affected == null) {
+            return false;
+        }
+        refreshBoards(affected);
+        log.info("Removed service pattern {}; {} board(s) updated", id, affected.size());
+        return true;
+    }
+
+    /**
+     * Add the boards in memory, from today on, that show a pattern's departure
+     * without it being stored; other nodes reload theirs on the periodic refresh
+     */
+    private void addExpandedBoards(ServicePattern pattern, LocalDate today, Set<BoardKey> affected) {
+        for (LocalDate date : boardSnapshotStore.getLoadedDates(pattern.getStation(), today)) {
+            if (pattern.runsOn(date)) {
+                affected.add(BoardKey.of(pattern.getStation(), date));
+            }
+        }
+    }
+
+    /**
+     * Swap in the new boards that are in memory, and tell the other nodes
+     * (boards not in memory load the new rows on their next request anyway)
+     */
+    private void refreshBoards(Collection<BoardKey> boards) {
+        for (BoardKey key : boards) {
+            if (boardSnapshotStore.peek(key.getStation(), key.getDate()) != null) {
+                boardSnapshotStore.refresh(key.getStation(), key.getDate());
+            }
+        }
+        boardInvalidationService.boardsChanged(boards);
+    }
+
+    /**
+     * Validate a pattern and find (or create) its train
+     * Runs inside the transaction
+     */
+    private ServicePattern toPattern(ServicePatternDTO dto, int number, Map<String, Train> trains,
+                                     String defaultStation) {
+        String missing = isBlank(dto.getTrainNumber()) ? "trainNumber"
+                : isBlank(dto.getDestination()) ? "destination"
+                : dto.getDepartureTime() == null ? "departureTime"
+                : dto.getArrivalTime() == null ? "arrivalTime"
+                : isBlank(dto.getPlatform()) ? "platform"
+                : dto.getStartDate() == null ? "startDate"
+                : dto.getEndDate() == null ? "endDate"
+                : null;
+        if (missing != null) {
+            throw new IllegalArgumentException("Pattern " + number + ": " + missing + " is required");
+        }
+        if (dto.getPlatform().length() > 5 || dto.getDestination().length() > 100
+                || dto.getTrainNumber().length() > 10) {
+            throw new IllegalArgumentException("Pattern " + number + ": value too long for its column");
+        }
+        if (dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new IllegalArgumentException("Pattern " + number + ": endDate is before startDate");
+        }
+        String station;
+        try {
+            station = isBlank(dto.getStation()) ? defaultStation : BoardKey.normalizeStation(dto.getStation());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Pattern " + number + ": " + e.getMessage());
+        }
+        Set<DayOfWeek> days = dto.getDaysOfWeek() != null ? dto.getDaysOfWeek() : EnumSet.allOf(DayOfWeek.class);
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("Pattern " + number + ": daysOfWeek is empty");
+        }
+
+        Train train = trains.get(dto.getTrainNumber());
+        if (train == null) {
+            train = trainRepository.findByTrainNumber(dto.getTrainNumber()).orElse(null);
+        }
+        if (train == null) {
+            if (isBlank(dto.getTrainName()) || isBlank(dto.getRoute())) {
+                throw new IllegalArgumentException("Pattern " + number + ": unknown train " +
+                        dto.getTrainNumber() + " (give trainName and route to create it)");
+            }
+            train = trainRepository.save(new Train(dto.getTrainNumber(), dto.getTrainName(), dto.getRoute()));
+        }
+        trains.put(dto.getTrainNumber(), train);
+        ServicePattern pattern = new ServicePattern(train, dto.getDestination(), dto.getDepartureTime(),
+                dto.getArrivalTime(), dto.getPlatform(), days, dto.getStartDate(), dto.getEndDate());
+        pattern.setStation(station);
+        return pattern;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
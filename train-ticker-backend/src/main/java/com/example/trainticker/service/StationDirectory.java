@@ -0,0 +1,119 @@
+package com.example.trainticker.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Station Directory
+ *
+ * The stations that exist: every station code with departures (stored or
+ * archived) or service patterns, plus the default station.
+ *
+ * BoardSnapshotStore only keeps boards for these. A well-formed code that names
+ * no station is refused with StationNotFoundException (404) before anything is
+ * loaded, so made-up codes cannot fill the store and push real stations out.
+ *
+ * The codes are loaded at startup and reloaded every reload interval. A code
+ * that is not known yet is looked up once (an index lookup on each table), so
+ * a station added by another node or an SQL script is found at once; a code
+ * found nowhere is remembered as missing for missing-ttl-ms. Imports and
+ * pattern changes on this node add their stations directly.
+ */
+@Component
+public class StationDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(StationDirectory.class);
+
+    private static final String ALL_SQL =
+            "SELECT station_code FROM schedules UNION SELECT station_code FROM schedules_archive " +
+            "UNION SELECT station_code FROM service_patterns";
+
+    // Each part is served by an index starting with station_code
+    private static final String EXISTS_SQL =
+            "SELECT CASE WHEN EXISTS (SELECT 1 FROM schedules WHERE station_code = ?) " +
+            "OR EXISTS (SELECT 1 FROM schedules_archive WHERE station_code = ?) " +
+            "OR EXISTS (SELECT 1 FROM service_patterns WHERE station_code = ?) THEN 1 ELSE 0 END";
+
+    // Missing codes remembered at most; past that the list starts over
+    private static final int MAX_MISSING = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultStation;
+    private final long missingTtlNanos;
+
+    private volatile Set<String> known = ConcurrentHashMap.newKeySet();
+    // Code -> when it was found missing (System.nanoTime)
+    private final Map<String, Long> missing = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StationDirectory(JdbcTemplate jdbcTemplate,
+                            @Value("${trainticker.stations.default:MAIN}") String defaultStation,
+                            @Value("${trainticker.stations.missing-ttl-ms:60000}") long missingTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultStation = BoardKey.normalizeStation(defaultStation);
+        this.missingTtlNanos = missingTtlMillis * 1_000_000;
+        known.add(this.defaultStation);
+    }
+
+    /**
+     * Check whether a (normalized) station code names a station
+     */
+    public boolean exists(String station) {
+        if (known.contains(station)) {
+            return true;
+        }
+        Long missingSince = missing.get(station);
+        if (missingSince != null && System.nanoTime() - missingSince < missingTtlNanos) {
+            return false;
+        }
+        Integer found = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, station, station, station);
+        if (found != null && found == 1) {
+            add(station);
+            return true;
+        }
+        if (missing.size() >= MAX_MISSING) {
+            missing.clear();
+        }
+        missing.put(station, System.nanoTime());
+        return false;
+    }
+
+    /**
+     * A station now has departures or patterns (an import or a pattern change)
+     */
+    public void add(String station) {
+        known.add(station);
+        missing.remove(station);
+    }
+
+    /**
+     * Load the station codes again, dropping the ones that no longer have anything
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${trainticker.stations.reload-interval-ms:300000}",
+               initialDelayString = "${trainticker.stations.reload-interval-ms:300000}")
+    public void reload() {
+        try {
+            Set<String> codes = ConcurrentHashMap.newKeySet();
+            codes.addAll(jdbcTemplate.queryForList(ALL_SQL, String.class));
+            codes.add(defaultStation);
+            known = codes;
+            missing.clear();
+            log.debug("Loaded {} station codes", codes.size());
+        } catch (Exception e) {
+            // Keep the codes known so far
+            log.warn("Could not load the station codes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.trainticker.service;
+
+/**
+ * Station Not Found Exception
+ *
+ * Thrown for a well-formed station code that names no station (see StationDirectory).
+ * Controllers answer it with 404 Not Found, ahead of the 400 of its superclass.
+ */
+public class StationNotFoundException extends UnknownStationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StationNotFoundException(String station) {
+        super("No station " + station);
+    }
+}
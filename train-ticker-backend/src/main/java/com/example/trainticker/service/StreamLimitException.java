@@ -0,0 +1,18 @@
+package com.example.trainticker.service;
+
+/**
+ * Stream Limit Exception
+ *
+ * Thrown when a streaming (NDJSON) request would read from the database while
+ * trainticker.range.max-streams such streams are already open (see
+ * ScheduleStreamService). Controllers answer it with 503 Service Unavailable
+ * and a Retry-After header.
+ */
+public class StreamLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StreamLimitException(String message) {
+        super(message);
+    }
+}
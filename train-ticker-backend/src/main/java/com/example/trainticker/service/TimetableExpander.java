@@ -0,0 +1,198 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.ServicePattern;
+import com.example.trainticker.repository.ServicePatternRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timetable Expander
+ *
+ * Shows the departures of a date that is not materialized (see
+ * TimetableMaterializer) without storing them: the board of such a date is its
+ * station's service patterns that run on it, computed when the board loads,
+ * plus the rows stored for the date. A stored row made from a pattern is that
+ * departure's exception for the day (delay, cancellation, platform change) and
+ * takes its place; imported rows are shown as they are.
+ *
+ * A departure that is not stored has an id made from its pattern and date:
+ * bit 39 set, the pattern id, then the date as the epoch day modulo 1024. Ids
+ * from the id generator stay well below 2^39, and the date is read back as
+ * the one within 1024 days from yesterday. The first status update for such
+ * a departure stores it as an exception row (see ScheduleStatusUpdateBuffer),
+ * and the board is reloaded with the stored row.
+ */
+@Component
+public class TimetableExpander {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableExpander.class);
+
+    static final long EXPANDED_ID_FLAG = 1L << 39;
+    private static final int DAY_BITS = 10;
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+    private static final long MAX_PATTERN_ID = (EXPANDED_ID_FLAG >>> DAY_BITS) - 1;
+
+    private static final String PATTERN_ROWS_SQL =
+            "SELECT service_pattern_id FROM schedules " +
+            "WHERE station_code = ? AND schedule_date = ? AND service_pattern_id IS NOT NULL";
+
+    private static final String EXCEPTION_SQL =
+            "SELECT id FROM schedules WHERE service_pattern_id = ? AND schedule_date = ?";
+
+    private final ServicePatternRepository servicePatternRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxDaysAhead;
+
+    // Dates known to be materialized; a date never stops being so
+    private final Set<LocalDate> materialized = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public TimetableExpander(ServicePatternRepository servicePatternRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${trainticker.timetable.enabled:true}") boolean enabled,
+                             @Value("${trainticker.timetable.max-days-ahead:366}") int maxDaysAhead) {
+        this.servicePatternRepository = servicePatternRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxDaysAhead = maxDaysAhead;
+    }
+
+    /**
+     * The rows of a board: the stored rows, plus the departures of the station's
+     * patterns that have no stored row on the date if the date is not materialized
+     * Returns 'stored' itself for past, materialized and too distant dates. Never writes.
+     */
+    public List<TrainScheduleDTO> expand(String station, LocalDate date, List<TrainScheduleDTO> stored) {
+        if (!isExpandable(date)) {
+            return stored;
+        }
+        List<ServicePattern> patterns = servicePatternRepository.findValidOnAt(station, date);
+        if (patterns.isEmpty()) {
+            return stored;
+        }
+        Set<Long> withExceptions = new HashSet<>(
+                jdbcTemplate.queryForList(PATTERN_ROWS_SQL, Long.class, station, date));
+        List<TrainScheduleDTO> rows = new ArrayList<>(stored.size() + patterns.size());
+        rows.addAll(stored);
+        for (ServicePattern pattern : patterns) {
+            if (!pattern.runsOn(date) || withExceptions.contains(pattern.getId())) {
+                continue;
+            }
+            if (pattern.getId() > MAX_PATTERN_ID) {
+                log.warn("Service pattern {} has an id too large to show it unstored", pattern.getId());
+                continue;
+            }
+            TrainScheduleDTO row = new TrainScheduleDTO(pattern.toSchedule(date));
+            row.setId(expandedId(pattern.getId(), date));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * The ids, of departures that are not stored, whose pattern still runs on their date
+     * One query for all of them
+     */
+    public Set<Long> findScheduled(Collection<Long> ids) {
+        Set<Long> patternIds = new HashSet<>();
+        for (Long id : ids) {
+            patternIds.add(patternIdOf(id));
+        }
+        Map<Long, ServicePattern> patterns = new HashMap<>();
+        for (ServicePattern pattern : servicePatternRepository.findAllById(patternIds)) {
+            patterns.put(pattern.getId(), pattern);
+        }
+        Set<Long> scheduled = new HashSet<>();
+        for (Long id : ids) {
+            ServicePattern pattern = patterns.get(patternIdOf(id));
+            if (isExpandedId(id) && pattern != null && pattern.runsOn(dateOf(id))) {
+                scheduled.add(id);
+            }
+        }
+        return scheduled;
+    }
+
+    /**
+     * The stored row of a departure that was not stored: its exception row,
+     * created from the pattern if there is none yet
+     * Must run inside a transaction. Returns null if the pattern is gone.
+     */
+    public Long store(long id) {
+        long patternId = patternIdOf(id);
+        LocalDate date = dateOf(id);
+        List<Long> existing = jdbcTemplate.queryForList(EXCEPTION_SQL, Long.class, patternId, date);
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        ServicePattern pattern = entityManager.find(ServicePattern.class, patternId);
+        if (pattern == null || !pattern.runsOn(date)) {
+            return null;
+        }
+        Schedule schedule = pattern.toSchedule(date);
+        entityManager.persist(schedule);
+        // The caller writes the new values to it with plain SQL
+        entityManager.flush();
+        return schedule.getId();
+    }
+
+    /**
+     * The schedules of a date are stored from now on; its boards no longer expand
+     */
+    public void dateMaterialized(LocalDate date) {
+        materialized.add(date);
+    }
+
+    public static boolean isExpandedId(long id) {
+        return (id & EXPANDED_ID_FLAG) != 0;
+    }
+
+    static long expandedId(long patternId, LocalDate date) {
+        return EXPANDED_ID_FLAG | patternId << DAY_BITS | (date.toEpochDay() & DAY_MASK);
+    }
+
+    static long patternIdOf(long id) {
+        return (id & ~EXPANDED_ID_FLAG) >>> DAY_BITS;
+    }
+
+    static LocalDate dateOf(long id) {
+        long from = LocalDate.now().minusDays(1).toEpochDay();
+        return LocalDate.ofEpochDay(from + Math.floorMod((id & DAY_MASK) - from, 1L << DAY_BITS));
+    }
+
+    private boolean isExpandable(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (!enabled || date.isBefore(today) || date.isAfter(today.plusDays(maxDaysAhead))
+                || materialized.contains(date)) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM timetable_dates WHERE schedule_date = ?", Integer.class, date);
+        if (count != null && count > 0) {
+            materialized.add(date);
+            return false;
+        }
+        return true;
+    }
+}
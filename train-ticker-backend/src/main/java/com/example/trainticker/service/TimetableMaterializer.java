@@ -0,0 +1,234 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.config.StatementCountInterceptor;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.ServicePattern;
+import com.example.trainticker.repository.ServicePatternRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timetable Materializer
+ *
+ * Creates the schedules of a date from the service patterns that run on it.
+ *
+ * A date is materialized once, ahead of time:
+ * - the next horizonDays days, by a nightly job (and at startup)
+ * - any later date (up to maxDaysAhead) on request, through
+ *   POST /api/schedules/patterns/materialize
+ * Reading a board never writes: until then a date's boards are expanded from
+ * the patterns in memory (see TimetableExpander), with only its exceptions stored.
+ *
+ * After that the date's schedules are ordinary rows, so delays, cancellations
+ * and platform changes are stored on them as before, and the status updates,
+ * change log and archive need no special cases. Only the coming days are
+ * written, instead of a full year of rows being imported up front. Exception
+ * rows stored before the date was materialized are kept as they are. Boards of
+ * the date already in memory are reloaded, here and on the other nodes.
+ *
+ * A row in timetable_dates marks a materialized date. Claiming it is the first
+ * statement of the transaction (INSERT IGNORE on the primary key), so two
+ * nodes running the job for the same new date create its schedules once.
+ * Past dates are never materialized: what was shown then is already stored.
+ */
+@Service
+public class TimetableMaterializer {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableMaterializer.class);
+
+    private final ServicePatternRepository servicePatternRepository;
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final TimetableExpander timetableExpander;
+    private final BoardInvalidationService boardInvalidationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int maxDaysAhead;
+    private final int batchSize;
+
+    // Dates known to be materialized; saves the database check when the job runs again
+    private final Set<LocalDate> materialized = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public TimetableMaterializer(ServicePatternRepository servicePatternRepository,
+                                 BoardSnapshotStore boardSnapshotStore,
+                                 TimetableExpander timetableExpander,
+                                 BoardInvalidationService boardInvalidationService,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${trainticker.timetable.enabled:true}") boolean enabled,
+                                 @Value("${trainticker.timetable.horizon-days:7}") int horizonDays,
+                                 @Value("${trainticker.timetable.max-days-ahead:366}") int maxDaysAhead,
+                                 @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize) {
+        this.servicePatternRepository = servicePatternRepository;
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.timetableExpander = timetableExpander;
+        this.boardInvalidationService = boardInvalidationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.maxDaysAhead = maxDaysAhead;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Make sure the schedules of a date have been created from the patterns
+     * Cheap after the first call for a date. Returns the number of schedules created.
+     */
+    public int materialize(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (!enabled || materialized.contains(date)
+                || date.isBefore(today) || date.isAfter(today.plusDays(maxDaysAhead))) {
+            return 0;
+        }
+        Set<String> stations = new HashSet<>();
+        // Runs once per date; not part of the request's query budget
+        Integer created = StatementCountInterceptor.uncounted(
+                () -> transactionTemplate.execute(status -> create(date, stations)));
+        materialized.add(date);
+        timetableExpander.dateMaterialized(date);
+        if (created == null || created == 0) {
+            return 0;
+        }
+        log.info("Created {} schedules for {} from service patterns", created, date);
+        refreshBoards(date, stations);
+        return created;
+    }
+
+    /**
+     * Materialize every date from 'from' to 'to' (inclusive) that is not yet, for
+     * boards further ahead than the nightly job goes
+     * Dates before today or after maxDaysAhead are skipped.
+     * Returns the number of schedules created per date.
+     * Throws IllegalArgumentException if 'to' is before 'from'.
+     */
+    public Map<LocalDate, Integer> materialize(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' (" + to + ") is before 'from' (" + from + ")");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate first = from.isBefore(today) ? today : from;
+        LocalDate last = to.isAfter(today.plusDays(maxDaysAhead)) ? today.plusDays(maxDaysAhead) : to;
+        Map<LocalDate, Integer> created = new LinkedHashMap<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            created.put(date, materialize(date));
+        }
+        return created;
+    }
+
+    /**
+     * Materialize the next horizonDays days ahead of time, so boards for the
+     * coming week never wait for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${trainticker.timetable.cron:0 15 2 * * *}")
+    public void materializeHorizon() {
+        if (!enabled) {
+            return;
+        }
+        // Forget the dates that have passed
+        LocalDate today = LocalDate.now();
+        materialized.removeIf(date -> date.isBefore(today));
+        for (int i = 0; i < horizonDays; i++) {
+            try {
+                materialize(today.plusDays(i));
+            } catch (Exception e) {
+                log.warn("Could not create schedules for {}: {}", today.plusDays(i), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Materialized dates from a date on, for pattern changes (see ServicePatternService)
+     */
+    public List<LocalDate> findMaterializedDatesFrom(LocalDate from) {
+        return jdbcTemplate.queryForList(
+                "SELECT schedule_date FROM timetable_dates WHERE schedule_date >= ? ORDER BY schedule_date",
+                LocalDate.class, from);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Swap in the new boards of the date that are in memory, and tell the other nodes
+     * (boards not in memory load the new rows on their next request anyway)
+     */
+    private void refreshBoards(LocalDate date, Set<String> stations) {
+        List<BoardKey> boards = new ArrayList<>(stations.size());
+        for (String station : stations) {
+            try {
+                if (boardSnapshotStore.peek(station, date) != null) {
+                    boardSnapshotStore.refresh(station, date);
+                }
+            } catch (Exception e) {
+                // The periodic refresh tries again
+                log.warn("Could not reload board {}/{} after creating its schedules: {}", station, date, e.getMessage());
+            }
+            boards.add(BoardKey.of(station, date));
+        }
+        boardInvalidationService.boardsChanged(boards);
+    }
+
+    /**
+     * Runs inside the materializing transaction
+     * Adds the stations of the schedules created to 'stations'
+     */
+    private int create(LocalDate date, Set<String> stations) {
+        int claimed = entityManager
+                .createNativeQuery("INSERT IGNORE INTO timetable_dates (schedule_date) VALUES (:date)")
+                .setParameter("date", date)
+                .executeUpdate();
+        if (claimed == 0) {
+            return 0; // Already materialized, possibly by another node
+        }
+        // Departures changed on the day before it was materialized are stored already
+        Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT service_pattern_id FROM schedules WHERE schedule_date = ? AND service_pattern_id IS NOT NULL",
+                Long.class, date));
+        int created = 0;
+        for (ServicePattern pattern : servicePatternRepository.findValidOn(date)) {
+            if (!pattern.runsOn(date) || stored.contains(pattern.getId())) {
+                continue;
+            }
+            Schedule schedule = pattern.toSchedule(date);
+            entityManager.persist(schedule);
+            stations.add(schedule.getStation());
+            created++;
+            if (created % batchSize == 0) {
+                // Send this batch; the patterns' trains stay usable as references
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Train;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Train Directory
+ *
+ * One shared copy of each train's number, name and route, for the board rows.
+ * Every board query returns the train columns again for every departure, so with
+ * a few weeks of boards in memory the same train name exists thousands of times.
+ * BoardSnapshotStore passes each loaded board through intern(), which points the
+ * rows at the directory's copy instead.
+ *
+ * The Train entity itself is in the Hibernate second-level cache (region "trains",
+ * see application.properties), so loading a train by id or number does not go to
+ * the database either.
+ *
+ * Train is an entity listener target (@EntityListeners on Train): when a train is
+ * created, edited or deleted the directory is cleared once the transaction commits.
+ * Edits made directly in the database bypass Hibernate; call evictAll() after those.
+ */
+@Component
+public class TrainDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainDirectory.class);
+
+    private final Map<String, TrainInfo> trains = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Looked up lazily: Hibernate asks for this bean while the EntityManagerFactory is being built
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Autowired
+    public TrainDirectory(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Point the train columns of freshly loaded rows at the shared copies
+     * A row whose train differs from the directory (edited since) replaces the entry
+     */
+    public void intern(List<TrainScheduleDTO> rows) {
+        for (TrainScheduleDTO row : rows) {
+            String trainNumber = row.getTrainNumber();
+            if (trainNumber == null) {
+                continue;
+            }
+            TrainInfo known = trains.get(trainNumber);
+            if (known != null && known.matches(row)) {
+                hits.increment();
+            } else {
+                misses.increment();
+                known = new TrainInfo(trainNumber, row.getTrainName(), row.getRoute());
+                trains.put(trainNumber, known);
+            }
+            row.setTrainNumber(known.trainNumber);
+            row.setTrainName(known.trainName);
+            row.setRoute(known.route);
+        }
+    }
+
+    /**
+     * The shared copy for a train number, or null if no loaded board has it
+     */
+    public TrainInfo get(String trainNumber) {
+        return trains.get(trainNumber);
+    }
+
+    public int size() {
+        return trains.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entity listener callback for Train
+     * Waits for the commit, so a rolled back edit leaves everything as it was
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void trainChanged(Train train) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trains.clear();
+                }
+            });
+        } else {
+            trains.clear();
+        }
+    }
+
+    /**
+     * Forget everything, including the Hibernate second-level cache for trains
+     * For train edits made outside Hibernate; boards pick up the new names on
+     * their next refresh
+     */
+    public void evictAll() {
+        trains.clear();
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (factory != null) {
+            factory.getCache().evict(Train.class);
+            factory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        }
+        log.info("Train directory and second-level train cache cleared");
+    }
+
+    /**
+     * One train's board columns
+     */
+    public static final class TrainInfo {
+        private final String trainNumber;
+        private final String trainName;
+        private final String route;
+
+        TrainInfo(String trainNumber, String trainName, String route) {
+            this.trainNumber = trainNumber;
+            this.trainName = trainName;
+            this.route = route;
+        }
+
+        public String getTrainNumber() { return trainNumber; }
+        public String getTrainName() { return trainName; }
+        public String getRoute() { return route; }
+
+        boolean matches(TrainScheduleDTO row) {
+            return Objects.equals(trainName, row.getTrainName()) && Objects.equals(route, row.getRoute());
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.trainticker.service;
 
+import com.example.trainticker.dto.SearchSuggestionDTO;
 import com.example.trainticker.dto.TrainScheduleDTO;
 import com.example.trainticker.model.Schedule;
 import com.example.trainticker.repository.ScheduleRepository;
 import com.example.trainticker.repository.TrainRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -23,133 +26,176 @@ import java.util.stream.Collectors;
  * @Service - Marks this as a Spring service component
  * @Transactional - Ensures database operations are wrapped in transactions
  * @Autowired - Tells Spring to inject dependencies automatically
+ * 
+ * The board reads (today, by date, upcoming, delayed, time range) are served from
+ * the in-memory BoardSnapshotStore. They are deliberately not @Transactional, so a
+ * poll that hits a loaded snapshot never borrows a database connection.
+ * 
+ * Every board method takes the station whose board is asked for, already
+ * normalized (see BoardSnapshotStore.resolveStation); the boards of different
+ * stations are separate snapshots.
+ * 
+ * Every public method is timed (trainticker.service, tagged with the method name).
  */
 @Service
-@Transactional(readOnly = true) // Default to read-only transactions for better performance
+@Timed(value = "trainticker.service", histogram = true)
 public class TrainService {
     
     private final ScheduleRepository scheduleRepository;
     private final TrainRepository trainRepository;
+    private final BoardSnapshotStore boardSnapshotStore;
+    private final LiveScheduleStats liveScheduleStats;
+    private final ScheduleSearchIndex scheduleSearchIndex;
     
     /**
      * Constructor-based dependency injection (recommended over field injection)
      * Spring will automatically inject the repository beans
      */
     @Autowired
-    public TrainService(ScheduleRepository scheduleRepository, TrainRepository trainRepository) {
+    public TrainService(ScheduleRepository scheduleRepository, TrainRepository trainRepository,
+                        BoardSnapshotStore boardSnapshotStore, LiveScheduleStats liveScheduleStats,
+                        ScheduleSearchIndex scheduleSearchIndex) {
         this.scheduleRepository = scheduleRepository;
         this.trainRepository = trainRepository;
+        this.boardSnapshotStore = boardSnapshotStore;
+        this.liveScheduleStats = liveScheduleStats;
+        this.scheduleSearchIndex = scheduleSearchIndex;
     }
     
     /**
      * Get today's train schedule
      * This is the main method used by our ticker display
      */
-    public List<TrainScheduleDTO> getTodaysSchedule() {
-        LocalDate today = LocalDate.now();
-        
-        // Get schedules with train information in a single query (efficient)
-        List<Schedule> schedules = scheduleRepository.findTodaysScheduleWithTrainInfo(today);
-        
-        // Convert entities to DTOs using Java 8 Streams
-        return schedules.stream()
-                .map(TrainScheduleDTO::new)  // Convert each Schedule to TrainScheduleDTO
-                .collect(Collectors.toList());
+    public List<TrainScheduleDTO> getTodaysSchedule(String station) {
+        return boardSnapshotStore.get(station, LocalDate.now()).getRows();
     }
     
     /**
      * Get schedule for a specific date
      * Useful for viewing future or past schedules
      */
-    public List<TrainScheduleDTO> getScheduleByDate(LocalDate date) {
-        List<Schedule> schedules = scheduleRepository.findTodaysScheduleWithTrainInfo(date);
-        
-        return schedules.stream()
-                .map(TrainScheduleDTO::new)
-                .collect(Collectors.toList());
+    public List<TrainScheduleDTO> getScheduleByDate(String station, LocalDate date) {
+        return boardSnapshotStore.get(station, date).getRows();
     }
     
     /**
      * Get only upcoming departures (trains that haven't left yet)
      * This is useful for real-time displays
      */
-    public List<TrainScheduleDTO> getUpcomingDepartures() {
+    public List<TrainScheduleDTO> getUpcomingDepartures(String station) {
         LocalDate today = LocalDate.now();
         LocalTime now = LocalTime.now();
         
-        List<Schedule> upcomingSchedules = scheduleRepository.findUpcomingSchedules(today, now);
-        
-        return upcomingSchedules.stream()
-                .map(TrainScheduleDTO::new)
-                .collect(Collectors.toList());
+        // Binary search on the snapshot's departure times
+        return boardSnapshotStore.get(station, today).getDepartingFrom(now);
     }
     
     /**
-     * Get schedules by destination
+     * Get schedules by destination for a date
      * Useful for passengers looking for trains to specific cities
+     * 
+     * Answered from the in-memory search index (case-insensitive "contains"),
+     * best matching destinations first
      */
-    public List<TrainScheduleDTO> getSchedulesByDestination(String destination) {
-        List<Schedule> schedules = scheduleRepository
-                .findByDestinationContainingIgnoreCaseOrderByDepartureTime(destination);
+    public List<TrainScheduleDTO> getSchedulesByDestination(String station, String destination, LocalDate date) {
+        BoardSnapshot board = boardSnapshotStore.get(station, date);
+        List<TrainScheduleDTO> rows = scheduleSearchIndex.findDestination(board, destination);
+        if (rows != null) {
+            return rows;
+        }
         
-        return schedules.stream()
-                .map(TrainScheduleDTO::new)
+        // Index not built for this date (e.g. it was just evicted): scan the board instead
+        String folded = ScheduleSearchIndex.fold(destination);
+        return board.getRows().stream()
+                .filter(row -> ScheduleSearchIndex.fold(row.getDestination()).contains(folded))
                 .collect(Collectors.toList());
     }
     
     /**
-     * Get schedules by platform
+     * Get type-ahead suggestions (destinations, train names/numbers, routes) for a date
+     */
+    public List<SearchSuggestionDTO> getSearchSuggestions(String station, String query, LocalDate date, int limit) {
+        boardSnapshotStore.get(station, date); // Make sure the board is loaded and indexed
+        List<SearchSuggestionDTO> suggestions = scheduleSearchIndex.suggest(station, date, query, limit);
+        return suggestions != null ? suggestions : List.of();
+    }
+    
+    /**
+     * Get schedules by platform of a station
      * Useful for platform-specific displays
      */
-    public List<TrainScheduleDTO> getSchedulesByPlatform(String platform) {
-        List<Schedule> schedules = scheduleRepository.findByPlatformOrderByDepartureTime(platform);
-        
-        return schedules.stream()
-                .map(TrainScheduleDTO::new)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<TrainScheduleDTO> getSchedulesByPlatform(String station, String platform) {
+        return scheduleRepository.findBoardRowsByStationAndPlatform(station, platform);
     }
     
     /**
      * Get only delayed trains for today
      * Useful for maintenance and customer service
      */
-    public List<TrainScheduleDTO> getDelayedTrains() {
-        LocalDate today = LocalDate.now();
-        List<Schedule> delayedSchedules = scheduleRepository.findDelayedSchedules(today);
-        
-        return delayedSchedules.stream()
-                .map(TrainScheduleDTO::new)
-                .collect(Collectors.toList());
+    public List<TrainScheduleDTO> getDelayedTrains(String station) {
+        return boardSnapshotStore.get(station, LocalDate.now()).getDelayedRows();
     }
     
     /**
      * Get schedules within a specific time range
      * Useful for showing morning, afternoon, or evening departures
      */
-    public List<TrainScheduleDTO> getSchedulesInTimeRange(LocalTime startTime, LocalTime endTime) {
+    public List<TrainScheduleDTO> getSchedulesInTimeRange(String station, LocalTime startTime, LocalTime endTime) {
         LocalDate today = LocalDate.now();
-        List<Schedule> schedules = scheduleRepository
-                .findSchedulesInTimeRange(today, startTime, endTime);
-        
-        return schedules.stream()
-                .map(TrainScheduleDTO::new)
-                .collect(Collectors.toList());
+        return boardSnapshotStore.get(station, today).getDepartingBetween(startTime, endTime);
     }
     
     /**
      * Get schedule statistics for today
      * Returns a summary of on-time, delayed, and cancelled trains
+     * 
+     * Answered in O(1) from the live counters; if today's board is not in memory
+     * yet, falls back to a single GROUP BY query instead of one COUNT per status
      */
-    public ScheduleStats getTodaysStats() {
+    public ScheduleStats getTodaysStats(String station) {
         LocalDate today = LocalDate.now();
         
-        long onTimeCount = scheduleRepository.countByScheduleDateAndStatus(today, Schedule.Status.ON_TIME);
-        long delayedCount = scheduleRepository.countByScheduleDateAndStatus(today, Schedule.Status.DELAYED);
-        long cancelledCount = scheduleRepository.countByScheduleDateAndStatus(today, Schedule.Status.CANCELLED);
+        ScheduleStats live = liveScheduleStats.getStats(station, today);
+        if (live != null) {
+            return live;
+        }
         
+        long onTimeCount = 0;
+        long delayedCount = 0;
+        long cancelledCount = 0;
+        for (ScheduleRepository.StatusCount count : scheduleRepository.countByStatusForStationAndDate(station, today)) {
+            // Rows without a status are on time, the column's default
+            Schedule.Status status = count.getStatus() != null ? count.getStatus() : Schedule.Status.ON_TIME;
+            switch (status) {
+                case ON_TIME -> onTimeCount += count.getCount();
+                case DELAYED -> delayedCount += count.getCount();
+                case CANCELLED -> cancelledCount += count.getCount();
+            }
+        }
         return new ScheduleStats(onTimeCount, delayedCount, cancelledCount);
     }
     
+    /**
+     * Get today's statistics broken down by platform
+     */
+    public Map<String, ScheduleStats> getTodaysStatsByPlatform(String station) {
+        LocalDate today = LocalDate.now();
+        // Loading the board starts its counters; if they are gone again, its rows are counted
+        BoardSnapshot board = boardSnapshotStore.get(station, today);
+        return liveScheduleStats.getStatsByPlatform(station, today, board);
+    }
+    
+    /**
+     * Get today's statistics broken down by destination
+     */
+    public Map<String, ScheduleStats> getTodaysStatsByDestination(String station) {
+        LocalDate today = LocalDate.now();
+        // Loading the board starts its counters; if they are gone again, its rows are counted
+        BoardSnapshot board = boardSnapshotStore.get(station, today);
+        return liveScheduleStats.getStatsByDestination(station, today, board);
+    }
+    
     /**
      * Inner class to represent schedule statistics
      * This is a simple data holder class
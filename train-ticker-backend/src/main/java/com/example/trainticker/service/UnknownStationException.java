@@ -0,0 +1,17 @@
+package com.example.trainticker.service;
+
+/**
+ * Unknown Station Exception
+ *
+ * Thrown for a station code that cannot name a station (see BoardKey.normalizeStation).
+ * Controllers answer it with 400 Bad Request; it is an IllegalArgumentException,
+ * so the write endpoints that report invalid input as 400 keep doing so.
+ */
+public class UnknownStationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UnknownStationException(String message) {
+        super(message);
+    }
+}
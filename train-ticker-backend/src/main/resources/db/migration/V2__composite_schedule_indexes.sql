@@ -0,0 +1,29 @@
+-- Composite indexes for the schedules queries (see ScheduleRepository)
+--
+-- Every hot query filters on schedule_date first and then sorts or ranges on
+-- departure_time, or filters on status / platform. With one index per column
+-- MySQL can use only one of them and has to sort the rest (filesort).
+-- QueryPlanVerifier checks these plans with EXPLAIN at startup.
+
+-- Board for a date, upcoming departures, time ranges:
+--   WHERE schedule_date = ? [AND departure_time >= ? / BETWEEN ? AND ?] ORDER BY departure_time
+CREATE INDEX idx_schedules_date_departure ON schedules (schedule_date, departure_time);
+
+-- Delayed trains (ORDER BY delay_minutes DESC is a backward index scan) and status counts:
+--   WHERE schedule_date = ? AND status = ? ORDER BY delay_minutes DESC
+--   WHERE schedule_date = ? GROUP BY status
+CREATE INDEX idx_schedules_date_status_delay ON schedules (schedule_date, status, delay_minutes);
+
+-- Trains with a given status for a date:
+--   WHERE schedule_date = ? AND status = ? ORDER BY departure_time
+CREATE INDEX idx_schedules_date_status_departure ON schedules (schedule_date, status, departure_time);
+
+-- Departures from a platform:
+--   WHERE platform = ? ORDER BY schedule_date, departure_time
+CREATE INDEX idx_schedules_platform_date_departure ON schedules (platform, schedule_date, departure_time);
+
+-- Both single-column indexes are now redundant: schedule_date is the leading
+-- column of the composites above, and no query filters on departure_time alone.
+-- Dropping them saves work on every insert and status update.
+DROP INDEX idx_schedule_date ON schedules;
+DROP INDEX idx_departure_time ON schedules;
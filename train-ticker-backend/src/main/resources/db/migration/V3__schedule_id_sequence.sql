@@ -0,0 +1,17 @@
+-- Id generator table for schedules (see Schedule.id)
+--
+-- Hibernate reserves ids in blocks of 1000 from this row, which lets it batch
+-- INSERTs (AUTO_INCREMENT forces one round trip per row). With the pooled
+-- optimizer the stored value is the top of the next block, so start it one
+-- full block above the highest existing id.
+CREATE TABLE id_sequences (
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+INSERT INTO id_sequences (sequence_name, next_val)
+SELECT 'schedules', COALESCE(MAX(id), 0) + 1001 FROM schedules;
+
+-- Note: schedules inserted by SQL scripts after this point still draw ids from
+-- AUTO_INCREMENT and can collide with a block the application has reserved.
+-- Load timetables through POST /api/schedules/bulk instead.
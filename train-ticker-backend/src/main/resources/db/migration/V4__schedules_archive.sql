@@ -0,0 +1,29 @@
+-- Archive table for past days (see ScheduleArchiveService)
+--
+-- The schedules table keeps only the current days; a nightly job moves every
+-- older day here in one transaction per day. The board, platform and status
+-- queries then only work on the small "hot" table, while a board for an old
+-- date is still loaded (from here) by BoardSnapshotStore.
+--
+-- A hot/archive split rather than RANGE partitioning on schedule_date: InnoDB
+-- does not allow foreign keys on partitioned tables, and the partitioning
+-- column would have to be part of the primary key (id).
+
+CREATE TABLE schedules_archive (
+    id BIGINT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    destination VARCHAR(100) NOT NULL,
+    departure_time TIME NOT NULL,
+    arrival_time TIME NOT NULL,
+    platform VARCHAR(5) NOT NULL,
+    status ENUM('ON_TIME', 'DELAYED', 'CANCELLED') DEFAULT 'ON_TIME',
+    delay_minutes INT DEFAULT 0,
+    schedule_date DATE NOT NULL,
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES trains(id) ON DELETE CASCADE
+);
+
+-- Board for an archived date:
+--   WHERE schedule_date = ? ORDER BY departure_time
+CREATE INDEX idx_schedules_archive_date_departure ON schedules_archive (schedule_date, departure_time);
@@ -0,0 +1,44 @@
+-- Recurring service patterns (see ServicePattern and TimetableMaterializer)
+--
+-- A pattern is one departure that repeats: a train, its times and platform, the
+-- days of the week it runs on and the date range it is valid for (like a GTFS
+-- trip with its calendar). Schedules for a date are created from the patterns
+-- the first time that date is needed, so the timetable no longer has to be
+-- stored as one row per departure per day for a whole year in advance.
+
+CREATE TABLE service_patterns (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    train_id BIGINT NOT NULL,
+    destination VARCHAR(100) NOT NULL,
+    departure_time TIME NOT NULL,
+    arrival_time TIME NOT NULL,
+    platform VARCHAR(5) NOT NULL,
+    -- Bit 0 = Monday ... bit 6 = Sunday (127 = every day)
+    days_of_week INT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (train_id) REFERENCES trains(id) ON DELETE CASCADE
+);
+
+-- Patterns valid on a date:
+--   WHERE start_date <= ? AND end_date >= ?
+CREATE INDEX idx_service_patterns_dates ON service_patterns (start_date, end_date);
+
+-- Dates whose schedules have been created from the patterns
+-- The primary key makes creating a date's schedules happen once, even when two
+-- requests (or two nodes) ask for the same new date at the same time
+CREATE TABLE timetable_dates (
+    schedule_date DATE NOT NULL PRIMARY KEY,
+    materialized_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The pattern a schedule was created from (NULL for imported schedules)
+-- Per-date changes (delays, cancellations, platform changes) stay on the schedule row
+ALTER TABLE schedules ADD COLUMN service_pattern_id BIGINT NULL;
+ALTER TABLE schedules ADD CONSTRAINT fk_schedules_service_pattern
+    FOREIGN KEY (service_pattern_id) REFERENCES service_patterns(id) ON DELETE SET NULL;
+
+-- A pattern's future schedules, when a pattern is added or removed:
+--   WHERE service_pattern_id = ? AND schedule_date >= ?
+CREATE INDEX idx_schedules_pattern_date ON schedules (service_pattern_id, schedule_date);
@@ -0,0 +1,31 @@
+-- Station of each departure (see BoardKey and BoardSnapshotStore)
+--
+-- One backend serves the departure boards of many stations. Every schedule,
+-- archived schedule and service pattern belongs to one station, identified by
+-- a short code (e.g. 'BOS'). Rows from before this migration belong to 'MAIN',
+-- the default of trainticker.stations.default: the station shown by the
+-- unscoped /api/trains endpoints and given to imported rows without a station.
+
+ALTER TABLE schedules ADD COLUMN station_code VARCHAR(20) NOT NULL DEFAULT 'MAIN';
+ALTER TABLE schedules_archive ADD COLUMN station_code VARCHAR(20) NOT NULL DEFAULT 'MAIN';
+ALTER TABLE service_patterns ADD COLUMN station_code VARCHAR(20) NOT NULL DEFAULT 'MAIN';
+
+-- Board of a station for a date:
+--   WHERE station_code = ? AND schedule_date = ? ORDER BY departure_time
+-- idx_schedules_date_departure stays for the repository queries that span all
+-- stations (e.g. findUpcomingSchedules)
+CREATE INDEX idx_schedules_station_date_departure ON schedules (station_code, schedule_date, departure_time);
+
+-- Status counts of a station for a date:
+--   WHERE station_code = ? AND schedule_date = ? GROUP BY status
+CREATE INDEX idx_schedules_station_date_status ON schedules (station_code, schedule_date, status);
+
+-- Departures from a platform of a station (every station has its own platform A1):
+--   WHERE station_code = ? AND platform = ? ORDER BY schedule_date, departure_time
+CREATE INDEX idx_schedules_station_platform_date_departure
+    ON schedules (station_code, platform, schedule_date, departure_time);
+
+-- Board of a station for an archived date:
+--   WHERE station_code = ? AND schedule_date = ? ORDER BY departure_time
+CREATE INDEX idx_schedules_archive_station_date_departure
+    ON schedules_archive (station_code, schedule_date, departure_time);
@@ -0,0 +1,28 @@
+-- Cross-node board invalidations (see MySqlInvalidationChannel)
+--
+-- With several backend nodes behind a load balancer, each one keeps its own
+-- boards in memory. A node that changes schedules (import, service patterns,
+-- flushed status updates) inserts one row per affected board here once its
+-- transaction has committed; every other node polls the rows after the last id
+-- it has seen and reloads only those boards. MySQL is the only shared
+-- infrastructure, so no message broker is needed.
+--
+-- Rows are only needed until every node has polled them; each node deletes
+-- those older than trainticker.cluster.mysql.retention-seconds.
+
+CREATE TABLE board_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    -- trainticker.cluster.node-id of the node that made the change
+    origin_node VARCHAR(64) NOT NULL,
+    station_code VARCHAR(20) NOT NULL,
+    -- The board (station and date) to reload
+    schedule_date DATE NOT NULL,
+    -- Platform whose cross-date view changed; NULL for every platform of the station
+    platform VARCHAR(5) NULL,
+    -- Set by MySQL, so the lag is measured against one clock
+    published_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+-- Clean-up of old rows:
+--   WHERE published_at < ?
+CREATE INDEX idx_board_invalidations_published_at ON board_invalidations (published_at);
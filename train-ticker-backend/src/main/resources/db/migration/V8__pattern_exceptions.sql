@@ -0,0 +1,15 @@
+-- Boards of dates that are not materialized (see TimetableExpander)
+--
+-- Such a board is computed from its station's service patterns; only the
+-- departures that changed on the day (delay, cancellation, platform change)
+-- are stored, as schedules with their service_pattern_id.
+
+-- A station's patterns valid on a date:
+--   WHERE station_code = ? AND start_date <= ? AND end_date >= ?
+CREATE INDEX idx_service_patterns_station_dates ON service_patterns (station_code, start_date, end_date);
+
+-- One schedule per pattern and date: the materializer and the first status
+-- update of an unstored departure cannot both create it.
+-- Created before the old index is dropped, which the foreign key needs.
+CREATE UNIQUE INDEX uq_schedules_pattern_date ON schedules (service_pattern_id, schedule_date);
+DROP INDEX idx_schedules_pattern_date ON schedules;
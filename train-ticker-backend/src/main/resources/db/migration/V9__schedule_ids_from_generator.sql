@@ -0,0 +1,19 @@
+-- Schedule ids come only from the id_sequences generator (see V3 and Schedule.id)
+--
+-- With AUTO_INCREMENT still on schedules.id, a row inserted by an SQL script
+-- took the next AUTO_INCREMENT value, which could be inside a block of ids the
+-- application had already reserved: the application's own INSERT then failed
+-- on the duplicate key. Without it, a script that leaves out the id fails at
+-- once instead. Load timetables through POST /api/schedules/bulk.
+
+-- Rows a script added since V3 may be above the generator; start past them
+-- (and past the archived ones), one full block up as in V3
+UPDATE id_sequences
+SET next_val = GREATEST(next_val, (
+        SELECT COALESCE(MAX(max_id), 0) + 1001
+        FROM (SELECT MAX(id) AS max_id FROM schedules
+              UNION ALL
+              SELECT MAX(id) FROM schedules_archive) ids))
+WHERE sequence_name = 'schedules';
+
+ALTER TABLE schedules MODIFY id BIGINT NOT NULL;
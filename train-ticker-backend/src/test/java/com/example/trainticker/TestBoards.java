@@ -0,0 +1,47 @@
+package com.example.trainticker;
+
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.ScheduleRepository;
+import com.example.trainticker.repository.TrainRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test Boards
+ *
+ * Writes small departure boards to the test database. The tests share one
+ * application context (and database), so each test class uses its own station
+ * codes and train numbers.
+ */
+public final class TestBoards {
+
+    private static final String[] PLATFORMS = {"A1", "A2", "B1"};
+
+    private TestBoards() {}
+
+    /**
+     * One train per departure, leaving every 10 minutes from 06:00
+     * Train numbers are the prefix plus a counter, so keep the prefix short
+     */
+    public static List<Schedule> insertBoard(TrainRepository trainRepository, ScheduleRepository scheduleRepository,
+                                             String trainPrefix, String station, LocalDate date, int departures) {
+        List<Schedule> schedules = new ArrayList<>(departures);
+        for (int i = 0; i < departures; i++) {
+            Train train = trainRepository.save(new Train(trainPrefix + i, "Express " + i, "Here - There"));
+            LocalTime departure = LocalTime.of(6, 0).plusMinutes(10L * i);
+            Schedule schedule = new Schedule(train, i % 2 == 0 ? "Boston" : "Chicago", departure,
+                    departure.plusHours(2), PLATFORMS[i % PLATFORMS.length], date);
+            schedule.setStation(station);
+            if (i % 4 == 3) {
+                schedule.setStatus(Schedule.Status.DELAYED);
+                schedule.setDelayMinutes(5 * i);
+            }
+            schedules.add(scheduleRepository.save(schedule));
+        }
+        return schedules;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.trainticker.config;
+
+import com.example.trainticker.dto.StatusUpdateMetricsDTO;
+import com.example.trainticker.service.BoardSnapshotStore;
+import com.example.trainticker.service.ScheduleStatusUpdateBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MetricsConfig metricsConfig = new MetricsConfig(registry, 20, false);
+
+    @Test
+    void bindsTheStatusUpdateBuffer() {
+        ScheduleStatusUpdateBuffer buffer = mock(ScheduleStatusUpdateBuffer.class);
+        when(buffer.getMetrics()).thenReturn(new StatusUpdateMetricsDTO(30, 10, 4, 1, 7, 250, 900, 12));
+        metricsConfig.statusUpdateMetrics(buffer).bindTo(registry);
+
+        assertEquals(30, registry.get("trainticker.status.updates.received").functionCounter().count());
+        assertEquals(10, registry.get("trainticker.status.rows.written").functionCounter().count());
+        assertEquals(4, registry.get("trainticker.status.flushes").functionCounter().count());
+        assertEquals(1, registry.get("trainticker.status.flush.failures").functionCounter().count());
+        assertEquals(7, registry.get("trainticker.status.pending").gauge().value());
+        assertEquals(250, registry.get("trainticker.status.flush.lag").gauge().value());
+    }
+
+    @Test
+    void bindsTheBoardsInMemory() {
+        BoardSnapshotStore store = mock(BoardSnapshotStore.class);
+        when(store.getStationCount()).thenReturn(3);
+        when(store.getBoardCount()).thenReturn(11);
+        metricsConfig.boardMetrics(store).bindTo(registry);
+
+        assertEquals(3, registry.get("trainticker.boards.stations").gauge().value());
+        assertEquals(11, registry.get("trainticker.boards.loaded").gauge().value());
+    }
+}
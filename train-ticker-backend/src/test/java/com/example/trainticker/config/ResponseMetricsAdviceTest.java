@@ -0,0 +1,93 @@
+package com.example.trainticker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseMetricsAdviceTest {
+
+    private static final String URI = "/api/trains/{date}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseMetricsAdvice advice = new ResponseMetricsAdvice(registry);
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/trains/2024-01-15");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, URI);
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void recordsTheRowsOfAListBody() {
+        write(List.of("a", "b", "c"), MediaType.APPLICATION_JSON, new HttpHeaders());
+
+        DistributionSummary rows = registry.get("trainticker.http.response.rows").tag("uri", URI).summary();
+        assertEquals(1, rows.count());
+        assertEquals(3, rows.totalAmount());
+        assertNull(registry.find("trainticker.http.response.bytes").summary());
+    }
+
+    @Test
+    void recordsTheRowsReportedForAPreSerializedBody() {
+        ResponseMetricsAdvice.recordRows(42);
+        write(new byte[100], MediaType.APPLICATION_JSON, new HttpHeaders());
+
+        assertEquals(42, registry.get("trainticker.http.response.rows").tag("uri", URI).summary().totalAmount());
+        DistributionSummary bytes = registry.get("trainticker.http.response.bytes")
+                .tags("uri", URI, "format", "json").summary();
+        assertEquals(1, bytes.count());
+        assertEquals(100, bytes.totalAmount());
+    }
+
+    @Test
+    void tagsTheBytesWithTheFormatSent() {
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        write(new byte[30], MediaType.APPLICATION_JSON, gzip);
+        write(new byte[20], MediaType.APPLICATION_CBOR, new HttpHeaders());
+
+        assertEquals(30, registry.get("trainticker.http.response.bytes").tag("format", "gzip").summary().totalAmount());
+        assertEquals(20, registry.get("trainticker.http.response.bytes").tag("format", "cbor").summary().totalAmount());
+    }
+
+    @Test
+    void recordsNoRowsWhenTheCountIsUnknown() {
+        write(new byte[10], MediaType.APPLICATION_JSON, new HttpHeaders());
+
+        assertNull(registry.find("trainticker.http.response.rows").summary());
+        assertNotNull(registry.find("trainticker.http.response.bytes").summary());
+    }
+
+    private void write(Object body, MediaType contentType, HttpHeaders headers) {
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        serverResponse.getHeaders().putAll(headers);
+        advice.beforeBodyWrite(body, null, contentType, null, new ServletServerHttpRequest(request), serverResponse);
+    }
+}
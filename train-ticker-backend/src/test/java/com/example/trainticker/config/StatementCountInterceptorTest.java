@@ -0,0 +1,97 @@
+package com.example.trainticker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementCountInterceptorTest {
+
+    private static final String URI = "/api/trains/{date}";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCountInterceptor interceptor = new StatementCountInterceptor(registry, 20, false);
+
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/trains/2024-01-15");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, URI);
+    }
+
+    @Test
+    void recordsTheStatementsOfEachRequest() throws Exception {
+        request(handler("twoStatements"), 2);
+        request(handler("twoStatements"), 1);
+
+        DistributionSummary statements = registry.get("trainticker.http.statements")
+                .tags("method", "GET", "uri", URI).summary();
+        assertEquals(2, statements.count());
+        assertEquals(3, statements.totalAmount());
+        assertEquals(2, statements.max());
+        assertNull(registry.find("trainticker.http.statements.over.budget").counter());
+    }
+
+    @Test
+    void countsRequestsOverTheirBudget() throws Exception {
+        request(handler("twoStatements"), 3);
+
+        assertEquals(1, registry.get("trainticker.http.statements.over.budget").tag("uri", URI).counter().count());
+    }
+
+    @Test
+    void failsTheStatementOverTheBudgetWhenEnforced() throws Exception {
+        StatementCountInterceptor enforcing = new StatementCountInterceptor(registry, 20, true);
+        enforcing.preHandle(request, response, handler("twoStatements"));
+        enforcing.inspect("SELECT 1");
+        enforcing.inspect("SELECT 2");
+
+        assertThrows(IllegalStateException.class, () -> enforcing.inspect("SELECT 3"));
+        enforcing.afterCompletion(request, response, handler("twoStatements"), null);
+    }
+
+    @Test
+    void doesNotCountStatementsOutsideARequest() throws Exception {
+        interceptor.inspect("SELECT 1");
+        request(handler("twoStatements"), 0);
+
+        assertEquals(0, registry.get("trainticker.http.statements").summary().totalAmount());
+    }
+
+    @Test
+    void doesNotCountUncountedWork() throws Exception {
+        interceptor.preHandle(request, response, handler("twoStatements"));
+        interceptor.inspect("SELECT 1");
+        StatementCountInterceptor.uncounted(() -> interceptor.inspect("INSERT INTO timetable_dates VALUES (1)"));
+        interceptor.afterCompletion(request, response, handler("twoStatements"), null);
+
+        assertEquals(1, registry.get("trainticker.http.statements").summary().totalAmount());
+    }
+
+    private void request(HandlerMethod handler, int statements) {
+        interceptor.preHandle(request, response, handler);
+        for (int i = 0; i < statements; i++) {
+            interceptor.inspect("SELECT " + i);
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+    }
+
+    static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    static class Endpoints {
+        @QueryBudget(2)
+        public void twoStatements() {}
+    }
+}
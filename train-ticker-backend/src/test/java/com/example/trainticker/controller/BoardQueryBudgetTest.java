@@ -0,0 +1,162 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.TestBoards;
+import com.example.trainticker.config.QueryBudget;
+import com.example.trainticker.repository.ScheduleRepository;
+import com.example.trainticker.repository.TrainRepository;
+import com.example.trainticker.service.BoardSnapshotStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The SQL statements each board endpoint runs, cold (board not in memory yet)
+ * and warm, as recorded in trainticker.http.statements
+ *
+ * The test profile enforces the @QueryBudget of every endpoint, so a change
+ * that adds a query (an N+1 on Schedule.train, say) fails here twice: the
+ * request itself answers 500, and the count no longer matches.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BoardQueryBudgetTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static final AtomicInteger STATIONS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private BoardSnapshotStore boardSnapshotStore;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    /**
+     * One board endpoint: the URI template it is recorded under, how to call it
+     * for a station, and the statements expected on the first and second call
+     */
+    record Endpoint(String uri, String query, int cold, int warm) {
+
+        String path(String station) {
+            return uri.replace("{station}", station)
+                    .replace("{date}", TODAY.toString())
+                    .replace("{platform}", "A1")
+                    .replace("{destination}", "Boston")
+                    + query.replace("{station}", station);
+        }
+
+        @Override
+        public String toString() {
+            return uri;
+        }
+    }
+
+    static Stream<Endpoint> endpoints() {
+        return Stream.of(
+                new Endpoint("/api/stations/{station}/trains", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/{date}", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/changes", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/upcoming", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/destination/{destination}", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/search/suggest", "?q=bos", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/delayed", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/time-range", "?startTime=06:00&endTime=07:00", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/stats/platforms", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/stats/destinations", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/stats", "", 1, 0),
+                new Endpoint("/api/stations/{station}/trains/platform/{platform}", "", 1, 0),
+                new Endpoint("/api/health", "", 0, 0),
+                new Endpoint("/api/platforms/{platform}/occupancy", "?station={station}", 1, 0),
+                new Endpoint("/api/platforms/conflicts", "?station={station}", 1, 0),
+                new Endpoint("/api/platforms/{platform}/conflicts", "?station={station}", 1, 0));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void staysWithinItsQueryBudget(Endpoint endpoint) throws Exception {
+        // A station of its own, so the first call really is cold
+        String station = "QB" + STATIONS.incrementAndGet();
+        TestBoards.insertBoard(trainRepository, scheduleRepository, station + "-", station, TODAY, 6);
+
+        assertEquals(endpoint.cold(), statements(endpoint, station), "cold " + endpoint.uri());
+        assertEquals(endpoint.warm(), statements(endpoint, station), "warm " + endpoint.uri());
+    }
+
+    @Test
+    void loadsNoBoardForAStationThatDoesNotExist() throws Exception {
+        int stations = boardSnapshotStore.getStationCount();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/stations/NOSUCH" + i + "/trains")).andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/platforms/A1/occupancy?station=NOSUCH" + i)).andExpect(status().isNotFound());
+        }
+        mockMvc.perform(get("/api/stations/no%20such/trains")).andExpect(status().isBadRequest());
+
+        assertEquals(stations, boardSnapshotStore.getStationCount());
+        assertNull(boardSnapshotStore.peek("NOSUCH0", TODAY));
+    }
+
+    @Test
+    void coversEveryEndpointWithABudget() {
+        Set<String> budgeted = handlerMapping.getHandlerMethods().entrySet().stream()
+                .filter(entry -> entry.getValue().hasMethodAnnotation(QueryBudget.class))
+                .flatMap(entry -> entry.getKey().getPatternValues().stream())
+                .filter(uri -> !uri.startsWith("/api/trains")) // Same handlers as /api/stations/{station}/trains...
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<String> tested = endpoints().map(Endpoint::uri).collect(Collectors.toCollection(TreeSet::new));
+
+        budgeted.removeAll(tested);
+        assertTrue(budgeted.isEmpty(), "No statement count test for " + budgeted);
+    }
+
+    /**
+     * Call the endpoint once and return the statements it ran
+     */
+    private long statements(Endpoint endpoint, String station) throws Exception {
+        DistributionSummary summary = meterRegistry.summary("trainticker.http.statements",
+                "method", "GET", "uri", endpoint.uri());
+        long count = summary.count();
+        double total = summary.totalAmount();
+
+        mockMvc.perform(get(endpoint.path(station))).andExpect(status().isOk());
+
+        assertEquals(count + 1, summary.count(), "requests recorded for " + endpoint.uri());
+        return Math.round(summary.totalAmount() - total);
+    }
+}
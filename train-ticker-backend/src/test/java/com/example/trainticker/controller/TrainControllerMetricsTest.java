@@ -0,0 +1,94 @@
+package com.example.trainticker.controller;
+
+import com.example.trainticker.TestBoards;
+import com.example.trainticker.repository.ScheduleRepository;
+import com.example.trainticker.repository.TrainRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The response metrics of the cached board views, on the registry the application uses
+ * (a SimpleMeterRegistry in tests)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TrainControllerMetricsTest {
+
+    private static final String STATION = "MET";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final String URI = "/api/stations/{station}/trains/{date}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (scheduleRepository.findBoardRowsByStationAndDate(STATION, DATE).isEmpty()) {
+            TestBoards.insertBoard(trainRepository, scheduleRepository, "MET", STATION, DATE, 5);
+        }
+    }
+
+    @Test
+    void countsRowsOnlyForResponsesThatSendThem() throws Exception {
+        String etag = mockMvc.perform(get("/api/stations/{station}/trains/{date}", STATION, DATE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        DistributionSummary rows = meterRegistry.get("trainticker.http.response.rows").tag("uri", URI).summary();
+        long count = rows.count();
+        double total = rows.totalAmount();
+
+        mockMvc.perform(get("/api/stations/{station}/trains/{date}", STATION, DATE)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(count, rows.count());
+        assertEquals(total, rows.totalAmount());
+
+        mockMvc.perform(get("/api/stations/{station}/trains/{date}", STATION, DATE))
+                .andExpect(status().isOk());
+        assertEquals(count + 1, rows.count());
+        assertEquals(total + 5, rows.totalAmount());
+    }
+
+    @Test
+    void recordsTheBytesSentPerFormat() throws Exception {
+        DistributionSummary json = meterRegistry.summary("trainticker.http.response.bytes", "uri", URI, "format", "json");
+        DistributionSummary gzip = meterRegistry.summary("trainticker.http.response.bytes", "uri", URI, "format", "gzip");
+        long jsonCount = json.count();
+        long gzipCount = gzip.count();
+
+        int jsonLength = mockMvc.perform(get("/api/stations/{station}/trains/{date}", STATION, DATE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray().length;
+        mockMvc.perform(get("/api/stations/{station}/trains/{date}", STATION, DATE)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk());
+
+        assertEquals(jsonCount + 1, json.count());
+        assertEquals(jsonLength, json.max());
+        assertEquals(gzipCount + 1, gzip.count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.BoardChangesDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two change logs stand for two nodes (or one node before and after a restart)
+ * that saw the same changes to the same board
+ */
+class BoardChangeLogTest {
+
+    private static final String STATION = "MAIN";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final BoardKey KEY = BoardKey.of(STATION, DATE);
+
+    private final BoardSnapshot loaded = BoardSnapshot.ofRows(KEY, 1, List.of(row(1L, 0), row(2L, 0)));
+    private final BoardSnapshot changed = BoardSnapshot.ofRows(KEY, 2, List.of(row(1L, 5), row(2L, 0)));
+
+    private BoardChangeLog node1;
+    private BoardChangeLog node2;
+
+    @BeforeEach
+    void setUp() {
+        BoardSnapshotStore store = mock(BoardSnapshotStore.class);
+        when(store.get(STATION, DATE)).thenReturn(changed);
+        node1 = new BoardChangeLog(store, 1000);
+        node2 = new BoardChangeLog(store, 1000);
+        for (BoardChangeLog node : List.of(node1, node2)) {
+            node.onBoardUpdated(new BoardUpdatedEvent(null, loaded));
+        }
+    }
+
+    @Test
+    void givesTheChangesSinceItsOwnRevision() {
+        long revision = node1.changesSince(STATION, DATE, null).getRevision();
+        node1.onBoardUpdated(new BoardUpdatedEvent(loaded, changed));
+
+        BoardChangesDTO changes = node1.changesSince(STATION, DATE, revision);
+        assertFalse(changes.isResync());
+        assertEquals(List.of(1L), changes.getUpdated().stream().map(TrainScheduleDTO::getId).toList());
+    }
+
+    @Test
+    void resyncsOnARevisionFromAnotherLog() {
+        long revision = node1.changesSince(STATION, DATE, null).getRevision();
+        for (BoardChangeLog node : List.of(node1, node2)) {
+            node.onBoardUpdated(new BoardUpdatedEvent(loaded, changed));
+        }
+
+        // Same board, same changes, but node 2 never handed out this revision
+        BoardChangesDTO changes = node2.changesSince(STATION, DATE, revision);
+        assertTrue(changes.isResync());
+        assertEquals(node2.changesSince(STATION, DATE, null).getRevision(), changes.getRevision());
+
+        // And the other way round, with the revision node 2 gave
+        assertTrue(node1.changesSince(STATION, DATE, changes.getRevision()).isResync());
+    }
+
+    @Test
+    void keepsRevisionsExactAsJavaScriptNumbers() {
+        long revision = node1.changesSince(STATION, DATE, null).getRevision();
+
+        assertTrue(revision > 0 && revision < 1L << 53);
+    }
+
+    private static TrainScheduleDTO row(Long id, int delayMinutes) {
+        return new TrainScheduleDTO(id, "T" + id, "Express " + id, "Here - There", "Boston",
+                LocalTime.of(8, id.intValue()), LocalTime.of(10, 0), "A1",
+                delayMinutes > 0 ? Schedule.Status.DELAYED : Schedule.Status.ON_TIME, delayMinutes);
+    }
+}
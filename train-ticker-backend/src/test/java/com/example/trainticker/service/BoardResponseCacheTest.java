@@ -0,0 +1,96 @@
+package com.example.trainticker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One build per view and version, however many callers miss it at once,
+ * and no more bodies than max-entries
+ */
+class BoardResponseCacheTest {
+
+    private final BoardResponseCache cache = new BoardResponseCache(new ObjectMapper(), 4);
+
+    @Test
+    void buildsAViewOnceForCallersThatMissItTogether() throws Exception {
+        int callers = 8;
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            Future<BoardResponseCache.CachedBody> first = pool.submit(() -> cache.get("date:MAIN/2024-01-15", 1L, () -> {
+                builds.incrementAndGet();
+                building.countDown();
+                await(release);
+                return List.of("board");
+            }));
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            List<Future<BoardResponseCache.CachedBody>> others = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                others.add(pool.submit(() -> cache.get("date:MAIN/2024-01-15", 1L, () -> {
+                    builds.incrementAndGet();
+                    return List.of("board");
+                })));
+            }
+            release.countDown();
+
+            BoardResponseCache.CachedBody body = first.get(5, TimeUnit.SECONDS);
+            for (Future<BoardResponseCache.CachedBody> other : others) {
+                assertSame(body, other.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, builds.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rebuildsAViewWhenItsVersionChanges() {
+        BoardResponseCache.CachedBody first = cache.get("stats:MAIN/2024-01-15", 1L, () -> List.of("one"));
+
+        assertSame(first, cache.get("stats:MAIN/2024-01-15", 1L, () -> List.of("stale")));
+        assertEquals(2L, cache.get("stats:MAIN/2024-01-15", 2L, () -> List.of("two")).getVersion());
+    }
+
+    @Test
+    void keepsTheEntryWhenTheBuildFails() {
+        BoardResponseCache.CachedBody first = cache.get("delayed:MAIN/2024-01-15", 1L, () -> List.of("one"));
+
+        assertThrows(IllegalStateException.class, () -> cache.get("delayed:MAIN/2024-01-15", 2L, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertSame(first, cache.get("delayed:MAIN/2024-01-15", 1L, () -> List.of("stale")));
+    }
+
+    @Test
+    void keepsNoMoreThanMaxEntries() {
+        for (int i = 0; i < 100; i++) {
+            cache.get("date:S" + i + "/2024-01-15", 1L, () -> List.of());
+        }
+
+        assertTrue(cache.size() <= 4, "size " + cache.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
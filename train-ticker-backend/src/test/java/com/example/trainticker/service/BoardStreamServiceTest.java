@@ -0,0 +1,113 @@
+package com.example.trainticker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Slow and stalled SSE clients, with emitters whose writes block the way a
+ * servlet write to a full socket does
+ */
+class BoardStreamServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final BoardKey KEY = BoardKey.of("MAIN", DATE);
+    private static final int WRITER_THREADS = 2;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final BoardStreamService service;
+
+    BoardStreamServiceTest() {
+        BoardSnapshotStore store = mock(BoardSnapshotStore.class);
+        when(store.get(anyString(), any())).thenReturn(BoardSnapshot.ofRows(KEY, 1, List.of()));
+        service = new BoardStreamService(store, new ObjectMapper(), 60_000, 2, 50, WRITER_THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void stalledClientsHoldNoMoreThanTheWriterThreads() throws Exception {
+        long before = writerThreads();
+        for (int i = 0; i < 20; i++) {
+            service.subscribe(KEY, new StalledEmitter());
+        }
+        for (int i = 0; i < 5; i++) {
+            service.sendHeartbeats();
+            Thread.sleep(20);
+        }
+
+        assertTrue(writerThreads() - before <= WRITER_THREADS,
+                "writer threads grew by " + (writerThreads() - before));
+    }
+
+    @Test
+    void dropsClientsThatDoNotTakeAnEventInTime() throws Exception {
+        service.subscribe(KEY, new StalledEmitter());
+        service.subscribe(KEY, new StalledEmitter());
+        Thread.sleep(100);
+
+        service.dropStalledSubscribers();
+        assertEquals(0, service.getSubscriberCount());
+        assertEquals(2, service.getSlowSubscribersDropped());
+    }
+
+    @Test
+    void keepsServingOnceTheStalledWritesReturn() throws Exception {
+        for (int i = 0; i < WRITER_THREADS; i++) {
+            service.subscribe(KEY, new StalledEmitter());
+        }
+        CountDownLatch received = new CountDownLatch(1);
+        service.subscribe(KEY, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        });
+        Thread.sleep(100);
+        service.dropStalledSubscribers();
+
+        // The container fails the stuck writes; the writers move on to the healthy client
+        unblock.countDown();
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    private static long writerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("board-stream-writer-"))
+                .count();
+    }
+
+    /**
+     * A client that never reads: every write blocks until the test ends
+     */
+    private final class StalledEmitter extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+    }
+}
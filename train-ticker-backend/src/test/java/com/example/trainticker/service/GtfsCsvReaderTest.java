@@ -0,0 +1,169 @@
+package com.example.trainticker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records of GTFS text files, read one character per refill so every value
+ * crosses the end of the buffer, and the Field parsing and lookups
+ */
+class GtfsCsvReaderTest {
+
+    @Test
+    void readsQuotedValuesAcrossRefills() throws IOException {
+        List<List<String>> records = read("trip_id,headsign\nT1,\"Boston, South\"\nT2,Albany\n");
+
+        assertEquals(List.of(List.of("T1", "Boston, South"), List.of("T2", "Albany")), records);
+    }
+
+    @Test
+    void readsDoubledQuotesAsOneQuote() throws IOException {
+        List<List<String>> records = read("stop_id,stop_name\nS1,\"The \"\"Old\"\" Station\"\nS2,\"\"\"\"\n");
+
+        assertEquals(List.of(List.of("S1", "The \"Old\" Station"), List.of("S2", "\"")), records);
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotes() throws IOException {
+        List<List<String>> records = read("stop_id,stop_desc\r\nS1,\"Platform 1\r\nLower level\"\r\nS2,x\r\n");
+
+        assertEquals(List.of(List.of("S1", "Platform 1\r\nLower level"), List.of("S2", "x")), records);
+    }
+
+    @Test
+    void trimsOnlyUnquotedValues() throws IOException {
+        List<List<String>> records = read("a,b,c\n  one  , \" two \" ,\"\"\n");
+
+        assertEquals(List.of(List.of("one", " two ", "")), records);
+    }
+
+    @Test
+    void readsAValueLongerThanTheBuffer() throws IOException {
+        String longValue = "x".repeat(200_000);
+        GtfsCsvReader csv = new GtfsCsvReader(new StringReader("id,text\n1,\"" + longValue + "\"\n2,y\n"));
+
+        assertTrue(csv.next());
+        assertEquals(longValue, csv.field(1).toString());
+        assertTrue(csv.next());
+        assertEquals("y", csv.field(1).toString());
+        assertFalse(csv.next());
+    }
+
+    @Test
+    void findsColumnsByNameWithoutTheByteOrderMark() throws IOException {
+        GtfsCsvReader csv = new GtfsCsvReader(new OneCharReader("\uFEFFStop_ID, Stop_Name\nS1,Main\n"));
+
+        assertEquals(0, csv.column("stop_id"));
+        assertEquals(1, csv.column("stop_name"));
+        assertEquals(-1, csv.column("stop_lat"));
+        assertTrue(csv.next());
+        assertEquals("S1", csv.field(0).toString());
+        assertTrue(csv.field(-1).isEmpty());
+        assertTrue(csv.field(5).isEmpty());
+    }
+
+    @Test
+    void skipsBlankLinesAndCountsRecords() throws IOException {
+        GtfsCsvReader csv = new GtfsCsvReader(new OneCharReader("id\n1\n\n\r\n2"));
+
+        assertTrue(csv.next());
+        assertTrue(csv.next());
+        assertEquals("2", csv.field(0).toString());
+        assertFalse(csv.next());
+        assertEquals(2, csv.getRecords());
+    }
+
+    @Test
+    void parsesTimesPastMidnightOfTheServiceDay() throws IOException {
+        GtfsCsvReader csv = new GtfsCsvReader(new StringReader(
+                "t\n08:05:09\n7:05:09\n25:30:00\n\"\"\n12:60\n1::00\n12:00:0a\n"));
+        List<Integer> seconds = new ArrayList<>();
+        while (csv.next()) {
+            seconds.add(csv.field(0).toSeconds());
+        }
+
+        assertEquals(List.of(29_109, 25_509, 91_800, -1, -1, -1, -1), seconds);
+    }
+
+    @Test
+    void parsesNonNegativeIntegers() throws IOException {
+        GtfsCsvReader csv = new GtfsCsvReader(new StringReader("n\n0\n1234\n-1\n12a\n"));
+        List<Integer> values = new ArrayList<>();
+        while (csv.next()) {
+            values.add(csv.field(0).toInt());
+        }
+
+        assertEquals(List.of(0, 1234, -1, -1), values);
+    }
+
+    @Test
+    void looksUpStringKeysWithAField() throws IOException {
+        GtfsCsvReader csv = new GtfsCsvReader(new StringReader("stop_id\nBOS\nBOS\nALB\n"));
+        Map<String, Integer> stops = Map.of("BOS", 1, "ALB", 2);
+        GtfsCsvReader.Interner strings = new GtfsCsvReader.Interner();
+
+        assertTrue(csv.next());
+        GtfsCsvReader.Field field = csv.field(0);
+        assertEquals("BOS".hashCode(), field.hashCode());
+        assertTrue(field.equals("BOS"));
+        assertEquals(1, stops.get(field));
+        String first = strings.intern(field);
+
+        assertTrue(csv.next());
+        assertSame(first, strings.intern(csv.field(0)));
+        assertTrue(csv.next());
+        assertEquals(2, stops.get(csv.field(0)));
+        assertEquals("ALB", strings.intern(csv.field(0)));
+    }
+
+    private static List<List<String>> read(String text) throws IOException {
+        int columns = text.substring(0, text.indexOf('\n')).split(",").length;
+        GtfsCsvReader csv = new GtfsCsvReader(new OneCharReader(text));
+        List<List<String>> records = new ArrayList<>();
+        while (csv.next()) {
+            List<String> record = new ArrayList<>();
+            for (int i = 0; i < columns; i++) {
+                record.add(csv.field(i).toString());
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Hands out one character per read, so the reader refills after each one
+     */
+    private static final class OneCharReader extends Reader {
+
+        private final String text;
+        private int position;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
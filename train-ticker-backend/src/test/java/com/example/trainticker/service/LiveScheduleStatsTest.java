@@ -0,0 +1,77 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Counters of boards that are tracked, evicted, reloaded after an eviction,
+ * and rows without a status
+ */
+class LiveScheduleStatsTest {
+
+    private static final String STATION = "MAIN";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final BoardKey KEY = BoardKey.of(STATION, DATE);
+
+    private final LiveScheduleStats stats = new LiveScheduleStats();
+
+    @Test
+    void countsTheRowsOfABoardThatIsNotTracked() {
+        BoardSnapshot board = board(1,
+                row(1L, "A1", "Boston", Schedule.Status.ON_TIME),
+                row(2L, "A1", "Boston", Schedule.Status.DELAYED),
+                row(3L, "B2", "Albany", Schedule.Status.CANCELLED));
+
+        assertNull(stats.getStats(STATION, DATE));
+        Map<String, TrainService.ScheduleStats> byPlatform = stats.getStatsByPlatform(STATION, DATE, board);
+        Map<String, TrainService.ScheduleStats> byDestination = stats.getStatsByDestination(STATION, DATE, board);
+
+        assertEquals(List.of("A1", "B2"), List.copyOf(byPlatform.keySet()));
+        assertEquals(1, byPlatform.get("A1").getDelayedCount());
+        assertEquals(1, byDestination.get("Albany").getCancelledCount());
+    }
+
+    @Test
+    void startsOverWhenABoardIsReloadedAfterItWasEvicted() {
+        BoardSnapshot first = board(1, row(1L, "A1", "Boston", Schedule.Status.ON_TIME));
+        BoardSnapshot second = board(2,
+                row(1L, "A1", "Boston", Schedule.Status.DELAYED),
+                row(2L, "A1", "Boston", Schedule.Status.ON_TIME));
+        stats.onBoardUpdated(new BoardUpdatedEvent(null, first));
+        stats.onBoardEvicted(new BoardEvictedEvent(KEY));
+
+        stats.onBoardUpdated(new BoardUpdatedEvent(first, second));
+
+        TrainService.ScheduleStats total = stats.getStats(STATION, DATE);
+        assertEquals(1, total.getOnTimeCount());
+        assertEquals(1, total.getDelayedCount());
+    }
+
+    @Test
+    void countsARowWithoutAStatusAsOnTime() {
+        TrainScheduleDTO noStatus = row(1L, "A1", "Boston", null);
+
+        stats.onBoardUpdated(new BoardUpdatedEvent(null, board(1, noStatus)));
+
+        assertEquals(1, stats.getStats(STATION, DATE).getOnTimeCount());
+    }
+
+    private static BoardSnapshot board(long version, TrainScheduleDTO... rows) {
+        return BoardSnapshot.ofRows(KEY, version, List.of(rows));
+    }
+
+    private static TrainScheduleDTO row(long id, String platform, String destination, Schedule.Status status) {
+        LocalTime departure = LocalTime.of(8, 0).plusMinutes(id);
+        return new TrainScheduleDTO(id, "T" + id, "Express T" + id, "Here - There", destination,
+                departure, departure.plusHours(2), platform, status, 0);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.PlatformConflictDTO;
+import com.example.trainticker.dto.PlatformOccupancyDTO;
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The occupations and conflicts of a board as its rows are delayed, moved to
+ * another platform, cancelled and removed. Trains hold their platform from 5
+ * minutes before until 1 minute after their expected departure, so two trains
+ * conflict when their expected departures are less than 6 minutes apart.
+ */
+class PlatformOccupancyIndexTest {
+
+    private static final String STATION = "MAIN";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final BoardKey KEY = BoardKey.of(STATION, DATE);
+
+    private final PlatformOccupancyIndex index = new PlatformOccupancyIndex(mock(BoardSnapshotStore.class), 5, 1);
+    private BoardSnapshot current;
+
+    @Test
+    void findsTheConflictADelayCreates() {
+        load(row(1L, "08:00", "A1", 0), row(2L, "08:10", "A1", 0));
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+
+        update(row(1L, "08:00", "A1", 7), row(2L, "08:10", "A1", 0));
+
+        List<PlatformConflictDTO> conflicts = index.getConflicts(STATION, DATE, "A1");
+        assertEquals(1, conflicts.size());
+        assertEquals(1L, conflicts.get(0).getFirst().getScheduleId());
+        assertEquals(2L, conflicts.get(0).getSecond().getScheduleId());
+        assertEquals(LocalTime.of(8, 7), conflicts.get(0).getFirst().getExpectedDepartureTime());
+        // Train 1 now holds A1 from 08:02 to 08:08, train 2 from 08:05 to 08:11
+        assertEquals(3, conflicts.get(0).getOverlapMinutes());
+    }
+
+    @Test
+    void dropsTheConflictADelayClears() {
+        load(row(1L, "08:00", "A1", 0), row(2L, "08:03", "A1", 0));
+        assertEquals(1, index.getConflictCount(STATION, DATE));
+
+        update(row(1L, "08:00", "A1", 10), row(2L, "08:03", "A1", 0));
+
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+        assertEquals(List.of(2L, 1L), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+    }
+
+    @Test
+    void movesATrainToItsNewPlatform() {
+        load(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        update(row(1L, "08:00", "A1", 0), row(2L, "08:02", "B2", 0));
+
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+        assertEquals(List.of(1L), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+        assertEquals(List.of(2L), ids(index.getOccupancy(STATION, DATE, "B2", null, null)));
+
+        update(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        assertEquals(1, index.getConflicts(STATION, DATE, "A1").size());
+        assertTrue(index.getOccupancy(STATION, DATE, "B2", null, null).isEmpty());
+    }
+
+    @Test
+    void freesThePlatformOfACancelledTrain() {
+        load(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        update(row(1L, "08:00", "A1", 0), cancelled(row(2L, "08:02", "A1", 0)));
+
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+        assertEquals(List.of(1L), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+
+        update(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        assertEquals(1, index.getConflictCount(STATION, DATE));
+    }
+
+    @Test
+    void keepsTrainsAroundMidnightInTimeOrder() {
+        load(row(1L, "00:02", "A1", 0), row(2L, "00:00", "A1", 0), row(3L, "12:00", "A1", 0));
+
+        List<PlatformOccupancyDTO> occupancy = index.getOccupancy(STATION, DATE, "A1", null, null);
+
+        assertEquals(List.of(2L, 1L, 3L), ids(occupancy));
+        // Held from before midnight, shown as the time of the day before
+        assertEquals(LocalTime.of(23, 55), occupancy.get(0).getFrom());
+        assertEquals(LocalTime.of(23, 57), occupancy.get(1).getFrom());
+        assertEquals(List.of(2L, 1L), ids(index.getOccupancy(STATION, DATE, "A1", LocalTime.MIDNIGHT,
+                LocalTime.of(0, 1))));
+        assertEquals(1, index.getConflictCount(STATION, DATE));
+    }
+
+    @Test
+    void holdsDelaysPastTheNextDayAtTheEndOfTheIndex() {
+        load(row(1L, "23:50", "A1", 3000), row(2L, "23:55", "A1", 4000), row(3L, "23:59", "A1", 0));
+
+        List<PlatformOccupancyDTO> occupancy = index.getOccupancy(STATION, DATE, "A1", null, null);
+
+        // Both start where the keys end (two days after midnight) and still conflict
+        assertEquals(List.of(3L, 1L, 2L), ids(occupancy));
+        assertEquals(occupancy.get(1).getFrom(), occupancy.get(2).getFrom());
+        assertEquals(1, index.getConflictCount(STATION, DATE));
+
+        update(row(1L, "23:50", "A1", 3000), cancelled(row(2L, "23:55", "A1", 4000)), row(3L, "23:59", "A1", 0));
+
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+        assertEquals(List.of(3L, 1L), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+    }
+
+    @Test
+    void ordersByStartWhateverTheIds() {
+        long expanded = TimetableExpander.expandedId(1L << 28, DATE);
+        load(row(expanded, "08:00", "A1", 0), row(2L, "08:01", "A1", 0), row(3L, "08:00", "A1", 0));
+
+        assertEquals(List.of(3L, expanded, 2L), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+        assertEquals(3, index.getConflictCount(STATION, DATE));
+
+        update(row(expanded, "08:00", "A1", 20), row(2L, "08:01", "A1", 0), row(3L, "08:00", "A1", 0));
+
+        assertEquals(List.of(3L, 2L, expanded), ids(index.getOccupancy(STATION, DATE, "A1", null, null)));
+        assertEquals(1, index.getConflictCount(STATION, DATE));
+    }
+
+    @Test
+    void keepsOneConflictPerPairAcrossUpdates() {
+        load(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        // Changes that do not move the train re-add the same pair
+        TrainScheduleDTO renamed = row(2L, "08:02", "A1", 0);
+        renamed.setDestination("Albany");
+        update(row(1L, "08:00", "A1", 0), renamed);
+        update(row(1L, "08:00", "A1", 0), row(2L, "08:02", "A1", 0));
+
+        assertEquals(1, index.getConflicts(STATION, DATE, null).size());
+
+        update(row(1L, "08:00", "A1", 0));
+
+        assertEquals(0, index.getConflictCount(STATION, DATE));
+        assertEquals(0, index.getConflictCount(DATE));
+    }
+
+    private void load(TrainScheduleDTO... rows) {
+        current = BoardSnapshot.ofRows(KEY, 1L, List.of(rows));
+        index.onBoardUpdated(new BoardUpdatedEvent(null, current));
+    }
+
+    private void update(TrainScheduleDTO... rows) {
+        BoardSnapshot previous = current;
+        current = BoardSnapshot.ofRows(KEY, previous.getVersion() + 1, List.of(rows));
+        index.onBoardUpdated(new BoardUpdatedEvent(previous, current));
+    }
+
+    private static List<Long> ids(List<PlatformOccupancyDTO> occupancy) {
+        return occupancy.stream().map(PlatformOccupancyDTO::getScheduleId).toList();
+    }
+
+    private static TrainScheduleDTO row(long id, String departure, String platform, int delay) {
+        LocalTime time = LocalTime.parse(departure);
+        return new TrainScheduleDTO(id, "T" + id, "Express T" + id, "Here - There", "Boston",
+                time, time.plusHours(2), platform,
+                delay > 0 ? Schedule.Status.DELAYED : Schedule.Status.ON_TIME, delay);
+    }
+
+    private static TrainScheduleDTO cancelled(TrainScheduleDTO row) {
+        row.setStatus(Schedule.Status.CANCELLED.name());
+        return row;
+    }
+}
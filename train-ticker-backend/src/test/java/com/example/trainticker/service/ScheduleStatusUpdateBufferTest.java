@@ -0,0 +1,85 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.TestBoards;
+import com.example.trainticker.dto.ScheduleStatusUpdateDTO;
+import com.example.trainticker.dto.StatusUpdateResultDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.repository.ScheduleRepository;
+import com.example.trainticker.repository.TrainRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Status updates for rows on no board in memory, in schedules or in
+ * schedules_archive. Each test archives a past date of its own, so the rows
+ * of other test classes are never moved.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduleStatusUpdateBufferTest {
+
+    private static final String STATION = "SUB";
+    private static final long NO_SUCH_ID = 999_999_999L;
+
+    @Autowired
+    private ScheduleStatusUpdateBuffer buffer;
+
+    @Autowired
+    private ScheduleArchiveService scheduleArchiveService;
+
+    @Autowired
+    private TrainRepository trainRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acceptsStoredAndArchivedRowsAndReportsTheRest() {
+        LocalDate past = LocalDate.of(2003, 5, 7);
+        Schedule hot = TestBoards.insertBoard(trainRepository, scheduleRepository, "SUH-", STATION,
+                LocalDate.now().plusDays(3), 1).get(0);
+        Schedule archived = TestBoards.insertBoard(trainRepository, scheduleRepository, "SUA-", STATION,
+                past, 1).get(0);
+        scheduleArchiveService.archiveDate(past);
+
+        StatusUpdateResultDTO result = buffer.accept(List.of(
+                new ScheduleStatusUpdateDTO(hot.getId(), "DELAYED", 10, null),
+                new ScheduleStatusUpdateDTO(archived.getId(), "CANCELLED", null, null),
+                new ScheduleStatusUpdateDTO(NO_SUCH_ID, null, null, "B2")));
+        buffer.flush();
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(List.of(NO_SUCH_ID), result.getUnknownIds());
+        assertEquals("DELAYED", status("schedules", hot.getId()));
+        assertEquals("CANCELLED", status("schedules_archive", archived.getId()));
+    }
+
+    @Test
+    void writesToTheArchiveARowArchivedBeforeTheFlush() {
+        LocalDate past = LocalDate.of(2003, 5, 8);
+        Schedule schedule = TestBoards.insertBoard(trainRepository, scheduleRepository, "SUL-", STATION,
+                past, 1).get(0);
+
+        assertEquals(1, buffer.accept(List.of(
+                new ScheduleStatusUpdateDTO(schedule.getId(), "CANCELLED", null, null))).getAccepted());
+        scheduleArchiveService.archiveDate(past);
+        buffer.flush();
+
+        assertEquals("CANCELLED", status("schedules_archive", schedule.getId()));
+    }
+
+    private String status(String table, long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM " + table + " WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * The limit on streams that hold database connections; the cursors are
+ * stand-ins that are never read (no row is ever asked for)
+ */
+class ScheduleStreamServiceTest {
+
+    private static final String STATION = "MAIN";
+    private static final LocalDate DATE = LocalDate.of(2024, 3, 1);
+    private static final TrainScheduleDTO ROW = new TrainScheduleDTO(1L, "T1", "Express", "Here - There", "Boston",
+            LocalTime.of(8, 0), LocalTime.of(10, 0), "A1", Schedule.Status.ON_TIME, 0);
+
+    private final BoardSnapshotStore store = mock(BoardSnapshotStore.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private ScheduleStreamService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(store.resolveStation(any())).thenReturn(STATION);
+        service = new ScheduleStreamService(store, mock(ScheduleArchiveService.class), jdbcTemplate,
+                mock(ObjectProvider.class), 366, 500, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refusesStreamsOverTheLimitUntilOneEnds() {
+        // A cursor that stays open: the idle clients never ask for a row
+        when(jdbcTemplate.queryForStream(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> Stream.generate(() -> ROW));
+
+        // Built but never subscribed: holds nothing
+        service.streamDate(STATION, DATE);
+        assertEquals(0, service.getDatabaseStreams());
+
+        BaseSubscriber<TrainScheduleDTO> first = idle();
+        service.streamDate(STATION, DATE).subscribe(first);
+        service.streamDate(STATION, DATE).subscribe(idle());
+        assertEquals(2, service.getDatabaseStreams());
+
+        Flux<TrainScheduleDTO> third = service.streamDate(STATION, DATE);
+        assertThrows(StreamLimitException.class, third::blockFirst);
+        assertEquals(1, service.getStreamsRejected());
+
+        // The client goes away before asking for the first row
+        first.cancel();
+        assertEquals(1, service.getDatabaseStreams());
+        third.subscribe(idle());
+        assertEquals(2, service.getDatabaseStreams());
+    }
+
+    @Test
+    void doesNotCountStreamsServedFromMemory() {
+        BoardSnapshot board = BoardSnapshot.ofRows(BoardKey.of(STATION, DATE), 1, List.of());
+        when(store.peek(anyString(), any())).thenReturn(board);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(List.of(), service.streamDate(STATION, DATE).collectList().block());
+        }
+        assertEquals(0, service.getDatabaseStreams());
+    }
+
+    @Test
+    void streamsTheBoardItFoundEvenIfItIsEvictedMeanwhile() {
+        BoardSnapshot board = BoardSnapshot.ofRows(BoardKey.of(STATION, DATE), 1, List.of(ROW));
+        // In memory when the stream starts, gone by the time its rows are read
+        when(store.peek(anyString(), any())).thenReturn(board, (BoardSnapshot) null);
+
+        assertEquals(List.of(ROW), service.streamDate(STATION, DATE).collectList().block());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * A client that subscribes and never asks for a row
+     */
+    private static BaseSubscriber<TrainScheduleDTO> idle() {
+        return new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.trainticker.service;
+
+import com.example.trainticker.dto.TrainScheduleDTO;
+import com.example.trainticker.model.Schedule;
+import com.example.trainticker.model.ServicePattern;
+import com.example.trainticker.model.Train;
+import com.example.trainticker.repository.ServicePatternRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Boards of dates that are not materialized: the patterns' departures in
+ * memory, with the exceptions stored for the day in their place
+ */
+class TimetableExpanderTest {
+
+    private static final String STATION = "MAIN";
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+
+    private final ServicePatternRepository repository = mock(ServicePatternRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private TimetableExpander expander;
+
+    private final ServicePattern morning = pattern(7L, "T1", LocalTime.of(8, 0), EnumSet.allOf(DayOfWeek.class));
+    private final ServicePattern evening = pattern(8L, "T2", LocalTime.of(18, 0), EnumSet.allOf(DayOfWeek.class));
+    private final ServicePattern otherDay = pattern(9L, "T3", LocalTime.of(12, 0),
+            EnumSet.complementOf(EnumSet.of(DATE.getDayOfWeek())));
+
+    @BeforeEach
+    void setUp() {
+        expander = new TimetableExpander(repository, jdbcTemplate, true, 366);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(LocalDate.class))).thenReturn(0);
+        when(repository.findValidOnAt(STATION, DATE)).thenReturn(List.of(morning, evening, otherDay));
+    }
+
+    @Test
+    void showsThePatternsThatRunOnTheDate() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(STATION), eq(DATE))).thenReturn(List.of());
+
+        List<TrainScheduleDTO> rows = expander.expand(STATION, DATE, List.of());
+
+        assertEquals(List.of("T1", "T2"), rows.stream().map(TrainScheduleDTO::getTrainNumber).toList());
+        assertEquals(List.of(TimetableExpander.expandedId(7L, DATE), TimetableExpander.expandedId(8L, DATE)),
+                rows.stream().map(TrainScheduleDTO::getId).toList());
+        assertEquals(Schedule.Status.ON_TIME.name(), rows.get(0).getStatus());
+    }
+
+    @Test
+    void showsTheStoredExceptionInsteadOfThePattern() {
+        TrainScheduleDTO cancelled = new TrainScheduleDTO(42L, "T1", "Express T1", "Here - There", "Boston",
+                LocalTime.of(8, 0), LocalTime.of(10, 0), "A1", Schedule.Status.CANCELLED, 0);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(STATION), eq(DATE))).thenReturn(List.of(7L));
+
+        List<TrainScheduleDTO> rows = expander.expand(STATION, DATE, List.of(cancelled));
+
+        assertEquals(2, rows.size());
+        assertSame(cancelled, rows.get(0));
+        assertEquals(TimetableExpander.expandedId(8L, DATE), rows.get(1).getId());
+    }
+
+    @Test
+    void leavesMaterializedAndPastDatesAsStored() {
+        List<TrainScheduleDTO> stored = List.of();
+        expander.dateMaterialized(DATE);
+
+        assertSame(stored, expander.expand(STATION, DATE, stored));
+        assertSame(stored, expander.expand(STATION, LocalDate.now().minusDays(1), stored));
+        verify(repository, never()).findValidOnAt(anyString(), any());
+    }
+
+    @Test
+    void readsThePatternAndDateBackFromTheId() {
+        for (LocalDate date = LocalDate.now().minusDays(1); date.isBefore(LocalDate.now().plusDays(367));
+             date = date.plusDays(1)) {
+            long id = TimetableExpander.expandedId(123_456L, date);
+
+            assertTrue(TimetableExpander.isExpandedId(id));
+            assertTrue(id < 1L << 40, "fits the platform index keys");
+            assertEquals(123_456L, TimetableExpander.patternIdOf(id));
+            assertEquals(date, TimetableExpander.dateOf(id));
+        }
+        assertFalse(TimetableExpander.isExpandedId(1_000_000_000L));
+    }
+
+    @Test
+    void findsTheDeparturesWhosePatternStillRuns() {
+        long runs = TimetableExpander.expandedId(7L, DATE);
+        long notThatDay = TimetableExpander.expandedId(9L, DATE);
+        long removed = TimetableExpander.expandedId(10L, DATE);
+        when(repository.findAllById(any())).thenReturn(List.of(morning, otherDay));
+
+        assertEquals(Set.of(runs), expander.findScheduled(List.of(runs, notThatDay, removed)));
+        verify(repository, times(1)).findAllById(any());
+    }
+
+    private static ServicePattern pattern(long id, String trainNumber, LocalTime departure, EnumSet<DayOfWeek> days) {
+        Train train = new Train(trainNumber, "Express " + trainNumber, "Here - There");
+        ServicePattern pattern = new ServicePattern(train, "Boston", departure, departure.plusHours(2), "A1",
+                days, LocalDate.now(), LocalDate.now().plusYears(1));
+        pattern.setId(id);
+        pattern.setStation(STATION);
+        return pattern;
+    }
+}